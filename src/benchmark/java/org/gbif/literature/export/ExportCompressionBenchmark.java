@@ -0,0 +1,141 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.export;
+
+import org.gbif.literature.config.LiteratureConfigProperties;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Export compression throughput against level, on a synthetic corpus of 10,000 TSV rows with
+ * abstracts. The {@code mb} counter is the uncompressed MB/s, {@code compressedMb} the MB/s sent to
+ * the client; their quotient is the compression ratio.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@State(Scope.Thread)
+public class ExportCompressionBenchmark {
+
+  private static final String[] WORDS = {
+    "species", "distribution", "occurrence", "records", "climate", "habitat", "model", "data",
+    "biodiversity", "GBIF", "population", "range", "shift", "analysis", "forest", "marine", "the",
+    "of", "and", "in", "with", "for", "using", "across", "Østfold", "São Paulo", "taxonomic"
+  };
+
+  @Param({"NONE", "GZIP", "ZSTD"})
+  public ExportCompression compression;
+
+  @Param({"1", "3", "6", "9"})
+  public int level;
+
+  private String corpus;
+  private ExportOutputFactory outputFactory;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(7);
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 10_000; i++) {
+      sb.append('"').append(sentence(random, 12)).append("\"\t\"");
+      sb.append(sentence(random, 3)).append("\"\t\"").append(2000 + random.nextInt(25));
+      sb.append("-01-01\"\t\"true\"\t\"").append(new UUID(random.nextLong(), random.nextLong()));
+      sb.append("\"\t\"").append(sentence(random, 150)).append("\"\n");
+    }
+    corpus = sb.toString();
+
+    LiteratureConfigProperties properties = new LiteratureConfigProperties();
+    properties.setBufferLimitBytesExport(0);
+    properties.setExportGzipLevel(level);
+    properties.setExportZstdLevel(level);
+    outputFactory = new ExportOutputFactory(properties, new SimpleMeterRegistry());
+  }
+
+  @Benchmark
+  public long export(Megabytes mb) throws IOException {
+    CountingSink sink = new CountingSink();
+    Utf8ExportWriter writer = outputFactory.open(sink, compression);
+    writer.write(corpus);
+    writer.close();
+    mb.count(writer.getBytesWritten(), sink.bytes);
+    return sink.bytes;
+  }
+
+  private static String sentence(Random random, int words) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < words; i++) {
+      if (i > 0) {
+        sb.append(' ');
+      }
+      sb.append(WORDS[random.nextInt(WORDS.length)]);
+    }
+    return sb.toString();
+  }
+
+  /** Uncompressed and compressed megabytes, reported by JMH as rates. */
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  @State(Scope.Thread)
+  public static class Megabytes {
+    public double mb;
+    public double compressedMb;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      mb = 0;
+      compressedMb = 0;
+    }
+
+    void count(long bytes, long compressedBytes) {
+      mb += bytes / 1_000_000d;
+      compressedMb += compressedBytes / 1_000_000d;
+    }
+  }
+
+  /** Discards what is written, counting it. */
+  private static final class CountingSink extends OutputStream {
+    private long bytes;
+
+    @Override
+    public void write(int b) {
+      bytes++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      bytes += len;
+    }
+  }
+}
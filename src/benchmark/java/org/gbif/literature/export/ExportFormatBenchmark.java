@@ -0,0 +1,239 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.export;
+
+import org.gbif.api.model.common.export.ExportFormat;
+import org.gbif.api.model.common.search.SearchResponse;
+import org.gbif.api.model.literature.search.LiteratureSearchParameter;
+import org.gbif.api.model.literature.search.LiteratureSearchRequest;
+import org.gbif.api.model.literature.search.LiteratureSearchResult;
+import org.gbif.literature.config.LiteratureConfigProperties;
+import org.gbif.literature.search.ExportSourcePage;
+import org.gbif.literature.search.ExportSourceScanner;
+import org.gbif.literature.search.LiteratureEsFieldMapper;
+import org.gbif.literature.search.LiteratureEsResponseParser;
+import org.gbif.literature.search.LiteratureSearchResultConverter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import co.elastic.clients.json.JsonpDeserializer;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Export of one page of 1,000 synthetic hits from the raw Elasticsearch response to UTF-8 bytes:
+ * TSV through the client's deserializer, the result converter and the compiled CSV columns,
+ * against the same TSV and JSON Lines transcoded from the sources. The {@code records} counter is
+ * the hits per second; run with {@code -prof gc} to compare allocation per page.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@State(Scope.Thread)
+public class ExportFormatBenchmark {
+
+  private static final int PAGE_SIZE = 1_000;
+  private static final String[] WORDS = {
+    "species", "distribution", "occurrence", "records", "climate", "habitat", "model", "data",
+    "biodiversity", "GBIF", "population", "range", "shift", "analysis", "forest", "marine", "the",
+    "of", "and", "in", "with", "for", "using", "across", "Østfold", "São Paulo"
+  };
+  private static final String[] COUNTRIES = {"DK", "BR", "US", "KE", "AU", "NO", "CO", "ID"};
+
+  private byte[] body;
+  private JacksonJsonpMapper jsonpMapper;
+  private JsonpDeserializer<co.elastic.clients.elasticsearch.core.SearchResponse<Object>>
+      deserializer;
+  private LiteratureEsResponseParser responseParser;
+  private LiteratureSearchRequest request;
+  private ExportOutputFactory outputFactory;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(7);
+    StringBuilder sb = new StringBuilder("{\"pit_id\":\"pit\",\"took\":12,\"timed_out\":false,");
+    sb.append("\"_shards\":{\"total\":1,\"successful\":1,\"skipped\":0,\"failed\":0},");
+    sb.append("\"hits\":{\"max_score\":null,\"hits\":[");
+    for (int i = 0; i < PAGE_SIZE; i++) {
+      String id = new UUID(random.nextLong(), random.nextLong()).toString();
+      sb.append(i > 0 ? "," : "").append("{\"_index\":\"literature\",\"_id\":\"").append(id);
+      sb.append("\",\"_score\":null,\"_source\":{\"id\":\"").append(id);
+      sb.append("\",\"title\":\"").append(sentence(random, 12));
+      sb.append("\",\"authors\":[{\"firstName\":\"Ana\",\"lastName\":\"Souza\"},");
+      sb.append("{\"firstName\":\"Lars\",\"lastName\":\"Jensen\"}]");
+      sb.append(",\"source\":\"").append(sentence(random, 3));
+      sb.append("\",\"createdAt\":\"").append(2000 + random.nextInt(25)).append("-03-14\"");
+      sb.append(",\"created\":\"2024-01-02T03:04:05.000Z\"");
+      sb.append(",\"openAccess\":").append(random.nextBoolean());
+      sb.append(",\"peerReview\":").append(random.nextBoolean());
+      sb.append(",\"countriesOfCoverage\":[\"").append(COUNTRIES[random.nextInt(8)]);
+      sb.append("\",\"").append(COUNTRIES[random.nextInt(8)]).append("\"]");
+      sb.append(",\"countriesOfResearcher\":[\"").append(COUNTRIES[random.nextInt(8)]);
+      sb.append("\"],\"keywords\":[\"").append(sentence(random, 2)).append("\"]");
+      sb.append(",\"literatureType\":\"journal\",\"topics\":[\"biodiversity_science\",\"ecology\"]");
+      sb.append(",\"relevance\":[\"gbif_used\"],\"language\":\"eng\",\"year\":2021");
+      sb.append(",\"identifiers\":{\"doi\":\"10.1000/").append(i).append("\"}");
+      sb.append(",\"abstract\":\"").append(sentence(random, 150)).append("\"}");
+      sb.append(",\"sort\":[").append(i).append(",\"").append(id).append("\"]}");
+    }
+    body = sb.append("]}}").toString().getBytes(StandardCharsets.UTF_8);
+
+    jsonpMapper = new JacksonJsonpMapper();
+    deserializer =
+        co.elastic.clients.elasticsearch.core.SearchResponse.createSearchResponseDeserializer(
+            JsonpDeserializer.of(Object.class));
+    responseParser =
+        new LiteratureEsResponseParser(
+            new LiteratureSearchResultConverter(), new LiteratureEsFieldMapper());
+    request = new LiteratureSearchRequest();
+    request.setLimit(PAGE_SIZE);
+
+    LiteratureConfigProperties properties = new LiteratureConfigProperties();
+    properties.setBufferLimitBytesExport(0);
+    outputFactory = new ExportOutputFactory(properties, new SimpleMeterRegistry());
+  }
+
+  @Benchmark
+  public long tsv(Records records) throws IOException {
+    co.elastic.clients.elasticsearch.core.SearchResponse<Object> esResponse =
+        deserializer.deserialize(
+            jsonpMapper.jsonProvider().createParser(new ByteArrayInputStream(body)), jsonpMapper);
+    SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> page =
+        responseParser.buildExportSearchResponse(esResponse, request);
+    page.setEndOfRecords(true);
+
+    CountingSink sink = new CountingSink();
+    Utf8ExportWriter writer = outputFactory.open(sink);
+    CsvWriter.literatureSearchResultCsvWriter(new OnePagePager(page), ExportFormat.TSV, 0)
+        .export(writer);
+    records.count(page.getResults().size());
+    return sink.bytes;
+  }
+
+  @Benchmark
+  public long jsonl(Records records) throws IOException {
+    ExportSourcePage page = ExportSourceScanner.scan(body, "pit", PAGE_SIZE + 1);
+
+    CountingSink sink = new CountingSink();
+    new JsonLinesWriter(new OnePageSourcePager(page)).export(outputFactory.open(sink));
+    records.count(page.getHits().size());
+    return sink.bytes;
+  }
+
+  @Benchmark
+  public long tsvSource(Records records) throws IOException {
+    ExportSourcePage page = ExportSourceScanner.scan(body, "pit", PAGE_SIZE + 1);
+
+    CountingSink sink = new CountingSink();
+    new SourceCsvWriter(new OnePageSourcePager(page), ExportFormat.TSV)
+        .export(outputFactory.open(sink));
+    records.count(page.getHits().size());
+    return sink.bytes;
+  }
+
+  private static String sentence(Random random, int words) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < words; i++) {
+      if (i > 0) {
+        sb.append(' ');
+      }
+      sb.append(WORDS[random.nextInt(WORDS.length)]);
+    }
+    return sb.toString();
+  }
+
+  /** Exported hits, reported by JMH as a rate. */
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  @State(Scope.Thread)
+  public static class Records {
+    public long records;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      records = 0;
+    }
+
+    void count(int hits) {
+      records += hits;
+    }
+  }
+
+  private static final class OnePagePager implements ExportPager {
+    private final SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> page;
+
+    private OnePagePager(SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> page) {
+      this.page = page;
+    }
+
+    @Override
+    public SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> nextPage() {
+      return page;
+    }
+
+    @Override
+    public void close() {}
+  }
+
+  private static final class OnePageSourcePager implements SourcePager {
+    private final ExportSourcePage page;
+
+    private OnePageSourcePager(ExportSourcePage page) {
+      this.page = page;
+    }
+
+    @Override
+    public ExportSourcePage nextPage() {
+      return page;
+    }
+
+    @Override
+    public void close() {}
+  }
+
+  /** Discards what is written, counting it. */
+  private static final class CountingSink extends OutputStream {
+    private long bytes;
+
+    @Override
+    public void write(int b) {
+      bytes++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      bytes += len;
+    }
+  }
+}
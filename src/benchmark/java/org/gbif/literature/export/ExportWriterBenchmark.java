@@ -0,0 +1,170 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.export;
+
+import org.gbif.literature.config.LiteratureConfigProperties;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Export output throughput: the UTF-8 byte pipeline against the writer stack it replaced, a
+ * {@link ByteCountingWriter} over a buffered {@link OutputStreamWriter}. Each operation writes 1
+ * MiB of CSV rows in the chunks the CSV encoder hands over; the {@code mb} counter reports MB/s and
+ * the gc profiler, on by default in the benchmark profile, the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ExportWriterBenchmark {
+
+  private static final long NO_LIMIT = Long.MAX_VALUE;
+
+  // discards the bytes and, unlike OutputStream.nullOutputStream(), survives being closed
+  private final OutputStream sink =
+      new OutputStream() {
+        @Override
+        public void write(int b) {}
+
+        @Override
+        public void write(byte[] b, int off, int len) {}
+      };
+  private char[] payload;
+  private ExportOutputFactory outputFactory;
+
+  @Setup
+  public void setup() {
+    String row =
+        "\"A survey of lichens in Østfold\",\"Anna Müller|José Nuñez\",\"Journal of Ecology\","
+            + "\"2021-03-04\",\"true\",\"true\",,\"NORWAY|SPAIN\",\"SPAIN\",\"lichens|épiphytes\","
+            + "\"JOURNAL\",,\"10.1234/abc\",\"7d6e4e1c-2d1f-4b4e-9c1a-0f0e2d3c4b5a\",,"
+            + "\"ECOLOGY\",\"2021-05-06T07:08:09.000Z\",\"0001234-210101012345678\"\r\n";
+    payload = row.repeat((1 << 20) / row.length() + 1).substring(0, 1 << 20).toCharArray();
+
+    LiteratureConfigProperties properties = new LiteratureConfigProperties();
+    properties.setBufferLimitBytesExport(NO_LIMIT);
+    outputFactory = new ExportOutputFactory(properties, new SimpleMeterRegistry());
+  }
+
+  @Benchmark
+  public long writerStack(Megabytes mb) throws IOException {
+    ByteCountingWriter writer =
+        new ByteCountingWriter(
+            new BufferedWriter(new OutputStreamWriter(sink, StandardCharsets.UTF_8)),
+            NO_LIMIT,
+            StandardCharsets.UTF_8);
+    write(writer);
+    writer.close();
+    mb.count(writer.getBytesWritten());
+    return writer.getBytesWritten();
+  }
+
+  @Benchmark
+  public long utf8Pipeline(Megabytes mb) throws IOException {
+    Utf8ExportWriter writer = outputFactory.open(sink);
+    write(writer);
+    writer.close();
+    mb.count(writer.getBytesWritten());
+    return writer.getBytesWritten();
+  }
+
+  private void write(Writer writer) throws IOException {
+    for (int off = 0; off < payload.length; off += CsvRowEncoder.FLUSH_CHARS) {
+      writer.write(payload, off, Math.min(CsvRowEncoder.FLUSH_CHARS, payload.length - off));
+    }
+  }
+
+  /**
+   * The byte counting of the replaced stack, which encoded every chunk a second time to count its
+   * bytes.
+   */
+  private static final class ByteCountingWriter extends Writer {
+
+    private final Writer delegate;
+    private final long maxBytes;
+    private final Charset charset;
+    private long bytesWritten;
+
+    ByteCountingWriter(Writer delegate, long maxBytes, Charset charset) {
+      this.delegate = delegate;
+      this.maxBytes = maxBytes;
+      this.charset = charset;
+    }
+
+    long getBytesWritten() {
+      return bytesWritten;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+      long additional = new String(cbuf, off, len).getBytes(charset).length;
+      if (bytesWritten + additional > maxBytes) {
+        throw new ExportLimitExceededException(
+            "Export exceeds maximum size of " + maxBytes + " bytes");
+      }
+      bytesWritten += additional;
+      delegate.write(cbuf, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+      delegate.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      delegate.close();
+    }
+  }
+
+  /** Encoded megabytes, reported by JMH as a rate. */
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  @State(Scope.Thread)
+  public static class Megabytes {
+    public double mb;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      mb = 0;
+    }
+
+    void count(long bytes) {
+      mb += bytes / 1_000_000d;
+    }
+  }
+}
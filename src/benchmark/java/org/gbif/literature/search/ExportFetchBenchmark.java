@@ -0,0 +1,168 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.search;
+
+import org.gbif.api.model.literature.search.LiteratureSearchParameter;
+import org.gbif.api.model.literature.search.LiteratureSearchRequest;
+import org.gbif.literature.export.ExportFields;
+import org.gbif.literature.export.ExportRequestSupport;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpHost;
+import org.apache.http.util.EntityUtils;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.RestClient;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.json.JsonpUtils;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+
+/**
+ * Export pages fetched from a local Elasticsearch holding a literature index, every column read
+ * from {@code _source} against the keyword, boolean and date columns read from doc values, for all
+ * columns and for a few. Each operation fetches the next page, starting over after the last one.
+ * The {@code tookMs} and {@code bytes} counters are the mean Elasticsearch {@code took} and the
+ * mean uncompressed response size of a page.
+ *
+ * <p>Reads {@code http://localhost:9200} and the {@code literature} index unless given others with
+ * {@code -jvmArgsAppend "-Des.url=... -Des.index=..."}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class ExportFetchBenchmark {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  @Param({"false", "true"})
+  public boolean docValueFields;
+
+  @Param({"all", "id,title,identifiers,gbifDownloadKey", "id,openAccess,literatureType,topics"})
+  public String fields;
+
+  @Param({"500"})
+  public int pageSize;
+
+  private RestClient restClient;
+  private JacksonJsonpMapper jsonpMapper;
+  private EsSearchRequestBuilder<LiteratureSearchParameter> requestBuilder;
+  private LiteratureExportRequest exportRequest;
+  private String index;
+  private List<FieldValue> searchAfter;
+
+  @Setup
+  public void setup() {
+    restClient =
+        RestClient.builder(HttpHost.create(System.getProperty("es.url", "http://localhost:9200")))
+            .build();
+    index = System.getProperty("es.index", "literature");
+    jsonpMapper = new JacksonJsonpMapper();
+    requestBuilder = new EsSearchRequestBuilder<>(new LiteratureEsFieldMapper());
+    exportRequest =
+        ExportRequestSupport.prepareForExport(
+            new LiteratureSearchRequest(),
+            pageSize,
+            "all".equals(fields) ? ExportFields.ALL : ExportFields.fromParameter(fields));
+    exportRequest.setDocValueFields(docValueFields);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    restClient.close();
+  }
+
+  @Benchmark
+  public int page(Pages pages) throws IOException {
+    SearchRequest searchRequest =
+        requestBuilder.buildExportSearchRequest(exportRequest, index, null, searchAfter);
+    Request request = new Request("POST", "/" + index + "/_search");
+    request.setJsonEntity(JsonpUtils.toJsonString(searchRequest, jsonpMapper));
+    byte[] body = EntityUtils.toByteArray(restClient.performRequest(request).getEntity());
+
+    ExportSourcePage page = ExportSourceScanner.scan(body, null, pageSize);
+    searchAfter = page.isEndOfRecords() ? null : page.getNextSearchAfter();
+    pages.count(took(body), body.length);
+    return page.getHits().size();
+  }
+
+  private static long took(byte[] body) throws IOException {
+    try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+      parser.nextToken();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.currentName();
+        parser.nextToken();
+        if ("took".equals(name)) {
+          return parser.getLongValue();
+        }
+        parser.skipChildren();
+      }
+    }
+    return 0;
+  }
+
+  /** Per-page means of what Elasticsearch reports and sends. */
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class Pages {
+    private long pages;
+    private long tookMs;
+    private long bytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      pages = 0;
+      tookMs = 0;
+      bytes = 0;
+    }
+
+    void count(long took, long size) {
+      pages++;
+      tookMs += took;
+      bytes += size;
+    }
+
+    public double tookMs() {
+      return pages > 0 ? (double) tookMs / pages : 0;
+    }
+
+    public double bytes() {
+      return pages > 0 ? (double) bytes / pages : 0;
+    }
+  }
+}
@@ -18,9 +18,11 @@ import org.springframework.boot.actuate.autoconfigure.elasticsearch.Elasticsearc
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(exclude = {ElasticsearchRestHealthContributorAutoConfiguration.class})
 @EnableConfigurationProperties
+@EnableScheduling
 @ComponentScan(basePackages = {"org.gbif.ws.server.mapper", "org.gbif.literature"})
 public class LiteratureApplication {
 
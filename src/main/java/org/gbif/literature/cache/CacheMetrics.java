@@ -0,0 +1,96 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.cache.Cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Micrometer meters of one cache, using the standard {@code cache.*} names so the usual cache
+ * dashboards apply. Hits and misses are counted here rather than by Guava because an entry of an
+ * older index generation is a miss even though Guava found it.
+ */
+class CacheMetrics {
+
+  private final String name;
+  private final MeterRegistry meterRegistry;
+  private final Counter hits;
+  private final Counter misses;
+  private final AtomicLong weight = new AtomicLong();
+
+  CacheMetrics(String name, MeterRegistry meterRegistry) {
+    this.name = name;
+    this.meterRegistry = meterRegistry;
+    this.hits =
+        Counter.builder("cache.gets")
+            .tag("cache", name)
+            .tag("result", "hit")
+            .description("Lookups answered from the cache")
+            .register(meterRegistry);
+    this.misses =
+        Counter.builder("cache.gets")
+            .tag("cache", name)
+            .tag("result", "miss")
+            .description("Lookups not answered from the cache")
+            .register(meterRegistry);
+    Gauge.builder("cache.hit.ratio", this, CacheMetrics::hitRatio)
+        .tag("cache", name)
+        .description("Fraction of lookups answered from the cache since startup")
+        .register(meterRegistry);
+    Gauge.builder("cache.weight", weight, AtomicLong::get)
+        .tag("cache", name)
+        .description("Estimated size of the cached entries in bytes")
+        .baseUnit("bytes")
+        .register(meterRegistry);
+  }
+
+  /** Registers the meters read from the cache itself. */
+  void monitor(Cache<?, ?> cache) {
+    FunctionCounter.builder("cache.evictions", cache, c -> c.stats().evictionCount())
+        .tag("cache", name)
+        .description("Entries evicted for size or age")
+        .register(meterRegistry);
+    Gauge.builder("cache.size", cache, Cache::size)
+        .tag("cache", name)
+        .description("Number of entries in the cache")
+        .register(meterRegistry);
+  }
+
+  void hit() {
+    hits.increment();
+  }
+
+  void miss() {
+    misses.increment();
+  }
+
+  void added(long bytes) {
+    weight.addAndGet(bytes);
+  }
+
+  void removed(long bytes) {
+    weight.addAndGet(-bytes);
+  }
+
+  private double hitRatio() {
+    double lookups = hits.count() + misses.count();
+    return lookups == 0 ? 0 : hits.count() / lookups;
+  }
+}
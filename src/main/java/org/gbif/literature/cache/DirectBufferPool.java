@@ -0,0 +1,80 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Direct buffers in power-of-two sizes, kept for reuse once released. A dropped direct buffer only
+ * gives its memory back when the garbage collector notices it, which may be long after the cache
+ * evicted it. At most {@code maxPooledBytes} are kept; buffers released beyond that are dropped.
+ */
+class DirectBufferPool {
+
+  private static final int MIN_SHIFT = 10;
+  private static final int MAX_SHIFT = 30;
+
+  private final long maxPooledBytes;
+  private final AtomicLong pooledBytes = new AtomicLong();
+  private final List<Queue<ByteBuffer>> free = new ArrayList<>();
+
+  DirectBufferPool(long maxPooledBytes) {
+    this.maxPooledBytes = maxPooledBytes;
+    for (int shift = MIN_SHIFT; shift <= MAX_SHIFT; shift++) {
+      free.add(new ConcurrentLinkedQueue<>());
+    }
+  }
+
+  /** A cleared buffer of at least {@code size} bytes. */
+  ByteBuffer acquire(int size) {
+    int shift = shiftFor(size);
+    if (shift > MAX_SHIFT) {
+      return ByteBuffer.allocateDirect(size);
+    }
+    ByteBuffer buffer = free.get(shift - MIN_SHIFT).poll();
+    if (buffer == null) {
+      return ByteBuffer.allocateDirect(1 << shift);
+    }
+    pooledBytes.addAndGet(-buffer.capacity());
+    return buffer;
+  }
+
+  /** Gives back a buffer from {@link #acquire}, which must no longer be read by anyone. */
+  void release(ByteBuffer buffer) {
+    int capacity = buffer.capacity();
+    int shift = shiftFor(capacity);
+    if (shift > MAX_SHIFT || 1 << shift != capacity) {
+      return;
+    }
+    if (pooledBytes.addAndGet(capacity) > maxPooledBytes) {
+      pooledBytes.addAndGet(-capacity);
+      return;
+    }
+    buffer.clear();
+    free.get(shift - MIN_SHIFT).offer(buffer);
+  }
+
+  long getPooledBytes() {
+    return pooledBytes.get();
+  }
+
+  private static int shiftFor(int size) {
+    return Math.max(MIN_SHIFT, 32 - Integer.numberOfLeadingZeros(Math.max(1, size) - 1));
+  }
+}
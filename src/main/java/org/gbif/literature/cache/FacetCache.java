@@ -0,0 +1,106 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.cache;
+
+import org.gbif.api.model.common.search.Facet;
+import org.gbif.api.model.literature.search.LiteratureSearchParameter;
+import org.gbif.literature.config.CacheConfigProperties;
+
+import java.util.List;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import lombok.Value;
+
+/**
+ * Facet counts and the total count of a search, keyed by the facet fingerprint, so that paging
+ * through results or toggling highlighting does not recompute the aggregations.
+ */
+@Component
+public class FacetCache {
+
+  /** Facets and total count of one query and filter combination. */
+  @Value
+  public static class Facets {
+    List<Facet<LiteratureSearchParameter>> facets;
+    long count;
+  }
+
+  // rough per-object overheads, enough to keep the weights proportional
+  private static final int FACET_BYTES = 64;
+  private static final int COUNT_BYTES = 48;
+
+  private final CacheConfigProperties.Facets properties;
+  private final IndexGenerationTracker generationTracker;
+  private final GenerationalCache<Facets> cache;
+
+  public FacetCache(
+      CacheConfigProperties cacheConfigProperties,
+      IndexGenerationTracker generationTracker,
+      MeterRegistry meterRegistry) {
+    this.properties = cacheConfigProperties.getFacets();
+    this.generationTracker = generationTracker;
+    this.cache =
+        new GenerationalCache<>(
+            "literature.facets",
+            properties.getMaximumWeight().toBytes(),
+            properties.getExpireAfterWrite(),
+            FacetCache::weigh,
+            meterRegistry);
+  }
+
+  /** The generation to pass to {@link #get} and {@link #put}, or null if nothing may be cached. */
+  public String generation() {
+    return properties.isEnabled() ? generationTracker.current() : null;
+  }
+
+  /** The cached facets, or null on a miss or without a facet fingerprint. */
+  public Facets get(String facetFingerprint, String generation) {
+    if (facetFingerprint == null || generation == null) {
+      return null;
+    }
+    return cache.get(facetFingerprint, generation);
+  }
+
+  public void put(
+      String facetFingerprint,
+      String generation,
+      List<Facet<LiteratureSearchParameter>> facets,
+      Long count) {
+    if (facetFingerprint != null && generation != null && facets != null && count != null) {
+      cache.put(facetFingerprint, generation, new Facets(facets, count));
+    }
+  }
+
+  @EventListener
+  public void onGenerationChanged(IndexGenerationChangedEvent event) {
+    cache.invalidateAll();
+  }
+
+  private static int weigh(Facets facets) {
+    int weight = 0;
+    for (Facet<LiteratureSearchParameter> facet : facets.getFacets()) {
+      weight += FACET_BYTES;
+      if (facet.getCounts() != null) {
+        for (Facet.Count count : facet.getCounts()) {
+          weight += COUNT_BYTES + 2 * (count.getName() != null ? count.getName().length() : 0);
+        }
+      }
+    }
+    return weight;
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.cache;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import lombok.Value;
+
+/**
+ * Weight-bounded cache whose entries are stamped with the index generation they were computed
+ * from. An entry of another generation is never returned as a hit.
+ */
+public class GenerationalCache<V> {
+
+  /** A cached value with the generation and time it was computed at. */
+  @Value
+  public static class Entry<V> {
+    V value;
+    String generation;
+    long storedAtMillis;
+    int weight;
+  }
+
+  private final Cache<String, Entry<V>> cache;
+  private final ToIntFunction<V> weigher;
+  private final CacheMetrics metrics;
+
+  public GenerationalCache(
+      String name,
+      long maximumWeight,
+      Duration expireAfterWrite,
+      ToIntFunction<V> weigher,
+      MeterRegistry meterRegistry) {
+    this(name, maximumWeight, expireAfterWrite, weigher, value -> {}, meterRegistry);
+  }
+
+  /**
+   * @param onRemoval called with each value that leaves the cache: evicted, expired, invalidated
+   *     or replaced
+   */
+  public GenerationalCache(
+      String name,
+      long maximumWeight,
+      Duration expireAfterWrite,
+      ToIntFunction<V> weigher,
+      Consumer<V> onRemoval,
+      MeterRegistry meterRegistry) {
+    this.weigher = weigher;
+    this.metrics = new CacheMetrics(name, meterRegistry);
+    this.cache =
+        CacheBuilder.newBuilder()
+            .maximumWeight(maximumWeight)
+            .<String, Entry<V>>weigher((key, entry) -> entry.getWeight())
+            .expireAfterWrite(expireAfterWrite)
+            .removalListener(
+                notification -> {
+                  if (notification.getValue() != null) {
+                    metrics.removed(notification.getValue().getWeight());
+                    onRemoval.accept(notification.getValue().getValue());
+                  }
+                })
+            .recordStats()
+            .build();
+    metrics.monitor(cache);
+  }
+
+  /** The value cached for the key and generation, or null on a miss. */
+  public V get(String key, String generation) {
+    return get(key, generation, entry -> true);
+  }
+
+  /**
+   * The value cached for the key and generation, or null on a miss. Entries rejected by {@code
+   * usable}, e.g. because they are too old for their kind, are misses too.
+   */
+  public V get(String key, String generation, Predicate<Entry<V>> usable) {
+    Entry<V> entry = cache.getIfPresent(key);
+    if (entry != null && entry.getGeneration().equals(generation) && usable.test(entry)) {
+      metrics.hit();
+      return entry.getValue();
+    }
+    metrics.miss();
+    return null;
+  }
+
+  /**
+   * The entry for the key whatever its generation, or null. Counts a hit only if the entry belongs
+   * to the given generation; callers may still serve an older entry as stale.
+   */
+  public Entry<V> lookup(String key, String generation) {
+    Entry<V> entry = cache.getIfPresent(key);
+    if (entry != null && entry.getGeneration().equals(generation)) {
+      metrics.hit();
+    } else {
+      metrics.miss();
+    }
+    return entry;
+  }
+
+  public void put(String key, String generation, V value) {
+    int weight = Math.max(1, weigher.applyAsInt(value));
+    Entry<V> entry = new Entry<>(value, generation, System.currentTimeMillis(), weight);
+    metrics.added(weight);
+    cache.put(key, entry);
+  }
+
+  public void invalidate(String key) {
+    cache.invalidate(key);
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  public long size() {
+    return cache.size();
+  }
+}
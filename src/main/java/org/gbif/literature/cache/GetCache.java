@@ -0,0 +1,96 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.cache;
+
+import org.gbif.api.model.literature.search.LiteratureSearchResult;
+import org.gbif.literature.config.CacheConfigProperties;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Read-through cache of literature items by id. Ids that were not found are cached too, for a
+ * shorter time, so repeated requests for unknown ids do not reach Elasticsearch.
+ */
+@Component
+public class GetCache {
+
+  private final CacheConfigProperties.Get properties;
+  private final IndexGenerationTracker generationTracker;
+  private final GenerationalCache<Optional<LiteratureSearchResult>> cache;
+  private final Counter positiveHits;
+  private final Counter negativeHits;
+
+  public GetCache(
+      CacheConfigProperties cacheConfigProperties,
+      IndexGenerationTracker generationTracker,
+      MeterRegistry meterRegistry) {
+    this.properties = cacheConfigProperties.getGet();
+    this.generationTracker = generationTracker;
+    // every entry weighs one, which makes the weight bound a size bound
+    this.cache =
+        new GenerationalCache<>(
+            "literature.get",
+            properties.getMaximumSize(),
+            properties.getExpireAfterWrite(),
+            item -> 1,
+            meterRegistry);
+    this.positiveHits = hitCounter("positive", meterRegistry);
+    this.negativeHits = hitCounter("negative", meterRegistry);
+  }
+
+  /** The cached item, or the loader's result, which is cached whether found or not. */
+  public Optional<LiteratureSearchResult> get(
+      String id, Supplier<Optional<LiteratureSearchResult>> loader) {
+    String generation = generationTracker.current();
+    if (!properties.isEnabled() || generation == null) {
+      return loader.get();
+    }
+
+    long notFoundTtl = properties.getNotFoundExpireAfterWrite().toMillis();
+    Optional<LiteratureSearchResult> item =
+        cache.get(
+            id,
+            generation,
+            entry ->
+                entry.getValue().isPresent()
+                    || System.currentTimeMillis() - entry.getStoredAtMillis() < notFoundTtl);
+    if (item != null) {
+      (item.isPresent() ? positiveHits : negativeHits).increment();
+      return item;
+    }
+
+    item = loader.get();
+    cache.put(id, generation, item);
+    return item;
+  }
+
+  @EventListener
+  public void onGenerationChanged(IndexGenerationChangedEvent event) {
+    cache.invalidateAll();
+  }
+
+  private static Counter hitCounter(String entry, MeterRegistry meterRegistry) {
+    return Counter.builder("literature.cache.get.hits")
+        .description("Get by id cache hits, by whether the id was found")
+        .tag("entry", entry)
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.cache;
+
+import org.gbif.api.model.common.search.FacetedSearchRequest;
+import org.gbif.api.model.common.search.SearchParameter;
+import org.gbif.api.model.common.search.SearchResponse;
+import org.gbif.api.model.literature.search.LiteratureSearchResult;
+import org.gbif.literature.config.HttpCacheConfigProperties;
+import org.gbif.literature.search.PartialSearchResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Objects;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * Strong {@code ETag}s and {@code Cache-Control} values for search, facet and get responses. An
+ * ETag combines the endpoint, the request fingerprint and the index generation, so it can be
+ * checked against {@code If-None-Match} before anything is read from Elasticsearch and stays valid
+ * until the alias moves to a new index.
+ */
+@Component
+public class HttpCachePolicy {
+
+  /** Endpoints with their own {@code Cache-Control}. */
+  public enum Endpoint {
+    SEARCH,
+    FACETS,
+    GET
+  }
+
+  /** ETag variant of a gzip-encoded body; an identity body has the empty variant. */
+  public static final String GZIP_VARIANT = "gz";
+
+  private final HttpCacheConfigProperties properties;
+  private final IndexGenerationTracker generationTracker;
+
+  public HttpCachePolicy(
+      HttpCacheConfigProperties properties, IndexGenerationTracker generationTracker) {
+    this.properties = properties;
+    this.generationTracker = generationTracker;
+  }
+
+  public boolean isEnabled() {
+    return properties.isEnabled();
+  }
+
+  /** Facet-only searches are {@link Endpoint#FACETS}, other searches {@link Endpoint#SEARCH}. */
+  public static Endpoint endpointOf(FacetedSearchRequest<? extends SearchParameter> request) {
+    return request.getLimit() == 0
+            && request.getFacets() != null
+            && !request.getFacets().isEmpty()
+        ? Endpoint.FACETS
+        : Endpoint.SEARCH;
+  }
+
+  /**
+   * The ETag of a response, or null while the generation is unknown. The variant distinguishes
+   * representations of the same request, such as gzip-encoded bodies.
+   */
+  public String etag(Endpoint endpoint, String key, String variant) {
+    String generation = generationTracker.current();
+    if (!isEnabled() || generation == null || key == null) {
+      return null;
+    }
+    String value = endpoint + "\n" + generation + "\n" + key + "\n" + variant;
+    return '"' + Hashing.murmur3_128().hashString(value, StandardCharsets.UTF_8).toString() + '"';
+  }
+
+  /** The ETag variant of a response body, from the encoding it is actually written in. */
+  public static String variantOf(Object body) {
+    return body instanceof ResponseBytes bytes
+            && ResponseBytesCache.GZIP.equals(bytes.getContentEncoding())
+        ? GZIP_VARIANT
+        : "";
+  }
+
+  /** True if an {@code If-None-Match} header value matches the ETag, using weak comparison. */
+  public static boolean matches(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null || etag == null) {
+      return false;
+    }
+    for (String candidate : ifNoneMatch.split(",")) {
+      String tag = candidate.trim();
+      if ("*".equals(tag)) {
+        return true;
+      }
+      if (tag.startsWith("W/")) {
+        tag = tag.substring(2);
+      }
+      if (tag.equals(etag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Headers for a response: {@code Cache-Control}, plus the ETag and {@code Last-Modified} when
+   * known. Partial responses get the partial policy and no validators.
+   */
+  public HttpHeaders headers(Endpoint endpoint, String etag, long lastModified, boolean partial) {
+    HttpHeaders headers = new HttpHeaders();
+    if (!isEnabled()) {
+      return headers;
+    }
+    String cacheControl =
+        partial ? properties.getCacheControl().getPartial() : cacheControl(endpoint);
+    if (cacheControl != null && !cacheControl.isEmpty()) {
+      headers.setCacheControl(cacheControl);
+    }
+    if (partial) {
+      return headers;
+    }
+    if (etag != null) {
+      headers.setETag(etag);
+    }
+    if (lastModified > 0) {
+      headers.setLastModified(lastModified);
+    }
+    return headers;
+  }
+
+  /** The latest {@code modified} date of the results, or -1 if there is none. */
+  public static long lastModified(Object response) {
+    if (response instanceof LiteratureSearchResult result) {
+      return time(result.getModified());
+    }
+    if (response instanceof SearchResponse<?, ?> searchResponse
+        && searchResponse.getResults() != null) {
+      return searchResponse.getResults().stream()
+          .filter(LiteratureSearchResult.class::isInstance)
+          .map(r -> ((LiteratureSearchResult) r).getModified())
+          .filter(Objects::nonNull)
+          .mapToLong(Date::getTime)
+          .max()
+          .orElse(-1);
+    }
+    return -1;
+  }
+
+  public static boolean isPartial(Object response) {
+    return response instanceof PartialSearchResponse;
+  }
+
+  private String cacheControl(Endpoint endpoint) {
+    HttpCacheConfigProperties.CacheControl cacheControl = properties.getCacheControl();
+    return switch (endpoint) {
+      case SEARCH -> cacheControl.getSearch();
+      case FACETS -> cacheControl.getFacets();
+      case GET -> cacheControl.getGet();
+    };
+  }
+
+  private static long time(Date date) {
+    return date != null ? date.getTime() : -1;
+  }
+}
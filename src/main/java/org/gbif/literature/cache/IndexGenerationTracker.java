@@ -0,0 +1,121 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.cache;
+
+import org.gbif.literature.config.EsClientConfigProperties;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.indices.GetIndexResponse;
+import co.elastic.clients.elasticsearch.indices.IndexSettings;
+import co.elastic.clients.elasticsearch.indices.get.Feature;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Tracks the index generation: the names and UUIDs of the concrete indices behind the search
+ * alias. A re-index creates a new index and moves the alias, which changes the generation.
+ */
+@Slf4j
+@Component
+public class IndexGenerationTracker {
+
+  private final ElasticsearchClient elasticsearchClient;
+  private final ApplicationEventPublisher eventPublisher;
+  private final String index;
+  private volatile String generation;
+  private volatile BooleanSupplier coordinated = () -> false;
+
+  public IndexGenerationTracker(
+      ElasticsearchClient elasticsearchClient,
+      ApplicationEventPublisher eventPublisher,
+      EsClientConfigProperties esClientConfigProperties) {
+    this.elasticsearchClient = elasticsearchClient;
+    this.eventPublisher = eventPublisher;
+    this.index = esClientConfigProperties.getIndex();
+  }
+
+  /** The current generation, or null while it is unknown, in which case nothing is cached. */
+  public String current() {
+    return generation;
+  }
+
+  /**
+   * Hands polling over to a cluster coordinator, which then calls {@link #update}. Local polling
+   * resumes whenever {@code coordinated} returns false, e.g. while ZooKeeper is unreachable.
+   */
+  public void setCoordinated(BooleanSupplier coordinated) {
+    this.coordinated = coordinated;
+  }
+
+  @Scheduled(fixedDelayString = "${literature.cache.generation-poll-interval:30s}")
+  public void poll() {
+    if (coordinated.getAsBoolean()) {
+      return;
+    }
+    try {
+      update(fetchGeneration());
+    } catch (Exception e) {
+      log.warn("Could not read the index generation of {}", index, e);
+    }
+  }
+
+  /** Reads the generation from Elasticsearch. */
+  public String fetchGeneration() throws IOException {
+    GetIndexResponse response =
+        elasticsearchClient.indices().get(g -> g.index(index).features(Feature.Settings));
+    Map<String, String> concreteIndices = new TreeMap<>();
+    response
+        .indices()
+        .forEach((name, state) -> concreteIndices.put(name, uuid(state.settings())));
+    return concreteIndices.entrySet().stream()
+        .map(e -> e.getKey() + ":" + e.getValue())
+        .collect(Collectors.joining(","));
+  }
+
+  /** Sets the generation, publishing an {@link IndexGenerationChangedEvent} if it changed. */
+  public synchronized void update(String newGeneration) {
+    if (newGeneration == null || newGeneration.isEmpty()) {
+      return;
+    }
+    String previous = generation;
+    if (!Objects.equals(previous, newGeneration)) {
+      generation = newGeneration;
+      log.info("Index generation changed from {} to {}", previous, newGeneration);
+      eventPublisher.publishEvent(new IndexGenerationChangedEvent(previous, newGeneration));
+    }
+  }
+
+  private static String uuid(IndexSettings settings) {
+    if (settings == null) {
+      return "";
+    }
+    if (settings.uuid() != null) {
+      return settings.uuid();
+    }
+    return settings.index() != null && settings.index().uuid() != null
+        ? settings.index().uuid()
+        : "";
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.cache;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A response body that is already serialized, possibly compressed. The buffer is read-only and
+ * shared, so readers must work on a {@link ByteBuffer#duplicate() duplicate}, and {@link
+ * #release() released} once written, after which the buffer may be reused.
+ */
+public class ResponseBytes {
+
+  private final ByteBuffer body;
+  private final String contentEncoding;
+  private final long lastModified;
+  private final Runnable onRelease;
+  private final AtomicBoolean released = new AtomicBoolean();
+
+  public ResponseBytes(ByteBuffer body, String contentEncoding) {
+    this(body, contentEncoding, -1);
+  }
+
+  public ResponseBytes(ByteBuffer body, String contentEncoding, long lastModified) {
+    this(body, contentEncoding, lastModified, null);
+  }
+
+  public ResponseBytes(
+      ByteBuffer body, String contentEncoding, long lastModified, Runnable onRelease) {
+    this.body = body.asReadOnlyBuffer();
+    this.contentEncoding = contentEncoding;
+    this.lastModified = lastModified;
+    this.onRelease = onRelease;
+  }
+
+  /** A fresh view of the body, positioned at its start. */
+  public ByteBuffer body() {
+    return body.duplicate();
+  }
+
+  public int length() {
+    return body.remaining();
+  }
+
+  /** The {@code Content-Encoding} of the body, or null if it is not encoded. */
+  public String getContentEncoding() {
+    return contentEncoding;
+  }
+
+  /** When the latest result of the response was modified, in epoch millis, or -1 if unknown. */
+  public long getLastModified() {
+    return lastModified;
+  }
+
+  /** The body has been written and will not be read again. Later calls are no-ops. */
+  public void release() {
+    if (onRelease != null && released.compareAndSet(false, true)) {
+      onRelease.run();
+    }
+  }
+}
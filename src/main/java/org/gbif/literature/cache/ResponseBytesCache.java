@@ -0,0 +1,213 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.cache;
+
+import org.gbif.literature.config.CacheConfigProperties;
+import org.gbif.literature.search.PartialSearchResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Search responses as the final JSON bytes, plus a gzip-compressed copy, held off-heap in direct
+ * buffers. A hit is written to the client without serializing or compressing anything and without
+ * touching the heap beyond a small wrapper.
+ *
+ * <p>Entries are reference counted, so the buffers of an evicted entry go back to a pool once the
+ * responses still writing them are done, instead of waiting for the garbage collector.
+ */
+@Component
+public class ResponseBytesCache {
+
+  static final String GZIP = "gzip";
+
+  /** Both encodings of one response. */
+  private static final class Encoded {
+    private final ByteBuffer identity;
+    private final ByteBuffer gzip;
+    private final long lastModified;
+    // one for the cache and one per response being written
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    private Encoded(ByteBuffer identity, ByteBuffer gzip, long lastModified) {
+      this.identity = identity;
+      this.gzip = gzip;
+      this.lastModified = lastModified;
+    }
+
+    private int size() {
+      return identity.capacity() + (gzip != null ? gzip.capacity() : 0);
+    }
+
+    /** Takes a reference, unless the buffers were already given back. */
+    private boolean retain() {
+      int count;
+      do {
+        count = references.get();
+        if (count == 0) {
+          return false;
+        }
+      } while (!references.compareAndSet(count, count + 1));
+      return true;
+    }
+
+    private void release(DirectBufferPool pool) {
+      if (references.decrementAndGet() == 0) {
+        pool.release(identity);
+        if (gzip != null) {
+          pool.release(gzip);
+        }
+      }
+    }
+  }
+
+  private final CacheConfigProperties.Bytes properties;
+  private final IndexGenerationTracker generationTracker;
+  private final ObjectMapper objectMapper;
+  private final DirectBufferPool bufferPool;
+  private final GenerationalCache<Encoded> cache;
+
+  public ResponseBytesCache(
+      CacheConfigProperties cacheConfigProperties,
+      IndexGenerationTracker generationTracker,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry) {
+    this.properties = cacheConfigProperties.getBytes();
+    this.generationTracker = generationTracker;
+    this.objectMapper = objectMapper;
+    this.bufferPool = new DirectBufferPool(properties.getPoolSize().toBytes());
+    this.cache =
+        new GenerationalCache<>(
+            "literature.search.bytes",
+            properties.getMaximumWeight().toBytes(),
+            properties.getExpireAfterWrite(),
+            Encoded::size,
+            encoded -> encoded.release(bufferPool),
+            meterRegistry);
+  }
+
+  public boolean isEnabled() {
+    return properties.isEnabled();
+  }
+
+  /** The generation to pass to {@link #store}, read before the response is computed. */
+  public String generation() {
+    return generationTracker.current();
+  }
+
+  /**
+   * The cached bytes in the best encoding the client accepts, or null on a miss. The caller must
+   * {@link ResponseBytes#release() release} them once written.
+   */
+  public ResponseBytes get(String fingerprint, boolean acceptsGzip) {
+    String generation = generationTracker.current();
+    if (!isEnabled() || generation == null) {
+      return null;
+    }
+    Encoded encoded = cache.get(fingerprint, generation);
+    return encoded != null && encoded.retain() ? select(encoded, acceptsGzip) : null;
+  }
+
+  /**
+   * Whether {@link #store} would keep the response: not partial and of a known generation. Others
+   * are better left to the regular message converters than serialized here.
+   */
+  public boolean isCacheable(String generation, Object response) {
+    return isEnabled() && generation != null && !(response instanceof PartialSearchResponse);
+  }
+
+  /**
+   * Serializes the response and caches its bytes, copied off-heap and compressed, if it is
+   * {@link #isCacheable cacheable}. The caller must {@link ResponseBytes#release() release} them
+   * once written.
+   */
+  public ResponseBytes store(
+      String fingerprint, String generation, Object response, boolean acceptsGzip) {
+    try {
+      byte[] json = objectMapper.writeValueAsBytes(response);
+      long lastModified = HttpCachePolicy.lastModified(response);
+      if (!isCacheable(generation, response)) {
+        return new ResponseBytes(ByteBuffer.wrap(json), null, lastModified);
+      }
+      ByteBuffer gzip =
+          properties.isGzip() && json.length >= properties.getGzipMinSize().toBytes()
+              ? offHeap(gzip(json))
+              : null;
+      Encoded encoded = new Encoded(offHeap(json), gzip, lastModified);
+      // taken for the caller before the cache may evict it
+      encoded.retain();
+      cache.put(fingerprint, generation, encoded);
+      return select(encoded, acceptsGzip);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @EventListener
+  public void onGenerationChanged(IndexGenerationChangedEvent event) {
+    cache.invalidateAll();
+  }
+
+  /** Pooled direct memory not in use by any entry. */
+  long getPooledBytes() {
+    return bufferPool.getPooledBytes();
+  }
+
+  private ResponseBytes select(Encoded encoded, boolean acceptsGzip) {
+    Runnable release = () -> encoded.release(bufferPool);
+    return acceptsGzip && encoded.gzip != null
+        ? new ResponseBytes(encoded.gzip, GZIP, encoded.lastModified, release)
+        : new ResponseBytes(encoded.identity, null, encoded.lastModified, release);
+  }
+
+  private ByteBuffer offHeap(byte[] bytes) {
+    ByteBuffer buffer = bufferPool.acquire(bytes.length);
+    buffer.put(bytes).flip();
+    return buffer;
+  }
+
+  private static byte[] gzip(byte[] bytes) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(bytes);
+    }
+    return out.toByteArray();
+  }
+
+  /** True if an {@code Accept-Encoding} header value allows gzip. */
+  public static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.trim().split(";");
+      String name = parts[0].trim();
+      if (GZIP.equalsIgnoreCase(name) || "*".equals(name)) {
+        return parts.length < 2 || !parts[1].trim().matches("q\\s*=\\s*0(\\.0*)?");
+      }
+    }
+    return false;
+  }
+}
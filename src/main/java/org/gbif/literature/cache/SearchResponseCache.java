@@ -0,0 +1,273 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.cache;
+
+import org.gbif.api.model.common.search.Facet;
+import org.gbif.api.model.common.search.SearchResponse;
+import org.gbif.api.model.literature.search.LiteratureSearchParameter;
+import org.gbif.api.model.literature.search.LiteratureSearchResult;
+import org.gbif.literature.concurrency.ConcurrencyLimitExceededException;
+import org.gbif.literature.concurrency.TimeBudgetExceededException;
+import org.gbif.literature.config.CacheConfigProperties;
+import org.gbif.literature.search.PartialSearchResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Parsed search responses by request fingerprint, for the current index generation. Partial
+ * responses are never cached.
+ *
+ * <p>Entries go stale when their generation is replaced or they outlive {@code expireAfterWrite},
+ * and are then kept a while to be served stale: immediately while a fresh response is computed in
+ * the background, or instead of an error when Elasticsearch is failing. How long depends on the
+ * time since they went stale, not on their age.
+ */
+@Slf4j
+@Component
+public class SearchResponseCache {
+
+  // approximate JSON sizes of the parts of a response that are not free text
+  private static final int RESPONSE_BYTES = 256;
+  private static final int RESULT_BYTES = 1024;
+  private static final int FACET_COUNT_BYTES = 48;
+
+  private final CacheConfigProperties.Search properties;
+  private final CacheConfigProperties.Stale staleProperties;
+  private final IndexGenerationTracker generationTracker;
+  private final GenerationalCache<SearchResponse<LiteratureSearchResult, LiteratureSearchParameter>>
+      cache;
+  private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+  // when each generation was replaced, while entries of it may remain
+  private final Map<String, Long> replacedAt = new ConcurrentHashMap<>();
+  private final Counter staleWhileRevalidate;
+  private final Counter staleIfError;
+
+  public SearchResponseCache(
+      CacheConfigProperties cacheConfigProperties,
+      IndexGenerationTracker generationTracker,
+      MeterRegistry meterRegistry) {
+    this.properties = cacheConfigProperties.getSearch();
+    this.staleProperties = cacheConfigProperties.getStale();
+    this.generationTracker = generationTracker;
+    this.cache =
+        new GenerationalCache<>(
+            "literature.search",
+            properties.getMaximumWeight().toBytes(),
+            retention(),
+            SearchResponseCache::estimatedSize,
+            meterRegistry);
+    this.staleWhileRevalidate = staleCounter("revalidate", meterRegistry);
+    this.staleIfError = staleCounter("error", meterRegistry);
+  }
+
+  /** The cached response for the fingerprint, or the loader's response, cached if complete. */
+  public SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> get(
+      String fingerprint,
+      Supplier<SearchResponse<LiteratureSearchResult, LiteratureSearchParameter>> loader) {
+    return get(fingerprint, loader, null).getValue();
+  }
+
+  /**
+   * The cached response for the fingerprint, possibly stale, or the loader's response.
+   *
+   * @param refresher runs background refreshes of stale entries; null disables serving stale
+   *     entries while revalidating
+   */
+  public Served<SearchResponse<LiteratureSearchResult, LiteratureSearchParameter>> get(
+      String fingerprint,
+      Supplier<SearchResponse<LiteratureSearchResult, LiteratureSearchParameter>> loader,
+      Executor refresher) {
+    // read before loading, so a response computed across a re-index is filed under the old one
+    String generation = generationTracker.current();
+    if (!properties.isEnabled() || generation == null) {
+      return Served.fresh(loader.get());
+    }
+
+    GenerationalCache.Entry<SearchResponse<LiteratureSearchResult, LiteratureSearchParameter>>
+        entry = cache.lookup(fingerprint, generation);
+    long now = System.currentTimeMillis();
+    long stale = entry != null ? staleMillis(entry, generation, now) : Long.MAX_VALUE;
+    if (stale < 0) {
+      return Served.fresh(entry.getValue());
+    }
+
+    long age = entry != null ? Math.max(0, now - entry.getStoredAtMillis()) : Long.MAX_VALUE;
+    if (staleProperties.isEnabled()
+        && refresher != null
+        && stale <= staleProperties.getMaxStaleWhileRevalidate().toMillis()) {
+      refresh(fingerprint, generation, loader, refresher);
+      staleWhileRevalidate.increment();
+      return Served.stale(
+          entry.getValue(), TimeUnit.MILLISECONDS.toSeconds(age), Served.RESPONSE_IS_STALE);
+    }
+
+    try {
+      return Served.fresh(load(fingerprint, generation, loader));
+    } catch (RuntimeException e) {
+      if (staleProperties.isEnabled()
+          && stale <= staleProperties.getMaxStaleIfError().toMillis()
+          && isUnavailable(e)) {
+        log.warn("Serving a stale response for {} after: {}", fingerprint, e.getMessage());
+        staleIfError.increment();
+        return Served.stale(
+            entry.getValue(), TimeUnit.MILLISECONDS.toSeconds(age), Served.REVALIDATION_FAILED);
+      }
+      throw e;
+    }
+  }
+
+  @EventListener
+  public void onGenerationChanged(IndexGenerationChangedEvent event) {
+    // older entries are kept while they may still be served stale
+    if (!staleProperties.isEnabled()) {
+      cache.invalidateAll();
+      return;
+    }
+    long now = System.currentTimeMillis();
+    if (event.getPrevious() != null) {
+      replacedAt.putIfAbsent(event.getPrevious(), now);
+    }
+    replacedAt.remove(event.getCurrent());
+    replacedAt.values().removeIf(at -> at < now - retention().toMillis());
+  }
+
+  private SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> load(
+      String fingerprint,
+      String generation,
+      Supplier<SearchResponse<LiteratureSearchResult, LiteratureSearchParameter>> loader) {
+    SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> response = loader.get();
+    if (!(response instanceof PartialSearchResponse)) {
+      cache.put(fingerprint, generation, response);
+    }
+    return response;
+  }
+
+  /** Recomputes the entry in the background, at most once at a time per fingerprint. */
+  private void refresh(
+      String fingerprint,
+      String generation,
+      Supplier<SearchResponse<LiteratureSearchResult, LiteratureSearchParameter>> loader,
+      Executor refresher) {
+    if (!refreshing.add(fingerprint)) {
+      return;
+    }
+    try {
+      refresher.execute(
+          () -> {
+            try {
+              load(fingerprint, generation, loader);
+            } catch (RuntimeException e) {
+              log.debug("Background refresh of {} failed", fingerprint, e);
+            } finally {
+              refreshing.remove(fingerprint);
+            }
+          });
+    } catch (RuntimeException e) {
+      // no capacity for a refresh now, a later request will try again
+      refreshing.remove(fingerprint);
+    }
+  }
+
+  /** True for failures caused by an unavailable or overloaded cluster, not by the request. */
+  static boolean isUnavailable(Throwable e) {
+    if (e instanceof TimeBudgetExceededException
+        || e instanceof ConcurrencyLimitExceededException
+        || e instanceof UncheckedIOException) {
+      return true;
+    }
+    if (e instanceof ElasticsearchException esException) {
+      return esException.status() == 429 || esException.status() >= 500;
+    }
+    return e.getCause() instanceof IOException;
+  }
+
+  /**
+   * Milliseconds since the entry went stale, negative while it is fresh. An entry whose generation
+   * was replaced before this instance saw it counts as stale since it was stored.
+   */
+  private long staleMillis(GenerationalCache.Entry<?> entry, String generation, long now) {
+    long staleAt = entry.getStoredAtMillis() + properties.getExpireAfterWrite().toMillis();
+    if (!entry.getGeneration().equals(generation)) {
+      staleAt =
+          Math.min(
+              staleAt, replacedAt.getOrDefault(entry.getGeneration(), entry.getStoredAtMillis()));
+    }
+    return now - staleAt;
+  }
+
+  /** How long entries are kept: fresh, then while they may be served stale. */
+  private Duration retention() {
+    Duration retention = properties.getExpireAfterWrite();
+    if (staleProperties.isEnabled()) {
+      Duration stale = staleProperties.getMaxStaleIfError();
+      if (staleProperties.getMaxStaleWhileRevalidate().compareTo(stale) > 0) {
+        stale = staleProperties.getMaxStaleWhileRevalidate();
+      }
+      retention = retention.plus(stale);
+    }
+    return retention;
+  }
+
+  private static Counter staleCounter(String reason, MeterRegistry meterRegistry) {
+    return Counter.builder("literature.cache.stale.served")
+        .description("Stale search responses served, by reason")
+        .tag("reason", reason)
+        .register(meterRegistry);
+  }
+
+  /**
+   * The approximate JSON size of the response, a stable approximation of its footprint: a fixed
+   * size per result and facet count, plus the titles and abstracts that make most of a result's
+   * size. Cheap enough to run on every put, unlike serializing the response.
+   */
+  static int estimatedSize(
+      SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> response) {
+    long size = RESPONSE_BYTES;
+    if (response.getResults() != null) {
+      for (LiteratureSearchResult result : response.getResults()) {
+        size += RESULT_BYTES + length(result.getTitle()) + length(result.getAbstract());
+      }
+    }
+    if (response.getFacets() != null) {
+      for (Facet<LiteratureSearchParameter> facet : response.getFacets()) {
+        if (facet.getCounts() != null) {
+          size += (long) facet.getCounts().size() * FACET_COUNT_BYTES;
+        }
+      }
+    }
+    return (int) Math.min(Integer.MAX_VALUE, size);
+  }
+
+  private static int length(String text) {
+    return text != null ? text.length() : 0;
+  }
+}
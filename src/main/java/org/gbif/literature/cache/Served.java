@@ -0,0 +1,44 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.cache;
+
+import lombok.Value;
+
+/** A response together with whether it is a stale cached copy, and why it was served. */
+@Value
+public class Served<T> {
+
+  /** {@code Warning} header values for stale responses (RFC 7234, section 5.5). */
+  public static final String RESPONSE_IS_STALE = "110 - \"Response is Stale\"";
+
+  public static final String REVALIDATION_FAILED = "111 - \"Revalidation Failed\"";
+
+  T value;
+
+  boolean stale;
+
+  /** Age of the cached copy in seconds, zero for a fresh response. */
+  long ageSeconds;
+
+  /** {@code Warning} header value, null for a fresh response. */
+  String warning;
+
+  public static <T> Served<T> fresh(T value) {
+    return new Served<>(value, false, 0, null);
+  }
+
+  public static <T> Served<T> stale(T value, long ageSeconds, String warning) {
+    return new Served<>(value, true, ageSeconds, warning);
+  }
+}
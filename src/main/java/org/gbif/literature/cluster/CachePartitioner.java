@@ -0,0 +1,127 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.cluster;
+
+import org.gbif.literature.config.ClusterConfigProperties;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Assigns request fingerprints to the instances registered in service discovery, using a
+ * {@link ConsistentHashRing} of {@code host:port} ids. This instance is always on its own ring, so
+ * during a discovery lag a request is at worst answered by the instance it was forwarded to.
+ */
+@Slf4j
+@Component
+public class CachePartitioner {
+
+  private final ClusterConfigProperties.Partitioning config;
+  private final DiscoveryClient discoveryClient;
+  private final String serviceId;
+  private final String self;
+  private volatile ConsistentHashRing ring;
+  private volatile Map<String, URI> peers = Map.of();
+
+  @Autowired
+  public CachePartitioner(
+      ClusterConfigProperties clusterConfigProperties,
+      ObjectProvider<DiscoveryClient> discoveryClient,
+      ObjectProvider<Registration> registration) {
+    this(
+        clusterConfigProperties.getPartitioning(),
+        discoveryClient.getIfAvailable(),
+        registration.getIfAvailable());
+  }
+
+  CachePartitioner(
+      ClusterConfigProperties.Partitioning config,
+      DiscoveryClient discoveryClient,
+      Registration registration) {
+    this.config = config;
+    this.discoveryClient = discoveryClient;
+    this.serviceId = registration != null ? registration.getServiceId() : null;
+    this.self = registration != null ? nodeId(registration) : null;
+    this.ring = new ConsistentHashRing(self != null ? List.of(self) : List.of(), 1);
+    if (config.isEnabled() && (config.getSecret() == null || config.getSecret().isBlank())) {
+      log.warn("Cache partitioning needs a shared secret, caches stay local");
+    } else if (config.isEnabled() && !isEnabled()) {
+      log.warn("Cache partitioning needs service discovery to be enabled, caches stay local");
+    }
+  }
+
+  public boolean isEnabled() {
+    return config.isEnabled()
+        && config.getSecret() != null
+        && !config.getSecret().isBlank()
+        && discoveryClient != null
+        && self != null;
+  }
+
+  @Scheduled(fixedDelayString = "${literature.cluster.partitioning.refresh-interval:10s}")
+  public void refresh() {
+    if (!isEnabled()) {
+      return;
+    }
+    try {
+      update(discoveryClient.getInstances(serviceId));
+    } catch (Exception e) {
+      log.warn("Could not read the instances of {}, keeping the previous ring", serviceId, e);
+    }
+  }
+
+  /** Rebuilds the ring if the set of instances changed. */
+  void update(List<ServiceInstance> instances) {
+    Map<String, URI> found = new HashMap<>();
+    instances.forEach(i -> found.put(nodeId(i), i.getUri()));
+    found.putIfAbsent(self, null);
+    if (!found.keySet().equals(ring.nodes())) {
+      ring = new ConsistentHashRing(found.keySet(), config.getVirtualNodes());
+      log.info("Cache partitions spread over {} instances: {}", found.size(), ring.nodes());
+    }
+    peers = found;
+  }
+
+  /**
+   * The base URI of the instance owning the fingerprint, or empty if this instance owns it or
+   * partitioning is off.
+   */
+  public Optional<URI> ownerOf(String fingerprint) {
+    if (!isEnabled()) {
+      return Optional.empty();
+    }
+    String owner = ring.owner(fingerprint);
+    if (owner == null || owner.equals(self)) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(peers.get(owner));
+  }
+
+  private static String nodeId(ServiceInstance instance) {
+    return instance.getHost() + ':' + instance.getPort();
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+/**
+ * Immutable consistent hash ring. Each node is placed at {@code virtualNodes} points and a key
+ * belongs to the first node at or after its hash, so adding or removing a node only moves the keys
+ * of that node.
+ */
+public final class ConsistentHashRing {
+
+  private static final HashFunction HASH = Hashing.murmur3_128();
+
+  private final NavigableMap<Long, String> ring = new TreeMap<>();
+  private final Set<String> nodes;
+
+  public ConsistentHashRing(Collection<String> nodes, int virtualNodes) {
+    this.nodes = new TreeSet<>(nodes);
+    for (String node : this.nodes) {
+      for (int i = 0; i < virtualNodes; i++) {
+        // on a (very unlikely) collision the smallest node id keeps the point on every instance
+        ring.putIfAbsent(hash(node + '#' + i), node);
+      }
+    }
+  }
+
+  /** The node owning the key, or null if the ring is empty. */
+  public String owner(String key) {
+    if (ring.isEmpty()) {
+      return null;
+    }
+    Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+    return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+  }
+
+  public Set<String> nodes() {
+    return nodes;
+  }
+
+  private static long hash(String value) {
+    return HASH.hashString(value, StandardCharsets.UTF_8).asLong();
+  }
+}
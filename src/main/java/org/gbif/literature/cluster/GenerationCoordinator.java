@@ -0,0 +1,174 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.cluster;
+
+import org.gbif.literature.cache.IndexGenerationTracker;
+import org.gbif.literature.config.ClusterConfigProperties;
+import org.gbif.literature.config.EsClientConfigProperties;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.CuratorCache;
+import org.apache.curator.framework.recipes.cache.CuratorCacheListener;
+import org.apache.curator.framework.recipes.leader.LeaderLatch;
+import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.apache.zookeeper.KeeperException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Makes the index generation a cluster-wide value. The instance holding the leader latch polls
+ * Elasticsearch and writes the generation to a znode; every instance watches that znode and
+ * applies changes to its {@link IndexGenerationTracker}, so all caches switch together.
+ *
+ * <p>While ZooKeeper is unreachable each instance falls back to polling on its own.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "literature.cluster", name = "enabled", havingValue = "true")
+public class GenerationCoordinator {
+
+  private final CuratorFramework client;
+  private final boolean ownsClient;
+  private final IndexGenerationTracker generationTracker;
+  private final String generationPath;
+  private final LeaderLatch leaderLatch;
+  private final CuratorCache generationCache;
+
+  @Autowired
+  public GenerationCoordinator(
+      ClusterConfigProperties clusterConfigProperties,
+      EsClientConfigProperties esClientConfigProperties,
+      IndexGenerationTracker generationTracker,
+      ObjectProvider<CuratorFramework> curatorFramework) {
+    this(
+        Optional.ofNullable(curatorFramework.getIfAvailable())
+            .orElseGet(() -> newClient(clusterConfigProperties.getConnectString())),
+        curatorFramework.getIfAvailable() == null,
+        generationTracker,
+        clusterConfigProperties.getBasePath() + "/" + esClientConfigProperties.getIndex());
+  }
+
+  GenerationCoordinator(
+      CuratorFramework client,
+      boolean ownsClient,
+      IndexGenerationTracker generationTracker,
+      String indexPath) {
+    this.client = client;
+    this.ownsClient = ownsClient;
+    this.generationTracker = generationTracker;
+    this.generationPath = indexPath + "/generation";
+    this.leaderLatch = new LeaderLatch(client, indexPath + "/leader");
+    this.generationCache =
+        CuratorCache.build(client, generationPath, CuratorCache.Options.SINGLE_NODE_CACHE);
+  }
+
+  @PostConstruct
+  public void start() throws Exception {
+    generationCache
+        .listenable()
+        .addListener(
+            CuratorCacheListener.builder()
+                .forCreatesAndChanges((previous, node) -> apply(node))
+                .build());
+    generationCache.start();
+    leaderLatch.start();
+    generationTracker.setCoordinated(this::isConnected);
+  }
+
+  /** Polls Elasticsearch and publishes the generation, on the leader only. */
+  @Scheduled(fixedDelayString = "${literature.cache.generation-poll-interval:30s}")
+  public void pollAsLeader() {
+    if (!leaderLatch.hasLeadership()) {
+      return;
+    }
+    try {
+      publish(generationTracker.fetchGeneration());
+    } catch (Exception e) {
+      log.warn("Could not publish the index generation to {}", generationPath, e);
+    }
+  }
+
+  public boolean isLeader() {
+    return leaderLatch.hasLeadership();
+  }
+
+  /** Writes the generation to the shared znode, if it changed. */
+  void publish(String generation) throws Exception {
+    if (generation == null || generation.isEmpty()) {
+      return;
+    }
+    byte[] data = generation.getBytes(StandardCharsets.UTF_8);
+    Optional<ChildData> current = generationCache.get(generationPath);
+    if (current.isPresent() && generation.equals(decode(current.get()))) {
+      return;
+    }
+    try {
+      client.setData().forPath(generationPath, data);
+    } catch (KeeperException.NoNodeException e) {
+      client.create().creatingParentsIfNeeded().forPath(generationPath, data);
+    }
+    log.info("Published index generation {}", generation);
+  }
+
+  @PreDestroy
+  public void stop() throws Exception {
+    generationTracker.setCoordinated(() -> false);
+    leaderLatch.close();
+    generationCache.close();
+    if (ownsClient) {
+      client.close();
+    }
+  }
+
+  private void apply(ChildData node) {
+    String generation = decode(node);
+    if (generation != null) {
+      generationTracker.update(generation);
+    }
+  }
+
+  CuratorFramework client() {
+    return client;
+  }
+
+  private boolean isConnected() {
+    return client.getZookeeperClient().isConnected();
+  }
+
+  private static String decode(ChildData node) {
+    return node.getData() != null && node.getData().length > 0
+        ? new String(node.getData(), StandardCharsets.UTF_8)
+        : null;
+  }
+
+  private static CuratorFramework newClient(String connectString) {
+    CuratorFramework client =
+        CuratorFrameworkFactory.newClient(connectString, new ExponentialBackoffRetry(1000, 3));
+    client.start();
+    return client;
+  }
+}
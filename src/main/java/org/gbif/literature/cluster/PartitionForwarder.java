@@ -0,0 +1,146 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.cluster;
+
+import org.gbif.literature.config.ClusterConfigProperties;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sends a request to the instance owning its cache partition and relays the answer unchanged.
+ * Forwarded requests carry {@link #FORWARDED_HEADER} with the cluster's shared secret and are
+ * always answered by the receiving instance, so a request is forwarded at most once. The header is
+ * ignored on requests without the secret, so clients cannot use it to skip the partition owner.
+ */
+@Component
+public class PartitionForwarder {
+
+  public static final String FORWARDED_HEADER = "X-Literature-Forwarded";
+
+  private static final List<String> RELAYED_HEADERS =
+      List.of(
+          HttpHeaders.CONTENT_TYPE,
+          HttpHeaders.CONTENT_ENCODING,
+          HttpHeaders.VARY,
+          HttpHeaders.WARNING,
+          HttpHeaders.AGE,
+          HttpHeaders.ETAG,
+          HttpHeaders.LAST_MODIFIED,
+          HttpHeaders.CACHE_CONTROL);
+  private static final String RELAYED_HEADER_PREFIX = "x-query-cost";
+
+  private final ClusterConfigProperties.Partitioning config;
+  private final HttpClient httpClient;
+  private final Counter forwarded;
+  private final Counter failed;
+
+  public PartitionForwarder(
+      ClusterConfigProperties clusterConfigProperties, MeterRegistry meterRegistry) {
+    this.config = clusterConfigProperties.getPartitioning();
+    this.httpClient =
+        HttpClient.newBuilder()
+            .connectTimeout(config.getConnectTimeout())
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+    this.forwarded = counter(meterRegistry, "forwarded");
+    this.failed = counter(meterRegistry, "failed");
+  }
+
+  /**
+   * Forwards a GET. Completes exceptionally if the owner cannot be reached, does not answer in time
+   * or answers with a server error; the caller then answers locally.
+   */
+  public CompletableFuture<ResponseEntity<byte[]>> forward(
+      URI owner, String pathAndQuery, String acceptEncoding) {
+    HttpRequest request;
+    try {
+      HttpRequest.Builder builder =
+          HttpRequest.newBuilder(owner.resolve(pathAndQuery))
+              .timeout(config.getForwardTimeout())
+              .header(FORWARDED_HEADER, config.getSecret())
+              .GET();
+      if (acceptEncoding != null) {
+        builder.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+      }
+      request = builder.build();
+    } catch (IllegalArgumentException e) {
+      failed.increment();
+      return CompletableFuture.failedFuture(e);
+    }
+
+    return httpClient
+        .sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+        .thenApply(PartitionForwarder::relay)
+        .whenComplete((response, e) -> (e == null ? forwarded : failed).increment());
+  }
+
+  /** Whether a request with this {@link #FORWARDED_HEADER} value was sent by another instance. */
+  public boolean isForwarded(String forwardedHeader) {
+    String secret = config.getSecret();
+    return forwardedHeader != null
+        && secret != null
+        && !secret.isBlank()
+        && MessageDigest.isEqual(
+            forwardedHeader.getBytes(StandardCharsets.UTF_8),
+            secret.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static ResponseEntity<byte[]> relay(HttpResponse<byte[]> response) {
+    if (response.statusCode() >= 500) {
+      throw new ForwardingException(
+          "Partition owner " + response.uri().getAuthority() + " answered " + response.statusCode());
+    }
+    HttpHeaders headers = new HttpHeaders();
+    response
+        .headers()
+        .map()
+        .forEach(
+            (name, values) -> {
+              if (RELAYED_HEADERS.stream().anyMatch(name::equalsIgnoreCase)
+                  || name.toLowerCase(Locale.ROOT).startsWith(RELAYED_HEADER_PREFIX)) {
+                headers.addAll(name, values);
+              }
+            });
+    return ResponseEntity.status(response.statusCode()).headers(headers).body(response.body());
+  }
+
+  private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+    return Counter.builder("literature.cluster.forwards")
+        .description("Searches sent to the instance owning their cache partition")
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+
+  /** The partition owner answered with a server error. */
+  static class ForwardingException extends RuntimeException {
+    ForwardingException(String message) {
+      super(message);
+    }
+  }
+}
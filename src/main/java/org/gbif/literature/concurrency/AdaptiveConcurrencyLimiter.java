@@ -0,0 +1,178 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.concurrency;
+
+import org.gbif.literature.config.ConcurrencyConfigProperties;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD concurrency limiter: the limit grows by one while calls succeed with the limit in use and
+ * shrinks multiplicatively when a call is slower than the latency threshold or fails because the
+ * backend is overloaded. Callers over the limit wait for at most {@code maxQueueTime} before being
+ * rejected.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+  private final Workload workload;
+  private final ConcurrencyConfigProperties.Limit config;
+  private final long latencyThresholdNanos;
+  private final long maxQueueNanos;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition slotReleased = lock.newCondition();
+
+  private double limit;
+  private int inFlight;
+
+  public AdaptiveConcurrencyLimiter(Workload workload, ConcurrencyConfigProperties.Limit config) {
+    this.workload = workload;
+    this.config = config;
+    this.latencyThresholdNanos = config.getLatencyThreshold().toNanos();
+    this.maxQueueNanos = config.getMaxQueueTime().toNanos();
+    this.limit = Math.max(config.getMinLimit(), config.getInitialLimit());
+  }
+
+  /**
+   * Takes a slot, waiting up to the configured queue time for one to be released.
+   *
+   * @throws ConcurrencyLimitExceededException if no slot became free in time
+   */
+  public Permit acquire() {
+    long start = System.nanoTime();
+    lock.lock();
+    try {
+      long remaining = maxQueueNanos;
+      while (inFlight >= (int) limit) {
+        if (remaining <= 0) {
+          throw new ConcurrencyLimitExceededException(workload, config.getRetryAfter());
+        }
+        remaining = slotReleased.awaitNanos(remaining);
+      }
+      inFlight++;
+      return new Permit(start, System.nanoTime(), inFlight);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ConcurrencyLimitExceededException(workload, config.getRetryAfter());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public Workload getWorkload() {
+    return workload;
+  }
+
+  public int getLimit() {
+    lock.lock();
+    try {
+      return (int) limit;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int getInFlight() {
+    lock.lock();
+    try {
+      return inFlight;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void release(Permit permit, Outcome outcome) {
+    long rtt = permit.latency();
+    lock.lock();
+    try {
+      inFlight--;
+      if (outcome == Outcome.DROPPED
+          || (outcome == Outcome.SUCCESS && rtt > latencyThresholdNanos)) {
+        limit = Math.max(config.getMinLimit(), limit * config.getBackoffRatio());
+      } else if (outcome == Outcome.SUCCESS && permit.inFlightAtAcquire * 2 >= limit) {
+        limit = Math.min(config.getMaxLimit(), limit + 1);
+      }
+      slotReleased.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private enum Outcome {
+    SUCCESS,
+    DROPPED,
+    IGNORED
+  }
+
+  /** A held slot. Exactly one of the release methods must be called; later calls are no-ops. */
+  public final class Permit {
+
+    private final long requestedAt;
+    private final long acquiredAt;
+    private final int inFlightAtAcquire;
+    private final AtomicBoolean released = new AtomicBoolean();
+    private final LongAdder sampledNanos = new LongAdder();
+    private final LongAdder samples = new LongAdder();
+
+    private Permit(long requestedAt, long acquiredAt, int inFlightAtAcquire) {
+      this.requestedAt = requestedAt;
+      this.acquiredAt = acquiredAt;
+      this.inFlightAtAcquire = inFlightAtAcquire;
+    }
+
+    /** Time spent waiting for the slot. */
+    public long queueTime(TimeUnit unit) {
+      return unit.convert(acquiredAt - requestedAt, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the latency of one backend call made under this permit. A permit held across many
+     * calls, like an export, feeds the limit with their mean instead of its own holding time.
+     */
+    public void sample(long latency, TimeUnit unit) {
+      sampledNanos.add(unit.toNanos(latency));
+      samples.increment();
+    }
+
+    /** The call completed; its latency feeds the limit. */
+    public void onSuccess() {
+      releaseOnce(Outcome.SUCCESS);
+    }
+
+    /** The call failed because the backend is overloaded or unreachable. */
+    public void onDropped() {
+      releaseOnce(Outcome.DROPPED);
+    }
+
+    /** The call failed for reasons unrelated to load, e.g. an invalid query. */
+    public void onIgnore() {
+      releaseOnce(Outcome.IGNORED);
+    }
+
+    private long latency() {
+      long count = samples.sum();
+      return count > 0 ? sampledNanos.sum() / count : System.nanoTime() - acquiredAt;
+    }
+
+    private void releaseOnce(Outcome outcome) {
+      if (released.compareAndSet(false, true)) {
+        release(this, outcome);
+      }
+    }
+  }
+}
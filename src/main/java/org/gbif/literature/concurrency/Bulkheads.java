@@ -0,0 +1,187 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.concurrency;
+
+import org.gbif.literature.config.BulkheadConfigProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.stereotype.Component;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Bounded executor per {@link Workload}. A full lane rejects new work immediately instead of
+ * borrowing threads from the others. The slices of sliced exports have a lane of their own, as the
+ * export lane's threads wait for them.
+ */
+@Component
+public class Bulkheads {
+
+  private static final String SLICE_LANE = "export-slice";
+
+  private final BulkheadConfigProperties properties;
+  private final Map<Workload, ThreadPoolExecutor> executors = new EnumMap<>(Workload.class);
+  private final Map<Workload, Counter> rejections = new EnumMap<>(Workload.class);
+  private final Map<Workload, Timer> queueTimers = new EnumMap<>(Workload.class);
+  private final ThreadPoolExecutor sliceExecutor;
+  private final Counter sliceRejections;
+  private final Timer sliceQueueTimer;
+
+  public Bulkheads(BulkheadConfigProperties properties, MeterRegistry meterRegistry) {
+    this.properties = properties;
+    for (Workload workload : Workload.values()) {
+      String tag = workload.tagValue();
+      executors.put(workload, lane(tag, properties.laneFor(workload), meterRegistry));
+      rejections.put(workload, rejections(tag, meterRegistry));
+      queueTimers.put(workload, queueTimer(tag, meterRegistry));
+    }
+    this.sliceExecutor = lane(SLICE_LANE, properties.getExportSlices(), meterRegistry);
+    this.sliceRejections = rejections(SLICE_LANE, meterRegistry);
+    this.sliceQueueTimer = queueTimer(SLICE_LANE, meterRegistry);
+  }
+
+  private static ThreadPoolExecutor lane(
+      String tag, BulkheadConfigProperties.Lane lane, MeterRegistry meterRegistry) {
+    BlockingQueue<Runnable> queue =
+        lane.getQueueCapacity() > 0
+            ? new ArrayBlockingQueue<>(lane.getQueueCapacity())
+            : new SynchronousQueue<>();
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            lane.getThreads(),
+            lane.getThreads(),
+            60L,
+            TimeUnit.SECONDS,
+            queue,
+            new ThreadFactoryBuilder()
+                .setNameFormat("literature-" + tag + "-%d")
+                .setDaemon(true)
+                .build());
+    executor.allowCoreThreadTimeOut(true);
+
+    Gauge.builder("literature.bulkhead.active", executor, ThreadPoolExecutor::getActiveCount)
+        .description("Lane threads currently running a task")
+        .tag("lane", tag)
+        .register(meterRegistry);
+    Gauge.builder("literature.bulkhead.queued", executor, e -> e.getQueue().size())
+        .description("Tasks waiting for a lane thread")
+        .tag("lane", tag)
+        .register(meterRegistry);
+    Gauge.builder(
+            "literature.bulkhead.saturation",
+            executor,
+            e ->
+                (e.getActiveCount() + e.getQueue().size())
+                    / (double) (lane.getThreads() + lane.getQueueCapacity()))
+        .description("Fraction of the lane's threads and queue slots in use")
+        .tag("lane", tag)
+        .register(meterRegistry);
+    return executor;
+  }
+
+  private static Counter rejections(String tag, MeterRegistry meterRegistry) {
+    return Counter.builder("literature.bulkhead.rejections")
+        .description("Tasks rejected because the lane was full")
+        .tag("lane", tag)
+        .register(meterRegistry);
+  }
+
+  private static Timer queueTimer(String tag, MeterRegistry meterRegistry) {
+    return Timer.builder("literature.bulkhead.queue")
+        .description("Time tasks spent waiting for a lane thread")
+        .tag("lane", tag)
+        .register(meterRegistry);
+  }
+
+  /**
+   * Runs the task on the workload's lane.
+   *
+   * @throws ConcurrencyLimitExceededException if the lane is full
+   */
+  public <T> CompletableFuture<T> submit(Workload workload, Supplier<T> task) {
+    try {
+      return CompletableFuture.supplyAsync(task, runnable -> execute(workload, runnable));
+    } catch (RejectedExecutionException e) {
+      throw new ConcurrencyLimitExceededException(
+          workload, properties.laneFor(workload).getRetryAfter());
+    }
+  }
+
+  /** The lane as a Spring executor, for work dispatched by Spring MVC itself. */
+  public AsyncTaskExecutor asTaskExecutor(Workload workload) {
+    return new TaskExecutorAdapter(runnable -> execute(workload, runnable));
+  }
+
+  /**
+   * The lane reading the slices of sliced exports.
+   *
+   * <p>Its {@code execute} throws {@link ConcurrencyLimitExceededException} if the lane is full.
+   */
+  public Executor exportSliceExecutor() {
+    return runnable -> {
+      try {
+        execute(sliceExecutor, sliceRejections, sliceQueueTimer, runnable);
+      } catch (RejectedExecutionException e) {
+        throw new ConcurrencyLimitExceededException(
+            Workload.EXPORT, properties.getExportSlices().getRetryAfter());
+      }
+    };
+  }
+
+  private void execute(Workload workload, Runnable runnable) {
+    execute(executors.get(workload), rejections.get(workload), queueTimers.get(workload), runnable);
+  }
+
+  private static void execute(
+      ThreadPoolExecutor executor, Counter rejections, Timer queueTimer, Runnable runnable) {
+    long submittedAt = System.nanoTime();
+    try {
+      executor.execute(
+          () -> {
+            queueTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+            runnable.run();
+          });
+    } catch (RejectedExecutionException e) {
+      rejections.increment();
+      throw e;
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executors.values().forEach(ThreadPoolExecutor::shutdown);
+    // slices only stop when their export is closed
+    sliceExecutor.shutdownNow();
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.concurrency;
+
+import java.time.Duration;
+
+/** Thrown when a workload is over its concurrency limit; mapped to a 503 with Retry-After. */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+  private final Workload workload;
+  private final Duration retryAfter;
+
+  public ConcurrencyLimitExceededException(Workload workload, Duration retryAfter) {
+    super("Too many concurrent " + workload.tagValue() + " requests, please retry later");
+    this.workload = workload;
+    this.retryAfter = retryAfter;
+  }
+
+  public Workload getWorkload() {
+    return workload;
+  }
+
+  public Duration getRetryAfter() {
+    return retryAfter;
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.concurrency;
+
+import org.gbif.literature.config.ConcurrencyConfigProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/** One {@link AdaptiveConcurrencyLimiter} per {@link Workload}, with Micrometer instrumentation. */
+@Component
+public class ConcurrencyLimiters {
+
+  private static final ConcurrencyConfigProperties.Limit UNLIMITED =
+      new ConcurrencyConfigProperties.Limit(
+          Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Duration.ofDays(1));
+
+  private final Map<Workload, AdaptiveConcurrencyLimiter> limiters = new EnumMap<>(Workload.class);
+  private final Map<Workload, Counter> rejections = new EnumMap<>(Workload.class);
+  private final Map<Workload, Timer> queueTimers = new EnumMap<>(Workload.class);
+
+  public ConcurrencyLimiters(ConcurrencyConfigProperties properties, MeterRegistry meterRegistry) {
+    for (Workload workload : Workload.values()) {
+      AdaptiveConcurrencyLimiter limiter =
+          new AdaptiveConcurrencyLimiter(
+              workload, properties.isEnabled() ? properties.limitFor(workload) : UNLIMITED);
+      limiters.put(workload, limiter);
+
+      String tag = workload.tagValue();
+      Gauge.builder("literature.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+          .description("Current adaptive concurrency limit")
+          .tag("workload", tag)
+          .register(meterRegistry);
+      Gauge.builder(
+              "literature.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+          .description("Calls currently holding a concurrency slot")
+          .tag("workload", tag)
+          .register(meterRegistry);
+      rejections.put(
+          workload,
+          Counter.builder("literature.concurrency.rejections")
+              .description("Calls rejected because the concurrency limit was reached")
+              .tag("workload", tag)
+              .register(meterRegistry));
+      queueTimers.put(
+          workload,
+          Timer.builder("literature.concurrency.queue")
+              .description("Time spent waiting for a concurrency slot")
+              .tag("workload", tag)
+              .register(meterRegistry));
+    }
+  }
+
+  /**
+   * Takes a slot for the workload.
+   *
+   * @throws ConcurrencyLimitExceededException if the workload is saturated
+   */
+  public AdaptiveConcurrencyLimiter.Permit acquire(Workload workload) {
+    try {
+      AdaptiveConcurrencyLimiter.Permit permit = limiters.get(workload).acquire();
+      queueTimers.get(workload).record(permit.queueTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+      return permit;
+    } catch (ConcurrencyLimitExceededException e) {
+      rejections.get(workload).increment();
+      throw e;
+    }
+  }
+}
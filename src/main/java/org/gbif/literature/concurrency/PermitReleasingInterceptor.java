@@ -0,0 +1,45 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.concurrency;
+
+import java.util.concurrent.Callable;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+/**
+ * Releases a permit taken on the request thread for an asynchronous response, once the request
+ * completes in any way: also when the lane rejected the body before it ran, or when the request
+ * timed out or failed. A permit the body already released is left as it is.
+ */
+public class PermitReleasingInterceptor implements CallableProcessingInterceptor {
+
+  private final AdaptiveConcurrencyLimiter.Permit permit;
+
+  public PermitReleasingInterceptor(AdaptiveConcurrencyLimiter.Permit permit) {
+    this.permit = permit;
+  }
+
+  /** The body outlived the async request timeout, which points at a slow backend. */
+  @Override
+  public <T> Object handleTimeout(NativeWebRequest request, Callable<T> task) {
+    permit.onDropped();
+    return RESULT_NONE;
+  }
+
+  @Override
+  public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+    permit.onIgnore();
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.concurrency;
+
+import java.util.List;
+
+import lombok.Value;
+
+/** Outcome of the pre-flight cost evaluation of a search request. */
+@Value
+public class QueryCost {
+
+  public enum Decision {
+    ACCEPT,
+    DOWNGRADE,
+    /** Too expensive to run, but still answered when a cache holds the response. */
+    REJECT;
+
+    public String headerValue() {
+      return name().toLowerCase();
+    }
+  }
+
+  /** Fingerprint of the request as received, before any downgrade. */
+  String fingerprint;
+
+  /** Final score, after any downgrade. */
+  int score;
+
+  Decision decision;
+
+  /** What made the request expensive. */
+  List<String> reasons;
+
+  /** What was removed or capped to make the request cheaper. */
+  List<String> downgrades;
+}
@@ -0,0 +1,267 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.concurrency;
+
+import org.gbif.api.model.common.paging.Pageable;
+import org.gbif.api.model.common.search.FacetedSearchRequest;
+import org.gbif.api.model.common.search.SearchParameter;
+import org.gbif.literature.config.QueryCostConfigProperties;
+import org.gbif.literature.search.SearchRequestFingerprint;
+import org.gbif.literature.util.EsQueryUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import static org.gbif.literature.util.EsQueryUtils.extractFacetLimit;
+import static org.gbif.literature.util.EsQueryUtils.extractFacetOffset;
+
+/**
+ * Scores search requests before they reach Elasticsearch. Expensive requests are downgraded by
+ * dropping highlighting and capping facet limits; requests that remain too expensive are rejected
+ * once they would actually reach Elasticsearch, so they may still be answered from a cache.
+ */
+@Component
+public class QueryCostEstimator {
+
+  private final QueryCostConfigProperties properties;
+  private final Cache<String, LatencyAverage> latencies;
+  private final Map<QueryCost.Decision, Counter> decisions =
+      new EnumMap<>(QueryCost.Decision.class);
+  private final DistributionSummary scores;
+
+  public QueryCostEstimator(QueryCostConfigProperties properties, MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.latencies =
+        CacheBuilder.newBuilder()
+            .maximumSize(properties.getLatencyHistorySize())
+            .expireAfterWrite(properties.getLatencyHistoryTtl())
+            .build();
+    for (QueryCost.Decision decision : QueryCost.Decision.values()) {
+      decisions.put(
+          decision,
+          Counter.builder("literature.querycost.decisions")
+              .description("Search requests by pre-flight cost decision")
+              .tag("decision", decision.headerValue())
+              .register(meterRegistry));
+    }
+    this.scores =
+        DistributionSummary.builder("literature.querycost.score")
+            .description("Pre-flight cost of search requests, after any downgrade")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Scores the request and downgrades it in place when it is over the downgrade threshold. A
+   * request still over the reject threshold gets a {@link QueryCost.Decision#REJECT} decision,
+   * enforced by {@link #rejectIfTooExpensive}.
+   */
+  public <P extends SearchParameter> QueryCost evaluate(FacetedSearchRequest<P> request) {
+    String fingerprint = SearchRequestFingerprint.of(request);
+    if (!properties.isEnabled()) {
+      return new QueryCost(
+          fingerprint,
+          0,
+          QueryCost.Decision.ACCEPT,
+          Collections.emptyList(),
+          Collections.emptyList());
+    }
+
+    List<String> reasons = new ArrayList<>();
+    int score = score(request, fingerprint, reasons);
+    List<String> downgrades = new ArrayList<>();
+    if (score >= properties.getDowngradeThreshold()) {
+      downgrade(request, downgrades);
+      if (!downgrades.isEmpty()) {
+        reasons.clear();
+        score = score(request, fingerprint, reasons);
+      }
+    }
+
+    boolean probe = score >= properties.getRejectThreshold() && isProbe(score, fingerprint);
+    if (probe) {
+      reasons.add("latency probe");
+    }
+
+    QueryCost.Decision decision;
+    if (score >= properties.getRejectThreshold() && !probe) {
+      decision = QueryCost.Decision.REJECT;
+    } else if (!downgrades.isEmpty()) {
+      decision = QueryCost.Decision.DOWNGRADE;
+    } else {
+      decision = QueryCost.Decision.ACCEPT;
+    }
+    decisions.get(decision).increment();
+    scores.record(score);
+
+    return new QueryCost(fingerprint, score, decision, reasons, downgrades);
+  }
+
+  /**
+   * To be called right before the request is sent to Elasticsearch.
+   *
+   * @throws QueryTooExpensiveException if the request was scored over the reject threshold
+   */
+  public void rejectIfTooExpensive(QueryCost cost) {
+    if (cost.getDecision() == QueryCost.Decision.REJECT) {
+      throw new QueryTooExpensiveException(cost, properties.getRetryAfter());
+    }
+  }
+
+  /** Feeds the observed latency of a request back into the cost of later identical requests. */
+  public void recordLatency(String fingerprint, long millis) {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    // written back on every sample, which is what keeps the entry alive
+    latencies
+        .asMap()
+        .compute(
+            fingerprint,
+            (k, average) -> {
+              LatencyAverage updated =
+                  average != null ? average : new LatencyAverage(properties.getLatencySmoothing());
+              updated.add(millis);
+              return updated;
+            });
+  }
+
+  <P extends SearchParameter> int score(
+      FacetedSearchRequest<P> request, String fingerprint, List<String> reasons) {
+    int score = 0;
+
+    String q = EsQueryUtils.textQuery(request);
+    if (q != null && q.length() < properties.getShortQueryLength()) {
+      score += properties.getShortQueryCost();
+      reasons.add("short fuzzy q");
+    }
+
+    Set<P> facets = request.getFacets();
+    if (facets != null && !facets.isEmpty()) {
+      long buckets = 0;
+      for (P facet : facets) {
+        buckets += extractFacetOffset(request, facet) + (long) extractFacetLimit(request, facet);
+      }
+      int bucketCost = (int) (buckets / properties.getFacetBucketsPerPoint());
+      if (bucketCost > 0) {
+        score += bucketCost;
+        reasons.add(buckets + " facet buckets");
+      }
+      if (request.isFacetMultiSelect()) {
+        score += facets.size() * properties.getMultiSelectFacetCost();
+        reasons.add(facets.size() + " multi-select facets");
+      }
+    }
+
+    if (request.getParameters() != null) {
+      int values = request.getParameters().values().stream().mapToInt(Set::size).sum();
+      int valueCost = values / properties.getFilterValuesPerPoint();
+      if (valueCost > 0) {
+        score += valueCost;
+        reasons.add(values + " filter values");
+      }
+    }
+
+    int pageCost = request.getLimit() / properties.getPageRowsPerPoint();
+    if (pageCost > 0) {
+      score += pageCost;
+      reasons.add("page of " + request.getLimit());
+    }
+
+    if (request.isHighlight() && request.getLimit() > 0) {
+      score += properties.getHighlightCost();
+      reasons.add("highlight");
+    }
+
+    LatencyAverage latency = latencies.getIfPresent(fingerprint);
+    int latencyCost = latencyCost(latency);
+    if (latencyCost > 0) {
+      score += latencyCost;
+      reasons.add("recent latency " + Math.round(latency.get()) + " ms");
+    }
+    return score;
+  }
+
+  private int latencyCost(LatencyAverage latency) {
+    return latency != null ? (int) (latency.get() / properties.getLatencyMillisPerPoint()) : 0;
+  }
+
+  /**
+   * Whether a request over the reject threshold only because of the latency of earlier identical
+   * requests runs anyway, to sample the latency again.
+   */
+  private boolean isProbe(int score, String fingerprint) {
+    return score - latencyCost(latencies.getIfPresent(fingerprint))
+            < properties.getRejectThreshold()
+        && ThreadLocalRandom.current().nextDouble() < properties.getLatencyProbeRate();
+  }
+
+  private <P extends SearchParameter> void downgrade(
+      FacetedSearchRequest<P> request, List<String> downgrades) {
+    if (request.isHighlight()) {
+      request.setHighlight(false);
+      downgrades.add("highlight");
+    }
+
+    int cap = properties.getDowngradedFacetLimit();
+    if (request.getFacets() != null && !request.getFacets().isEmpty()) {
+      boolean capped = false;
+      if (request.getFacetLimit() != null && request.getFacetLimit() > cap) {
+        request.setFacetLimit(cap);
+        capped = true;
+      }
+      for (Map.Entry<P, Pageable> page : new ArrayList<>(request.getFacetPages().entrySet())) {
+        if (page.getValue().getLimit() > cap) {
+          request.addFacetPage(page.getKey(), (int) page.getValue().getOffset(), cap);
+          capped = true;
+        }
+      }
+      if (capped) {
+        downgrades.add("facetLimit=" + cap);
+      }
+    }
+  }
+
+  /** Exponentially weighted moving average of latency in milliseconds. */
+  private static final class LatencyAverage {
+
+    private final double alpha;
+    private double value = -1;
+
+    private LatencyAverage(double alpha) {
+      this.alpha = alpha;
+    }
+
+    synchronized void add(long millis) {
+      value = value < 0 ? millis : alpha * millis + (1 - alpha) * value;
+    }
+
+    synchronized double get() {
+      return Math.max(0, value);
+    }
+  }
+}
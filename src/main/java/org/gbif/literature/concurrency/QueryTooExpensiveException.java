@@ -0,0 +1,44 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.concurrency;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a search is too expensive to run even after downgrading; mapped to a 503 with
+ * Retry-After, since part of the cost is the cluster's recent latency.
+ */
+public class QueryTooExpensiveException extends RuntimeException {
+
+  private final QueryCost queryCost;
+  private final Duration retryAfter;
+
+  public QueryTooExpensiveException(QueryCost queryCost, Duration retryAfter) {
+    super(
+        "The query is too expensive (cost "
+            + queryCost.getScore()
+            + "): "
+            + String.join(", ", queryCost.getReasons()));
+    this.queryCost = queryCost;
+    this.retryAfter = retryAfter;
+  }
+
+  public QueryCost getQueryCost() {
+    return queryCost;
+  }
+
+  public Duration getRetryAfter() {
+    return retryAfter;
+  }
+}
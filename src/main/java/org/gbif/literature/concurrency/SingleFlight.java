@@ -0,0 +1,102 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.concurrency;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Coalesces concurrent calls with the same key: the first caller runs the call, callers arriving
+ * while it is in flight wait for and share its result or its exception. Nothing is kept once the
+ * call completes.
+ */
+public class SingleFlight<K, V> {
+
+  private final ConcurrentMap<K, Call<V>> inFlight = new ConcurrentHashMap<>();
+  private final DistributionSummary callers;
+
+  public SingleFlight(String operation, MeterRegistry meterRegistry) {
+    this.callers =
+        DistributionSummary.builder("literature.singleflight.callers")
+            .description("Callers that shared one backend call")
+            .tag("operation", operation)
+            .register(meterRegistry);
+  }
+
+  public V execute(K key, Supplier<V> supplier) {
+    Call<V> mine = new Call<>();
+    Call<V> call =
+        inFlight.compute(
+            key,
+            (k, existing) -> {
+              if (existing == null) {
+                return mine;
+              }
+              existing.callers++;
+              return existing;
+            });
+
+    if (call != mine) {
+      try {
+        return call.result.join();
+      } catch (CompletionException e) {
+        throw unwrap(e);
+      }
+    }
+
+    try {
+      V value = supplier.get();
+      complete(key, mine);
+      mine.result.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      complete(key, mine);
+      mine.result.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  /** Number of keys currently in flight. */
+  public int inFlight() {
+    return inFlight.size();
+  }
+
+  private void complete(K key, Call<V> call) {
+    // callers only join through compute(), so the count is final once the entry is removed
+    inFlight.remove(key, call);
+    callers.record(call.callers);
+  }
+
+  private static RuntimeException unwrap(CompletionException e) {
+    Throwable cause = e.getCause();
+    if (cause instanceof RuntimeException runtimeException) {
+      return runtimeException;
+    }
+    if (cause instanceof Error error) {
+      throw error;
+    }
+    return e;
+  }
+
+  private static final class Call<V> {
+    private final CompletableFuture<V> result = new CompletableFuture<>();
+    private int callers = 1;
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.concurrency;
+
+import java.time.Duration;
+
+/**
+ * Thrown when an Elasticsearch call did not answer within its workload's time budget; mapped to a
+ * 504.
+ */
+public class TimeBudgetExceededException extends RuntimeException {
+
+  private final Workload workload;
+  private final Duration budget;
+
+  public TimeBudgetExceededException(Workload workload, Duration budget) {
+    super(
+        "The " + workload.tagValue() + " request did not complete within " + budget.toMillis()
+            + " ms and was cancelled");
+    this.workload = workload;
+    this.budget = budget;
+  }
+
+  public Workload getWorkload() {
+    return workload;
+  }
+
+  public Duration getBudget() {
+    return budget;
+  }
+}
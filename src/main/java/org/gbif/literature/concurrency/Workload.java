@@ -0,0 +1,28 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.concurrency;
+
+/** Classes of Elasticsearch work that are limited and isolated from each other. */
+public enum Workload {
+  SEARCH,
+  /** Facet-only and other heavy search shapes, see {@link WorkloadClassifier}. */
+  FACETS,
+  GET,
+  EXPORT;
+
+  /** Lower-case name used in metric tags and log messages. */
+  public String tagValue() {
+    return name().toLowerCase();
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.concurrency;
+
+import org.gbif.api.model.common.search.FacetedSearchRequest;
+import org.gbif.literature.config.BulkheadConfigProperties;
+
+import org.springframework.stereotype.Component;
+
+/** Routes search requests to the interactive or the heavy (facets) workload by their shape. */
+@Component
+public class WorkloadClassifier {
+
+  private final BulkheadConfigProperties properties;
+
+  public WorkloadClassifier(BulkheadConfigProperties properties) {
+    this.properties = properties;
+  }
+
+  public Workload classify(FacetedSearchRequest<?> searchRequest) {
+    int facetCount = searchRequest.getFacets() != null ? searchRequest.getFacets().size() : 0;
+    int limit = searchRequest.getLimit();
+
+    boolean facetOnly = facetCount > 0 && limit == 0;
+    boolean manyFacets = facetCount >= properties.getHeavyFacetCount();
+    boolean largePage = limit >= properties.getHeavyLimit();
+    boolean largeHighlightedPage =
+        searchRequest.isHighlight() && limit >= properties.getHeavyHighlightLimit();
+
+    return facetOnly || manyFacets || largePage || largeHighlightedPage
+        ? Workload.FACETS
+        : Workload.SEARCH;
+  }
+}
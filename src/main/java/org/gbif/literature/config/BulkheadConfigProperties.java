@@ -0,0 +1,89 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.config;
+
+import org.gbif.literature.concurrency.Workload;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Isolated executors ("lanes") per workload, so that one workload's backlog cannot delay another.
+ */
+@Component
+@ConfigurationProperties(prefix = "literature.bulkhead")
+@Data
+public class BulkheadConfigProperties {
+
+  private Lane search = new Lane(32, 64);
+
+  private Lane facets = new Lane(8, 16);
+
+  private Lane get = new Lane(16, 64);
+
+  /**
+   * Runs export streams. Keep {@code threads + queueCapacity} at or above the export concurrency
+   * limit so an export admitted by the limiter is never rejected by its lane.
+   */
+  private Lane export = new Lane(16, 16);
+
+  /**
+   * Reads the slices of sliced exports, apart from the export lane whose threads wait for them.
+   * Keep {@code threads} at or above the export concurrency limit times {@code
+   * literature.export-slices}; slices are never queued, as a merge cannot progress without all of
+   * them, so a full lane fails the export instead.
+   */
+  private Lane exportSlices = new Lane(64, 0);
+
+  /** Facet requests with at least this many facets go to the facets lane. */
+  private int heavyFacetCount = 3;
+
+  /** Searches with a page size of at least this go to the facets lane. */
+  private int heavyLimit = 300;
+
+  /** Highlighted searches with a page size of at least this go to the facets lane. */
+  private int heavyHighlightLimit = 100;
+
+  public Lane laneFor(Workload workload) {
+    return switch (workload) {
+      case SEARCH -> search;
+      case FACETS -> facets;
+      case GET -> get;
+      case EXPORT -> export;
+    };
+  }
+
+  @Data
+  @NoArgsConstructor
+  public static class Lane {
+
+    private int threads = 16;
+
+    /** Tasks waiting for a thread; 0 hands tasks over directly and rejects when all are busy. */
+    private int queueCapacity = 32;
+
+    /** Value of the {@code Retry-After} header sent when the lane is full. */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    public Lane(int threads, int queueCapacity) {
+      this.threads = threads;
+      this.queueCapacity = queueCapacity;
+    }
+  }
+}
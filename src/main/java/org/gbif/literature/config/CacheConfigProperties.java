@@ -0,0 +1,135 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+/**
+ * In-process response caches. Entries belong to an index generation, the concrete index behind the
+ * {@code elasticsearch.index} alias, and stop being served once the alias moves.
+ */
+@Component
+@ConfigurationProperties(prefix = "literature.cache")
+@Data
+public class CacheConfigProperties {
+
+  /** How often the concrete index behind the alias is checked. */
+  private Duration generationPollInterval = Duration.ofSeconds(30);
+
+  private Search search = new Search();
+
+  private Bytes bytes = new Bytes();
+
+  private Facets facets = new Facets();
+
+  private Get get = new Get();
+
+  private Stale stale = new Stale();
+
+  @Data
+  public static class Search {
+
+    private boolean enabled = true;
+
+    /** Bound on the estimated size of the cached responses. */
+    private DataSize maximumWeight = DataSize.ofMegabytes(64);
+
+    /**
+     * Upper bound on the age of a fresh entry, whatever the index generation. Older entries are
+     * kept for {@code stale.maxStaleIfError} longer, to be served stale.
+     */
+    private Duration expireAfterWrite = Duration.ofHours(6);
+  }
+
+  /**
+   * Serialized search responses kept in direct (off-heap) buffers. Size the JVM's
+   * {@code -XX:MaxDirectMemorySize} for {@code maximumWeight} plus {@code poolSize} before enabling
+   * it.
+   */
+  @Data
+  public static class Bytes {
+
+    private boolean enabled = false;
+
+    /** Bound on the off-heap bytes held, both encodings included. */
+    private DataSize maximumWeight = DataSize.ofMegabytes(256);
+
+    private Duration expireAfterWrite = Duration.ofHours(6);
+
+    /** Also keeps a gzip-compressed copy, served to clients accepting gzip. */
+    private boolean gzip = true;
+
+    /** Responses smaller than this are only kept uncompressed. */
+    private DataSize gzipMinSize = DataSize.ofKilobytes(1);
+
+    /** Off-heap memory of evicted entries kept for reuse rather than left to the collector. */
+    private DataSize poolSize = DataSize.ofMegabytes(32);
+  }
+
+  /** Facet counts and total counts, shared by every page and highlight setting of a search. */
+  @Data
+  public static class Facets {
+
+    private boolean enabled = true;
+
+    private DataSize maximumWeight = DataSize.ofMegabytes(32);
+
+    private Duration expireAfterWrite = Duration.ofHours(6);
+  }
+
+  /** Literature items by id, including ids that were not found. */
+  @Data
+  public static class Get {
+
+    private boolean enabled = true;
+
+    /** Bound on the number of ids cached, found or not. */
+    private long maximumSize = 100_000;
+
+    private Duration expireAfterWrite = Duration.ofHours(6);
+
+    /** How long an id that was not found is remembered. */
+    private Duration notFoundExpireAfterWrite = Duration.ofMinutes(5);
+  }
+
+  /**
+   * Serving stale cached search responses: of an older index generation, or older than {@code
+   * search.expireAfterWrite}. Such entries are kept and served, marked with {@code Warning} and
+   * {@code Age} headers, while they are refreshed or while Elasticsearch is failing.
+   */
+  @Data
+  public static class Stale {
+
+    private boolean enabled = true;
+
+    /**
+     * How long after going stale an entry is served immediately while a fresh response is
+     * computed. An entry goes stale when its generation is replaced or it outlives {@code
+     * search.expireAfterWrite}, whichever comes first.
+     */
+    private Duration maxStaleWhileRevalidate = Duration.ofMinutes(10);
+
+    /**
+     * How long after going stale an entry is served when Elasticsearch fails or exceeds its time
+     * budget.
+     */
+    private Duration maxStaleIfError = Duration.ofHours(2);
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/** Coordination of several literature-ws instances over ZooKeeper. */
+@Component
+@ConfigurationProperties(prefix = "literature.cluster")
+@Data
+public class ClusterConfigProperties {
+
+  /**
+   * When true, one elected instance polls the index generation and every instance follows it
+   * through ZooKeeper, so all caches switch generation together.
+   */
+  private boolean enabled = false;
+
+  /** ZooKeeper connection string, used when no Curator client is provided by Spring Cloud. */
+  private String connectString = "localhost:2181";
+
+  /** Root of this service's nodes; the index name is appended. */
+  private String basePath = "/literature-ws";
+
+  private Partitioning partitioning = new Partitioning();
+
+  /**
+   * Splits the search caches between the instances registered in service discovery. Each request
+   * fingerprint is owned by one instance, found by consistent hashing; other instances forward to
+   * it, so a hot query is cached once in the cluster rather than once per instance.
+   */
+  @Data
+  public static class Partitioning {
+
+    private boolean enabled = false;
+
+    /** Points per instance on the hash ring; more points spread the keys more evenly. */
+    private int virtualNodes = 128;
+
+    /** How often the instance list is read from service discovery. */
+    private Duration refreshInterval = Duration.ofSeconds(10);
+
+    private Duration connectTimeout = Duration.ofMillis(500);
+
+    /** After this the request is answered locally instead. */
+    private Duration forwardTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Shared by all instances and sent with forwarded requests, so that only they are answered
+     * without forwarding again. Partitioning stays off without it.
+     */
+    private String secret;
+  }
+}
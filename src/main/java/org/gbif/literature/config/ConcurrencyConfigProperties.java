@@ -0,0 +1,84 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.config;
+
+import org.gbif.literature.concurrency.Workload;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Adaptive (AIMD) concurrency limits applied to the Elasticsearch-backed workloads. */
+@Component
+@ConfigurationProperties(prefix = "literature.concurrency")
+@Data
+public class ConcurrencyConfigProperties {
+
+  /** Disables all limiting when false. */
+  private boolean enabled = true;
+
+  private Limit search = new Limit(20, 4, 200, Duration.ofSeconds(2));
+
+  private Limit facets = new Limit(8, 2, 50, Duration.ofSeconds(5));
+
+  private Limit get = new Limit(20, 4, 200, Duration.ofMillis(500));
+
+  private Limit export = new Limit(4, 1, 16, Duration.ofMinutes(10));
+
+  public Limit limitFor(Workload workload) {
+    return switch (workload) {
+      case SEARCH -> search;
+      case FACETS -> facets;
+      case GET -> get;
+      case EXPORT -> export;
+    };
+  }
+
+  @Data
+  @NoArgsConstructor
+  public static class Limit {
+
+    /** Concurrency limit used at startup. */
+    private int initialLimit = 20;
+
+    /** The limit never backs off below this value. */
+    private int minLimit = 1;
+
+    /** The limit never grows above this value. */
+    private int maxLimit = 200;
+
+    /** Calls slower than this count as congestion and shrink the limit. */
+    private Duration latencyThreshold = Duration.ofSeconds(2);
+
+    /** Multiplicative decrease applied on congestion. */
+    private double backoffRatio = 0.9;
+
+    /** How long a call may wait for a free slot before being rejected. */
+    private Duration maxQueueTime = Duration.ofMillis(50);
+
+    /** Value of the {@code Retry-After} header sent with rejections. */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    public Limit(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold) {
+      this.initialLimit = initialLimit;
+      this.minLimit = minLimit;
+      this.maxLimit = maxLimit;
+      this.latencyThreshold = latencyThreshold;
+    }
+  }
+}
@@ -22,6 +22,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.json.jackson.JacksonJsonpMapper;
 import co.elastic.clients.transport.ElasticsearchTransport;
@@ -36,6 +37,15 @@ public class EsConfig {
     return provideEsClient(esProperties);
   }
 
+  /**
+   * Async client sharing the blocking client's transport. Cancelling one of its futures aborts the
+   * HTTP request, which in turn makes Elasticsearch cancel the search task.
+   */
+  @Bean
+  public ElasticsearchAsyncClient elasticsearchAsyncClient(ElasticsearchClient elasticsearchClient) {
+    return new ElasticsearchAsyncClient(elasticsearchClient._transport());
+  }
+
   public static ElasticsearchClient provideEsClient(EsClientConfigProperties esProperties) {
     String[] hostsUrl = esProperties.getHosts().toArray(new String[0]);
     HttpHost[] hosts = new HttpHost[hostsUrl.length];
@@ -0,0 +1,49 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/** Validators and freshness headers for HTTP caches: clients, proxies and the CDN. */
+@Component
+@ConfigurationProperties(prefix = "literature.http-cache")
+@Data
+public class HttpCacheConfigProperties {
+
+  /**
+   * When true, responses carry an {@code ETag} derived from the request and the index generation,
+   * and matching {@code If-None-Match} requests are answered with 304.
+   */
+  private boolean enabled = true;
+
+  /** {@code Cache-Control} values per endpoint; empty to send none. */
+  private CacheControl cacheControl = new CacheControl();
+
+  @Data
+  public static class CacheControl {
+
+    private String search = "public, max-age=60";
+
+    /** Searches with facets and no results, which are mostly used to draw filters. */
+    private String facets = "public, max-age=300";
+
+    private String get = "public, max-age=600";
+
+    /** Responses missing some results because Elasticsearch timed out or shards failed. */
+    private String partial = "no-store";
+  }
+}
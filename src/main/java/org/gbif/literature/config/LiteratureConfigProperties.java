@@ -26,9 +26,64 @@ public class LiteratureConfigProperties {
   /** Maximum bytes written to a single export response before aborting. */
   private long bufferLimitBytesExport = 200_000_000L;
 
+  /** UTF-8 bytes an export encodes before writing them to the response stream. */
+  private int exportBufferBytes = 64 * 1024;
+
+  /**
+   * Bytes written to the response stream between explicit flushes, which push them to the client;
+   * 0 leaves flushing to the servlet container.
+   */
+  private long exportFlushBytes = 0;
+
+  /** Deflate level of gzip-compressed exports, 1 (fastest) to 9 (smallest). */
+  private int exportGzipLevel = 6;
+
+  /** Level of zstd-compressed exports, 1 (fastest) to 22 (smallest); 3 is zstd's default. */
+  private int exportZstdLevel = 3;
+
+  /**
+   * Whether {@code bufferLimitBytesExport} limits the compressed bytes sent to the client instead
+   * of the uncompressed size of a compressed export.
+   */
+  private boolean exportLimitCompressedBytes = false;
+
+  /** Off-heap bytes the column vectors of one Arrow export may use; a page must fit in them. */
+  private long exportArrowMemoryBytes = 64L * 1024 * 1024;
+
   /** Maximum number of literature records exported in one request. */
   private int maxExportRecords = 100_000;
 
   /** Page size for each Elasticsearch export request (PIT + search_after). */
   private int exportPageSize = 500;
+
+  /**
+   * Pages a sequential export fetches ahead of the writer on a background thread, so
+   * Elasticsearch and the client connection are busy at the same time; 0 disables prefetching.
+   */
+  private int exportPrefetchPages = 1;
+
+  /**
+   * Number of slices of the point in time read concurrently by an export, e.g. one per shard; 1
+   * reads it as a single sequential stream.
+   */
+  private int exportSlices = 1;
+
+  /**
+   * Whether sliced exports keep the {@code created desc, id asc} export order by merging the
+   * slices, or write rows in the order slices return them, which is cheaper for Elasticsearch.
+   */
+  private boolean exportSlicesOrdered = true;
+
+  /**
+   * Whether sequential CSV/TSV exports are transcoded straight from the hit sources instead of
+   * converting each hit to a result first; sliced exports always use the results.
+   */
+  private boolean exportTranscodeSources = true;
+
+  /**
+   * Whether transcoded CSV/TSV exports read keyword, boolean and date columns from doc values,
+   * fetching only the text columns from {@code _source}, or no {@code _source} at all when the
+   * chosen columns need none.
+   */
+  private boolean exportDocValueFields = false;
 }
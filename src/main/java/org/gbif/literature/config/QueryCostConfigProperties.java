@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Pre-flight cost model for searches. A request is scored from its shape and from the latency
+ * recently observed for identical requests, then accepted, downgraded or rejected.
+ */
+@Component
+@ConfigurationProperties(prefix = "literature.query-cost")
+@Data
+public class QueryCostConfigProperties {
+
+  /** Accepts every request unscored when false. */
+  private boolean enabled = true;
+
+  /** Requests scoring at least this much are downgraded where possible. */
+  private int downgradeThreshold = 100;
+
+  /** Requests still scoring at least this much after downgrading are rejected. */
+  private int rejectThreshold = 300;
+
+  /** Free-text queries shorter than this many characters expand to many fuzzy terms. */
+  private int shortQueryLength = 4;
+
+  /** Cost of a short fuzzy free-text query. */
+  private int shortQueryCost = 60;
+
+  /** Requested facet buckets (offset plus limit) that cost one point. */
+  private int facetBucketsPerPoint = 1000;
+
+  /** Cost of each facet computed in multi-select mode, which adds a filter aggregation. */
+  private int multiSelectFacetCost = 15;
+
+  /** Filter values (e.g. {@code gbifOccurrenceKey}) that cost one point. */
+  private int filterValuesPerPoint = 20;
+
+  /** Page rows that cost one point. */
+  private int pageRowsPerPoint = 50;
+
+  /** Cost of highlighting. */
+  private int highlightCost = 20;
+
+  /** Milliseconds of recently observed latency that cost one point. */
+  private int latencyMillisPerPoint = 50;
+
+  /** Weight of the newest latency sample in the moving average. */
+  private double latencySmoothing = 0.3;
+
+  /** Number of request fingerprints whose latency is remembered. */
+  private long latencyHistorySize = 10_000;
+
+  /**
+   * How long a latency history entry is kept after its last sample. Reading it does not renew it,
+   * so a request rejected for its history is accepted again once the history expires.
+   */
+  private Duration latencyHistoryTtl = Duration.ofHours(1);
+
+  /**
+   * Fraction of the requests rejected only because of their latency history that run anyway, so
+   * the history follows the cluster's current latency.
+   */
+  private double latencyProbeRate = 0.05;
+
+  /** Value of the {@code Retry-After} header sent with a rejection. */
+  private Duration retryAfter = Duration.ofSeconds(5);
+
+  /** Facet limit applied to downgraded requests. */
+  private int downgradedFacetLimit = 100;
+}
@@ -0,0 +1,34 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/** Tracking of the query shapes that dominate the search load. */
+@Component
+@ConfigurationProperties(prefix = "literature.query-stats")
+@Data
+public class QueryStatsConfigProperties {
+
+  private boolean enabled = true;
+
+  /**
+   * Number of query shapes tracked. Any shape making up more than {@code 1 / capacity} of the
+   * searches is guaranteed to be among them.
+   */
+  private int capacity = 1000;
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.config;
+
+import org.gbif.literature.cache.ResponseBytes;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+/** Writes pre-serialized JSON bodies as they are, with their {@code Content-Encoding}. */
+public class ResponseBytesHttpMessageConverter extends AbstractHttpMessageConverter<ResponseBytes> {
+
+  public ResponseBytesHttpMessageConverter() {
+    super(MediaType.APPLICATION_JSON);
+  }
+
+  @Override
+  protected boolean supports(Class<?> clazz) {
+    return ResponseBytes.class.isAssignableFrom(clazz);
+  }
+
+  @Override
+  protected boolean canRead(MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  protected ResponseBytes readInternal(
+      Class<? extends ResponseBytes> clazz, HttpInputMessage inputMessage) {
+    throw new HttpMessageNotReadableException("Response bytes are write-only", inputMessage);
+  }
+
+  @Override
+  protected Long getContentLength(ResponseBytes responseBytes, MediaType contentType) {
+    return (long) responseBytes.length();
+  }
+
+  @Override
+  protected void writeInternal(ResponseBytes responseBytes, HttpOutputMessage outputMessage)
+      throws IOException {
+    HttpHeaders headers = outputMessage.getHeaders();
+    headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (responseBytes.getContentEncoding() != null) {
+      headers.set(HttpHeaders.CONTENT_ENCODING, responseBytes.getContentEncoding());
+    }
+    try {
+      WritableByteChannel channel = Channels.newChannel(outputMessage.getBody());
+      channel.write(responseBytes.body());
+    } finally {
+      responseBytes.release();
+    }
+  }
+}
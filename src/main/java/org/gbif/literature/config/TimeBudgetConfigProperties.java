@@ -0,0 +1,92 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.config;
+
+import org.gbif.literature.concurrency.Workload;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Server-enforced time budgets per workload. The budget is sent to Elasticsearch as the search
+ * {@code timeout}, and the client gives up and cancels the HTTP request once the budget plus a
+ * short grace period has passed.
+ */
+@Component
+@ConfigurationProperties(prefix = "literature.time-budget")
+@Data
+public class TimeBudgetConfigProperties {
+
+  /** Disables all budgets when false, leaving only the client socket timeout. */
+  private boolean enabled = true;
+
+  private Budget search = new Budget(Duration.ofSeconds(5), null);
+
+  private Budget facets = new Budget(Duration.ofSeconds(15), null);
+
+  /** A get by id matches at most one document, so its count is irrelevant. */
+  private Budget get = new Budget(Duration.ofSeconds(2), 1L);
+
+  /**
+   * Budget of a single export page. Export pages are never sent with an ES {@code timeout}, since a
+   * partial page would silently drop rows, so only the client-side cancellation applies.
+   */
+  private Budget export = new Budget(Duration.ofSeconds(60), null);
+
+  public Budget budgetFor(Workload workload) {
+    return switch (workload) {
+      case SEARCH -> search;
+      case FACETS -> facets;
+      case GET -> get;
+      case EXPORT -> export;
+    };
+  }
+
+  @Data
+  @NoArgsConstructor
+  public static class Budget {
+
+    /** Time Elasticsearch may spend on the query before returning what it has so far. */
+    private Duration timeout = Duration.ofSeconds(5);
+
+    /**
+     * Optional per-shard document limit for calls that do not need accurate counts. Hit counts
+     * are partial when it is reached.
+     */
+    private Long terminateAfter;
+
+    /** Extra time given to Elasticsearch to return partial results before the call is cancelled. */
+    private Duration cancelGrace = Duration.ofMillis(500);
+
+    public Budget(Duration timeout, Long terminateAfter) {
+      this.timeout = timeout;
+      this.terminateAfter = terminateAfter;
+    }
+
+    /** Value of the ES {@code timeout} parameter. */
+    public String esTimeout() {
+      return timeout.toMillis() + "ms";
+    }
+
+    /** How long the client waits for a response before cancelling the request. */
+    public Duration deadline() {
+      return timeout.plus(cancelGrace);
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Replay of representative searches at startup, before the service reports itself ready, to fill
+ * the caches, compile the hot code and open the Elasticsearch connections.
+ */
+@Component
+@ConfigurationProperties(prefix = "literature.warmup")
+@Data
+public class WarmupConfigProperties {
+
+  private boolean enabled = true;
+
+  /** Search query strings, e.g. {@code q=bird&year=2020}. */
+  private List<String> queries = new ArrayList<>();
+
+  /** Resource with one search query string per line; blank lines and {@code #} are skipped. */
+  private String queriesFile;
+
+  /**
+   * File where the heaviest query shapes are written at shutdown and read at the next startup;
+   * none if empty.
+   */
+  private String topQueriesFile;
+
+  /** Number of query shapes written to {@code topQueriesFile}. */
+  private int topQueries = 100;
+
+  /** Searches replayed at the same time. */
+  private int concurrency = 4;
+
+  /** Times the whole set is replayed; later rounds mostly warm up the code paths of cache hits. */
+  private int rounds = 1;
+
+  private Duration requestTimeout = Duration.ofSeconds(30);
+
+  /** After this the service is reported ready even if the warm-up has not finished. */
+  private Duration maxDuration = Duration.ofMinutes(2);
+
+  /**
+   * How long to wait for the index generation, read from Elasticsearch or ZooKeeper, before
+   * replaying. Responses are only cached once it is known.
+   */
+  private Duration generationTimeout = Duration.ofSeconds(30);
+}
@@ -18,6 +18,11 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import java.time.LocalDate;
 
 import org.gbif.api.model.literature.search.LiteratureSearchResult;
+import org.gbif.literature.concurrency.Bulkheads;
+import org.gbif.literature.concurrency.Workload;
+import org.gbif.literature.export.ExportCompression;
+import org.gbif.literature.export.ExportFields;
+import org.gbif.literature.export.ExportFileFormat;
 import org.gbif.ws.json.JacksonJsonObjectMapperProvider;
 
 import java.util.List;
@@ -25,9 +30,12 @@ import java.util.List;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.security.web.firewall.HttpFirewall;
 import org.springframework.security.web.firewall.StrictHttpFirewall;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -42,11 +50,40 @@ public class WebMvcConfig implements WebMvcConfigurer {
     abstract LocalDate getPublished();
   }
 
+  private final Bulkheads bulkheads;
+
+  public WebMvcConfig(Bulkheads bulkheads) {
+    this.bulkheads = bulkheads;
+  }
+
   @Override
   public void addArgumentResolvers(List<HandlerMethodArgumentResolver> argumentResolvers) {
     argumentResolvers.add(new LiteratureSearchRequestHandlerMethodArgumentResolver());
   }
 
+  /** Accepts {@code format=jsonl} or {@code compression=gzip} as well as upper case. */
+  @Override
+  public void addFormatters(FormatterRegistry registry) {
+    registry.addConverter(String.class, ExportFileFormat.class, ExportFileFormat::fromParameter);
+    registry.addConverter(String.class, ExportCompression.class, ExportCompression::fromParameter);
+    registry.addConverter(String.class, ExportFields.class, ExportFields::fromParameter);
+  }
+
+  /** Cached, pre-serialized responses bypass Jackson. */
+  @Override
+  public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+    converters.add(0, new ResponseBytesHttpMessageConverter());
+  }
+
+  /**
+   * Streaming bodies are only used by exports, so Spring MVC's own async executor is the export
+   * lane. Searches and gets complete on their own lanes through {@code CompletableFuture}.
+   */
+  @Override
+  public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+    configurer.setTaskExecutor(bulkheads.asTaskExecutor(Workload.EXPORT));
+  }
+
   @Bean
   public HttpFirewall allowUrlEncodedPercentHttpFirewall() {
     StrictHttpFirewall firewall = new StrictHttpFirewall();
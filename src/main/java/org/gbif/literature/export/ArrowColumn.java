@@ -0,0 +1,194 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.export;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.TimeStampMilliTZVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.complex.ListVector;
+import org.apache.arrow.vector.complex.MapVector;
+import org.apache.arrow.vector.complex.StructVector;
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+
+/**
+ * One column of an Arrow export: its field in the schema and how a row's value is set in the
+ * vector of that field. The columnar counterpart of {@link CsvColumn}, with multi-valued
+ * properties as list or map columns instead of delimited strings.
+ */
+final class ArrowColumn<T> {
+
+  private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+  @FunctionalInterface
+  interface Setter<T> {
+    void set(FieldVector vector, int index, T row);
+  }
+
+  private final Field field;
+  private final Setter<T> setter;
+
+  private ArrowColumn(Field field, Setter<T> setter) {
+    this.field = field;
+    this.setter = setter;
+  }
+
+  Field getField() {
+    return field;
+  }
+
+  void set(FieldVector vector, int index, T row) {
+    setter.set(vector, index, row);
+  }
+
+  /** UTF-8 string. */
+  static <T> ArrowColumn<T> string(String name, Function<T, String> getter) {
+    return new ArrowColumn<>(
+        Field.nullable(name, ArrowType.Utf8.INSTANCE),
+        (vector, index, row) -> setString((VarCharVector) vector, index, getter.apply(row)));
+  }
+
+  /** Enum constant name. */
+  static <T> ArrowColumn<T> enumName(String name, Function<T, ? extends Enum<?>> getter) {
+    return string(
+        name,
+        row -> {
+          Enum<?> value = getter.apply(row);
+          return value != null ? value.name() : null;
+        });
+  }
+
+  /** List of strings, each element converted with {@code toString}. */
+  static <T, V> ArrowColumn<T> list(
+      String name, Function<T, ? extends Collection<V>> getter, Function<V, String> toString) {
+    Field element = Field.nullable("item", ArrowType.Utf8.INSTANCE);
+    return new ArrowColumn<>(
+        new Field(name, FieldType.nullable(ArrowType.List.INSTANCE), List.of(element)),
+        (vector, index, row) -> {
+          ListVector list = (ListVector) vector;
+          Collection<V> values = getter.apply(row);
+          if (values == null) {
+            list.setNull(index);
+            return;
+          }
+          VarCharVector elements = (VarCharVector) list.getDataVector();
+          int offset = list.startNewValue(index);
+          int size = 0;
+          for (V value : values) {
+            setString(elements, offset + size++, value != null ? toString.apply(value) : null);
+          }
+          list.endValue(index, size);
+        });
+  }
+
+  /** Map of string keys to the string forms of the values. */
+  static <T> ArrowColumn<T> stringMap(
+      String name, Function<T, ? extends Map<String, Object>> getter) {
+    Field entries =
+        new Field(
+            MapVector.DATA_VECTOR_NAME,
+            FieldType.notNullable(ArrowType.Struct.INSTANCE),
+            List.of(
+                Field.notNullable(MapVector.KEY_NAME, ArrowType.Utf8.INSTANCE),
+                Field.nullable(MapVector.VALUE_NAME, ArrowType.Utf8.INSTANCE)));
+    return new ArrowColumn<>(
+        new Field(name, FieldType.nullable(new ArrowType.Map(false)), List.of(entries)),
+        (vector, index, row) -> {
+          MapVector map = (MapVector) vector;
+          Map<String, Object> values = getter.apply(row);
+          if (values == null) {
+            map.setNull(index);
+            return;
+          }
+          StructVector struct = (StructVector) map.getDataVector();
+          VarCharVector keys = struct.getChild(MapVector.KEY_NAME, VarCharVector.class);
+          VarCharVector items = struct.getChild(MapVector.VALUE_NAME, VarCharVector.class);
+          int offset = map.startNewValue(index);
+          int size = 0;
+          for (Map.Entry<String, Object> entry : values.entrySet()) {
+            int entryIndex = offset + size++;
+            struct.setIndexDefined(entryIndex);
+            setString(keys, entryIndex, entry.getKey());
+            Object value = entry.getValue();
+            setString(items, entryIndex, value != null ? value.toString() : null);
+          }
+          map.endValue(index, size);
+        });
+  }
+
+  /** Boolean. */
+  static <T> ArrowColumn<T> bool(String name, Function<T, Boolean> getter) {
+    return new ArrowColumn<>(
+        Field.nullable(name, ArrowType.Bool.INSTANCE),
+        (vector, index, row) -> {
+          BitVector bits = (BitVector) vector;
+          Boolean value = getter.apply(row);
+          if (value == null) {
+            bits.setNull(index);
+          } else {
+            bits.setSafe(index, value ? 1 : 0);
+          }
+        });
+  }
+
+  /** Calendar date, as the UTC day of the instant like the converter parses it. */
+  static <T> ArrowColumn<T> date(String name, Function<T, Date> getter) {
+    return new ArrowColumn<>(
+        Field.nullable(name, new ArrowType.Date(DateUnit.DAY)),
+        (vector, index, row) -> {
+          DateDayVector days = (DateDayVector) vector;
+          Date value = getter.apply(row);
+          if (value == null) {
+            days.setNull(index);
+          } else {
+            days.setSafe(index, (int) Math.floorDiv(value.getTime(), MILLIS_PER_DAY));
+          }
+        });
+  }
+
+  /** Instant in milliseconds, UTC. */
+  static <T> ArrowColumn<T> timestamp(String name, Function<T, Date> getter) {
+    return new ArrowColumn<>(
+        Field.nullable(name, new ArrowType.Timestamp(TimeUnit.MILLISECOND, "UTC")),
+        (vector, index, row) -> {
+          TimeStampMilliTZVector millis = (TimeStampMilliTZVector) vector;
+          Date value = getter.apply(row);
+          if (value == null) {
+            millis.setNull(index);
+          } else {
+            millis.setSafe(index, value.getTime());
+          }
+        });
+  }
+
+  private static void setString(VarCharVector vector, int index, String value) {
+    if (value == null) {
+      vector.setNull(index);
+    } else {
+      vector.setSafe(index, value.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.export;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Enforces the export size limit on the bytes written through it: those that reach the client
+ * after compression, or the uncompressed bytes of a binary format. The write that would exceed the
+ * limit fails with an {@link ExportLimitExceededException}; everything after it is discarded, so a
+ * compressor can still be closed and release its native memory.
+ */
+class ByteLimitOutputStream extends FilterOutputStream {
+
+  private final long maxBytes;
+  private long bytesWritten;
+  private boolean exceeded;
+
+  ByteLimitOutputStream(OutputStream out, long maxBytes) {
+    super(out);
+    this.maxBytes = maxBytes;
+  }
+
+  long getBytesWritten() {
+    return bytesWritten;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    if (admit(1)) {
+      out.write(b);
+    }
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    if (admit(len)) {
+      out.write(b, off, len);
+    }
+  }
+
+  private boolean admit(int len) {
+    if (exceeded) {
+      return false;
+    }
+    if (bytesWritten + len > maxBytes) {
+      exceeded = true;
+      throw new ExportLimitExceededException(
+          "Export exceeds maximum size of " + maxBytes + " bytes");
+    }
+    bytesWritten += len;
+    return true;
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.export;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * One export column, compiled to a direct accessor and an encoder. Replaces a super-csv field name
+ * and cell processor pair without reflection or intermediate strings.
+ */
+@FunctionalInterface
+public interface CsvColumn<T> {
+
+  void write(T row, CsvRowEncoder encoder);
+
+  /** Delimiter-cleaned string. */
+  static <T> CsvColumn<T> cleanString(Function<T, String> getter) {
+    return (row, encoder) -> {
+      String value = getter.apply(row);
+      if (value == null) {
+        encoder.nullCell();
+        return;
+      }
+      encoder.openCell();
+      encoder.appendClean(value);
+      encoder.closeCell();
+    };
+  }
+
+  /** Delimiter-cleaned strings joined by {@link CsvWriter#ARRAY_DELIMITER}. */
+  static <T> CsvColumn<T> cleanStrings(Function<T, ? extends List<String>> getter) {
+    return (row, encoder) -> {
+      List<String> values = getter.apply(row);
+      if (values == null) {
+        encoder.nullCell();
+        return;
+      }
+      encoder.openCell();
+      for (int i = 0; i < values.size(); i++) {
+        if (i > 0) {
+          encoder.appendPlain(CsvWriter.ARRAY_DELIMITER);
+        }
+        encoder.appendClean(values.get(i));
+      }
+      encoder.closeCell();
+    };
+  }
+
+  /** Delimiter-cleaned string forms of the map values, joined by the array delimiter. */
+  static <T> CsvColumn<T> cleanMapValues(Function<T, ? extends Map<String, Object>> getter) {
+    return (row, encoder) -> {
+      Map<String, Object> values = getter.apply(row);
+      if (values == null) {
+        encoder.nullCell();
+        return;
+      }
+      encoder.openCell();
+      boolean first = true;
+      for (Object value : values.values()) {
+        if (!first) {
+          encoder.appendPlain(CsvWriter.ARRAY_DELIMITER);
+        }
+        encoder.appendClean(value.toString());
+        first = false;
+      }
+      encoder.closeCell();
+    };
+  }
+
+  /** Enum constant name. */
+  static <T> CsvColumn<T> enumName(Function<T, ? extends Enum<?>> getter) {
+    return (row, encoder) -> {
+      Enum<?> value = getter.apply(row);
+      if (value == null) {
+        encoder.nullCell();
+        return;
+      }
+      encoder.openCell();
+      encoder.appendPlain(value.name());
+      encoder.closeCell();
+    };
+  }
+
+  /** Enum constant names joined by the array delimiter, in iteration order. */
+  static <T> CsvColumn<T> enumNames(Function<T, ? extends Collection<? extends Enum<?>>> getter) {
+    return (row, encoder) -> {
+      Collection<? extends Enum<?>> values = getter.apply(row);
+      if (values == null) {
+        encoder.nullCell();
+        return;
+      }
+      encoder.openCell();
+      boolean first = true;
+      for (Enum<?> value : values) {
+        if (!first) {
+          encoder.appendPlain(CsvWriter.ARRAY_DELIMITER);
+        }
+        encoder.appendPlain(value.name());
+        first = false;
+      }
+      encoder.closeCell();
+    };
+  }
+
+  /** {@code true} or {@code false}. */
+  static <T> CsvColumn<T> bool(Function<T, Boolean> getter) {
+    return (row, encoder) -> {
+      Boolean value = getter.apply(row);
+      if (value == null) {
+        encoder.nullCell();
+        return;
+      }
+      encoder.openCell();
+      encoder.appendPlain(value ? "true" : "false");
+      encoder.closeCell();
+    };
+  }
+
+  /** Date in a {@link java.text.SimpleDateFormat} pattern. */
+  static <T> CsvColumn<T> date(Function<T, Date> getter, String pattern) {
+    return (row, encoder) -> {
+      Date value = getter.apply(row);
+      if (value == null) {
+        encoder.nullCell();
+        return;
+      }
+      encoder.openCell();
+      encoder.appendDate(value, pattern);
+      encoder.closeCell();
+    };
+  }
+
+  static <T> CsvColumn<T> uuid(Function<T, UUID> getter) {
+    return (row, encoder) -> {
+      UUID value = getter.apply(row);
+      if (value == null) {
+        encoder.nullCell();
+        return;
+      }
+      encoder.openCell();
+      encoder.appendUuid(value);
+      encoder.closeCell();
+    };
+  }
+}
@@ -0,0 +1,283 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.export;
+
+import org.gbif.api.model.common.export.ExportFormat;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.FieldPosition;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Encodes export rows into a reusable char buffer, producing the same output as super-csv with
+ * {@link org.supercsv.quote.AlwaysQuoteMode}: every non-null cell is quoted, quotes are doubled,
+ * null cells are left empty and rows, like line breaks within values, end with the line separator
+ * of the format (CRLF for CSV, LF for TSV).
+ *
+ * <p>Cells are written with {@link #openCell()}, any number of append calls and {@link
+ * #closeCell()}. Rows accumulate in the buffer until {@link #flushTo(Writer, boolean)} hands them
+ * to the writer. Not thread safe, use one encoder per export.
+ */
+public final class CsvRowEncoder {
+
+  private static final char QUOTE = '"';
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  // rows are handed to the writer in chunks of about this size, like super-csv's BufferedWriter
+  static final int FLUSH_CHARS = 8192;
+
+  private final char delimiter;
+  private final String eol;
+  private final Map<String, SimpleDateFormat> dateFormats = new HashMap<>();
+  private final StringBuffer dateBuffer = new StringBuffer(32);
+  private final FieldPosition fieldPosition = new FieldPosition(0);
+
+  private char[] buffer;
+  private int length;
+  private int cells;
+
+  public CsvRowEncoder(ExportFormat format) {
+    this(format, FLUSH_CHARS * 2);
+  }
+
+  /** An encoder starting with room for {@code capacity} chars, e.g. to stage a single cell. */
+  CsvRowEncoder(ExportFormat format, int capacity) {
+    buffer = new char[capacity];
+    if (ExportFormat.CSV == format) {
+      delimiter = ',';
+      eol = "\r\n";
+    } else if (ExportFormat.TSV == format) {
+      delimiter = '\t';
+      eol = "\n";
+    } else {
+      throw new IllegalArgumentException("Export format not supported " + format);
+    }
+  }
+
+  /** Encodes a row of quoted header names. */
+  public void header(String[] names) {
+    for (String name : names) {
+      openCell();
+      append(name);
+      closeCell();
+    }
+    endRow();
+  }
+
+  /** A null value: an empty, unquoted cell. */
+  public void nullCell() {
+    separator();
+  }
+
+  public void openCell() {
+    separator();
+    put(QUOTE);
+  }
+
+  public void closeCell() {
+    put(QUOTE);
+  }
+
+  public void endRow() {
+    appendPlain(eol);
+    cells = 0;
+  }
+
+  /** Appends a value, escaping quotes and normalizing line breaks to the line separator. */
+  public void append(CharSequence value) {
+    int len = value.length();
+    ensure(len);
+    boolean skipNewline = false;
+    for (int i = 0; i < len; i++) {
+      char c = value.charAt(i);
+      if (skipNewline) {
+        skipNewline = false;
+        if (c == '\n') {
+          continue;
+        }
+      }
+      if (c == QUOTE) {
+        put(QUOTE);
+        put(QUOTE);
+      } else if (c == '\r') {
+        putEol();
+        skipNewline = true;
+      } else if (c == '\n') {
+        putEol();
+      } else {
+        put(c);
+      }
+    }
+  }
+
+  /**
+   * Appends a value with field and line delimiters replaced by a space, as {@link
+   * CsvWriter.CleanStringProcessor} does, escaping quotes in the same pass.
+   */
+  public void appendClean(CharSequence value) {
+    int len = value.length();
+    ensure(len);
+    for (int i = 0; i < len; i++) {
+      char c = value.charAt(i);
+      if (isDelimiter(c)) {
+        put(' ');
+      } else if (c == QUOTE) {
+        put(QUOTE);
+        put(QUOTE);
+      } else {
+        put(c);
+      }
+    }
+  }
+
+  /** {@link #appendClean(CharSequence)} of a range of characters, such as a parser's text. */
+  public void appendClean(char[] chars, int offset, int len) {
+    ensure(len);
+    for (int i = offset, end = offset + len; i < end; i++) {
+      char c = chars[i];
+      if (isDelimiter(c)) {
+        put(' ');
+      } else if (c == QUOTE) {
+        put(QUOTE);
+        put(QUOTE);
+      } else {
+        put(c);
+      }
+    }
+  }
+
+  /**
+   * Appends the cell staged in another encoder of the same format as the next cell, or a null cell
+   * if nothing was staged.
+   */
+  public void appendCell(CsvRowEncoder cell) {
+    separator();
+    ensure(cell.length);
+    System.arraycopy(cell.buffer, 0, buffer, length, cell.length);
+    length += cell.length;
+  }
+
+  /** Whether nothing has been encoded since the last flush or reset. */
+  public boolean isEmpty() {
+    return length == 0;
+  }
+
+  /** Discards what has been encoded, to reuse the encoder for the next row or cell. */
+  public void reset() {
+    length = 0;
+    cells = 0;
+  }
+
+  /** Appends a character that needs no escaping, such as a list delimiter. */
+  public void appendPlain(char c) {
+    put(c);
+  }
+
+  /** Appends a name that needs no escaping, such as an enum constant. */
+  public void appendPlain(String value) {
+    int len = value.length();
+    ensure(len);
+    value.getChars(0, len, buffer, length);
+    length += len;
+  }
+
+  /** Appends a date formatted like super-csv's {@code FmtDate}, in the default time zone. */
+  public void appendDate(Date date, String pattern) {
+    SimpleDateFormat format = dateFormats.computeIfAbsent(pattern, SimpleDateFormat::new);
+    dateBuffer.setLength(0);
+    format.format(date, dateBuffer, fieldPosition);
+    int len = dateBuffer.length();
+    ensure(len);
+    dateBuffer.getChars(0, len, buffer, length);
+    length += len;
+  }
+
+  /** Appends the canonical form of a UUID without going through {@link UUID#toString()}. */
+  public void appendUuid(UUID uuid) {
+    ensure(36);
+    long msb = uuid.getMostSignificantBits();
+    long lsb = uuid.getLeastSignificantBits();
+    putHex(msb >>> 32, 8);
+    put('-');
+    putHex(msb >>> 16, 4);
+    put('-');
+    putHex(msb, 4);
+    put('-');
+    putHex(lsb >>> 48, 4);
+    put('-');
+    putHex(lsb, 12);
+  }
+
+  /** Writes the encoded rows once a chunk has accumulated, or everything if {@code force}. */
+  public void flushTo(Writer writer, boolean force) throws IOException {
+    if (length > 0 && (force || length >= FLUSH_CHARS)) {
+      writer.write(buffer, 0, length);
+      length = 0;
+    }
+  }
+
+  /** Same characters {@link CsvWriter.CleanStringProcessor#cleanString(String)} replaces. */
+  static boolean isDelimiter(char c) {
+    switch (c) {
+      case '\t':
+      case '\n':
+      case '\u000B':
+      case '\u000C':
+      case '\r':
+      case '\u0000':
+      case '\u0085':
+      case '\u2028':
+      case '\u2029':
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private void separator() {
+    if (cells++ > 0) {
+      put(delimiter);
+    }
+  }
+
+  private void putEol() {
+    appendPlain(eol);
+  }
+
+  private void putHex(long value, int digits) {
+    for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+      buffer[length++] = HEX[(int) (value >>> shift) & 0xF];
+    }
+  }
+
+  private void put(char c) {
+    if (length == buffer.length) {
+      ensure(1);
+    }
+    buffer[length++] = c;
+  }
+
+  /** Makes room for at least {@code chars} more characters. */
+  private void ensure(int chars) {
+    if (length + chars > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + chars));
+    }
+  }
+}
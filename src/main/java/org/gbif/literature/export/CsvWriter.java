@@ -47,11 +47,20 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.SneakyThrows;
 
+import static org.gbif.literature.export.CsvColumn.bool;
+import static org.gbif.literature.export.CsvColumn.cleanMapValues;
+import static org.gbif.literature.export.CsvColumn.cleanString;
+import static org.gbif.literature.export.CsvColumn.cleanStrings;
+import static org.gbif.literature.export.CsvColumn.date;
+import static org.gbif.literature.export.CsvColumn.enumName;
+import static org.gbif.literature.export.CsvColumn.enumNames;
+import static org.gbif.literature.export.CsvColumn.uuid;
+
 @Data
 @Builder
 public class CsvWriter<T> {
 
-  private static final String DATE_FORMAT_STR_PLAIN = "yyyy-MM-dd";
+  static final String DATE_FORMAT_STR_PLAIN = "yyyy-MM-dd";
 
   // Delimiter used for list/array of elements
   public static final String ARRAY_DELIMITER = "|";
@@ -62,14 +71,15 @@ public class CsvWriter<T> {
 
   private final CellProcessor[] processors;
 
-  private final LiteraturePager pager;
+  // Compiled equivalents of fields and processors, used instead of the bean writer when set.
+  private final List<CsvColumn<LiteratureSearchResult>> columns;
+
+  private final ExportPager pager;
 
   private final ExportFormat preference;
 
   private final int exportPageLimit;
 
-  private final long maxExportBytes;
-
   // Use dozer if set to true.
   private Class<?> forClass;
 
@@ -88,12 +98,12 @@ public class CsvWriter<T> {
 
   @SneakyThrows
   public void export(Writer writer) {
-    Writer exportWriter =
-        maxExportBytes > 0 ? new ByteCountingWriter(writer, maxExportBytes) : writer;
     if (forClass != null) {
-      exportUsingDozerBeanWriter(exportWriter);
+      exportUsingDozerBeanWriter(writer);
+    } else if (columns != null) {
+      exportUsingColumns(writer);
     } else {
-      exportUsingBeanWriter(exportWriter);
+      exportUsingBeanWriter(writer);
     }
   }
 
@@ -105,6 +115,24 @@ public class CsvWriter<T> {
     }
   }
 
+  /** Writes the same output as the bean writer, without reflection or per-cell strings. */
+  @SneakyThrows
+  private void exportUsingColumns(Writer writer) {
+    try (Writer out = writer) {
+      CsvRowEncoder encoder = new CsvRowEncoder(preference);
+      encoder.header(header);
+      exportPages(
+          result -> {
+            for (CsvColumn<LiteratureSearchResult> column : columns) {
+              column.write(result, encoder);
+            }
+            encoder.endRow();
+            encoder.flushTo(out, false);
+          });
+      encoder.flushTo(out, true);
+    }
+  }
+
   @SneakyThrows
   private void exportUsingDozerBeanWriter(Writer writer) {
     try (CsvDozerBeanWriter beanWriter = new CsvDozerBeanWriter(writer, csvPreference())) {
@@ -116,7 +144,7 @@ public class CsvWriter<T> {
 
   @SneakyThrows
   private void exportPages(LiteratureRowWriter rowWriter) {
-    try (LiteraturePager literaturePager = pager) {
+    try (ExportPager literaturePager = pager) {
       while (true) {
         SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> response =
             literaturePager.nextPage();
@@ -135,77 +163,133 @@ public class CsvWriter<T> {
     void write(LiteratureSearchResult result) throws Exception;
   }
 
+  /** Properties of the literature export columns, in column order. */
+  static final String[] LITERATURE_FIELDS = {
+    "title",
+    "authors",
+    "source",
+    "published",
+    "openAccess",
+    "peerReview",
+    "citationType",
+    "countriesOfCoverage",
+    "countriesOfResearcher",
+    "keywords",
+    "literatureType",
+    "websites",
+    "identifiers",
+    "id",
+    "abstract",
+    "topics",
+    "added",
+    "gbifDownloadKey"
+  };
+
+  /** Header names of the literature export columns. */
+  static final String[] LITERATURE_HEADER = {
+    "title",
+    "authors",
+    "source",
+    "published",
+    "open_access",
+    "peer_review",
+    "citation_type",
+    "countries_of_coverage",
+    "countries_of_researcher",
+    "keywords",
+    "literature_type",
+    "websites",
+    "identifiers",
+    "id",
+    "abstract",
+    "topics",
+    "added",
+    "gbif_download_key"
+  };
+
+  /** Compiled columns, in the order of the fields above and the processors below. */
+  private static final List<CsvColumn<LiteratureSearchResult>> LITERATURE_COLUMNS =
+      List.of(
+          cleanString(LiteratureSearchResult::getTitle),
+          CsvWriter::writeAuthors,
+          cleanString(LiteratureSearchResult::getSource),
+          date(LiteratureSearchResult::getPublished, DATE_FORMAT_STR_PLAIN),
+          bool(LiteratureSearchResult::getOpenAccess),
+          bool(LiteratureSearchResult::getPeerReview),
+          cleanString(LiteratureSearchResult::getCitationType),
+          enumNames(LiteratureSearchResult::getCountriesOfCoverage),
+          enumNames(LiteratureSearchResult::getCountriesOfResearcher),
+          cleanStrings(LiteratureSearchResult::getKeywords),
+          enumName(LiteratureSearchResult::getLiteratureType),
+          cleanStrings(LiteratureSearchResult::getWebsites),
+          cleanMapValues(LiteratureSearchResult::getIdentifiers),
+          uuid(LiteratureSearchResult::getId),
+          cleanString(LiteratureSearchResult::getAbstract),
+          enumNames(LiteratureSearchResult::getTopics),
+          date(LiteratureSearchResult::getAdded, StdDateFormat.DATE_FORMAT_STR_ISO8601),
+          cleanStrings(LiteratureSearchResult::getGbifDownloadKey));
+
+  /** Compiled {@link AuthorProcessor}: cleaned "firstName lastName" of each author. */
+  private static void writeAuthors(LiteratureSearchResult result, CsvRowEncoder encoder) {
+    List<Map<String, Object>> authors = result.getAuthors();
+    if (authors == null) {
+      encoder.nullCell();
+      return;
+    }
+    encoder.openCell();
+    for (int i = 0; i < authors.size(); i++) {
+      if (i > 0) {
+        encoder.appendPlain(ARRAY_DELIMITER);
+      }
+      Map<String, Object> author = authors.get(i);
+      encoder.appendClean(String.valueOf(author.get("firstName")));
+      encoder.appendPlain(' ');
+      encoder.appendClean(String.valueOf(author.get("lastName")));
+    }
+    encoder.closeCell();
+  }
+
   /** Creates an CsvWriter/exporter of LiteratureSearchResult. */
   public static CsvWriter<LiteratureSearchResult> literatureSearchResultCsvWriter(
-      LiteraturePager pager, ExportFormat preference, int exportPageLimit, long maxExportBytes) {
+      ExportPager pager, ExportFormat preference, int exportPageLimit) {
+    return literatureSearchResultCsvWriter(pager, preference, exportPageLimit, ExportFields.ALL);
+  }
+
+  /** Creates an CsvWriter/exporter of the chosen columns of LiteratureSearchResult. */
+  public static CsvWriter<LiteratureSearchResult> literatureSearchResultCsvWriter(
+      ExportPager pager,
+      ExportFormat preference,
+      int exportPageLimit,
+      ExportFields exportFields) {
     return CsvWriter.<LiteratureSearchResult>builder()
-        .fields(
-            new String[] {
-              "title",
-              "authors",
-              "source",
-              "published",
-              "openAccess",
-              "peerReview",
-              "citationType",
-              "countriesOfCoverage",
-              "countriesOfResearcher",
-              "keywords",
-              "literatureType",
-              "websites",
-              "identifiers",
-              "id",
-              "abstract",
-              "topics",
-              "added",
-              "gbifDownloadKey"
-            })
-        .header(
-            new String[] {
-              "title",
-              "authors",
-              "source",
-              "published",
-              "open_access",
-              "peer_review",
-              "citation_type",
-              "countries_of_coverage",
-              "countries_of_researcher",
-              "keywords",
-              "literature_type",
-              "websites",
-              "identifiers",
-              "id",
-              "abstract",
-              "topics",
-              "added",
-              "gbif_download_key"
-            })
+        .fields(exportFields.select(LITERATURE_FIELDS))
+        .header(exportFields.select(LITERATURE_HEADER))
         .processors(
-            new CellProcessor[] {
-              new Optional(new CleanStringProcessor()), // title
-              new Optional(new AuthorProcessor()), //  authors
-              new Optional(new CleanStringProcessor()), // source,
-              new Optional(new FmtDate(DATE_FORMAT_STR_PLAIN)), // published,
-              new Optional(new FmtBool("true", "false")), // openAccess,
-              new Optional(new FmtBool("true", "false")), // peerReview,
-              new Optional(new CleanStringProcessor()), // citationType,
-              new Optional(new CountrySetProcessor()), // countriesOfCoverage,
-              new Optional(new CountrySetProcessor()), // countriesOfResearcher,
-              new Optional(new ListStringProcessor()), // keywords,
-              new Optional(new LiteratureTypeProcessor()), // literatureType,
-              new Optional(new ListStringProcessor()), // websites,
-              new Optional(new IdentifiersProcessor()), // identifiers,
-              new Optional(new UUIDProcessor()), // id,
-              new Optional(new CleanStringProcessor()), // abstract,
-              new Optional(new SetLiteratureTopicProcessor()), // topics,
-              new Optional(new FmtDate(StdDateFormat.DATE_FORMAT_STR_ISO8601)), // added,
-              new Optional(new ListStringProcessor()) // gbifDownloadKey
-            })
+            exportFields.select(
+                new CellProcessor[] {
+                  new Optional(new CleanStringProcessor()), // title
+                  new Optional(new AuthorProcessor()), //  authors
+                  new Optional(new CleanStringProcessor()), // source,
+                  new Optional(new FmtDate(DATE_FORMAT_STR_PLAIN)), // published,
+                  new Optional(new FmtBool("true", "false")), // openAccess,
+                  new Optional(new FmtBool("true", "false")), // peerReview,
+                  new Optional(new CleanStringProcessor()), // citationType,
+                  new Optional(new CountrySetProcessor()), // countriesOfCoverage,
+                  new Optional(new CountrySetProcessor()), // countriesOfResearcher,
+                  new Optional(new ListStringProcessor()), // keywords,
+                  new Optional(new LiteratureTypeProcessor()), // literatureType,
+                  new Optional(new ListStringProcessor()), // websites,
+                  new Optional(new IdentifiersProcessor()), // identifiers,
+                  new Optional(new UUIDProcessor()), // id,
+                  new Optional(new CleanStringProcessor()), // abstract,
+                  new Optional(new SetLiteratureTopicProcessor()), // topics,
+                  new Optional(new FmtDate(StdDateFormat.DATE_FORMAT_STR_ISO8601)), // added,
+                  new Optional(new ListStringProcessor()) // gbifDownloadKey
+                }))
+        .columns(exportFields.select(LITERATURE_COLUMNS))
         .preference(preference)
         .pager(pager)
         .exportPageLimit(exportPageLimit)
-        .maxExportBytes(maxExportBytes)
         .build();
   }
 
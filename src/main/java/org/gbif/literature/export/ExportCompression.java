@@ -0,0 +1,49 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.export;
+
+import java.util.Locale;
+
+/** Compression of an export file, chosen with the {@code compression} parameter. */
+public enum ExportCompression {
+  NONE(null, null),
+  GZIP("gz", "application/gzip"),
+  ZSTD("zst", "application/zstd");
+
+  private final String fileExtension;
+  private final String mediaType;
+
+  ExportCompression(String fileExtension, String mediaType) {
+    this.fileExtension = fileExtension;
+    this.mediaType = mediaType;
+  }
+
+  /** Extension appended to the export file name, null if uncompressed. */
+  public String getFileExtension() {
+    return fileExtension;
+  }
+
+  /** Media type of the compressed file, null if uncompressed. */
+  public String getMediaType() {
+    return mediaType;
+  }
+
+  /** Case-insensitive lookup of a request parameter value. */
+  public static ExportCompression fromParameter(String value) {
+    if (value == null || value.isBlank()) {
+      return NONE;
+    }
+    return valueOf(value.trim().toUpperCase(Locale.ROOT));
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.export;
+
+import org.gbif.literature.search.LiteratureSourceFields;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Columns of an export chosen with the {@code fields} parameter, named by their result property,
+ * as in JSON Lines, or by their CSV header. Columns are written in the order of the full export,
+ * whatever order they are given in.
+ */
+public final class ExportFields {
+
+  /** All columns, the default. */
+  public static final ExportFields ALL =
+      new ExportFields(IntStream.range(0, CsvWriter.LITERATURE_FIELDS.length).toArray());
+
+  // indexes of the chosen columns in the full export, ascending
+  private final int[] columns;
+  // position of each column of the full export among the chosen ones, -1 if not chosen
+  private final int[] slots;
+
+  private ExportFields(int[] columns) {
+    this.columns = columns;
+    this.slots = new int[CsvWriter.LITERATURE_FIELDS.length];
+    Arrays.fill(slots, -1);
+    for (int i = 0; i < columns.length; i++) {
+      slots[columns[i]] = i;
+    }
+  }
+
+  /** Parses a comma-separated list of column names, ignoring case and repeated names. */
+  public static ExportFields fromParameter(String value) {
+    boolean[] chosen = new boolean[CsvWriter.LITERATURE_FIELDS.length];
+    for (String name : value.split(",")) {
+      name = name.trim();
+      if (!name.isEmpty()) {
+        chosen[column(name)] = true;
+      }
+    }
+    int[] columns = IntStream.range(0, chosen.length).filter(i -> chosen[i]).toArray();
+    if (columns.length == 0) {
+      throw new IllegalArgumentException("No export fields given");
+    }
+    return columns.length == chosen.length ? ALL : new ExportFields(columns);
+  }
+
+  private static int column(String name) {
+    for (int i = 0; i < CsvWriter.LITERATURE_FIELDS.length; i++) {
+      if (CsvWriter.LITERATURE_FIELDS[i].equalsIgnoreCase(name)
+          || CsvWriter.LITERATURE_HEADER[i].equalsIgnoreCase(name)) {
+        return i;
+      }
+    }
+    throw new IllegalArgumentException("Unknown export field " + name);
+  }
+
+  public boolean isAll() {
+    return columns.length == slots.length;
+  }
+
+  /** Number of chosen columns. */
+  public int size() {
+    return columns.length;
+  }
+
+  /** Whether a result property is exported; any property is when all columns are. */
+  public boolean includes(String property) {
+    if (isAll()) {
+      return true;
+    }
+    int column = Arrays.asList(CsvWriter.LITERATURE_FIELDS).indexOf(property);
+    return column >= 0 && slots[column] >= 0;
+  }
+
+  /** Position of a column of the full export among the chosen ones, -1 if it is not chosen. */
+  int slot(int column) {
+    return slots[column];
+  }
+
+  /** The chosen elements of an array with one element per column of the full export. */
+  <T> T[] select(T[] all) {
+    T[] selected = Arrays.copyOf(all, columns.length);
+    for (int i = 0; i < columns.length; i++) {
+      selected[i] = all[columns[i]];
+    }
+    return selected;
+  }
+
+  /** The chosen elements of a list with one element per column of the full export. */
+  <T> List<T> select(List<T> all) {
+    List<T> selected = new ArrayList<>(columns.length);
+    for (int column : columns) {
+      selected.add(all.get(column));
+    }
+    return selected;
+  }
+
+  /** Source fields the chosen columns are read from. */
+  public List<String> getSourceFields() {
+    List<String> sourceFields = new ArrayList<>(columns.length);
+    for (int column : columns) {
+      sourceFields.add(LiteratureSourceFields.sourceField(CsvWriter.LITERATURE_FIELDS[column]));
+    }
+    return sourceFields;
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.export;
+
+import org.gbif.api.model.common.export.ExportFormat;
+
+import java.util.Locale;
+
+/** File format of an export, chosen with the {@code format} parameter. */
+public enum ExportFileFormat {
+  CSV(ExportFormat.CSV),
+  TSV(ExportFormat.TSV),
+  /** JSON Lines: one JSON object per record and line. */
+  JSONL(null),
+  /** Apache Arrow IPC stream: typed columns, one record batch per export page. */
+  ARROW(null, "arrows", "application/vnd.apache.arrow.stream");
+
+  private final ExportFormat delimitedFormat;
+  private final String fileExtension;
+  private final String mediaType;
+
+  ExportFileFormat(ExportFormat delimitedFormat) {
+    this.delimitedFormat = delimitedFormat;
+    this.fileExtension = name().toLowerCase(Locale.ROOT);
+    this.mediaType = "application/octet-stream";
+  }
+
+  ExportFileFormat(ExportFormat delimitedFormat, String fileExtension, String mediaType) {
+    this.delimitedFormat = delimitedFormat;
+    this.fileExtension = fileExtension;
+    this.mediaType = mediaType;
+  }
+
+  /** The delimited text format written by {@link CsvWriter}, null for other formats. */
+  public ExportFormat getDelimitedFormat() {
+    return delimitedFormat;
+  }
+
+  public String getFileExtension() {
+    return fileExtension;
+  }
+
+  /** Content type of an uncompressed export. */
+  public String getMediaType() {
+    return mediaType;
+  }
+
+  /** Case-insensitive lookup of a request parameter value. */
+  public static ExportFileFormat fromParameter(String value) {
+    return valueOf(value.trim().toUpperCase(Locale.ROOT));
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.export;
+
+import org.gbif.literature.config.LiteratureConfigProperties;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.GZIPOutputStream;
+
+import jakarta.annotation.PreDestroy;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.springframework.stereotype.Component;
+
+import com.github.luben.zstd.ZstdOutputStream;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Opens the UTF-8 output of an export, optionally compressed, reusing the buffers of finished
+ * exports. The pool holds at most as many buffers as exports ran at the same time, which the export
+ * concurrency limit bounds. Binary formats get a byte stream and off-heap memory instead.
+ *
+ * <p>The export size limit counts the uncompressed bytes, or with {@code
+ * literature.export-limit-compressed-bytes} the compressed bytes sent to the client.
+ */
+@Component
+public class ExportOutputFactory {
+
+  static final int CHAR_BUFFER_SIZE = CsvRowEncoder.FLUSH_CHARS;
+
+  private final LiteratureConfigProperties literatureConfigProperties;
+  private final Queue<Utf8ExportWriter.Buffers> pool = new ConcurrentLinkedQueue<>();
+  private final DistributionSummary exportBytes;
+  // created by the first Arrow export, as Arrow's memory module needs java.nio opened to it
+  private BufferAllocator rootAllocator;
+
+  public ExportOutputFactory(
+      LiteratureConfigProperties literatureConfigProperties, MeterRegistry meterRegistry) {
+    this.literatureConfigProperties = literatureConfigProperties;
+    this.exportBytes =
+        DistributionSummary.builder("literature.export.bytes")
+            .description("Bytes written by an export before compression")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+  }
+
+  /** A writer encoding to UTF-8 onto the stream, closing the stream when it is closed. */
+  public Utf8ExportWriter open(OutputStream out) {
+    return new Utf8ExportWriter(
+        out,
+        buffers(),
+        literatureConfigProperties.getBufferLimitBytesExport(),
+        literatureConfigProperties.getExportFlushBytes(),
+        this::release);
+  }
+
+  /** A writer encoding to UTF-8 and compressing onto the stream. */
+  public Utf8ExportWriter open(OutputStream out, ExportCompression compression)
+      throws IOException {
+    if (compression == ExportCompression.NONE) {
+      return open(out);
+    }
+    long maxBytes = literatureConfigProperties.getBufferLimitBytesExport();
+    boolean limitCompressed = literatureConfigProperties.isExportLimitCompressedBytes();
+    OutputStream target =
+        limitCompressed && maxBytes > 0 ? new ByteLimitOutputStream(out, maxBytes) : out;
+    return new Utf8ExportWriter(
+        compress(target, compression),
+        buffers(),
+        limitCompressed ? 0 : maxBytes,
+        literatureConfigProperties.getExportFlushBytes(),
+        this::release);
+  }
+
+  /**
+   * A byte stream for binary formats onto the stream, compressed as requested, with the size limit
+   * of {@link #open(OutputStream, ExportCompression)}.
+   */
+  public OutputStream openStream(OutputStream out, ExportCompression compression)
+      throws IOException {
+    long maxBytes = literatureConfigProperties.getBufferLimitBytesExport();
+    boolean limitCompressed =
+        compression != ExportCompression.NONE
+            && literatureConfigProperties.isExportLimitCompressedBytes();
+    OutputStream target =
+        limitCompressed && maxBytes > 0 ? new ByteLimitOutputStream(out, maxBytes) : out;
+    OutputStream buffered =
+        new BufferedOutputStream(
+            compress(target, compression), literatureConfigProperties.getExportBufferBytes());
+    return new ByteLimitOutputStream(
+        buffered, limitCompressed || maxBytes <= 0 ? Long.MAX_VALUE : maxBytes) {
+      private boolean closed;
+
+      @Override
+      public void close() throws IOException {
+        if (!closed) {
+          closed = true;
+          exportBytes.record(getBytesWritten());
+        }
+        super.close();
+      }
+    };
+  }
+
+  /** Off-heap memory for the vectors of one Arrow export, closed by the export. */
+  public synchronized BufferAllocator arrowAllocator() {
+    if (rootAllocator == null) {
+      rootAllocator = new RootAllocator();
+    }
+    return rootAllocator.newChildAllocator(
+        "literature-export", 0, literatureConfigProperties.getExportArrowMemoryBytes());
+  }
+
+  @PreDestroy
+  public synchronized void shutdown() {
+    if (rootAllocator != null) {
+      rootAllocator.close();
+    }
+  }
+
+  private OutputStream compress(OutputStream out, ExportCompression compression)
+      throws IOException {
+    switch (compression) {
+      case GZIP:
+        int level = literatureConfigProperties.getExportGzipLevel();
+        return new GZIPOutputStream(out, literatureConfigProperties.getExportBufferBytes()) {
+          {
+            def.setLevel(level);
+          }
+        };
+      case ZSTD:
+        return new ZstdOutputStream(out, literatureConfigProperties.getExportZstdLevel());
+      default:
+        return out;
+    }
+  }
+
+  private Utf8ExportWriter.Buffers buffers() {
+    int bufferBytes = literatureConfigProperties.getExportBufferBytes();
+    Utf8ExportWriter.Buffers buffers = pool.poll();
+    if (buffers == null || buffers.byteCapacity() != bufferBytes) {
+      buffers = new Utf8ExportWriter.Buffers(CHAR_BUFFER_SIZE, bufferBytes);
+    }
+    return buffers;
+  }
+
+  /** Buffers currently pooled. */
+  int pooled() {
+    return pool.size();
+  }
+
+  private void release(Utf8ExportWriter writer) {
+    exportBytes.record(writer.getBytesWritten());
+    Utf8ExportWriter.Buffers buffers = writer.buffers();
+    buffers.reset();
+    pool.offer(buffers);
+  }
+}
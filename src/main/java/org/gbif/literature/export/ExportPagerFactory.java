@@ -0,0 +1,134 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.export;
+
+import org.gbif.api.model.literature.search.LiteratureSearchRequest;
+import org.gbif.literature.concurrency.Bulkheads;
+import org.gbif.literature.config.EsClientConfigProperties;
+import org.gbif.literature.config.LiteratureConfigProperties;
+import org.gbif.literature.search.LiteratureSearchService;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongConsumer;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.stereotype.Component;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Creates the pager of an export: sliced, or sequential with its pages prefetched, depending on
+ * the configuration.
+ */
+@Component
+public class ExportPagerFactory {
+
+  private final LiteratureSearchService literatureSearchService;
+  private final ElasticsearchClient elasticsearchClient;
+  private final EsClientConfigProperties esClientConfigProperties;
+  private final LiteratureConfigProperties literatureConfigProperties;
+  private final DistributionSummary sliceThroughput;
+  private final Executor sliceExecutor;
+  // one thread per running export at most, bounded by the export concurrency limit
+  private final ExecutorService prefetchExecutor =
+      Executors.newCachedThreadPool(
+          new ThreadFactoryBuilder()
+              .setNameFormat("literature-export-prefetch-%d")
+              .setDaemon(true)
+              .build());
+
+  public ExportPagerFactory(
+      LiteratureSearchService literatureSearchService,
+      ElasticsearchClient elasticsearchClient,
+      EsClientConfigProperties esClientConfigProperties,
+      LiteratureConfigProperties literatureConfigProperties,
+      Bulkheads bulkheads,
+      MeterRegistry meterRegistry) {
+    this.literatureSearchService = literatureSearchService;
+    this.elasticsearchClient = elasticsearchClient;
+    this.esClientConfigProperties = esClientConfigProperties;
+    this.literatureConfigProperties = literatureConfigProperties;
+    this.sliceExecutor = bulkheads.exportSliceExecutor();
+    this.sliceThroughput =
+        DistributionSummary.builder("literature.export.slice.throughput")
+            .description("Rows per second read by one slice of a sliced export")
+            .baseUnit("rows/s")
+            .register(meterRegistry);
+  }
+
+  /**
+   * A pager over the export request, which must already be prepared for export. The latency of
+   * each Elasticsearch page, in nanoseconds, goes to {@code pageLatency}.
+   */
+  public ExportPager create(LiteratureSearchRequest exportRequest, LongConsumer pageLatency) {
+    if (literatureConfigProperties.getExportSlices() > 1) {
+      return new SlicedLiteraturePager(
+          literatureSearchService,
+          elasticsearchClient,
+          esClientConfigProperties.getIndex(),
+          literatureConfigProperties.getMaxExportRecords(),
+          literatureConfigProperties.getExportSlices(),
+          literatureConfigProperties.isExportSlicesOrdered(),
+          sliceThroughput,
+          exportRequest,
+          pageLatency,
+          sliceExecutor);
+    }
+    ExportPager pager =
+        new LiteraturePager(
+            literatureSearchService,
+            elasticsearchClient,
+            esClientConfigProperties,
+            literatureConfigProperties,
+            exportRequest,
+            pageLatency);
+    int prefetchPages = literatureConfigProperties.getExportPrefetchPages();
+    return prefetchPages > 0
+        ? new PrefetchingPager(pager, prefetchPages, prefetchExecutor)
+        : pager;
+  }
+
+  /**
+   * A pager over the raw responses of the export request, for formats transcoded straight from the
+   * sources. Always sequential, with its pages prefetched as configured.
+   */
+  public SourcePager createSource(
+      LiteratureSearchRequest exportRequest, LongConsumer pageLatency) {
+    SourcePager pager =
+        new LiteratureSourcePager(
+            literatureSearchService,
+            elasticsearchClient,
+            esClientConfigProperties,
+            literatureConfigProperties,
+            exportRequest,
+            pageLatency);
+    int prefetchPages = literatureConfigProperties.getExportPrefetchPages();
+    return prefetchPages > 0
+        ? new PrefetchingSourcePager(pager, prefetchPages, prefetchExecutor)
+        : pager;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    prefetchExecutor.shutdownNow();
+  }
+}
@@ -14,6 +14,7 @@
 package org.gbif.literature.export;
 
 import org.gbif.api.model.literature.search.LiteratureSearchRequest;
+import org.gbif.literature.search.LiteratureExportRequest;
 
 /** Prepares search requests for export (lean ES queries, no facets). */
 public final class ExportRequestSupport {
@@ -25,9 +26,18 @@ public final class ExportRequestSupport {
    *
    * @param exportPageSize ES page size for each PIT/search_after request {@code limit})
    */
-  public static LiteratureSearchRequest prepareForExport(
+  public static LiteratureExportRequest prepareForExport(
       LiteratureSearchRequest request, int exportPageSize) {
-    LiteratureSearchRequest exportRequest = new LiteratureSearchRequest();
+    return prepareForExport(request, exportPageSize, ExportFields.ALL);
+  }
+
+  /**
+   * Like {@link #prepareForExport(LiteratureSearchRequest, int)}, fetching only the source fields
+   * of the exported columns.
+   */
+  public static LiteratureExportRequest prepareForExport(
+      LiteratureSearchRequest request, int exportPageSize, ExportFields fields) {
+    LiteratureExportRequest exportRequest = new LiteratureExportRequest();
     exportRequest.setQ(request.getQ());
     exportRequest.setParameters(request.getParameters());
     exportRequest.setLimit(exportPageSize);
@@ -35,6 +45,7 @@ public final class ExportRequestSupport {
     exportRequest.setFacets(null);
     exportRequest.setHighlight(false);
     exportRequest.setFacetMultiSelect(false);
+    exportRequest.setSourceFields(fields.isAll() ? null : fields.getSourceFields());
     return exportRequest;
   }
 }
@@ -0,0 +1,124 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.export;
+
+import org.gbif.literature.search.ExportSourcePage;
+import org.gbif.literature.search.LiteratureSourceFields;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Writes an export as JSON Lines, one object per hit, transcoded token by token from the hit's
+ * {@code _source}. Fields get the names and enum case of {@code LiteratureSearchResult}, other
+ * values are copied as Elasticsearch stores them, dates included, and null or unknown fields are
+ * left out, as are the fields of columns left out of the export. The {@code id} is the hit's
+ * document id.
+ */
+public class JsonLinesWriter {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private final SourcePager pager;
+  private final ExportFields fields;
+
+  public JsonLinesWriter(SourcePager pager) {
+    this(pager, ExportFields.ALL);
+  }
+
+  /** A writer of the chosen columns only. */
+  public JsonLinesWriter(SourcePager pager, ExportFields fields) {
+    this.pager = pager;
+    this.fields = fields;
+  }
+
+  /** Writes all pages and closes the writer. */
+  public void export(Writer writer) throws IOException {
+    try (SourcePager sourcePager = pager;
+        JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+      // lines are separated by the newline each object ends with, not the default space
+      generator.setRootValueSeparator(null);
+      while (true) {
+        ExportSourcePage page = sourcePager.nextPage();
+        for (ExportSourcePage.Hit hit : page.getHits()) {
+          writeHit(page.getBody(), hit, fields, generator);
+        }
+        if (page.isEndOfRecords() || page.getHits().isEmpty()) {
+          break;
+        }
+      }
+    }
+  }
+
+  static void writeHit(
+      byte[] body, ExportSourcePage.Hit hit, ExportFields fields, JsonGenerator generator)
+      throws IOException {
+    generator.writeStartObject();
+    if (hit.getId() != null && fields.includes(LiteratureSourceFields.ID)) {
+      generator.writeStringField("id", hit.getId());
+    }
+    if (hit.hasSource()) {
+      try (JsonParser parser =
+          JSON_FACTORY.createParser(body, hit.getSourceOffset(), hit.getSourceLength())) {
+        parser.nextToken();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          String field = parser.currentName();
+          String name = LiteratureSourceFields.outputName(field);
+          JsonToken value = parser.nextToken();
+          if (name == null
+              || value == JsonToken.VALUE_NULL
+              || LiteratureSourceFields.ID.equals(field)
+              || !fields.includes(name)) {
+            parser.skipChildren();
+            continue;
+          }
+          generator.writeFieldName(name);
+          if (LiteratureSourceFields.isEnum(field)) {
+            copyUpperCase(parser, generator);
+          } else {
+            generator.copyCurrentStructure(parser);
+          }
+        }
+      }
+    }
+    generator.writeEndObject();
+    generator.writeRaw('\n');
+  }
+
+  /** Copies an enum name or array of enum names, in upper case like the result converter. */
+  private static void copyUpperCase(JsonParser parser, JsonGenerator generator)
+      throws IOException {
+    if (parser.currentToken() == JsonToken.VALUE_STRING) {
+      generator.writeString(parser.getText().toUpperCase(Locale.ROOT));
+    } else if (parser.currentToken() == JsonToken.START_ARRAY) {
+      generator.writeStartArray();
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        if (parser.currentToken() == JsonToken.VALUE_STRING) {
+          generator.writeString(parser.getText().toUpperCase(Locale.ROOT));
+        } else {
+          generator.copyCurrentStructure(parser);
+        }
+      }
+      generator.writeEndArray();
+    } else {
+      generator.copyCurrentStructure(parser);
+    }
+  }
+}
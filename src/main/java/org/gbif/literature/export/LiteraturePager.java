@@ -23,6 +23,7 @@ import org.gbif.literature.search.LiteratureSearchService;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.function.LongConsumer;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.elasticsearch._types.FieldValue;
@@ -33,13 +34,14 @@ import co.elastic.clients.elasticsearch.core.OpenPointInTimeResponse;
 import static org.gbif.literature.search.EsSearchRequestBuilder.EXPORT_PIT_KEEP_ALIVE;
 
 /** Cursor-paginated export over literature search results using PIT and search_after. */
-public class LiteraturePager implements AutoCloseable {
+public class LiteraturePager implements ExportPager {
 
   private final LiteratureSearchService literatureSearchService;
   private final ElasticsearchClient elasticsearchClient;
   private final LiteratureSearchRequest literatureSearchRequest;
   private final String index;
   private final int maxExportRecords;
+  private final LongConsumer pageLatency;
 
   private List<FieldValue> searchAfterValues;
   private String pitId;
@@ -50,14 +52,17 @@ public class LiteraturePager implements AutoCloseable {
       ElasticsearchClient elasticsearchClient,
       EsClientConfigProperties esClientConfigProperties,
       LiteratureConfigProperties literatureConfigProperties,
-      LiteratureSearchRequest literatureSearchRequest) {
+      LiteratureSearchRequest literatureSearchRequest,
+      LongConsumer pageLatency) {
     this.literatureSearchService = literatureSearchService;
     this.elasticsearchClient = elasticsearchClient;
     this.index = esClientConfigProperties.getIndex();
     this.maxExportRecords = literatureConfigProperties.getMaxExportRecords();
     this.literatureSearchRequest = literatureSearchRequest;
+    this.pageLatency = pageLatency;
   }
 
+  @Override
   public SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> nextPage()
       throws IOException {
     if (exportedRecords >= maxExportRecords) {
@@ -69,8 +74,10 @@ public class LiteraturePager implements AutoCloseable {
       pitId = openPit();
     }
 
+    long start = System.nanoTime();
     var exportPage =
         literatureSearchService.exportSearch(literatureSearchRequest, searchAfterValues, pitId);
+    pageLatency.accept(System.nanoTime() - start);
 
     pitId = exportPage.getPitId();
     searchAfterValues = exportPage.getNextSearchAfter();
@@ -0,0 +1,115 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.export;
+
+import org.gbif.api.model.literature.search.LiteratureSearchRequest;
+import org.gbif.literature.config.EsClientConfigProperties;
+import org.gbif.literature.config.LiteratureConfigProperties;
+import org.gbif.literature.search.ExportSourcePage;
+import org.gbif.literature.search.LiteratureSearchService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch.core.ClosePointInTimeRequest;
+import co.elastic.clients.elasticsearch.core.OpenPointInTimeRequest;
+
+import static org.gbif.literature.search.EsSearchRequestBuilder.EXPORT_PIT_KEEP_ALIVE;
+
+/** Like {@link LiteraturePager}, but pages through raw responses for source transcoding. */
+public class LiteratureSourcePager implements SourcePager {
+
+  private final LiteratureSearchService literatureSearchService;
+  private final ElasticsearchClient elasticsearchClient;
+  private final LiteratureSearchRequest literatureSearchRequest;
+  private final String index;
+  private final int maxExportRecords;
+  private final LongConsumer pageLatency;
+
+  private List<FieldValue> searchAfterValues;
+  private String pitId;
+  private int exportedRecords;
+
+  public LiteratureSourcePager(
+      LiteratureSearchService literatureSearchService,
+      ElasticsearchClient elasticsearchClient,
+      EsClientConfigProperties esClientConfigProperties,
+      LiteratureConfigProperties literatureConfigProperties,
+      LiteratureSearchRequest literatureSearchRequest,
+      LongConsumer pageLatency) {
+    this.literatureSearchService = literatureSearchService;
+    this.elasticsearchClient = elasticsearchClient;
+    this.index = esClientConfigProperties.getIndex();
+    this.maxExportRecords = literatureConfigProperties.getMaxExportRecords();
+    this.literatureSearchRequest = literatureSearchRequest;
+    this.pageLatency = pageLatency;
+  }
+
+  @Override
+  public ExportSourcePage nextPage() throws IOException {
+    if (exportedRecords >= maxExportRecords) {
+      throw new ExportLimitExceededException(
+          "Export exceeds maximum of " + maxExportRecords + " records");
+    }
+
+    if (pitId == null) {
+      pitId =
+          elasticsearchClient
+              .openPointInTime(
+                  OpenPointInTimeRequest.of(o -> o.index(index).keepAlive(EXPORT_PIT_KEEP_ALIVE)))
+              .id();
+    }
+
+    long start = System.nanoTime();
+    ExportSourcePage page =
+        literatureSearchService.exportSearchSource(
+            literatureSearchRequest, searchAfterValues, pitId, null);
+    pageLatency.accept(System.nanoTime() - start);
+    pitId = page.getPitId();
+    searchAfterValues = page.getNextSearchAfter();
+    exportedRecords += page.getHits().size();
+
+    if (page.isEndOfRecords()) {
+      closePit();
+    } else if (exportedRecords >= maxExportRecords) {
+      closePit();
+      return new ExportSourcePage(
+          page.getBody(), page.getHits(), page.getPitId(), page.getNextSearchAfter(), true);
+    }
+    return page;
+  }
+
+  @Override
+  public void close() {
+    try {
+      closePit();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void closePit() throws IOException {
+    if (pitId == null) {
+      return;
+    }
+    String id = pitId;
+    elasticsearchClient.closePointInTime(ClosePointInTimeRequest.of(c -> c.id(id)));
+    pitId = null;
+    searchAfterValues = null;
+  }
+}
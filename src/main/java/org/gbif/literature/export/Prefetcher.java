@@ -0,0 +1,165 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.export;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fetches pages on a background thread, up to {@code depth} pages ahead of the writer, so
+ * Elasticsearch searches for page N+1 while page N is written. The export then takes about as long
+ * as the slower of the two instead of their sum.
+ *
+ * <p>The page source is only used by the background thread, which also closes it.
+ */
+@Slf4j
+final class Prefetcher<P> {
+
+  private static final long CLOSE_TIMEOUT_SECONDS = 10;
+
+  /** Fetches the next page. */
+  @FunctionalInterface
+  interface Source<P> {
+    P next() throws IOException;
+  }
+
+  /** A fetched page, or the exception that ended the fetching. */
+  private static final class Fetched<P> {
+    private final P page;
+    private final Exception error;
+
+    private Fetched(P page, Exception error) {
+      this.page = page;
+      this.error = error;
+    }
+  }
+
+  private final Source<P> source;
+  private final Predicate<P> isLast;
+  private final Runnable closeSource;
+  private final Executor executor;
+  private final BlockingQueue<Fetched<P>> fetched;
+  private final CountDownLatch stopped = new CountDownLatch(1);
+  // guards the fetcher so close() never interrupts a pool thread that moved on to other work
+  private final Object fetcherLock = new Object();
+
+  private Thread fetcher;
+  private volatile boolean closed;
+  private boolean started;
+
+  Prefetcher(
+      Source<P> source,
+      Predicate<P> isLast,
+      Runnable closeSource,
+      int depth,
+      Executor executor) {
+    this.source = source;
+    this.isLast = isLast;
+    this.closeSource = closeSource;
+    this.executor = executor;
+    this.fetched = new ArrayBlockingQueue<>(Math.max(1, depth));
+  }
+
+  P next() throws IOException {
+    if (!started) {
+      started = true;
+      executor.execute(this::fetch);
+    }
+    Fetched<P> next;
+    try {
+      next = fetched.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for the next export page", e);
+    }
+    if (next.error instanceof IOException ioException) {
+      throw ioException;
+    }
+    if (next.error instanceof RuntimeException runtimeException) {
+      throw runtimeException;
+    }
+    if (next.error != null) {
+      throw new IOException(next.error);
+    }
+    return next.page;
+  }
+
+  /** Stops the background fetching and waits for it to close the source. */
+  void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (!started) {
+      closeSource.run();
+      return;
+    }
+    synchronized (fetcherLock) {
+      if (fetcher != null) {
+        fetcher.interrupt();
+      }
+    }
+    try {
+      if (!stopped.await(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        log.warn("Export prefetching did not stop within {} s", CLOSE_TIMEOUT_SECONDS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void fetch() {
+    synchronized (fetcherLock) {
+      fetcher = Thread.currentThread();
+    }
+    try {
+      while (!closed) {
+        P page = source.next();
+        fetched.put(new Fetched<>(page, null));
+        if (isLast.test(page)) {
+          break;
+        }
+      }
+    } catch (InterruptedException e) {
+      // closed while waiting for the writer
+    } catch (Exception e) {
+      if (!closed) {
+        try {
+          fetched.put(new Fetched<>(null, e));
+        } catch (InterruptedException ie) {
+          // closed while waiting for the writer
+        }
+      }
+    } finally {
+      try {
+        closeSource.run();
+      } catch (RuntimeException e) {
+        log.warn("Could not close the export pager", e);
+      }
+      synchronized (fetcherLock) {
+        fetcher = null;
+        // clears an interrupt from close() before the thread goes back to its pool
+        Thread.interrupted();
+      }
+      stopped.countDown();
+    }
+  }
+}
@@ -0,0 +1,41 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.export;
+
+import org.gbif.literature.search.ExportSourcePage;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+
+/** {@link PrefetchingPager} for raw pages. */
+public class PrefetchingSourcePager implements SourcePager {
+
+  private final Prefetcher<ExportSourcePage> prefetcher;
+
+  public PrefetchingSourcePager(SourcePager delegate, int depth, Executor executor) {
+    this.prefetcher =
+        new Prefetcher<>(
+            delegate::nextPage, ExportSourcePage::isEndOfRecords, delegate::close, depth, executor);
+  }
+
+  @Override
+  public ExportSourcePage nextPage() throws IOException {
+    return prefetcher.next();
+  }
+
+  @Override
+  public void close() {
+    prefetcher.close();
+  }
+}
@@ -0,0 +1,335 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.export;
+
+import org.gbif.api.model.common.search.SearchResponse;
+import org.gbif.api.model.literature.search.LiteratureSearchParameter;
+import org.gbif.api.model.literature.search.LiteratureSearchRequest;
+import org.gbif.api.model.literature.search.LiteratureSearchResult;
+import org.gbif.literature.search.ExportPageResult;
+import org.gbif.literature.search.ExportSlice;
+import org.gbif.literature.search.LiteratureSearchService;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch.core.ClosePointInTimeRequest;
+import co.elastic.clients.elasticsearch.core.OpenPointInTimeRequest;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import lombok.extern.slf4j.Slf4j;
+
+import static org.gbif.literature.search.EsSearchRequestBuilder.EXPORT_PIT_KEEP_ALIVE;
+
+/**
+ * Export over one point in time read as several concurrent {@code slice}d search_after streams,
+ * so several Elasticsearch round-trips are in flight at once. Each slice runs as a task of the
+ * slice executor and hands its pages over through a bounded queue, which stops it when the writer
+ * falls behind.
+ *
+ * <p>Ordered exports merge the slices on the export sort ({@code created desc, id asc}); unordered
+ * exports sort slices by {@code _shard_doc} and write pages as they arrive.
+ */
+@Slf4j
+public class SlicedLiteraturePager implements ExportPager {
+
+  /** Pages each slice may fetch ahead of the writer. */
+  private static final int PAGES_AHEAD = 2;
+
+  // a slice silent for longer than the point-in-time keep-alive has lost its context anyway
+  private static final long SLICE_TIMEOUT_MINUTES = 2;
+
+  // how often a writer waiting for a page looks for a failed slice
+  private static final long FAILURE_CHECK_MILLIS = 100;
+
+  /** The export sort applied to results: missing dates sort last, as in Elasticsearch. */
+  static final Comparator<LiteratureSearchResult> EXPORT_ORDER =
+      Comparator.comparing(
+              LiteratureSearchResult::getAdded,
+              Comparator.nullsLast(Comparator.<Date>reverseOrder()))
+          .thenComparing(r -> r.getId() != null ? r.getId().toString() : "");
+
+  /** Pages of one slice, handed over from the slice thread to the writer. */
+  private static final class Chunk {
+    private final List<LiteratureSearchResult> rows;
+    private final boolean last;
+
+    private Chunk(List<LiteratureSearchResult> rows, boolean last) {
+      this.rows = rows;
+      this.last = last;
+    }
+  }
+
+  private final LiteratureSearchService literatureSearchService;
+  private final ElasticsearchClient elasticsearchClient;
+  private final LiteratureSearchRequest literatureSearchRequest;
+  private final String index;
+  private final int maxExportRecords;
+  private final int slices;
+  private final boolean ordered;
+  private final DistributionSummary sliceThroughput;
+  private final LongConsumer pageLatency;
+  private final Executor sliceExecutor;
+
+  // ordered exports have a queue per slice to merge them, unordered ones share the first
+  private final List<BlockingQueue<Chunk>> queues = new ArrayList<>();
+  private final List<ArrayDeque<LiteratureSearchResult>> buffers = new ArrayList<>();
+  private final boolean[] finished;
+  private int finishedSlices;
+
+  private final List<Future<?>> sliceTasks = new ArrayList<>();
+  private boolean started;
+  private volatile String pitId;
+  private volatile boolean closed;
+  // the first slice failure, reported by the writer's next wait even if the queues are full
+  private volatile Exception failure;
+  private int exportedRecords;
+
+  public SlicedLiteraturePager(
+      LiteratureSearchService literatureSearchService,
+      ElasticsearchClient elasticsearchClient,
+      String index,
+      int maxExportRecords,
+      int slices,
+      boolean ordered,
+      DistributionSummary sliceThroughput,
+      LiteratureSearchRequest literatureSearchRequest,
+      LongConsumer pageLatency,
+      Executor sliceExecutor) {
+    this.literatureSearchService = literatureSearchService;
+    this.elasticsearchClient = elasticsearchClient;
+    this.index = index;
+    this.maxExportRecords = maxExportRecords;
+    this.slices = slices;
+    this.ordered = ordered;
+    this.sliceThroughput = sliceThroughput;
+    this.literatureSearchRequest = literatureSearchRequest;
+    this.pageLatency = pageLatency;
+    this.sliceExecutor = sliceExecutor;
+    this.finished = new boolean[slices];
+    for (int i = 0; i < (ordered ? slices : 1); i++) {
+      queues.add(new ArrayBlockingQueue<>(PAGES_AHEAD * (ordered ? 1 : slices)));
+    }
+    for (int i = 0; i < slices; i++) {
+      buffers.add(new ArrayDeque<>());
+    }
+  }
+
+  @Override
+  public SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> nextPage()
+      throws IOException {
+    if (exportedRecords >= maxExportRecords) {
+      throw new ExportLimitExceededException(
+          "Export exceeds maximum of " + maxExportRecords + " records");
+    }
+    if (!started) {
+      start();
+    }
+
+    List<LiteratureSearchResult> rows = ordered ? merge() : next();
+    exportedRecords += rows.size();
+
+    SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> response =
+        new SearchResponse<>(literatureSearchRequest);
+    response.setResults(rows);
+    if (isExhausted() || exportedRecords >= maxExportRecords) {
+      response.setEndOfRecords(true);
+      close();
+    }
+    return response;
+  }
+
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    // interrupts the slices waiting for Elasticsearch or for room in their queue
+    synchronized (sliceTasks) {
+      sliceTasks.forEach(task -> task.cancel(true));
+    }
+    if (pitId != null) {
+      try {
+        elasticsearchClient.closePointInTime(ClosePointInTimeRequest.of(c -> c.id(pitId)));
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      } finally {
+        pitId = null;
+      }
+    }
+  }
+
+  private void start() throws IOException {
+    started = true;
+    pitId =
+        elasticsearchClient
+            .openPointInTime(
+                OpenPointInTimeRequest.of(o -> o.index(index).keepAlive(EXPORT_PIT_KEEP_ALIVE)))
+            .id();
+    for (int i = 0; i < slices; i++) {
+      ExportSlice slice = new ExportSlice(i, slices, ordered);
+      FutureTask<Void> task = new FutureTask<>(() -> readSlice(slice), null);
+      synchronized (sliceTasks) {
+        if (closed) {
+          return;
+        }
+        sliceTasks.add(task);
+      }
+      // a full slice executor fails the export, whose close cancels the slices already started
+      sliceExecutor.execute(task);
+    }
+  }
+
+  /** Reads a slice to its end, or until the export is closed. */
+  private void readSlice(ExportSlice slice) {
+    BlockingQueue<Chunk> queue = queues.get(ordered ? slice.getId() : 0);
+    long start = System.nanoTime();
+    long rows = 0;
+    List<FieldValue> searchAfter = null;
+    try {
+      while (!closed) {
+        long pageStart = System.nanoTime();
+        ExportPageResult page =
+            literatureSearchService.exportSearch(
+                literatureSearchRequest, searchAfter, pitId, slice);
+        pageLatency.accept(System.nanoTime() - pageStart);
+        if (page.getPitId() != null) {
+          pitId = page.getPitId();
+        }
+        List<LiteratureSearchResult> results = page.getPage().getResults();
+        rows += results.size();
+        searchAfter = page.getNextSearchAfter();
+        boolean last =
+            page.getPage().isEndOfRecords()
+                || results.isEmpty()
+                || searchAfter == null
+                || searchAfter.isEmpty();
+        queue.put(new Chunk(results, last));
+        if (last) {
+          break;
+        }
+      }
+      double seconds = Math.max(1e-3, (System.nanoTime() - start) / 1e9);
+      sliceThroughput.record(rows / seconds);
+      log.debug("Export slice {}/{} read {} rows in {} s", slice.getId(), slices, rows, seconds);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      if (!closed && failure == null) {
+        failure = e;
+      }
+    }
+  }
+
+  /** Unordered: the next non-empty page of any slice, or none once all slices are done. */
+  private List<LiteratureSearchResult> next() throws IOException {
+    while (finishedSlices < slices) {
+      Chunk chunk = take(queues.get(0));
+      if (chunk.last) {
+        finishedSlices++;
+      }
+      if (!chunk.rows.isEmpty()) {
+        return chunk.rows;
+      }
+    }
+    return List.of();
+  }
+
+  /** Ordered: up to a page of rows, each time taking the first row of all slices. */
+  private List<LiteratureSearchResult> merge() throws IOException {
+    int pageSize = Math.max(1, literatureSearchRequest.getLimit());
+    List<LiteratureSearchResult> rows = new ArrayList<>(pageSize);
+    while (rows.size() < pageSize) {
+      int first = -1;
+      for (int i = 0; i < slices; i++) {
+        if (fill(i)
+            && (first < 0
+                || EXPORT_ORDER.compare(buffers.get(i).peek(), buffers.get(first).peek()) < 0)) {
+          first = i;
+        }
+      }
+      if (first < 0) {
+        break;
+      }
+      rows.add(buffers.get(first).poll());
+    }
+    return rows;
+  }
+
+  /** Makes sure the slice's buffer has a row, unless the slice is done. */
+  private boolean fill(int slice) throws IOException {
+    ArrayDeque<LiteratureSearchResult> buffer = buffers.get(slice);
+    while (buffer.isEmpty() && !finished[slice]) {
+      Chunk chunk = take(queues.get(slice));
+      buffer.addAll(chunk.rows);
+      if (chunk.last) {
+        finished[slice] = true;
+        finishedSlices++;
+      }
+    }
+    return !buffer.isEmpty();
+  }
+
+  private boolean isExhausted() {
+    return finishedSlices == slices && buffers.stream().allMatch(ArrayDeque::isEmpty);
+  }
+
+  /** The next chunk of the queue, or the failure of any slice as soon as there is one. */
+  private Chunk take(BlockingQueue<Chunk> queue) throws IOException {
+    long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(SLICE_TIMEOUT_MINUTES);
+    try {
+      while (true) {
+        checkFailure();
+        Chunk chunk = queue.poll(FAILURE_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+        if (chunk != null) {
+          return chunk;
+        }
+        if (System.nanoTime() - deadline >= 0) {
+          checkFailure();
+          throw new IOException("No export page received within the point-in-time keep-alive");
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for an export slice", e);
+    }
+  }
+
+  private void checkFailure() throws IOException {
+    Exception e = failure;
+    if (e instanceof IOException ioException) {
+      throw ioException;
+    }
+    if (e instanceof RuntimeException runtimeException) {
+      throw runtimeException;
+    }
+    if (e != null) {
+      throw new IOException(e);
+    }
+  }
+}
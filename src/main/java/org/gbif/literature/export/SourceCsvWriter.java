@@ -0,0 +1,492 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.export;
+
+import org.gbif.api.model.common.export.ExportFormat;
+import org.gbif.api.model.literature.LiteratureTopic;
+import org.gbif.api.model.literature.LiteratureType;
+import org.gbif.api.vocabulary.Country;
+import org.gbif.literature.search.ExportSourcePage;
+import org.gbif.literature.search.LiteratureSourceFields;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.StdDateFormat;
+
+/**
+ * Writes a CSV or TSV export straight from the hits' {@code _source}, with the cells {@link
+ * CsvWriter#literatureSearchResultCsvWriter} writes for the results the converter would make of
+ * them, but without building hits or results. Each source field is transcoded token by token into
+ * a staged cell of its column, and the cells are joined in column order once the hit is read.
+ * Fields of columns left out of the export are skipped. Fields read from doc values, which come
+ * as arrays in the hit's {@code fields}, are transcoded like the same source fields.
+ *
+ * <p>Values the converter cannot map are left out as it does. Unlike the result sets, countries and
+ * topics are written in a stable order, that of their enums.
+ */
+public class SourceCsvWriter {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  // reads the non-string values that the converter turns into strings via Object#toString
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final int CELL_CHARS = 256;
+  private static final int ID_COLUMN = column(LiteratureSourceFields.ID);
+
+  /** Source fields of the export columns, with how to encode their values. */
+  private static final Map<String, Column> COLUMNS =
+      Map.ofEntries(
+          column("title", SourceCsvWriter::text),
+          arrayColumn("authors", SourceCsvWriter::authors),
+          column("source", SourceCsvWriter::text),
+          column("createdAt", date(CsvWriter.DATE_FORMAT_STR_PLAIN)),
+          column("openAccess", SourceCsvWriter::bool),
+          column("peerReview", SourceCsvWriter::bool),
+          column("citationType", SourceCsvWriter::text),
+          arrayColumn("countriesOfCoverage", enumSet(Country.class, Country::fromIsoCode)),
+          arrayColumn("countriesOfResearcher", enumSet(Country.class, Country::fromIsoCode)),
+          arrayColumn("keywords", SourceCsvWriter::texts),
+          column("literatureType", enumName(LiteratureType::valueOf)),
+          arrayColumn("websites", SourceCsvWriter::texts),
+          column("identifiers", SourceCsvWriter::identifiers),
+          column(LiteratureSourceFields.ID, SourceCsvWriter::uuid),
+          column("abstract", SourceCsvWriter::text),
+          arrayColumn("topics", enumSet(LiteratureTopic.class, LiteratureTopic::valueOf)),
+          column("created", date(StdDateFormat.DATE_FORMAT_STR_ISO8601)),
+          arrayColumn("gbifDownloadKey", SourceCsvWriter::texts));
+
+  private final SourcePager pager;
+  private final ExportFormat format;
+  private final ExportFields fields;
+
+  public SourceCsvWriter(SourcePager pager, ExportFormat format) {
+    this(pager, format, ExportFields.ALL);
+  }
+
+  /** A writer of the chosen columns only. */
+  public SourceCsvWriter(SourcePager pager, ExportFormat format, ExportFields fields) {
+    this.pager = pager;
+    this.format = format;
+    this.fields = fields;
+  }
+
+  /** Writes the header and all pages, and closes the writer. */
+  public void export(Writer writer) throws IOException {
+    try (SourcePager sourcePager = pager;
+        Writer out = writer) {
+      CsvRowEncoder encoder = new CsvRowEncoder(format);
+      CsvRowEncoder[] cells = new CsvRowEncoder[fields.size()];
+      for (int i = 0; i < cells.length; i++) {
+        cells[i] = new CsvRowEncoder(format, CELL_CHARS);
+      }
+      encoder.header(fields.select(CsvWriter.LITERATURE_HEADER));
+      while (true) {
+        ExportSourcePage page = sourcePager.nextPage();
+        for (ExportSourcePage.Hit hit : page.getHits()) {
+          writeRow(page.getBody(), hit, cells, encoder);
+          encoder.flushTo(out, false);
+        }
+        if (page.isEndOfRecords() || page.getHits().isEmpty()) {
+          break;
+        }
+      }
+      encoder.flushTo(out, true);
+    }
+  }
+
+  private void writeRow(
+      byte[] body, ExportSourcePage.Hit hit, CsvRowEncoder[] cells, CsvRowEncoder encoder)
+      throws IOException {
+    for (CsvRowEncoder cell : cells) {
+      cell.reset();
+    }
+    if (hit.hasSource()) {
+      transcode(body, hit.getSourceOffset(), hit.getSourceLength(), false, cells);
+    }
+    if (hit.hasFields()) {
+      transcode(body, hit.getFieldsOffset(), hit.getFieldsLength(), true, cells);
+    }
+    // the converter takes the hit's id unless the source has a valid one
+    int idSlot = fields.slot(ID_COLUMN);
+    if (idSlot >= 0 && cells[idSlot].isEmpty() && hit.getId() != null) {
+      writeUuid(hit.getId(), cells[idSlot]);
+    }
+    for (CsvRowEncoder cell : cells) {
+      encoder.appendCell(cell);
+    }
+    encoder.endRow();
+  }
+
+  /** Transcodes the fields of a {@code _source} object, or of a {@code fields} object. */
+  private void transcode(
+      byte[] body, int offset, int length, boolean docValues, CsvRowEncoder[] cells)
+      throws IOException {
+    try (JsonParser parser = JSON_FACTORY.createParser(body, offset, length)) {
+      parser.nextToken();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        Column column = COLUMNS.get(parser.currentName());
+        int slot = column != null ? fields.slot(column.index) : -1;
+        JsonToken value = parser.nextToken();
+        if (slot < 0 || value == JsonToken.VALUE_NULL) {
+          parser.skipChildren();
+          continue;
+        }
+        CsvRowEncoder cell = cells[slot];
+        cell.reset();
+        if (docValues && !column.array && value == JsonToken.START_ARRAY) {
+          // the doc values of a single valued field: an array of one value
+          if (parser.nextToken() != JsonToken.END_ARRAY) {
+            column.transcoder.transcode(parser, cell);
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+              parser.skipChildren();
+            }
+          }
+        } else {
+          column.transcoder.transcode(parser, cell);
+        }
+      }
+    }
+  }
+
+  /** Encodes the value the parser is at, consuming all of it. Writes nothing for no value. */
+  @FunctionalInterface
+  interface CellTranscoder {
+    void transcode(JsonParser parser, CsvRowEncoder cell) throws IOException;
+  }
+
+  private static final class Column {
+    private final int index;
+    private final CellTranscoder transcoder;
+    // whether the values are arrays, as opposed to single values
+    private final boolean array;
+
+    private Column(int index, CellTranscoder transcoder, boolean array) {
+      this.index = index;
+      this.transcoder = transcoder;
+      this.array = array;
+    }
+  }
+
+  private static Map.Entry<String, Column> column(String sourceField, CellTranscoder transcoder) {
+    return Map.entry(sourceField, new Column(column(sourceField), transcoder, false));
+  }
+
+  private static Map.Entry<String, Column> arrayColumn(
+      String sourceField, CellTranscoder transcoder) {
+    return Map.entry(sourceField, new Column(column(sourceField), transcoder, true));
+  }
+
+  private static int column(String sourceField) {
+    int index =
+        Arrays.asList(CsvWriter.LITERATURE_FIELDS)
+            .indexOf(LiteratureSourceFields.outputName(sourceField));
+    if (index < 0) {
+      throw new IllegalStateException("No export column for source field " + sourceField);
+    }
+    return index;
+  }
+
+  /** Delimiter-cleaned text of the value, like {@code JsonNode#asText()}. */
+  private static void text(JsonParser parser, CsvRowEncoder cell) throws IOException {
+    cell.openCell();
+    appendText(parser, cell);
+    cell.closeCell();
+  }
+
+  /** Delimiter-cleaned texts of an array's elements, joined; nothing for an empty array. */
+  private static void texts(JsonParser parser, CsvRowEncoder cell) throws IOException {
+    if (parser.currentToken() != JsonToken.START_ARRAY) {
+      parser.skipChildren();
+      return;
+    }
+    boolean empty = true;
+    while (parser.nextToken() != JsonToken.END_ARRAY) {
+      if (empty) {
+        cell.openCell();
+        empty = false;
+      } else {
+        cell.appendPlain(CsvWriter.ARRAY_DELIMITER);
+      }
+      appendText(parser, cell);
+    }
+    if (!empty) {
+      cell.closeCell();
+    }
+  }
+
+  /** "firstName lastName" of each author object, joined, with missing names as "null". */
+  private static void authors(JsonParser parser, CsvRowEncoder cell) throws IOException {
+    if (parser.currentToken() != JsonToken.START_ARRAY) {
+      parser.skipChildren();
+      return;
+    }
+    cell.openCell();
+    boolean valid = true;
+    boolean first = true;
+    while (parser.nextToken() != JsonToken.END_ARRAY) {
+      if (!valid || parser.currentToken() != JsonToken.START_OBJECT) {
+        // not a list of maps, which the converter drops altogether
+        valid = false;
+        parser.skipChildren();
+        continue;
+      }
+      String firstName = "null";
+      String lastName = "null";
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.currentName();
+        parser.nextToken();
+        if ("firstName".equals(name)) {
+          firstName = valueString(parser);
+        } else if ("lastName".equals(name)) {
+          lastName = valueString(parser);
+        } else {
+          parser.skipChildren();
+        }
+      }
+      if (!first) {
+        cell.appendPlain(CsvWriter.ARRAY_DELIMITER);
+      }
+      cell.appendClean(firstName);
+      cell.appendPlain(' ');
+      cell.appendClean(lastName);
+      first = false;
+    }
+    if (valid) {
+      cell.closeCell();
+    } else {
+      cell.reset();
+    }
+  }
+
+  /** Delimiter-cleaned string forms of an object's values, joined. */
+  private static void identifiers(JsonParser parser, CsvRowEncoder cell) throws IOException {
+    if (parser.currentToken() != JsonToken.START_OBJECT) {
+      parser.skipChildren();
+      return;
+    }
+    cell.openCell();
+    boolean first = true;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      if (parser.nextToken() == JsonToken.VALUE_NULL) {
+        continue;
+      }
+      if (!first) {
+        cell.appendPlain(CsvWriter.ARRAY_DELIMITER);
+      }
+      if (parser.currentToken() == JsonToken.VALUE_STRING) {
+        appendText(parser, cell);
+      } else {
+        cell.appendClean(valueString(parser));
+      }
+      first = false;
+    }
+    cell.closeCell();
+  }
+
+  /** {@code true} or {@code false}, like {@code JsonNode#asBoolean()}. */
+  private static void bool(JsonParser parser, CsvRowEncoder cell) throws IOException {
+    boolean value;
+    switch (parser.currentToken()) {
+      case VALUE_TRUE:
+        value = true;
+        break;
+      case VALUE_STRING:
+        value = "true".equals(parser.getText().trim());
+        break;
+      case VALUE_NUMBER_INT:
+        value =
+            parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER
+                ? parser.getBigIntegerValue().signum() != 0
+                : parser.getLongValue() != 0;
+        break;
+      default:
+        parser.skipChildren();
+        value = false;
+        break;
+    }
+    cell.openCell();
+    cell.appendPlain(value ? "true" : "false");
+    cell.closeCell();
+  }
+
+  /** A timestamp or plain date, parsed like the converter does and formatted with the pattern. */
+  private static CellTranscoder date(String pattern) {
+    return (parser, cell) -> {
+      Date date = parseDate(asText(parser));
+      if (date != null) {
+        cell.openCell();
+        cell.appendDate(date, pattern);
+        cell.closeCell();
+      }
+    };
+  }
+
+  /** Enum constant of the upper-cased text, nothing if there is none. */
+  private static <E extends Enum<E>> CellTranscoder enumName(Function<String, E> valueOf) {
+    return (parser, cell) -> {
+      E value = enumValue(asText(parser).toUpperCase(Locale.ROOT), valueOf);
+      if (value != null) {
+        cell.openCell();
+        cell.appendPlain(value.name());
+        cell.closeCell();
+      }
+    };
+  }
+
+  /**
+   * Enum constants of an array's elements, joined in enum order; nothing if no element maps to a
+   * constant.
+   */
+  private static <E extends Enum<E>> CellTranscoder enumSet(
+      Class<E> enumClass, Function<String, E> fromString) {
+    boolean upperCase = enumClass != Country.class;
+    return (parser, cell) -> {
+      if (parser.currentToken() != JsonToken.START_ARRAY) {
+        parser.skipChildren();
+        return;
+      }
+      EnumSet<E> values = EnumSet.noneOf(enumClass);
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        String text = asText(parser);
+        E value = enumValue(upperCase ? text.toUpperCase(Locale.ROOT) : text, fromString);
+        if (value != null) {
+          values.add(value);
+        }
+      }
+      if (values.isEmpty()) {
+        return;
+      }
+      cell.openCell();
+      boolean first = true;
+      for (E value : values) {
+        if (!first) {
+          cell.appendPlain(CsvWriter.ARRAY_DELIMITER);
+        }
+        cell.appendPlain(value.name());
+        first = false;
+      }
+      cell.closeCell();
+    };
+  }
+
+  /** The document id from the source, nothing if it is not a UUID. */
+  private static void uuid(JsonParser parser, CsvRowEncoder cell) throws IOException {
+    writeUuid(asText(parser), cell);
+  }
+
+  private static void writeUuid(String text, CsvRowEncoder cell) {
+    UUID uuid;
+    try {
+      uuid = UUID.fromString(text);
+    } catch (IllegalArgumentException e) {
+      return;
+    }
+    cell.openCell();
+    cell.appendUuid(uuid);
+    cell.closeCell();
+  }
+
+  private static <E extends Enum<E>> E enumValue(String text, Function<String, E> valueOf) {
+    try {
+      return valueOf.apply(text);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  /**
+   * A timestamp or a plain date, as the converter parses them. The parser matching the shape of
+   * the text goes first, as failing one costs an exception and only one of them can succeed.
+   */
+  private static Date parseDate(String text) {
+    boolean plainDate = text.indexOf('T') < 0;
+    Date date = plainDate ? parsePlainDate(text) : parseTimestamp(text);
+    if (date == null) {
+      date = plainDate ? parseTimestamp(text) : parsePlainDate(text);
+    }
+    return date;
+  }
+
+  private static Date parseTimestamp(String text) {
+    try {
+      return Date.from(Instant.parse(text));
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  private static Date parsePlainDate(String text) {
+    try {
+      LocalDate date = LocalDate.parse(text, DateTimeFormatter.ISO_LOCAL_DATE);
+      return Date.from(date.atStartOfDay(ZoneOffset.UTC).toInstant());
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  /** Appends the delimiter-cleaned text of the value, without a string for string values. */
+  private static void appendText(JsonParser parser, CsvRowEncoder cell) throws IOException {
+    if (parser.currentToken() == JsonToken.VALUE_STRING) {
+      cell.appendClean(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+    } else {
+      cell.appendClean(asText(parser));
+    }
+  }
+
+  /**
+   * The text of the value like {@code JsonNode#asText()}: empty for arrays and objects, which are
+   * skipped.
+   */
+  private static String asText(JsonParser parser) throws IOException {
+    switch (parser.currentToken()) {
+      case VALUE_STRING:
+      case VALUE_NUMBER_INT:
+        return parser.getText();
+      case VALUE_NUMBER_FLOAT:
+        return Double.toString(parser.getDoubleValue());
+      case VALUE_TRUE:
+        return "true";
+      case VALUE_FALSE:
+        return "false";
+      case VALUE_NULL:
+        return "null";
+      default:
+        parser.skipChildren();
+        return "";
+    }
+  }
+
+  /** {@code String.valueOf} of the value as the converter binds it. */
+  private static String valueString(JsonParser parser) throws IOException {
+    if (parser.currentToken() == JsonToken.VALUE_STRING) {
+      return parser.getText();
+    }
+    return String.valueOf(MAPPER.readValue(parser, Object.class));
+  }
+}
@@ -0,0 +1,28 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.export;
+
+import org.gbif.literature.search.ExportSourcePage;
+
+import java.io.IOException;
+
+/** Source of raw export pages; the last page has {@code endOfRecords} set or no hits. */
+public interface SourcePager extends AutoCloseable {
+
+  ExportSourcePage nextPage() throws IOException;
+
+  /** Releases the Elasticsearch resources of the export, such as its point in time. */
+  @Override
+  void close();
+}
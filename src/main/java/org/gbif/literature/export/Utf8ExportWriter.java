@@ -0,0 +1,226 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Encodes the export to UTF-8 straight into a byte buffer, counting the bytes as the encoder
+ * produces them, instead of counting the characters again on top of an {@code
+ * OutputStreamWriter}, which used the platform charset and encoded every chunk twice.
+ *
+ * <p>The byte buffer is written to the stream whenever it fills up, and the stream is flushed
+ * every {@code flushBytes}. An export that would exceed {@code maxBytes} fails with an {@link
+ * ExportLimitExceededException} before any byte over the limit reaches the stream. The stream may
+ * be a compressor, in which case {@code maxBytes} limits the uncompressed size. Buffers come
+ * from and return to an {@link ExportOutputFactory} pool. Not thread safe.
+ */
+public final class Utf8ExportWriter extends Writer {
+
+  private final OutputStream out;
+  private final Buffers buffers;
+  private final CharsetEncoder encoder;
+  private final CharBuffer chars;
+  private final ByteBuffer bytes;
+  private final long maxBytes;
+  private final long flushBytes;
+  private final Consumer<Utf8ExportWriter> onClose;
+
+  private long bytesWritten;
+  private long unflushed;
+  private boolean failed;
+  private boolean closed;
+
+  Utf8ExportWriter(
+      OutputStream out,
+      Buffers buffers,
+      long maxBytes,
+      long flushBytes,
+      Consumer<Utf8ExportWriter> onClose) {
+    this.out = out;
+    this.buffers = buffers;
+    this.encoder = buffers.encoder;
+    this.chars = buffers.chars;
+    this.bytes = buffers.bytes;
+    this.maxBytes = maxBytes;
+    this.flushBytes = flushBytes;
+    this.onClose = onClose;
+  }
+
+  /** UTF-8 bytes produced so far, including those still buffered. */
+  public long getBytesWritten() {
+    return bytesWritten;
+  }
+
+  Buffers buffers() {
+    return buffers;
+  }
+
+  @Override
+  public void write(char[] cbuf, int off, int len) throws IOException {
+    while (len > 0) {
+      int n = Math.min(len, chars.remaining());
+      chars.put(cbuf, off, n);
+      off += n;
+      len -= n;
+      encode(false);
+    }
+  }
+
+  @Override
+  public void write(String str, int off, int len) throws IOException {
+    while (len > 0) {
+      int n = Math.min(len, chars.remaining());
+      chars.put(str, off, off + n);
+      off += n;
+      len -= n;
+      encode(false);
+    }
+  }
+
+  @Override
+  public void write(int c) throws IOException {
+    if (!chars.hasRemaining()) {
+      encode(false);
+    }
+    chars.put((char) c);
+  }
+
+  @Override
+  public void flush() throws IOException {
+    encode(false);
+    drain();
+    out.flush();
+    unflushed = 0;
+  }
+
+  /** Writes out what is left and closes the stream; after a failure pending output is dropped. */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try (OutputStream stream = out) {
+      if (!failed) {
+        encode(true);
+        flushEncoder();
+        drain();
+        stream.flush();
+      }
+    } finally {
+      onClose.accept(this);
+    }
+  }
+
+  private void encode(boolean endOfInput) throws IOException {
+    if (closed && !endOfInput) {
+      throw new IOException("Writer closed");
+    }
+    chars.flip();
+    try {
+      while (true) {
+        int before = bytes.position();
+        CoderResult result = encoder.encode(chars, bytes, endOfInput);
+        count(bytes.position() - before);
+        if (result.isOverflow()) {
+          drain();
+        } else {
+          // malformed input is replaced, so anything else is underflow: all input consumed
+          // except perhaps the high half of a surrogate pair
+          break;
+        }
+      }
+    } finally {
+      chars.compact();
+    }
+  }
+
+  private void flushEncoder() throws IOException {
+    while (true) {
+      int before = bytes.position();
+      CoderResult result = encoder.flush(bytes);
+      count(bytes.position() - before);
+      if (!result.isOverflow()) {
+        return;
+      }
+      drain();
+    }
+  }
+
+  private void count(int produced) {
+    bytesWritten += produced;
+    if (maxBytes > 0 && bytesWritten > maxBytes) {
+      failed = true;
+      throw new ExportLimitExceededException(
+          "Export exceeds maximum size of " + maxBytes + " bytes");
+    }
+  }
+
+  private void drain() throws IOException {
+    bytes.flip();
+    int len = bytes.remaining();
+    if (len > 0) {
+      try {
+        out.write(bytes.array(), bytes.arrayOffset() + bytes.position(), len);
+      } catch (ExportLimitExceededException e) {
+        // the limit is counted downstream, after compression
+        failed = true;
+        throw e;
+      }
+      unflushed += len;
+    }
+    bytes.clear();
+    if (flushBytes > 0 && unflushed >= flushBytes) {
+      out.flush();
+      unflushed = 0;
+    }
+  }
+
+  /** The reusable state of a writer: encoder, pending chars and encoded bytes. */
+  static final class Buffers {
+    private final CharsetEncoder encoder =
+        StandardCharsets.UTF_8
+            .newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final CharBuffer chars;
+    private final ByteBuffer bytes;
+
+    Buffers(int charCapacity, int byteCapacity) {
+      this.chars = CharBuffer.allocate(charCapacity);
+      // room for at least one encoded char, so the encoder always makes progress
+      this.bytes = ByteBuffer.allocate(Math.max(byteCapacity, 8));
+    }
+
+    int byteCapacity() {
+      return bytes.capacity();
+    }
+
+    void reset() {
+      encoder.reset();
+      chars.clear();
+      bytes.clear();
+    }
+  }
+}
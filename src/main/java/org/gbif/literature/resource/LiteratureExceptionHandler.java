@@ -0,0 +1,87 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.resource;
+
+import org.gbif.literature.concurrency.ConcurrencyLimitExceededException;
+import org.gbif.literature.concurrency.QueryTooExpensiveException;
+import org.gbif.literature.concurrency.TimeBudgetExceededException;
+import org.gbif.literature.config.BulkheadConfigProperties;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Maps load-shedding, query cost and time budget exceptions to fast HTTP responses, ahead of the
+ * generic handlers. Rejections by a concurrency limit, a full lane or the cost model are a 503
+ * with {@code Retry-After}, so clients back off; an Elasticsearch call cancelled at the end of its
+ * time budget is a 504.
+ */
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RestControllerAdvice
+public class LiteratureExceptionHandler {
+
+  private final BulkheadConfigProperties bulkheadConfigProperties;
+
+  public LiteratureExceptionHandler(BulkheadConfigProperties bulkheadConfigProperties) {
+    this.bulkheadConfigProperties = bulkheadConfigProperties;
+  }
+
+  @ExceptionHandler(ConcurrencyLimitExceededException.class)
+  public ResponseEntity<String> concurrencyLimitExceeded(ConcurrencyLimitExceededException e) {
+    return serviceUnavailable(e.getMessage(), e.getRetryAfter().toSeconds());
+  }
+
+  /** The search was rejected by the pre-flight cost model. */
+  @ExceptionHandler(QueryTooExpensiveException.class)
+  public ResponseEntity<String> queryTooExpensive(QueryTooExpensiveException e) {
+    return serviceUnavailable(
+        e.getMessage(), e.getRetryAfter().toSeconds(), QueryCostHeaders.of(e.getQueryCost()));
+  }
+
+  /** Elasticsearch did not answer within the time budget and the call was cancelled. */
+  @ExceptionHandler(TimeBudgetExceededException.class)
+  public ResponseEntity<String> timeBudgetExceeded(TimeBudgetExceededException e) {
+    return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+        .contentType(MediaType.TEXT_PLAIN)
+        .body(e.getMessage());
+  }
+
+  /** The export lane was full when Spring MVC tried to start the stream. */
+  @ExceptionHandler(TaskRejectedException.class)
+  public ResponseEntity<String> taskRejected(TaskRejectedException e) {
+    return serviceUnavailable(
+        "Too many concurrent exports, please retry later",
+        bulkheadConfigProperties.getExport().getRetryAfter().toSeconds());
+  }
+
+  static ResponseEntity<String> serviceUnavailable(String message, long retryAfterSeconds) {
+    return serviceUnavailable(message, retryAfterSeconds, new HttpHeaders());
+  }
+
+  static ResponseEntity<String> serviceUnavailable(
+      String message, long retryAfterSeconds, HttpHeaders headers) {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .headers(headers)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfterSeconds)))
+        .contentType(MediaType.TEXT_PLAIN)
+        .body(message);
+  }
+}
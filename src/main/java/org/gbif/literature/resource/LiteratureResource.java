@@ -14,7 +14,6 @@
 package org.gbif.literature.resource;
 
 import org.gbif.api.documentation.CommonParameters;
-import org.gbif.api.model.common.export.ExportFormat;
 import org.gbif.api.model.common.paging.Pageable;
 import org.gbif.api.model.common.search.FacetedSearchRequest;
 import org.gbif.api.model.common.search.SearchResponse;
@@ -26,36 +25,75 @@ import org.gbif.api.model.literature.search.LiteratureSearchRequest;
 import org.gbif.api.model.literature.search.LiteratureSearchResult;
 import org.gbif.api.vocabulary.Country;
 import org.gbif.api.vocabulary.Language;
-import org.gbif.literature.config.EsClientConfigProperties;
+import org.gbif.literature.cache.HttpCachePolicy;
+import org.gbif.literature.cache.ResponseBytes;
+import org.gbif.literature.cache.ResponseBytesCache;
+import org.gbif.literature.cache.Served;
+import org.gbif.literature.cluster.CachePartitioner;
+import org.gbif.literature.cluster.PartitionForwarder;
+import org.gbif.literature.concurrency.AdaptiveConcurrencyLimiter;
+import org.gbif.literature.concurrency.Bulkheads;
+import org.gbif.literature.concurrency.ConcurrencyLimiters;
+import org.gbif.literature.concurrency.PermitReleasingInterceptor;
+import org.gbif.literature.concurrency.QueryCost;
+import org.gbif.literature.concurrency.QueryCostEstimator;
+import org.gbif.literature.concurrency.TimeBudgetExceededException;
+import org.gbif.literature.concurrency.Workload;
+import org.gbif.literature.concurrency.WorkloadClassifier;
 import org.gbif.literature.config.LiteratureConfigProperties;
+import org.gbif.literature.export.ArrowExportWriter;
 import org.gbif.literature.export.CsvWriter;
+import org.gbif.literature.export.ExportCompression;
+import org.gbif.literature.export.ExportFields;
+import org.gbif.literature.export.ExportFileFormat;
 import org.gbif.literature.export.ExportLimitExceededException;
+import org.gbif.literature.export.ExportOutputFactory;
+import org.gbif.literature.export.ExportPager;
+import org.gbif.literature.export.ExportPagerFactory;
 import org.gbif.literature.export.ExportRequestSupport;
-import org.gbif.literature.export.LiteraturePager;
+import org.gbif.literature.export.JsonLinesWriter;
+import org.gbif.literature.export.SourceCsvWriter;
+import org.gbif.literature.search.LiteratureExportRequest;
 import org.gbif.literature.search.LiteratureSearchService;
+import org.gbif.literature.search.SearchRequestFingerprint;
+import org.gbif.literature.stats.QueryStatsTracker;
+import org.gbif.literature.warmup.SearchWarmup;
 
-import co.elastic.clients.elasticsearch.ElasticsearchClient;
-
-import java.io.BufferedWriter;
-import java.io.OutputStreamWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.io.Writer;
 import java.lang.annotation.Inherited;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.net.URI;
 import java.util.Date;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncUtils;
 import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -99,19 +137,49 @@ public class LiteratureResource {
   private static final String FILE_HEADER_PRE = "attachment; filename=literature_";
 
   private final LiteratureSearchService searchService;
-  private final ElasticsearchClient elasticsearchClient;
-  private final EsClientConfigProperties esClientConfigProperties;
+  private final ExportPagerFactory exportPagerFactory;
+  private final ExportOutputFactory exportOutputFactory;
   private final LiteratureConfigProperties literatureConfigProperties;
+  private final ConcurrencyLimiters concurrencyLimiters;
+  private final Bulkheads bulkheads;
+  private final WorkloadClassifier workloadClassifier;
+  private final QueryCostEstimator queryCostEstimator;
+  private final ResponseBytesCache responseBytesCache;
+  private final CachePartitioner cachePartitioner;
+  private final PartitionForwarder partitionForwarder;
+  private final HttpCachePolicy httpCachePolicy;
+  private final QueryStatsTracker queryStatsTracker;
+  private final SearchWarmup searchWarmup;
 
   public LiteratureResource(
       LiteratureSearchService searchService,
-      ElasticsearchClient elasticsearchClient,
-      EsClientConfigProperties esClientConfigProperties,
-      LiteratureConfigProperties literatureConfigProperties) {
+      ExportPagerFactory exportPagerFactory,
+      ExportOutputFactory exportOutputFactory,
+      LiteratureConfigProperties literatureConfigProperties,
+      ConcurrencyLimiters concurrencyLimiters,
+      Bulkheads bulkheads,
+      WorkloadClassifier workloadClassifier,
+      QueryCostEstimator queryCostEstimator,
+      ResponseBytesCache responseBytesCache,
+      CachePartitioner cachePartitioner,
+      PartitionForwarder partitionForwarder,
+      HttpCachePolicy httpCachePolicy,
+      QueryStatsTracker queryStatsTracker,
+      SearchWarmup searchWarmup) {
     this.searchService = searchService;
-    this.elasticsearchClient = elasticsearchClient;
-    this.esClientConfigProperties = esClientConfigProperties;
+    this.exportPagerFactory = exportPagerFactory;
+    this.exportOutputFactory = exportOutputFactory;
     this.literatureConfigProperties = literatureConfigProperties;
+    this.concurrencyLimiters = concurrencyLimiters;
+    this.bulkheads = bulkheads;
+    this.workloadClassifier = workloadClassifier;
+    this.queryCostEstimator = queryCostEstimator;
+    this.responseBytesCache = responseBytesCache;
+    this.cachePartitioner = cachePartitioner;
+    this.partitionForwarder = partitionForwarder;
+    this.httpCachePolicy = httpCachePolicy;
+    this.queryStatsTracker = queryStatsTracker;
+    this.searchWarmup = searchWarmup;
   }
 
   private static final String REPEATED =
@@ -342,12 +410,169 @@ public class LiteratureResource {
                   operationId = "getLiteratureById",
                   parameters = {@LinkParameter(name = "uuid", expression = "$response.body#/id")})
             }),
-        @ApiResponse(responseCode = "400", description = "Invalid search query", content = @Content)
+        @ApiResponse(
+            responseCode = "304",
+            description = "The copy identified by `If-None-Match` is still current",
+            content = @Content),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid search query",
+            content = @Content),
+        @ApiResponse(
+            responseCode = "503",
+            description =
+                "Too many concurrent searches, or query too expensive to run now, retry later",
+            content = @Content),
+        @ApiResponse(
+            responseCode = "504",
+            description = "The query did not complete within its time budget",
+            content = @Content)
       })
   @GetMapping("search")
-  public SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> search(
-      @Parameter(hidden = true) LiteratureSearchRequest searchRequest) {
-    return searchService.search(searchRequest);
+  public CompletableFuture<ResponseEntity<?>> search(
+      @Parameter(hidden = true) LiteratureSearchRequest searchRequest,
+      @Parameter(hidden = true)
+          @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+          String acceptEncoding,
+      @Parameter(hidden = true)
+          @RequestHeader(value = PartitionForwarder.FORWARDED_HEADER, required = false)
+          String forwardedHeader,
+      @Parameter(hidden = true)
+          @RequestHeader(value = SearchWarmup.WARMUP_HEADER, required = false)
+          String warmupHeader,
+      @Parameter(hidden = true)
+          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+          String ifNoneMatch,
+      HttpServletRequest request) {
+    // scored and possibly downgraded before it is classified and queued, but only rejected once it
+    // would reach ES, so an expensive search already cached is still answered
+    QueryCost queryCost = queryCostEstimator.evaluate(searchRequest);
+    // warm-up searches would otherwise become the top queries replayed by the next warm-up
+    boolean warmup = searchWarmup.isWarmup(warmupHeader);
+
+    // with the byte cache on, hits are served before taking a lane and misses are serialized here
+    boolean cacheBytes = responseBytesCache.isEnabled();
+    boolean acceptsGzip = ResponseBytesCache.acceptsGzip(acceptEncoding);
+    String fingerprint =
+        cacheBytes || cachePartitioner.isEnabled() || httpCachePolicy.isEnabled()
+            ? SearchRequestFingerprint.of(searchRequest)
+            : null;
+
+    // the client's copy is current as long as the index generation has not changed
+    HttpCachePolicy.Endpoint endpoint = HttpCachePolicy.endpointOf(searchRequest);
+    // a client accepting gzip may hold either encoding, depending on what was cached back then
+    String etag = httpCachePolicy.etag(endpoint, fingerprint, "");
+    if (acceptsGzip && !HttpCachePolicy.matches(ifNoneMatch, etag)) {
+      etag = httpCachePolicy.etag(endpoint, fingerprint, HttpCachePolicy.GZIP_VARIANT);
+    }
+    if (HttpCachePolicy.matches(ifNoneMatch, etag)) {
+      if (!warmup) {
+        queryStatsTracker.record(searchRequest, 0, 0);
+      }
+      return CompletableFuture.completedFuture(
+          ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+              .headers(httpCachePolicy.headers(endpoint, etag, -1, false))
+              .build());
+    }
+
+    if (cacheBytes) {
+      ResponseBytes cached = responseBytesCache.get(fingerprint, acceptsGzip);
+      if (cached != null) {
+        if (!warmup) {
+          queryStatsTracker.record(searchRequest, 0, cached.length());
+        }
+        HttpHeaders headers = QueryCostHeaders.of(queryCost);
+        headers.addAll(
+            httpCachePolicy.headers(
+                endpoint,
+                httpCachePolicy.etag(endpoint, fingerprint, HttpCachePolicy.variantOf(cached)),
+                cached.getLastModified(),
+                false));
+        return CompletableFuture.completedFuture(ResponseEntity.ok().headers(headers).body(cached));
+      }
+    }
+
+    // another instance owns this fingerprint's cache partition and records it, unless unreachable;
+    // a warm-up fills this instance's own caches
+    Optional<URI> owner =
+        warmup || partitionForwarder.isForwarded(forwardedHeader)
+            ? Optional.<URI>empty()
+            : cachePartitioner.ownerOf(fingerprint);
+    if (owner.isPresent()) {
+      String pathAndQuery =
+          request.getRequestURI()
+              + (request.getQueryString() != null ? "?" + request.getQueryString() : "");
+      return partitionForwarder
+          .forward(owner.get(), pathAndQuery, acceptEncoding)
+          .<ResponseEntity<?>>thenApply(response -> response)
+          .exceptionallyCompose(
+              e ->
+                  searchLocally(
+                      searchRequest, queryCost, fingerprint, endpoint, acceptsGzip, warmup));
+    }
+    return searchLocally(searchRequest, queryCost, fingerprint, endpoint, acceptsGzip, warmup);
+  }
+
+  private CompletableFuture<ResponseEntity<?>> searchLocally(
+      LiteratureSearchRequest searchRequest,
+      QueryCost queryCost,
+      String fingerprint,
+      HttpCachePolicy.Endpoint endpoint,
+      boolean acceptsGzip,
+      boolean warmup) {
+    boolean cacheBytes = responseBytesCache.isEnabled();
+    String generation = cacheBytes ? responseBytesCache.generation() : null;
+    // both taken before the search, so a re-index while it runs cannot make the body look newer
+    String etag = httpCachePolicy.etag(endpoint, fingerprint, "");
+    String gzipEtag = httpCachePolicy.etag(endpoint, fingerprint, HttpCachePolicy.GZIP_VARIANT);
+
+    return bulkheads.submit(
+        workloadClassifier.classify(searchRequest),
+        () -> {
+          // cache hits neither cost ES time nor say anything about the latency of the query
+          AtomicLong esNanos = new AtomicLong();
+          Served<SearchResponse<LiteratureSearchResult, LiteratureSearchParameter>> served =
+              searchService.searchServed(
+                  searchRequest,
+                  () -> queryCostEstimator.rejectIfTooExpensive(queryCost),
+                  nanos -> {
+                    esNanos.set(nanos);
+                    queryCostEstimator.recordLatency(
+                        queryCost.getFingerprint(), TimeUnit.NANOSECONDS.toMillis(nanos));
+                  });
+
+          // only responses kept as bytes are serialized here, stale or partial ones by Jackson
+          String storeGeneration = served.isStale() ? null : generation;
+          Object body =
+              cacheBytes && responseBytesCache.isCacheable(storeGeneration, served.getValue())
+                  ? responseBytesCache.store(
+                      fingerprint, storeGeneration, served.getValue(), acceptsGzip)
+                  : served.getValue();
+
+          HttpHeaders headers = QueryCostHeaders.of(queryCost);
+          if (served.isStale()) {
+            headers.set(HttpHeaders.WARNING, served.getWarning());
+            headers.set(HttpHeaders.AGE, String.valueOf(served.getAgeSeconds()));
+          }
+          // a stale body belongs to an older generation than the ETag
+          String bodyEtag =
+              HttpCachePolicy.GZIP_VARIANT.equals(HttpCachePolicy.variantOf(body))
+                  ? gzipEtag
+                  : etag;
+          headers.addAll(
+              httpCachePolicy.headers(
+                  endpoint,
+                  served.isStale() ? null : bodyEtag,
+                  HttpCachePolicy.lastModified(served.getValue()),
+                  HttpCachePolicy.isPartial(served.getValue())));
+          if (!warmup) {
+            queryStatsTracker.record(
+                searchRequest,
+                esNanos.get(),
+                body instanceof ResponseBytes bytes ? bytes.length() : 0);
+          }
+          return ResponseEntity.ok().headers(headers).body(body);
+        });
   }
 
   @Operation(
@@ -364,6 +589,10 @@ public class LiteratureResource {
                   mediaType = "application/json",
                   schema = @Schema(implementation = LiteratureSearchResult.class))
             }),
+        @ApiResponse(
+            responseCode = "304",
+            description = "The copy identified by `If-None-Match` is still current",
+            content = @Content),
         @ApiResponse(
             responseCode = "400",
             description = "Invalid identifier supplied",
@@ -371,19 +600,49 @@ public class LiteratureResource {
         @ApiResponse(
             responseCode = "404",
             description = "Literature item not found",
+            content = @Content),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Too many concurrent requests, retry later",
+            content = @Content),
+        @ApiResponse(
+            responseCode = "504",
+            description = "The query did not complete within its time budget",
             content = @Content)
       })
   @GetMapping("{uuid}")
-  public ResponseEntity<LiteratureSearchResult> get(
+  public CompletableFuture<ResponseEntity<LiteratureSearchResult>> get(
       @PathVariable("uuid")
           @Parameter(
               description = "UUID for the literature item",
               example = "83a00190-7038-3970-a7e8-5e5563c40e37")
-          UUID uuid) {
-    return searchService
-        .get(uuid)
-        .map(ResponseEntity::ok)
-        .orElse(ResponseEntity.notFound().build());
+          UUID uuid,
+      @Parameter(hidden = true)
+          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+          String ifNoneMatch) {
+    String etag = httpCachePolicy.etag(HttpCachePolicy.Endpoint.GET, uuid.toString(), "");
+    if (HttpCachePolicy.matches(ifNoneMatch, etag)) {
+      return CompletableFuture.completedFuture(
+          ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+              .headers(httpCachePolicy.headers(HttpCachePolicy.Endpoint.GET, etag, -1, false))
+              .build());
+    }
+    return bulkheads.submit(
+        Workload.GET,
+        () ->
+            searchService
+                .get(uuid)
+                .map(
+                    result ->
+                        ResponseEntity.ok()
+                            .headers(
+                                httpCachePolicy.headers(
+                                    HttpCachePolicy.Endpoint.GET,
+                                    etag,
+                                    HttpCachePolicy.lastModified(result),
+                                    false))
+                            .body(result))
+                .orElse(ResponseEntity.notFound().build()));
   }
 
   @Operation(
@@ -393,52 +652,148 @@ public class LiteratureResource {
       value = {
         @Parameter(
             name = "format",
-            description = "The format for the search results export. Defaults to `TSV`.",
+            description =
+                "The format for the search results export: `TSV`, `CSV`, `JSONL`, one JSON "
+                    + "object per line, or `ARROW`, an Apache Arrow IPC stream with typed and "
+                    + "list columns. Defaults to `TSV`.",
+            in = ParameterIn.QUERY),
+        @Parameter(
+            name = "compression",
+            description =
+                "Compresses the export file with `gzip` or `zstd`. Defaults to no compression.",
+            in = ParameterIn.QUERY),
+        @Parameter(
+            name = "fields",
+            description =
+                "Comma-separated columns to export, e.g. `id,title,identifiers,gbifDownloadKey`, "
+                    + "named by result property or CSV header. Columns keep the order of the "
+                    + "full export. Defaults to all columns.",
             in = ParameterIn.QUERY)
       })
   @CommonSearchParameters
   @ApiResponses(
       value = {
         @ApiResponse(responseCode = "200", description = "Literature search results export."),
-        @ApiResponse(responseCode = "400", description = "Invalid search query", content = @Content)
+        @ApiResponse(responseCode = "400", description = "Invalid search query", content = @Content),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Too many concurrent exports, retry later",
+            content = @Content)
       })
   @GetMapping(value = "export", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
   public ResponseEntity<StreamingResponseBody> export(
       @Parameter(hidden = true) LiteratureSearchRequest searchRequest,
-      @RequestParam(value = "format", defaultValue = "TSV") ExportFormat format) {
+      @RequestParam(value = "format", defaultValue = "TSV") ExportFileFormat format,
+      @RequestParam(value = "compression", defaultValue = "NONE") ExportCompression compression,
+      @RequestParam(value = "fields", required = false) ExportFields fields,
+      HttpServletRequest request) {
 
-    LiteratureSearchRequest exportRequest =
+    ExportFields exportFields = fields != null ? fields : ExportFields.ALL;
+    LiteratureExportRequest exportRequest =
         ExportRequestSupport.prepareForExport(
-            searchRequest, literatureConfigProperties.getExportPageSize());
+            searchRequest, literatureConfigProperties.getExportPageSize(), exportFields);
 
+    // Taken before the response starts so an overloaded service can still answer with a 503
+    AdaptiveConcurrencyLimiter.Permit exportPermit = concurrencyLimiters.acquire(Workload.EXPORT);
+    // also released if the body never runs: a full export lane, a timeout or an error
+    WebAsyncUtils.getAsyncManager(request)
+        .registerCallableInterceptor(
+            PermitReleasingInterceptor.class, new PermitReleasingInterceptor(exportPermit));
+
+    // the limit follows the latency of the Elasticsearch pages, not the length of the download
+    LongConsumer pageLatency = nanos -> exportPermit.sample(nanos, TimeUnit.NANOSECONDS);
     StreamingResponseBody stream =
         outputStream -> {
-          try (Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream));
-              LiteraturePager pager =
-                  new LiteraturePager(
-                      searchService,
-                      elasticsearchClient,
-                      esClientConfigProperties,
-                      literatureConfigProperties,
-                      exportRequest)) {
-            CsvWriter.literatureSearchResultCsvWriter(
-                    pager,
-                    format,
-                    literatureConfigProperties.getExportPageSize(),
-                    literatureConfigProperties.getBufferLimitBytesExport())
-                .export(writer);
+          ClientOutputStream client = new ClientOutputStream(outputStream);
+          try {
+            writeExport(client, exportRequest, format, compression, exportFields, pageLatency);
+            exportPermit.onSuccess();
           } catch (ExportLimitExceededException e) {
             throw new org.springframework.web.server.ResponseStatusException(
                 org.springframework.http.HttpStatus.PAYLOAD_TOO_LARGE, e.getMessage(), e);
+          } catch (IOException | RuntimeException e) {
+            if (!client.hasFailed() && isBackendFailure(e)) {
+              exportPermit.onDropped();
+            }
+            throw e;
+          } finally {
+            exportPermit.onIgnore();
           }
         };
 
     String fileName =
-        FILE_HEADER_PRE + System.currentTimeMillis() + '.' + format.name().toLowerCase();
+        FILE_HEADER_PRE + System.currentTimeMillis() + '.' + format.getFileExtension();
+    MediaType contentType = MediaType.parseMediaType(format.getMediaType());
+    if (compression != ExportCompression.NONE) {
+      fileName += '.' + compression.getFileExtension();
+      contentType = MediaType.parseMediaType(compression.getMediaType());
+    }
 
     return ResponseEntity.ok()
         .header(HttpHeaders.CONTENT_DISPOSITION, fileName)
-        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+        .contentType(contentType)
         .body(stream);
   }
+
+  /** Writes the export in the requested format and closes the output stream. */
+  private void writeExport(
+      OutputStream out,
+      LiteratureExportRequest exportRequest,
+      ExportFileFormat format,
+      ExportCompression compression,
+      ExportFields fields,
+      LongConsumer pageLatency)
+      throws IOException {
+    if (format == ExportFileFormat.ARROW) {
+      // the writer closes the stream too, this frees the compressor if it fails before
+      try (ExportPager pager = exportPagerFactory.create(exportRequest, pageLatency);
+          OutputStream stream = exportOutputFactory.openStream(out, compression)) {
+        new ArrowExportWriter(pager, exportOutputFactory.arrowAllocator(), fields).export(stream);
+      }
+      return;
+    }
+    try (Writer writer = exportOutputFactory.open(out, compression)) {
+      if (format == ExportFileFormat.JSONL) {
+        new JsonLinesWriter(exportPagerFactory.createSource(exportRequest, pageLatency), fields)
+            .export(writer);
+        return;
+      }
+      if (literatureConfigProperties.isExportTranscodeSources()
+          && literatureConfigProperties.getExportSlices() <= 1) {
+        exportRequest.setDocValueFields(literatureConfigProperties.isExportDocValueFields());
+        new SourceCsvWriter(
+                exportPagerFactory.createSource(exportRequest, pageLatency),
+                format.getDelimitedFormat(),
+                fields)
+            .export(writer);
+        return;
+      }
+      try (ExportPager pager = exportPagerFactory.create(exportRequest, pageLatency)) {
+        CsvWriter.literatureSearchResultCsvWriter(
+                pager,
+                format.getDelimitedFormat(),
+                literatureConfigProperties.getExportPageSize(),
+                fields)
+            .export(writer);
+      }
+    }
+  }
+
+  /**
+   * Whether an export failed because Elasticsearch is overloaded or unreachable, as opposed to an
+   * invalid query or a bug. Failures to write to the client are told apart by the caller.
+   */
+  private static boolean isBackendFailure(Throwable e) {
+    Throwable cause = e;
+    while (cause instanceof UncheckedIOException || cause instanceof CompletionException) {
+      if (cause.getCause() == null) {
+        break;
+      }
+      cause = cause.getCause();
+    }
+    if (cause instanceof ElasticsearchException esException) {
+      return esException.status() == 429 || esException.status() >= 500;
+    }
+    return cause instanceof IOException || cause instanceof TimeBudgetExceededException;
+  }
 }
@@ -0,0 +1,38 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.resource;
+
+import org.gbif.literature.concurrency.QueryCost;
+
+import org.springframework.http.HttpHeaders;
+
+/** Response headers reporting the pre-flight cost decision of a search. */
+final class QueryCostHeaders {
+
+  static final String QUERY_COST = "X-Query-Cost";
+  static final String QUERY_COST_DECISION = "X-Query-Cost-Decision";
+  static final String QUERY_COST_DOWNGRADES = "X-Query-Cost-Downgrades";
+
+  private QueryCostHeaders() {}
+
+  static HttpHeaders of(QueryCost queryCost) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.set(QUERY_COST, String.valueOf(queryCost.getScore()));
+    headers.set(QUERY_COST_DECISION, queryCost.getDecision().headerValue());
+    if (!queryCost.getDowngrades().isEmpty()) {
+      headers.set(QUERY_COST_DOWNGRADES, String.join(",", queryCost.getDowngrades()));
+    }
+    return headers;
+  }
+}
@@ -43,6 +43,14 @@ public interface EsFieldMapper<P extends SearchParameter> {
     return getMappedFields();
   }
 
+  /**
+   * Export fields with doc values that hold the same values as the source, which exports may read
+   * through {@code docvalue_fields} instead.
+   */
+  default String[] getExportDocValueFields() {
+    return new String[0];
+  }
+
   /** Stable sort keys for export cursor pagination ({@code search_after} + PIT). */
   default SortOptions[] exportSorts() {
     return sorts();
@@ -43,13 +43,18 @@ public class EsResponseParser<T, P extends SearchParameter> {
   }
 
   /**
-   * Translates the ES response into the common search response format.
+   * Translates the ES response into the common search response format. Incomplete ES responses
+   * become a {@link PartialSearchResponse}.
    */
   public SearchResponse<T, P> buildSearchResponse(
       co.elastic.clients.elasticsearch.core.SearchResponse<Object> esResponse,
       FacetedSearchRequest<P> searchRequest) {
 
-    SearchResponse<T, P> response = new SearchResponse<>(searchRequest);
+    PartialSearchResponse.Reason partialReason = PartialSearchResponse.partialReason(esResponse);
+    SearchResponse<T, P> response =
+        partialReason != null
+            ? new PartialSearchResponse<>(searchRequest, partialReason)
+            : new SearchResponse<>(searchRequest);
     response.setResults(extractResults(esResponse));
     response.setCount(esResponse.hits().total().value());
 
@@ -62,6 +67,19 @@ public class EsResponseParser<T, P extends SearchParameter> {
     return response;
   }
 
+  /**
+   * Translates an ES response requested without aggregations, using facets that were computed
+   * earlier for the same query and filters.
+   */
+  public SearchResponse<T, P> buildSearchResponse(
+      co.elastic.clients.elasticsearch.core.SearchResponse<Object> esResponse,
+      FacetedSearchRequest<P> searchRequest,
+      List<Facet<P>> knownFacets) {
+    SearchResponse<T, P> response = buildSearchResponse(esResponse, searchRequest);
+    response.setFacets(knownFacets);
+    return response;
+  }
+
   /**
    * Builds a paging-oriented response for export (no facets; total hits may be absent).
    */
@@ -14,12 +14,8 @@
 package org.gbif.literature.search;
 
 import org.gbif.api.model.common.search.FacetedSearchRequest;
-import org.gbif.api.model.common.search.SearchConstants;
 import org.gbif.api.model.common.search.SearchParameter;
-import org.gbif.api.model.literature.LiteratureType;
-import org.gbif.api.util.VocabularyUtils;
-import org.gbif.api.vocabulary.Country;
-import org.gbif.api.vocabulary.Language;
+import org.gbif.literature.config.TimeBudgetConfigProperties;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -34,6 +30,7 @@ import co.elastic.clients.elasticsearch._types.SortOptions;
 import co.elastic.clients.elasticsearch._types.SortOrder;
 import co.elastic.clients.elasticsearch._types.Time;
 import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.query_dsl.FieldAndFormat;
 import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
 import co.elastic.clients.elasticsearch._types.query_dsl.MatchQuery;
 import co.elastic.clients.elasticsearch._types.query_dsl.Query;
@@ -47,6 +44,8 @@ import static org.gbif.literature.util.EsQueryUtils.RANGE_WILDCARD;
 import static org.gbif.literature.util.EsQueryUtils.UPPER_BOUND_RANGE_PARSER;
 import static org.gbif.literature.util.EsQueryUtils.extractFacetLimit;
 import static org.gbif.literature.util.EsQueryUtils.extractFacetOffset;
+import static org.gbif.literature.util.EsQueryUtils.filterValue;
+import static org.gbif.literature.util.EsQueryUtils.textQuery;
 
 /**
  * Enhanced Elasticsearch search request builder for Elasticsearch 9.
@@ -67,14 +66,44 @@ public class EsSearchRequestBuilder<P extends SearchParameter> {
     this.esFieldMapper = esFieldMapper;
   }
 
+  /** Index order within a point in time, the cheapest sort to page through with search_after. */
+  private static final SortOptions SHARD_DOC_SORT =
+      SortOptions.of(s -> s.field(f -> f.field("_shard_doc")));
+
   /** Keep-alive for export point-in-time contexts. */
   public static final Time EXPORT_PIT_KEEP_ALIVE = Time.of(t -> t.time("2m"));
 
+  /** Format of the date doc values of an export. */
+  private static final String EXPORT_DATE_FORMAT = "strict_date_time";
+
   /**
    * Builds the main search request.
    */
   public SearchRequest buildSearchRequest(FacetedSearchRequest<P> searchRequest, String index) {
-    return buildRequest(searchRequest, index);
+    return buildRequest(searchRequest, index, null, true);
+  }
+
+  /**
+   * Builds the main search request limited to the given time budget, or unlimited when the budget
+   * is null.
+   */
+  public SearchRequest buildSearchRequest(
+      FacetedSearchRequest<P> searchRequest,
+      String index,
+      TimeBudgetConfigProperties.Budget budget) {
+    return buildRequest(searchRequest, index, budget, true);
+  }
+
+  /**
+   * Builds the main search request, leaving out the aggregations when the facets are already known,
+   * e.g. from a cache.
+   */
+  public SearchRequest buildSearchRequest(
+      FacetedSearchRequest<P> searchRequest,
+      String index,
+      TimeBudgetConfigProperties.Budget budget,
+      boolean includeAggregations) {
+    return buildRequest(searchRequest, index, budget, includeAggregations);
   }
 
   /**
@@ -86,6 +115,19 @@ public class EsSearchRequestBuilder<P extends SearchParameter> {
       String index,
       String pitId,
       List<FieldValue> searchAfter) {
+    return buildExportSearchRequest(searchRequest, index, pitId, searchAfter, null);
+  }
+
+  /**
+   * Builds the export request of one slice of a point-in-time export, or of the whole export when
+   * {@code slice} is null.
+   */
+  public SearchRequest buildExportSearchRequest(
+      FacetedSearchRequest<P> searchRequest,
+      String index,
+      String pitId,
+      List<FieldValue> searchAfter,
+      ExportSlice slice) {
 
     SearchRequest.Builder builder = new SearchRequest.Builder();
     configureExportBasicRequest(builder, searchRequest, index, pitId, searchAfter);
@@ -94,7 +136,14 @@ public class EsSearchRequestBuilder<P extends SearchParameter> {
     BoolQuery mainQuery = buildMainQuery(searchRequest, groupedParams);
     builder.query(Query.of(q -> q.bool(mainQuery)));
 
-    configureExportSorting(builder);
+    if (slice != null && slice.getMax() > 1) {
+      builder.slice(s -> s.id(String.valueOf(slice.getId())).max(slice.getMax()));
+    }
+    if (slice != null && !slice.isOrdered()) {
+      builder.sort(SHARD_DOC_SORT);
+    } else {
+      configureExportSorting(builder);
+    }
 
     return builder.build();
   }
@@ -102,11 +151,16 @@ public class EsSearchRequestBuilder<P extends SearchParameter> {
   /**
    * Main search request builder with comprehensive filtering and aggregation support.
    */
-  private SearchRequest buildRequest(FacetedSearchRequest<P> searchRequest, String index) {
+  private SearchRequest buildRequest(
+      FacetedSearchRequest<P> searchRequest,
+      String index,
+      TimeBudgetConfigProperties.Budget budget,
+      boolean includeAggregations) {
     SearchRequest.Builder builder = new SearchRequest.Builder();
 
     // Basic request setup
     configureBasicRequest(builder, searchRequest, index);
+    configureTimeBudget(builder, budget);
 
     // Setup filtering strategy for multi-select facets
     GroupedParams<P> groupedParams = groupParameters(searchRequest);
@@ -125,7 +179,9 @@ public class EsSearchRequestBuilder<P extends SearchParameter> {
     configureHighlighting(builder, searchRequest);
 
     // Add aggregations with multi-select support
-    addAggregations(builder, searchRequest, groupedParams);
+    if (includeAggregations) {
+      addAggregations(builder, searchRequest, groupedParams);
+    }
 
     return builder.build();
   }
@@ -146,14 +202,58 @@ public class EsSearchRequestBuilder<P extends SearchParameter> {
     builder.size(searchRequest.getLimit());
     builder.trackTotalHits(t -> t.enabled(false));
 
+    configureExportFetch(builder, searchRequest);
+
+    if (searchAfter != null && !searchAfter.isEmpty()) {
+      builder.searchAfter(searchAfter);
+    }
+  }
+
+  /**
+   * Fetches the export fields from {@code _source}, or, for exports reading doc values, the fields
+   * that have them through {@code docvalue_fields} and only the others from {@code _source}, which
+   * is left out entirely when there are none.
+   */
+  private void configureExportFetch(
+      SearchRequest.Builder builder, FacetedSearchRequest<P> searchRequest) {
+    List<String> includes = exportIncludes(searchRequest);
+    if (searchRequest instanceof LiteratureExportRequest exportRequest
+        && exportRequest.isDocValueFields()) {
+      Set<String> docValueFields = Set.of(esFieldMapper.getExportDocValueFields());
+      List<FieldAndFormat> fromDocValues = new ArrayList<>();
+      List<String> fromSource = new ArrayList<>();
+      for (String field : includes) {
+        if (docValueFields.contains(field)) {
+          // dates as UTC timestamps with milliseconds, which parse like the source dates
+          String format = esFieldMapper.isDateField(field) ? EXPORT_DATE_FORMAT : null;
+          fromDocValues.add(FieldAndFormat.of(f -> f.field(field).format(format)));
+        } else {
+          fromSource.add(field);
+        }
+      }
+      if (!fromDocValues.isEmpty()) {
+        builder.docvalueFields(fromDocValues);
+      }
+      includes = fromSource;
+      if (includes.isEmpty()) {
+        builder.source(s -> s.fetch(false));
+        return;
+      }
+    }
+    List<String> sourceIncludes = includes;
     builder.source(s -> s.filter(f -> f
-        .includes(List.of(esFieldMapper.getExportMappedFields()))
+        .includes(sourceIncludes)
         .excludes(List.of(esFieldMapper.excludeFields()))
     ));
+  }
 
-    if (searchAfter != null && !searchAfter.isEmpty()) {
-      builder.searchAfter(searchAfter);
+  /** Source fields of an export: those of its columns if it has chosen them, else all. */
+  private List<String> exportIncludes(FacetedSearchRequest<P> searchRequest) {
+    if (searchRequest instanceof LiteratureExportRequest exportRequest
+        && exportRequest.getSourceFields() != null) {
+      return exportRequest.getSourceFields();
     }
+    return List.of(esFieldMapper.getExportMappedFields());
   }
 
   private void configureExportSorting(SearchRequest.Builder builder) {
@@ -206,12 +306,11 @@ public class EsSearchRequestBuilder<P extends SearchParameter> {
    * Adds the main text query to the bool query.
    */
   private void addTextQuery(BoolQuery.Builder boolQueryBuilder, FacetedSearchRequest<P> searchRequest) {
-    if (searchRequest.getQ() == null ||
-        searchRequest.getQ().trim().isEmpty() ||
-        searchRequest.getQ().equals(SearchConstants.QUERY_WILDCARD)) {
-      boolQueryBuilder.must(q -> q.matchAll(ma -> ma));
+    String q = textQuery(searchRequest);
+    if (q == null) {
+      boolQueryBuilder.must(m -> m.matchAll(ma -> ma));
     } else {
-      boolQueryBuilder.must(esFieldMapper.fullTextQuery(searchRequest.getQ()));
+      boolQueryBuilder.must(esFieldMapper.fullTextQuery(q));
     }
   }
 
@@ -250,9 +349,7 @@ public class EsSearchRequestBuilder<P extends SearchParameter> {
    * Configures sorting based on query type.
    */
   private void configureSorting(SearchRequest.Builder builder, FacetedSearchRequest<P> searchRequest) {
-    if (searchRequest.getQ() == null ||
-        searchRequest.getQ().trim().isEmpty() ||
-        searchRequest.getQ().equals(SearchConstants.QUERY_WILDCARD)) {
+    if (textQuery(searchRequest) == null) {
       // Default sorting for non-text queries
       for (SortOptions sort : esFieldMapper.sorts()) {
         builder.sort(sort);
@@ -380,7 +477,18 @@ public class EsSearchRequestBuilder<P extends SearchParameter> {
    * Builds a get-by-id request.
    */
   public SearchRequest buildGetRequest(Object identifier, String index) {
-    return new SearchRequest.Builder()
+    return buildGetRequest(identifier, index, null);
+  }
+
+  /**
+   * Builds a get-by-id request limited to the given time budget, or unlimited when the budget is
+   * null.
+   */
+  public SearchRequest buildGetRequest(
+      Object identifier, String index, TimeBudgetConfigProperties.Budget budget) {
+    SearchRequest.Builder builder = new SearchRequest.Builder();
+    configureTimeBudget(builder, budget);
+    return builder
         .index(index)
         .source(s -> s
             .filter(f -> f
@@ -395,6 +503,20 @@ public class EsSearchRequestBuilder<P extends SearchParameter> {
         .build();
   }
 
+  /**
+   * Sends the budget to ES, which then returns whatever it has collected when the budget runs out.
+   */
+  private void configureTimeBudget(
+      SearchRequest.Builder builder, TimeBudgetConfigProperties.Budget budget) {
+    if (budget == null) {
+      return;
+    }
+    builder.timeout(budget.esTimeout());
+    if (budget.getTerminateAfter() != null) {
+      builder.terminateAfter(budget.getTerminateAfter());
+    }
+  }
+
   /**
    * Builds queries for a parameter's values, handling ranges and nested fields.
    */
@@ -408,7 +530,7 @@ public class EsSearchRequestBuilder<P extends SearchParameter> {
         continue;
       }
 
-      String parsedValue = parseParamValue(value, param);
+      String parsedValue = filterValue(value, param);
       if (parsedValue != null) {
         parsedValues.add(parsedValue);
       }
@@ -528,45 +650,6 @@ public class EsSearchRequestBuilder<P extends SearchParameter> {
     }
   }
 
-  /**
-   * Parses parameter values based on their type.
-   */
-  private String parseParamValue(String value, P parameter) {
-    if (Enum.class.isAssignableFrom(parameter.type())) {
-      return parseEnumValue(value, parameter);
-    }
-
-    if (Boolean.class.isAssignableFrom(parameter.type())) {
-      return value.toLowerCase();
-    }
-
-    return value;
-  }
-
-  /**
-   * Parses enum parameter values with special handling for different enum types.
-   */
-  private String parseEnumValue(String value, P parameter) {
-    if (Country.class.isAssignableFrom(parameter.type())) {
-      return VocabularyUtils.lookup(value, Country.class)
-          .map(Country::getIso2LetterCode)
-          .orElse(value);
-    } else if (LiteratureType.class.isAssignableFrom(parameter.type())) {
-      return VocabularyUtils.lookup(value, LiteratureType.class)
-          .map(Enum::name)
-          .map(String::toLowerCase)
-          .orElse(value);
-    } else if (Language.class.isAssignableFrom(parameter.type())) {
-      return VocabularyUtils.lookup(value, Language.class)
-          .map(Language::getIso3LetterCode)
-          .orElse(value);
-    } else {
-      return VocabularyUtils.lookup(value, (Class<Enum<?>>) parameter.type())
-          .map(Enum::name)
-          .orElse(null);
-    }
-  }
-
   /**
    * Groups parameters into query filters and post filters for multi-select facet support.
    */
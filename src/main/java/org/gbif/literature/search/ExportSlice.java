@@ -0,0 +1,29 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.search;
+
+import lombok.Value;
+
+/**
+ * One of {@code max} disjoint slices of a point-in-time export. Ordered slices keep the export
+ * sort, so their pages can be merged back into it; unordered slices are sorted by
+ * {@code _shard_doc}, the cheapest order Elasticsearch can page through.
+ */
+@Value
+public class ExportSlice {
+
+  int id;
+  int max;
+  boolean ordered;
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.search;
+
+import java.util.List;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+
+import lombok.Value;
+
+/**
+ * One page of an export as the raw Elasticsearch response body, with where each hit's {@code
+ * _source} and doc value {@code fields} sit in it, plus cursor state for the next request. Lets
+ * exports transcode sources without binding them to objects.
+ */
+@Value
+public class ExportSourcePage {
+
+  byte[] body;
+  List<Hit> hits;
+  String pitId;
+  List<FieldValue> nextSearchAfter;
+  boolean endOfRecords;
+
+  /**
+   * A hit: its document id and the byte ranges of its {@code _source} and {@code fields} objects in
+   * the body.
+   */
+  @Value
+  public static class Hit {
+    String id;
+    int sourceOffset;
+    int sourceLength;
+    int fieldsOffset;
+    int fieldsLength;
+
+    public boolean hasSource() {
+      return sourceLength > 0;
+    }
+
+    public boolean hasFields() {
+      return fieldsLength > 0;
+    }
+  }
+}
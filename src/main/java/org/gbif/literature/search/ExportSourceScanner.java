@@ -0,0 +1,150 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.search;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+
+/**
+ * Reads the cursor state and hit locations out of a raw search response in a single streaming
+ * pass, skipping over the sources and doc value fields without decoding them.
+ */
+public final class ExportSourceScanner {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private ExportSourceScanner() {}
+
+  /**
+   * Scans a search response body.
+   *
+   * @param pitId the point in time searched, kept if the response does not return a newer one
+   * @param pageSize the requested page size; a shorter page is the last one
+   */
+  public static ExportSourcePage scan(byte[] body, String pitId, int pageSize)
+      throws IOException {
+    List<ExportSourcePage.Hit> hits = new ArrayList<>(pageSize);
+    List<FieldValue> lastSort = null;
+    String nextPitId = pitId;
+
+    try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+      expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.currentName();
+        JsonToken value = parser.nextToken();
+        if ("pit_id".equals(name) && value == JsonToken.VALUE_STRING) {
+          nextPitId = parser.getText();
+        } else if ("hits".equals(name) && value == JsonToken.START_OBJECT) {
+          lastSort = scanHits(parser, hits);
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+
+    return new ExportSourcePage(
+        body, hits, nextPitId, lastSort, hits.isEmpty() || hits.size() < pageSize);
+  }
+
+  /** Scans the outer hits object, returning the sort values of the last hit. */
+  private static List<FieldValue> scanHits(JsonParser parser, List<ExportSourcePage.Hit> hits)
+      throws IOException {
+    List<FieldValue> lastSort = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.currentName();
+      JsonToken value = parser.nextToken();
+      if ("hits".equals(name) && value == JsonToken.START_ARRAY) {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+          lastSort = scanHit(parser, hits);
+        }
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return lastSort;
+  }
+
+  private static List<FieldValue> scanHit(JsonParser parser, List<ExportSourcePage.Hit> hits)
+      throws IOException {
+    String id = null;
+    int sourceOffset = 0;
+    int sourceLength = 0;
+    int fieldsOffset = 0;
+    int fieldsLength = 0;
+    List<FieldValue> sort = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.currentName();
+      JsonToken value = parser.nextToken();
+      if ("_id".equals(name) && value == JsonToken.VALUE_STRING) {
+        id = parser.getText();
+      } else if ("_source".equals(name) && value == JsonToken.START_OBJECT) {
+        sourceOffset = (int) parser.currentTokenLocation().getByteOffset();
+        parser.skipChildren();
+        sourceLength = (int) parser.currentLocation().getByteOffset() - sourceOffset;
+      } else if ("fields".equals(name) && value == JsonToken.START_OBJECT) {
+        fieldsOffset = (int) parser.currentTokenLocation().getByteOffset();
+        parser.skipChildren();
+        fieldsLength = (int) parser.currentLocation().getByteOffset() - fieldsOffset;
+      } else if ("sort".equals(name) && value == JsonToken.START_ARRAY) {
+        sort = sortValues(parser);
+      } else {
+        parser.skipChildren();
+      }
+    }
+    hits.add(
+        new ExportSourcePage.Hit(id, sourceOffset, sourceLength, fieldsOffset, fieldsLength));
+    return sort;
+  }
+
+  private static List<FieldValue> sortValues(JsonParser parser) throws IOException {
+    List<FieldValue> values = new ArrayList<>(2);
+    JsonToken token;
+    while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+      switch (token) {
+        case VALUE_NUMBER_INT:
+          values.add(FieldValue.of(parser.getLongValue()));
+          break;
+        case VALUE_NUMBER_FLOAT:
+          values.add(FieldValue.of(parser.getDoubleValue()));
+          break;
+        case VALUE_TRUE:
+        case VALUE_FALSE:
+          values.add(FieldValue.of(parser.getBooleanValue()));
+          break;
+        case VALUE_NULL:
+          values.add(FieldValue.NULL);
+          break;
+        default:
+          values.add(FieldValue.of(parser.getText()));
+          break;
+      }
+    }
+    return values;
+  }
+
+  private static void expect(JsonParser parser, JsonToken actual, JsonToken expected)
+      throws IOException {
+    if (actual != expected) {
+      throw new IOException(
+          "Unexpected " + actual + " in search response at " + parser.currentLocation());
+    }
+  }
+}
@@ -110,6 +110,24 @@ public class LiteratureEsFieldMapper implements EsFieldMapper<LiteratureSearchPa
         "gbifDownloadKey"
       };
 
+  /**
+   * Keyword, boolean and date export fields, which are filtered on and so have doc values. Multi
+   * valued ones hold enums, exported as sets, as doc values come sorted and without duplicates.
+   */
+  private static final String[] EXPORT_DOC_VALUE_FIELDS =
+      new String[] {
+        "createdAt",
+        "openAccess",
+        "peerReview",
+        "citationType",
+        "countriesOfCoverage",
+        "countriesOfResearcher",
+        "literatureType",
+        "id",
+        "topics",
+        "created"
+      };
+
   private static final String[] EXCLUDE_FIELDS =
       new String[] {
         "_all",
@@ -188,6 +206,11 @@ public class LiteratureEsFieldMapper implements EsFieldMapper<LiteratureSearchPa
     return EXPORT_MAPPED_FIELDS;
   }
 
+  @Override
+  public String[] getExportDocValueFields() {
+    return EXPORT_DOC_VALUE_FIELDS;
+  }
+
   @Override
   public boolean isDateField(String esFieldName) {
     return DATE_FIELDS.contains(esFieldName);
@@ -0,0 +1,39 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.search;
+
+import org.gbif.api.model.literature.search.LiteratureSearchRequest;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * A literature search prepared for export, optionally fetching only some source fields, or some
+ * of them from doc values.
+ */
+@Getter
+@Setter
+public class LiteratureExportRequest extends LiteratureSearchRequest {
+
+  /**
+   * Source fields the exported columns are read from, a subset of the export mapped fields; null
+   * fetches all of them.
+   */
+  private List<String> sourceFields;
+
+  /** Whether fields with doc values are read from them instead of {@code _source}. */
+  private boolean docValueFields;
+}
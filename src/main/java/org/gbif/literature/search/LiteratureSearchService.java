@@ -18,10 +18,12 @@ import org.gbif.api.model.literature.search.LiteratureSearchParameter;
 import org.gbif.api.model.literature.search.LiteratureSearchRequest;
 import org.gbif.api.model.literature.search.LiteratureSearchResult;
 import org.gbif.api.service.common.SearchService;
+import org.gbif.literature.cache.Served;
 
 import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.LongConsumer;
 
 import co.elastic.clients.elasticsearch._types.FieldValue;
 
@@ -29,6 +31,19 @@ public interface LiteratureSearchService
     extends SearchService<
         LiteratureSearchResult, LiteratureSearchParameter, LiteratureSearchRequest> {
 
+  /**
+   * Like {@link #search}, but the response may be a stale cached copy, served while it is being
+   * refreshed or while the search backend is failing.
+   *
+   * @param beforeSearch runs right before Elasticsearch is called, and may throw to prevent it;
+   *     not run when the response comes from a cache
+   * @param searchLatency receives the nanoseconds spent in Elasticsearch, only when it was called
+   */
+  Served<SearchResponse<LiteratureSearchResult, LiteratureSearchParameter>> searchServed(
+      LiteratureSearchRequest literatureSearchRequest,
+      Runnable beforeSearch,
+      LongConsumer searchLatency);
+
   Optional<LiteratureSearchResult> get(Object identifier);
 
   ExportPageResult exportSearch(
@@ -36,4 +51,23 @@ public interface LiteratureSearchService
       List<FieldValue> searchAfter,
       String pitId)
       throws IOException;
+
+  /** One page of a slice of a point-in-time export; {@code pitId} is required. */
+  ExportPageResult exportSearch(
+      LiteratureSearchRequest literatureSearchRequest,
+      List<FieldValue> searchAfter,
+      String pitId,
+      ExportSlice slice)
+      throws IOException;
+
+  /**
+   * Like {@link #exportSearch(LiteratureSearchRequest, List, String, ExportSlice)}, but returns
+   * the raw response so exports can transcode the sources without binding them to results.
+   */
+  ExportSourcePage exportSearchSource(
+      LiteratureSearchRequest literatureSearchRequest,
+      List<FieldValue> searchAfter,
+      String pitId,
+      ExportSlice slice)
+      throws IOException;
 }
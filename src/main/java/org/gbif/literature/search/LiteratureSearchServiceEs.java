@@ -18,48 +18,139 @@ import java.util.ArrayList;
 import org.gbif.api.model.literature.search.LiteratureSearchParameter;
 import org.gbif.api.model.literature.search.LiteratureSearchRequest;
 import org.gbif.api.model.literature.search.LiteratureSearchResult;
+import org.gbif.literature.cache.FacetCache;
+import org.gbif.literature.cache.GetCache;
+import org.gbif.literature.cache.SearchResponseCache;
+import org.gbif.literature.cache.Served;
+import org.gbif.literature.concurrency.AdaptiveConcurrencyLimiter;
+import org.gbif.literature.concurrency.Bulkheads;
+import org.gbif.literature.concurrency.ConcurrencyLimiters;
+import org.gbif.literature.concurrency.SingleFlight;
+import org.gbif.literature.concurrency.TimeBudgetExceededException;
+import org.gbif.literature.concurrency.Workload;
+import org.gbif.literature.concurrency.WorkloadClassifier;
 import org.gbif.literature.config.EsClientConfigProperties;
+import org.gbif.literature.config.TimeBudgetConfigProperties;
 
 import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongConsumer;
 
+import org.apache.http.util.EntityUtils;
+import org.elasticsearch.client.Cancellable;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.ResponseListener;
+import org.elasticsearch.client.RestClient;
 import org.springframework.stereotype.Service;
 
-import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
 import co.elastic.clients.elasticsearch._types.FieldValue;
 import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.json.JsonpUtils;
+import co.elastic.clients.transport.rest_client.RestClientTransport;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Service
 public class LiteratureSearchServiceEs implements LiteratureSearchService {
 
-  private final ElasticsearchClient elasticsearchClient;
+  private final ElasticsearchAsyncClient elasticsearchClient;
   private final LiteratureEsResponseParser esResponseParser;
   private final EsSearchRequestBuilder<LiteratureSearchParameter> esSearchRequestBuilder;
+  private final ConcurrencyLimiters concurrencyLimiters;
+  private final WorkloadClassifier workloadClassifier;
+  private final TimeBudgetConfigProperties timeBudgetConfigProperties;
+  private final SearchResponseCache searchResponseCache;
+  private final FacetCache facetCache;
+  private final GetCache getCache;
+  private final Bulkheads bulkheads;
+  private final MeterRegistry meterRegistry;
+  private final SingleFlight<
+          String,
+          org.gbif.api.model.common.search.SearchResponse<
+              LiteratureSearchResult, LiteratureSearchParameter>>
+      searchFlights;
+  private final SingleFlight<String, Optional<LiteratureSearchResult>> getFlights;
   private final String index;
   private final int maxResultWindow;
 
   public LiteratureSearchServiceEs(
       EsClientConfigProperties esClientConfigProperties,
-      ElasticsearchClient elasticsearchClient,
+      ElasticsearchAsyncClient elasticsearchClient,
       SearchResultConverter<LiteratureSearchResult> searchResultConverter,
       EsSearchRequestBuilder<LiteratureSearchParameter> esSearchRequestBuilder,
-      EsFieldMapper<LiteratureSearchParameter> esFieldMapper) {
+      EsFieldMapper<LiteratureSearchParameter> esFieldMapper,
+      ConcurrencyLimiters concurrencyLimiters,
+      WorkloadClassifier workloadClassifier,
+      TimeBudgetConfigProperties timeBudgetConfigProperties,
+      SearchResponseCache searchResponseCache,
+      FacetCache facetCache,
+      GetCache getCache,
+      Bulkheads bulkheads,
+      MeterRegistry meterRegistry) {
     this.index = esClientConfigProperties.getIndex();
     this.maxResultWindow = esClientConfigProperties.getMaxResultWindow();
     this.elasticsearchClient = elasticsearchClient;
     this.esResponseParser = new LiteratureEsResponseParser(searchResultConverter, esFieldMapper);
     this.esSearchRequestBuilder = esSearchRequestBuilder;
+    this.concurrencyLimiters = concurrencyLimiters;
+    this.workloadClassifier = workloadClassifier;
+    this.timeBudgetConfigProperties = timeBudgetConfigProperties;
+    this.searchResponseCache = searchResponseCache;
+    this.facetCache = facetCache;
+    this.getCache = getCache;
+    this.bulkheads = bulkheads;
+    this.meterRegistry = meterRegistry;
+    this.searchFlights = new SingleFlight<>("search", meterRegistry);
+    this.getFlights = new SingleFlight<>("get", meterRegistry);
   }
 
   @Override
   public org.gbif.api.model.common.search.SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> search(
       LiteratureSearchRequest literatureSearchRequest) {
-    return searchInternal(literatureSearchRequest);
+    String fingerprint = SearchRequestFingerprint.of(literatureSearchRequest);
+    return searchResponseCache.get(
+        fingerprint,
+        () ->
+            searchFlights.execute(
+                fingerprint, () -> searchInternal(literatureSearchRequest, () -> {}, nanos -> {})));
+  }
+
+  @Override
+  public Served<org.gbif.api.model.common.search.SearchResponse<LiteratureSearchResult, LiteratureSearchParameter>> searchServed(
+      LiteratureSearchRequest literatureSearchRequest,
+      Runnable beforeSearch,
+      LongConsumer searchLatency) {
+    // answered from the cache when possible, otherwise identical concurrent searches share one
+    // ES call and its parsed response; stale entries are refreshed on the request's own lane
+    String fingerprint = SearchRequestFingerprint.of(literatureSearchRequest);
+    Workload workload = workloadClassifier.classify(literatureSearchRequest);
+    return searchResponseCache.get(
+        fingerprint,
+        () ->
+            searchFlights.execute(
+                fingerprint,
+                () -> searchInternal(literatureSearchRequest, beforeSearch, searchLatency)),
+        refresh ->
+            bulkheads.submit(
+                workload,
+                () -> {
+                  refresh.run();
+                  return null;
+                }));
   }
 
   private org.gbif.api.model.common.search.SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> searchInternal(
-      LiteratureSearchRequest literatureSearchRequest) {
+      LiteratureSearchRequest literatureSearchRequest,
+      Runnable beforeSearch,
+      LongConsumer searchLatency) {
     int limit = literatureSearchRequest.getLimit();
     long offset = literatureSearchRequest.getOffset();
     boolean offsetExceeded = false;
@@ -69,14 +160,41 @@ public class LiteratureSearchServiceEs implements LiteratureSearchService {
       offsetExceeded = true;
     }
 
+    // facets and the total count do not depend on the page, so they may already be known
+    String facetFingerprint = SearchRequestFingerprint.facets(literatureSearchRequest);
+    String generation = facetCache.generation();
+    FacetCache.Facets knownFacets = facetCache.get(facetFingerprint, generation);
+    if (knownFacets != null && limit == 0) {
+      org.gbif.api.model.common.search.SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> response =
+          new org.gbif.api.model.common.search.SearchResponse<>(literatureSearchRequest);
+      response.setOffset(offset);
+      response.setCount(knownFacets.getCount());
+      response.setFacets(knownFacets.getFacets());
+      return response;
+    }
+
     try {
+      Workload workload = workloadClassifier.classify(literatureSearchRequest);
       SearchRequest searchRequest =
-          esSearchRequestBuilder.buildSearchRequest(literatureSearchRequest, index);
+          esSearchRequestBuilder.buildSearchRequest(
+              literatureSearchRequest, index, budgetFor(workload), knownFacets == null);
+      beforeSearch.run();
+      long start = System.nanoTime();
       co.elastic.clients.elasticsearch.core.SearchResponse<Object> esResponse =
-          elasticsearchClient.search(searchRequest, Object.class);
+          executeSearch(workload, searchRequest);
+      searchLatency.accept(System.nanoTime() - start);
 
-      org.gbif.api.model.common.search.SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> response =
-          esResponseParser.buildSearchResponse(esResponse, literatureSearchRequest);
+      org.gbif.api.model.common.search.SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> response;
+      if (knownFacets != null) {
+        response =
+            esResponseParser.buildSearchResponse(
+                esResponse, literatureSearchRequest, knownFacets.getFacets());
+      } else {
+        response = esResponseParser.buildSearchResponse(esResponse, literatureSearchRequest);
+        if (!(response instanceof PartialSearchResponse)) {
+          facetCache.put(facetFingerprint, generation, response.getFacets(), response.getCount());
+        }
+      }
 
       if (offsetExceeded) {
         response.setOffset(offset);
@@ -90,10 +208,20 @@ public class LiteratureSearchServiceEs implements LiteratureSearchService {
 
   @Override
   public Optional<LiteratureSearchResult> get(Object identifier) {
-    SearchRequest getByIdRequest = esSearchRequestBuilder.buildGetRequest(identifier, index);
+    String id = String.valueOf(identifier).toLowerCase();
+    return getCache.get(id, () -> getFlights.execute(id, () -> getInternal(identifier)));
+  }
+
+  private Optional<LiteratureSearchResult> getInternal(Object identifier) {
+    SearchRequest getByIdRequest =
+        esSearchRequestBuilder.buildGetRequest(identifier, index, budgetFor(Workload.GET));
     try {
       co.elastic.clients.elasticsearch.core.SearchResponse<Object> esResponse =
-          elasticsearchClient.search(getByIdRequest, Object.class);
+          executeSearch(Workload.GET, getByIdRequest);
+      if (esResponse.timedOut() && esResponse.hits().hits().isEmpty()) {
+        // not finding the document in time does not mean it does not exist
+        throw budgetExceeded(Workload.GET);
+      }
       return esResponseParser.buildGetResponse(esResponse);
     } catch (IOException e) {
       throw new RuntimeException(e);
@@ -106,12 +234,22 @@ public class LiteratureSearchServiceEs implements LiteratureSearchService {
       List<FieldValue> searchAfter,
       String pitId)
       throws IOException {
+    return exportSearch(literatureSearchRequest, searchAfter, pitId, null);
+  }
+
+  @Override
+  public ExportPageResult exportSearch(
+      LiteratureSearchRequest literatureSearchRequest,
+      List<FieldValue> searchAfter,
+      String pitId,
+      ExportSlice slice)
+      throws IOException {
 
     SearchRequest searchRequest =
         esSearchRequestBuilder.buildExportSearchRequest(
-            literatureSearchRequest, index, pitId, searchAfter);
+            literatureSearchRequest, index, pitId, searchAfter, slice);
     co.elastic.clients.elasticsearch.core.SearchResponse<Object> esResponse =
-        elasticsearchClient.search(searchRequest, Object.class);
+        await(Workload.EXPORT, elasticsearchClient.search(searchRequest, Object.class));
 
     var page = esResponseParser.buildExportSearchResponse(esResponse, literatureSearchRequest);
     String nextPitId = esResponse.pitId() != null ? esResponse.pitId() : pitId;
@@ -120,6 +258,135 @@ public class LiteratureSearchServiceEs implements LiteratureSearchService {
     return new ExportPageResult(page, nextPitId, nextSearchAfter);
   }
 
+  @Override
+  public ExportSourcePage exportSearchSource(
+      LiteratureSearchRequest literatureSearchRequest,
+      List<FieldValue> searchAfter,
+      String pitId,
+      ExportSlice slice)
+      throws IOException {
+
+    SearchRequest searchRequest =
+        esSearchRequestBuilder.buildExportSearchRequest(
+            literatureSearchRequest, index, pitId, searchAfter, slice);
+    // a point in time already names its indices
+    Request request = new Request("POST", pitId != null ? "/_search" : "/" + index + "/_search");
+    request.setJsonEntity(
+        JsonpUtils.toJsonString(searchRequest, elasticsearchClient._jsonpMapper()));
+    byte[] body = await(Workload.EXPORT, performRawRequest(request));
+
+    return ExportSourceScanner.scan(body, pitId, literatureSearchRequest.getLimit());
+  }
+
+  /**
+   * Sends a request through the low-level client under the typed client, returning the body
+   * without parsing it. Cancelling the future aborts the request.
+   */
+  private CompletableFuture<byte[]> performRawRequest(Request request) {
+    RestClient restClient = ((RestClientTransport) elasticsearchClient._transport()).restClient();
+    CompletableFuture<byte[]> future = new CompletableFuture<>();
+    Cancellable cancellable =
+        restClient.performRequestAsync(
+            request,
+            new ResponseListener() {
+              @Override
+              public void onSuccess(Response response) {
+                try {
+                  future.complete(EntityUtils.toByteArray(response.getEntity()));
+                } catch (IOException e) {
+                  future.completeExceptionally(e);
+                }
+              }
+
+              @Override
+              public void onFailure(Exception e) {
+                future.completeExceptionally(e);
+              }
+            });
+    future.whenComplete(
+        (body, e) -> {
+          if (future.isCancelled()) {
+            cancellable.cancel();
+          }
+        });
+    return future;
+  }
+
+  /**
+   * Runs a search while holding a concurrency slot of the workload. Failures caused by an
+   * overloaded or unreachable cluster shrink the limit; client errors leave it untouched.
+   */
+  private co.elastic.clients.elasticsearch.core.SearchResponse<Object> executeSearch(
+      Workload workload, SearchRequest searchRequest) throws IOException {
+    AdaptiveConcurrencyLimiter.Permit permit = concurrencyLimiters.acquire(workload);
+    try {
+      co.elastic.clients.elasticsearch.core.SearchResponse<Object> esResponse =
+          await(workload, elasticsearchClient.search(searchRequest, Object.class));
+      if (esResponse.timedOut()) {
+        permit.onDropped();
+      } else {
+        permit.onSuccess();
+      }
+      return esResponse;
+    } catch (IOException | TimeBudgetExceededException e) {
+      permit.onDropped();
+      throw e;
+    } catch (ElasticsearchException e) {
+      if (e.status() == 429 || e.status() >= 500) {
+        permit.onDropped();
+      } else {
+        permit.onIgnore();
+      }
+      throw e;
+    } finally {
+      permit.onIgnore();
+    }
+  }
+
+  /**
+   * Waits for an ES call until the workload's deadline and cancels it if the deadline passes, so an
+   * abandoned query does not keep running on the cluster.
+   */
+  private <R> R await(Workload workload, CompletableFuture<R> call) throws IOException {
+    try {
+      return timeBudgetConfigProperties.isEnabled()
+          ? call.get(
+              timeBudgetConfigProperties.budgetFor(workload).deadline().toMillis(),
+              TimeUnit.MILLISECONDS)
+          : call.get();
+    } catch (TimeoutException e) {
+      call.cancel(true);
+      throw budgetExceeded(workload);
+    } catch (InterruptedException e) {
+      call.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for Elasticsearch", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException ioException) {
+        throw ioException;
+      }
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IOException(e.getCause());
+    }
+  }
+
+  /** The ES-side budget of a workload; exports never get one since a partial page drops rows. */
+  private TimeBudgetConfigProperties.Budget budgetFor(Workload workload) {
+    return timeBudgetConfigProperties.isEnabled() && workload != Workload.EXPORT
+        ? timeBudgetConfigProperties.budgetFor(workload)
+        : null;
+  }
+
+  private TimeBudgetExceededException budgetExceeded(Workload workload) {
+    meterRegistry
+        .counter("literature.timebudget.exceeded", "workload", workload.tagValue())
+        .increment();
+    return new TimeBudgetExceededException(
+        workload, timeBudgetConfigProperties.budgetFor(workload).getTimeout());
+  }
+
   private static List<FieldValue> extractSearchAfter(
       co.elastic.clients.elasticsearch.core.SearchResponse<Object> esResponse) {
     var hits = esResponse.hits().hits();
@@ -0,0 +1,93 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.search;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Names of the {@code LiteratureSearchResult} properties that {@link
+ * LiteratureSearchResultConverter} fills from each source field, for exports that transcode
+ * sources without going through the converter. Source fields not listed here are not exported.
+ */
+public final class LiteratureSourceFields {
+
+  /** Source field of the document id, exported from the hit's {@code _id}. */
+  public static final String ID = "id";
+
+  private static final Map<String, String> OUTPUT_NAMES =
+      Map.ofEntries(
+          Map.entry("abstract", "abstract"),
+          Map.entry("authors", "authors"),
+          Map.entry("citationType", "citationType"),
+          Map.entry("countriesOfCoverage", "countriesOfCoverage"),
+          Map.entry("countriesOfResearcher", "countriesOfResearcher"),
+          Map.entry("created", "added"),
+          Map.entry("createdAt", "published"),
+          Map.entry("day", "day"),
+          Map.entry("discovered", "discovered"),
+          Map.entry("gbifDownloadKey", "gbifDownloadKey"),
+          Map.entry("gbifHigherTaxonKey", "gbifHigherTaxonKey"),
+          Map.entry("gbifNetworkKey", "gbifNetworkKey"),
+          Map.entry("gbifOccurrenceKey", "gbifOccurrenceKey"),
+          Map.entry("gbifProgrammeAcronym", "gbifProgramme"),
+          Map.entry("gbifProjectIdentifier", "gbifProjectIdentifier"),
+          Map.entry("gbifRegion", "gbifRegion"),
+          Map.entry("gbifTaxonKey", "gbifTaxonKey"),
+          Map.entry(ID, "id"),
+          Map.entry("identifiers", "identifiers"),
+          Map.entry("keywords", "keywords"),
+          Map.entry("language", "language"),
+          Map.entry("literatureType", "literatureType"),
+          Map.entry("month", "month"),
+          Map.entry("notes", "notes"),
+          Map.entry("openAccess", "openAccess"),
+          Map.entry("peerReview", "peerReview"),
+          Map.entry("publisher", "publisher"),
+          Map.entry("publishingCountry", "publishingCountry"),
+          Map.entry("relevance", "relevance"),
+          Map.entry("source", "source"),
+          Map.entry("tags", "tags"),
+          Map.entry("title", "title"),
+          Map.entry("topics", "topics"),
+          Map.entry("updatedAt", "modified"),
+          Map.entry("websites", "websites"),
+          Map.entry("year", "year"));
+
+  private static final Map<String, String> SOURCE_FIELDS =
+      OUTPUT_NAMES.entrySet().stream()
+          .collect(Collectors.toUnmodifiableMap(Map.Entry::getValue, Map.Entry::getKey));
+
+  /** Fields the converter maps to enums by upper-casing their values. */
+  private static final Set<String> ENUM_FIELDS =
+      Set.of("gbifRegion", "literatureType", "relevance", "topics");
+
+  private LiteratureSourceFields() {}
+
+  /** The result property of a source field, null if the field is not exported. */
+  public static String outputName(String sourceField) {
+    return OUTPUT_NAMES.get(sourceField);
+  }
+
+  /** The source field a result property is filled from, null if the property is not exported. */
+  public static String sourceField(String outputName) {
+    return SOURCE_FIELDS.get(outputName);
+  }
+
+  /** Whether the values of a source field are enum names, exported in upper case. */
+  public static boolean isEnum(String sourceField) {
+    return ENUM_FIELDS.contains(sourceField);
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.search;
+
+import org.gbif.api.model.common.search.FacetedSearchRequest;
+import org.gbif.api.model.common.search.SearchParameter;
+import org.gbif.api.model.common.search.SearchResponse;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Search response whose results, counts or facets are incomplete because Elasticsearch stopped
+ * early: the time budget ran out, {@code terminate_after} was reached or some shards failed.
+ */
+public class PartialSearchResponse<T, P extends SearchParameter> extends SearchResponse<T, P> {
+
+  /** Why the response is partial. */
+  public enum Reason {
+    TIMED_OUT,
+    TERMINATED_EARLY,
+    SHARD_FAILURES
+  }
+
+  private final Reason partialReason;
+
+  public PartialSearchResponse(FacetedSearchRequest<P> searchRequest, Reason partialReason) {
+    super(searchRequest);
+    this.partialReason = partialReason;
+  }
+
+  @Schema(description = "Always true: the results, count or facets are incomplete.")
+  public boolean isPartial() {
+    return true;
+  }
+
+  @Schema(description = "Why the results are incomplete.")
+  public Reason getPartialReason() {
+    return partialReason;
+  }
+
+  /** The reason the ES response is partial, or null if it is complete. */
+  static Reason partialReason(co.elastic.clients.elasticsearch.core.SearchResponse<?> esResponse) {
+    if (esResponse.timedOut()) {
+      return Reason.TIMED_OUT;
+    }
+    if (Boolean.TRUE.equals(esResponse.terminatedEarly())) {
+      return Reason.TERMINATED_EARLY;
+    }
+    if (esResponse.shards() != null && esResponse.shards().failed().intValue() > 0) {
+      return Reason.SHARD_FAILURES;
+    }
+    return null;
+  }
+}
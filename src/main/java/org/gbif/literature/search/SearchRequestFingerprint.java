@@ -0,0 +1,164 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.search;
+
+import org.gbif.api.model.common.paging.Pageable;
+import org.gbif.api.model.common.search.FacetedSearchRequest;
+import org.gbif.api.model.common.search.SearchParameter;
+import org.gbif.literature.util.EsQueryUtils;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * Normalized identity of a search request. Requests that produce the same Elasticsearch query get
+ * the same fingerprint regardless of parameter order, value order or enum value case.
+ *
+ * <p>The canonical form is a query string with parameters sorted by name, which keeps it readable
+ * in logs and metrics.
+ */
+public final class SearchRequestFingerprint {
+
+  private SearchRequestFingerprint() {}
+
+  /** Fingerprint of everything that affects the response. */
+  public static String of(FacetedSearchRequest<? extends SearchParameter> request) {
+    return hash(canonical(request));
+  }
+
+  /** Canonical query string of everything that affects the response. */
+  public static <P extends SearchParameter> String canonical(FacetedSearchRequest<P> request) {
+    StringBuilder sb = new StringBuilder();
+    appendQuery(sb, request);
+    append(sb, "offset", String.valueOf(request.getOffset()));
+    append(sb, "limit", String.valueOf(request.getLimit()));
+    if (request.isHighlight()) {
+      append(sb, "highlight", "true");
+    }
+    appendFacets(sb, request, true);
+    return sb.toString();
+  }
+
+  /**
+   * Fingerprint of what facet counts and the total count depend on: the query, the filters and the
+   * facet options, but not the result page or highlighting. Null if the request has no facets.
+   */
+  public static <P extends SearchParameter> String facets(FacetedSearchRequest<P> request) {
+    if (request.getFacets() == null || request.getFacets().isEmpty()) {
+      return null;
+    }
+    StringBuilder sb = new StringBuilder();
+    appendQuery(sb, request);
+    appendFacets(sb, request, true);
+    return hash("facets?" + sb);
+  }
+
+  /**
+   * Canonical query string of the query shape: the query, the filters and the facets, without
+   * result or facet paging and highlighting. Pages of one search share a shape.
+   */
+  public static <P extends SearchParameter> String shape(FacetedSearchRequest<P> request) {
+    StringBuilder sb = new StringBuilder();
+    appendQuery(sb, request);
+    appendFacets(sb, request, false);
+    return sb.toString();
+  }
+
+  static String hash(String canonical) {
+    return Hashing.murmur3_128().hashString(canonical, StandardCharsets.UTF_8).toString();
+  }
+
+  /** Appends the free text query and the filters, which together select the matching documents. */
+  static <P extends SearchParameter> void appendQuery(
+      StringBuilder sb, FacetedSearchRequest<P> request) {
+    // normalized as the query builder does, so only requests sending the same query share a key
+    String q = EsQueryUtils.textQuery(request);
+    if (q != null) {
+      append(sb, "q", q);
+    }
+    if (request.getParameters() != null) {
+      Map<String, Set<String>> sorted = new TreeMap<>();
+      request
+          .getParameters()
+          .forEach(
+              (param, values) -> {
+                if (values != null && !values.isEmpty()) {
+                  sorted.put(param.name(), normalizedValues(param, values));
+                }
+              });
+      sorted.forEach((name, values) -> values.forEach(v -> append(sb, name, v)));
+    }
+  }
+
+  /** Appends the facet list, facet options and, optionally, the facet paging. */
+  static <P extends SearchParameter> void appendFacets(
+      StringBuilder sb, FacetedSearchRequest<P> request, boolean includePaging) {
+    if (request.getFacets() == null || request.getFacets().isEmpty()) {
+      return;
+    }
+    Set<P> facets = new TreeSet<>(Comparator.comparing(SearchParameter::name));
+    facets.addAll(request.getFacets());
+    facets.forEach(f -> append(sb, "facet", f.name()));
+    if (request.isFacetMultiSelect()) {
+      append(sb, "facetMultiselect", "true");
+    }
+    if (request.getFacetMinCount() != null) {
+      append(sb, "facetMinCount", String.valueOf(request.getFacetMinCount()));
+    }
+    if (!includePaging) {
+      return;
+    }
+    if (request.getFacetLimit() != null) {
+      append(sb, "facetLimit", String.valueOf(request.getFacetLimit()));
+    }
+    if (request.getFacetOffset() != null) {
+      append(sb, "facetOffset", String.valueOf(request.getFacetOffset()));
+    }
+    for (P facet : facets) {
+      Pageable page = request.getFacetPage(facet);
+      if (page != null) {
+        append(sb, facet.name() + ".facetOffset", String.valueOf(page.getOffset()));
+        append(sb, facet.name() + ".facetLimit", String.valueOf(page.getLimit()));
+      }
+    }
+  }
+
+  private static Set<String> normalizedValues(SearchParameter param, Collection<String> values) {
+    Set<String> normalized = new TreeSet<>();
+    for (String value : values) {
+      if (value == null) {
+        continue;
+      }
+      // only values Elasticsearch cannot tell apart may share a fingerprint
+      String v = EsQueryUtils.filterValue(value, param);
+      normalized.add(v != null ? v : value);
+    }
+    return normalized;
+  }
+
+  static void append(StringBuilder sb, String name, String value) {
+    if (sb.length() > 0) {
+      sb.append('&');
+    }
+    sb.append(name).append('=').append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.stats;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint {@code /actuator/queries} listing the heaviest query shapes. The shapes are
+ * canonical query strings with the paging left out.
+ *
+ * <p>Read-only, as the actuator endpoints are not behind authentication; it is served over HTTP
+ * only when listed in {@code management.endpoints.web.exposure.include}.
+ */
+@Component
+@Endpoint(id = "queries")
+public class QueryStatsEndpoint {
+
+  private static final int DEFAULT_LIMIT = 50;
+
+  private final QueryStatsTracker queryStatsTracker;
+
+  public QueryStatsEndpoint(QueryStatsTracker queryStatsTracker) {
+    this.queryStatsTracker = queryStatsTracker;
+  }
+
+  @ReadOperation
+  public Map<String, Object> queries(@Nullable Integer limit) {
+    if (limit != null && limit < 0) {
+      throw new InvalidEndpointRequestException(
+          "limit must not be negative: " + limit, "negative limit");
+    }
+    List<Map<String, Object>> top =
+        queryStatsTracker.top(limit != null ? limit : DEFAULT_LIMIT).stream()
+            .map(QueryStatsEndpoint::describe)
+            .collect(Collectors.toList());
+
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("enabled", queryStatsTracker.isEnabled());
+    body.put("capacity", queryStatsTracker.capacity());
+    body.put("total", queryStatsTracker.total());
+    body.put("queries", top);
+    return body;
+  }
+
+  private static Map<String, Object> describe(SpaceSavingSketch.HeavyHitter<String> hitter) {
+    Map<String, Object> query = new LinkedHashMap<>();
+    query.put("shape", hitter.getKey());
+    query.put("count", hitter.getCount());
+    query.put("countError", hitter.getError());
+    query.put("timeMillis", TimeUnit.NANOSECONDS.toMillis(hitter.getTimeNanos()));
+    query.put("bytes", hitter.getBytes());
+    return query;
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.stats;
+
+import org.gbif.api.model.common.search.FacetedSearchRequest;
+import org.gbif.api.model.common.search.SearchParameter;
+import org.gbif.literature.config.QueryStatsConfigProperties;
+import org.gbif.literature.search.SearchRequestFingerprint;
+
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts searches per query shape in a fixed-memory {@link SpaceSavingSketch}, together with the
+ * time spent computing them and the bytes sent. Requests differing only in paging share a shape.
+ */
+@Component
+public class QueryStatsTracker {
+
+  private final QueryStatsConfigProperties properties;
+  private final SpaceSavingSketch<String> sketch;
+
+  public QueryStatsTracker(QueryStatsConfigProperties properties) {
+    this.properties = properties;
+    this.sketch = new SpaceSavingSketch<>(properties.getCapacity());
+  }
+
+  public boolean isEnabled() {
+    return properties.isEnabled();
+  }
+
+  /**
+   * Records one search.
+   *
+   * @param timeNanos time spent computing the response, 0 if it came from a cache
+   * @param bytes size of the response body, 0 if unknown
+   */
+  public void record(
+      FacetedSearchRequest<? extends SearchParameter> request, long timeNanos, long bytes) {
+    if (isEnabled()) {
+      sketch.record(SearchRequestFingerprint.shape(request), timeNanos, bytes);
+    }
+  }
+
+  public List<SpaceSavingSketch.HeavyHitter<String>> top(int limit) {
+    return sketch.top(limit);
+  }
+
+  /** Number of searches recorded since startup. */
+  public long total() {
+    return sketch.total();
+  }
+
+  public int capacity() {
+    return sketch.capacity();
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.stats;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import lombok.Value;
+
+/**
+ * Space-Saving heavy-hitter sketch over a fixed number of counters. Once all counters are used, a
+ * new key takes over the counter with the smallest count and inherits that count as its error, so
+ * every key seen more than {@code total / capacity} times is guaranteed to be tracked and counts
+ * are never underestimated.
+ *
+ * <p>Besides the count, each counter sums a time and a byte size, from the moment the key took
+ * the counter over.
+ */
+public class SpaceSavingSketch<K> {
+
+  /** A tracked key; the true count is between {@code count - error} and {@code count}. */
+  @Value
+  public static class HeavyHitter<K> {
+    K key;
+    long count;
+    long error;
+    long timeNanos;
+    long bytes;
+  }
+
+  private static final class Counter<K> {
+    private final K key;
+    private final long sequence;
+    private long count;
+    private long error;
+    private long timeNanos;
+    private long bytes;
+
+    private Counter(K key, long sequence, long count, long error) {
+      this.key = key;
+      this.sequence = sequence;
+      this.count = count;
+      this.error = error;
+    }
+  }
+
+  private final int capacity;
+  private final Map<K, Counter<K>> counters;
+  // ordered by count, then by age so the oldest of the smallest counters is replaced first
+  private final TreeSet<Counter<K>> byCount =
+      new TreeSet<>(
+          Comparator.<Counter<K>>comparingLong(c -> c.count).thenComparingLong(c -> c.sequence));
+  private long sequence;
+  private long total;
+
+  public SpaceSavingSketch(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    this.capacity = capacity;
+    this.counters = new HashMap<>(capacity * 4 / 3 + 1);
+  }
+
+  /** Counts one occurrence of the key. */
+  public synchronized void record(K key, long timeNanos, long bytes) {
+    total++;
+    Counter<K> counter = counters.get(key);
+    if (counter != null) {
+      byCount.remove(counter);
+      counter.count++;
+    } else if (counters.size() < capacity) {
+      counter = new Counter<>(key, sequence++, 1, 0);
+      counters.put(key, counter);
+    } else {
+      Counter<K> smallest = byCount.pollFirst();
+      counters.remove(smallest.key);
+      counter = new Counter<>(key, sequence++, smallest.count + 1, smallest.count);
+      counters.put(key, counter);
+    }
+    counter.timeNanos += timeNanos;
+    counter.bytes += bytes;
+    byCount.add(counter);
+  }
+
+  /** The tracked keys with the highest counts, highest first. */
+  public synchronized List<HeavyHitter<K>> top(int limit) {
+    List<HeavyHitter<K>> top = new ArrayList<>(Math.min(limit, counters.size()));
+    Iterator<Counter<K>> it = byCount.descendingIterator();
+    while (it.hasNext() && top.size() < limit) {
+      Counter<K> c = it.next();
+      top.add(new HeavyHitter<>(c.key, c.count, c.error, c.timeNanos, c.bytes));
+    }
+    return top;
+  }
+
+  /** Number of occurrences recorded since the sketch was created or reset. */
+  public synchronized long total() {
+    return total;
+  }
+
+  public synchronized void reset() {
+    counters.clear();
+    byCount.clear();
+    total = 0;
+  }
+
+  public int capacity() {
+    return capacity;
+  }
+}
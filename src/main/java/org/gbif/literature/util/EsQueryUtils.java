@@ -15,7 +15,12 @@ package org.gbif.literature.util;
 
 import org.gbif.api.model.common.paging.Pageable;
 import org.gbif.api.model.common.search.FacetedSearchRequest;
+import org.gbif.api.model.common.search.SearchConstants;
 import org.gbif.api.model.common.search.SearchParameter;
+import org.gbif.api.model.literature.LiteratureType;
+import org.gbif.api.util.VocabularyUtils;
+import org.gbif.api.vocabulary.Country;
+import org.gbif.api.vocabulary.Language;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -170,6 +175,55 @@ public final class EsQueryUtils {
         .orElse(request.getFacetOffset() != null ? request.getFacetOffset() : DEFAULT_FACET_OFFSET);
   }
 
+  /**
+   * The free text query of the request, trimmed, or null if it matches everything: missing, blank
+   * or the {@code *} wildcard.
+   */
+  public static String textQuery(FacetedSearchRequest<?> request) {
+    String q = request.getQ() != null ? request.getQ().trim() : "";
+    return q.isEmpty() || SearchConstants.QUERY_WILDCARD.equals(q) ? null : q;
+  }
+
+  /**
+   * The value of a filter parameter as sent to Elasticsearch: vocabulary values by their code or
+   * name, booleans in lower case and anything else unchanged. Null for an unknown enum value, which
+   * is not sent.
+   */
+  public static String filterValue(String value, SearchParameter parameter) {
+    if (Enum.class.isAssignableFrom(parameter.type())) {
+      return enumValue(value, parameter);
+    }
+
+    if (Boolean.class.isAssignableFrom(parameter.type())) {
+      return value.toLowerCase();
+    }
+
+    return value;
+  }
+
+  /** Parses enum parameter values with special handling for different enum types. */
+  @SuppressWarnings("unchecked")
+  private static String enumValue(String value, SearchParameter parameter) {
+    if (Country.class.isAssignableFrom(parameter.type())) {
+      return VocabularyUtils.lookup(value, Country.class)
+          .map(Country::getIso2LetterCode)
+          .orElse(value);
+    } else if (LiteratureType.class.isAssignableFrom(parameter.type())) {
+      return VocabularyUtils.lookup(value, LiteratureType.class)
+          .map(Enum::name)
+          .map(String::toLowerCase)
+          .orElse(value);
+    } else if (Language.class.isAssignableFrom(parameter.type())) {
+      return VocabularyUtils.lookup(value, Language.class)
+          .map(Language::getIso3LetterCode)
+          .orElse(value);
+    } else {
+      return VocabularyUtils.lookup(value, (Class<Enum<?>>) parameter.type())
+          .map(Enum::name)
+          .orElse(null);
+    }
+  }
+
   public static String escapeQuery(String q) {
     return q.replaceAll(REGEX_PUNCT_CHARS, "\\\\$1");
   }
@@ -0,0 +1,270 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.warmup;
+
+import org.gbif.literature.cache.IndexGenerationTracker;
+import org.gbif.literature.config.WarmupConfigProperties;
+import org.gbif.literature.stats.QueryStatsTracker;
+import org.gbif.literature.stats.SpaceSavingSketch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Replays representative searches through the service's own HTTP endpoint once the web server is
+ * up. Spring Boot reports readiness only after all {@link ApplicationRunner}s have returned, so
+ * traffic arrives to warm caches, compiled code and open Elasticsearch connections.
+ *
+ * <p>The searches come from the configuration, a queries file and the heaviest query shapes
+ * written by the previous run at shutdown. They carry {@link #WARMUP_HEADER} with a token known
+ * only to this instance, so they are neither counted in the query statistics nor forwarded to
+ * another instance's cache partition.
+ */
+@Slf4j
+@Component
+public class SearchWarmup implements ApplicationRunner {
+
+  public static final String WARMUP_HEADER = "X-Literature-Warmup";
+
+  private final String token = UUID.randomUUID().toString();
+  private final WarmupConfigProperties properties;
+  private final QueryStatsTracker queryStatsTracker;
+  private final IndexGenerationTracker indexGenerationTracker;
+  private final ResourceLoader resourceLoader;
+  private final Environment environment;
+  private final Timer duration;
+
+  public SearchWarmup(
+      WarmupConfigProperties properties,
+      QueryStatsTracker queryStatsTracker,
+      IndexGenerationTracker indexGenerationTracker,
+      ResourceLoader resourceLoader,
+      Environment environment,
+      MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.queryStatsTracker = queryStatsTracker;
+    this.indexGenerationTracker = indexGenerationTracker;
+    this.resourceLoader = resourceLoader;
+    this.environment = environment;
+    this.duration =
+        Timer.builder("literature.warmup")
+            .description("Time spent replaying searches before reporting readiness")
+            .register(meterRegistry);
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    Integer port = environment.getProperty("local.server.port", Integer.class);
+    if (!properties.isEnabled() || port == null) {
+      return;
+    }
+    List<String> queries = queries();
+    if (queries.isEmpty()) {
+      return;
+    }
+
+    String base =
+        "http://localhost:" + port + environment.getProperty("server.servlet.context-path", "");
+    long start = System.nanoTime();
+    if (!awaitGeneration()) {
+      log.warn(
+          "Index generation unknown after {}, warming up without caching",
+          properties.getGenerationTimeout());
+    }
+    int failed = replay(base + "/literature/search?", queries);
+    long elapsed = System.nanoTime() - start;
+    duration.record(elapsed, TimeUnit.NANOSECONDS);
+    log.info(
+        "Warmed up with {} searches in {} rounds in {} ms, {} failed",
+        queries.size(),
+        properties.getRounds(),
+        TimeUnit.NANOSECONDS.toMillis(elapsed),
+        failed);
+  }
+
+  /** Whether a request with this {@link #WARMUP_HEADER} value was sent by this warm-up. */
+  public boolean isWarmup(String warmupHeader) {
+    return token.equals(warmupHeader);
+  }
+
+  /** The {@link #WARMUP_HEADER} value sent by this instance, random for each run. */
+  String token() {
+    return token;
+  }
+
+  /**
+   * Waits until the index generation is known, polling Elasticsearch unless ZooKeeper provides
+   * it. False if it is still unknown after the timeout.
+   */
+  boolean awaitGeneration() {
+    long deadline = System.nanoTime() + properties.getGenerationTimeout().toNanos();
+    long nextPoll = System.nanoTime();
+    while (indexGenerationTracker.current() == null) {
+      if (System.nanoTime() - deadline >= 0) {
+        return false;
+      }
+      if (System.nanoTime() - nextPoll >= 0) {
+        indexGenerationTracker.poll();
+        nextPoll = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        continue;
+      }
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Writes the heaviest query shapes for the next startup. */
+  @EventListener(ContextClosedEvent.class)
+  public void persistTopQueries() {
+    if (properties.getTopQueriesFile() == null || properties.getTopQueriesFile().isEmpty()) {
+      return;
+    }
+    List<String> shapes = new ArrayList<>();
+    for (SpaceSavingSketch.HeavyHitter<String> hitter :
+        queryStatsTracker.top(properties.getTopQueries())) {
+      shapes.add(hitter.getKey());
+    }
+    if (shapes.isEmpty()) {
+      return;
+    }
+    try {
+      Files.write(Path.of(properties.getTopQueriesFile()), shapes, StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      log.warn("Could not write the top queries to {}", properties.getTopQueriesFile(), e);
+    }
+  }
+
+  List<String> queries() {
+    Set<String> queries = new LinkedHashSet<>();
+    properties.getQueries().forEach(q -> addQuery(queries, q));
+    if (properties.getQueriesFile() != null && !properties.getQueriesFile().isEmpty()) {
+      Resource resource = resourceLoader.getResource(properties.getQueriesFile());
+      try (InputStream in = resource.getInputStream()) {
+        new String(in.readAllBytes(), StandardCharsets.UTF_8)
+            .lines()
+            .forEach(q -> addQuery(queries, q));
+      } catch (IOException e) {
+        log.warn("Could not read the warm-up queries from {}", properties.getQueriesFile(), e);
+      }
+    }
+    if (properties.getTopQueriesFile() != null && !properties.getTopQueriesFile().isEmpty()) {
+      Path file = Path.of(properties.getTopQueriesFile());
+      if (Files.isReadable(file)) {
+        try {
+          Files.readAllLines(file, StandardCharsets.UTF_8).forEach(q -> addQuery(queries, q));
+        } catch (IOException e) {
+          log.warn("Could not read the top queries from {}", file, e);
+        }
+      }
+    }
+    return new ArrayList<>(queries);
+  }
+
+  private int replay(String searchUrl, List<String> queries) {
+    HttpClient httpClient =
+        HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    AtomicInteger failed = new AtomicInteger();
+    ExecutorService executor =
+        Executors.newFixedThreadPool(Math.max(1, properties.getConcurrency()));
+    try {
+      for (int round = 0; round < properties.getRounds(); round++) {
+        for (String query : queries) {
+          executor.execute(() -> search(httpClient, searchUrl + query, failed));
+        }
+      }
+      executor.shutdown();
+      if (!executor.awaitTermination(
+          properties.getMaxDuration().toMillis(), TimeUnit.MILLISECONDS)) {
+        log.warn(
+            "Warm-up did not finish within {}, reporting ready anyway",
+            properties.getMaxDuration());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      // drops the searches not started yet and interrupts the running ones
+      executor.shutdownNow();
+    }
+    return failed.get();
+  }
+
+  private void search(HttpClient httpClient, String url, AtomicInteger failed) {
+    try {
+      HttpRequest request =
+          HttpRequest.newBuilder(URI.create(url))
+              .timeout(properties.getRequestTimeout())
+              .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+              .header(WARMUP_HEADER, token)
+              .GET()
+              .build();
+      HttpResponse<Void> response =
+          httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+      if (response.statusCode() >= 400) {
+        failed.incrementAndGet();
+        log.debug("Warm-up search {} answered {}", url, response.statusCode());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      failed.incrementAndGet();
+      log.debug("Warm-up search {} failed", url, e);
+    }
+  }
+
+  private static void addQuery(Set<String> queries, String line) {
+    String query = line.trim();
+    if (query.startsWith("?")) {
+      query = query.substring(1);
+    }
+    if (!query.isEmpty() && !query.startsWith("#")) {
+      queries.add(query);
+    }
+  }
+}
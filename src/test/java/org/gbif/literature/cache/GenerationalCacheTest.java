@@ -0,0 +1,55 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.cache;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GenerationalCacheTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final GenerationalCache<String> cache =
+      new GenerationalCache<>("test", 100, Duration.ofHours(1), String::length, registry);
+
+  @Test
+  void entriesOfAnotherGenerationAreMisses() {
+    cache.put("q=frogs", "literature_1:abc", "response");
+
+    assertEquals("response", cache.get("q=frogs", "literature_1:abc"));
+    assertNull(cache.get("q=frogs", "literature_2:def"));
+
+    assertEquals(1, registry.get("cache.gets").tag("result", "hit").counter().count());
+    assertEquals(1, registry.get("cache.gets").tag("result", "miss").counter().count());
+    assertEquals(0.5, registry.get("cache.hit.ratio").gauge().value());
+  }
+
+  @Test
+  void weightIsBoundedAndTracked() {
+    for (int i = 0; i < 20; i++) {
+      cache.put("key" + i, "gen", "0123456789");
+    }
+
+    double weight = registry.get("cache.weight").gauge().value();
+    assertTrue(weight <= 100, "weight " + weight);
+    assertEquals(weight, cache.size() * 10.0);
+    assertTrue(registry.get("cache.evictions").functionCounter().count() > 0);
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.cache;
+
+import org.gbif.api.model.literature.search.LiteratureSearchResult;
+import org.gbif.literature.config.CacheConfigProperties;
+import org.gbif.literature.config.EsClientConfigProperties;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GetCacheTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final CacheConfigProperties properties = new CacheConfigProperties();
+  private final IndexGenerationTracker tracker =
+      new IndexGenerationTracker(null, event -> {}, new EsClientConfigProperties());
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @Test
+  void foundAndNotFoundIdsAreCached() {
+    tracker.update("literature_1:abc");
+    GetCache cache = new GetCache(properties, tracker, registry);
+
+    assertTrue(cache.get("found", () -> load(true)).isPresent());
+    assertTrue(cache.get("found", () -> load(true)).isPresent());
+    assertFalse(cache.get("missing", () -> load(false)).isPresent());
+    assertFalse(cache.get("missing", () -> load(false)).isPresent());
+
+    assertEquals(2, loads.get());
+    assertEquals(1, hits("positive"));
+    assertEquals(1, hits("negative"));
+
+    tracker.update("literature_2:def");
+    cache.get("found", () -> load(true));
+    assertEquals(3, loads.get());
+  }
+
+  @Test
+  void notFoundEntriesExpireSooner() {
+    tracker.update("literature_1:abc");
+    properties.getGet().setNotFoundExpireAfterWrite(Duration.ZERO);
+    GetCache cache = new GetCache(properties, tracker, registry);
+
+    cache.get("missing", () -> load(false));
+    cache.get("missing", () -> load(false));
+
+    assertEquals(2, loads.get());
+    assertEquals(0, hits("negative"));
+  }
+
+  private Optional<LiteratureSearchResult> load(boolean found) {
+    loads.incrementAndGet();
+    return found ? Optional.of(new LiteratureSearchResult()) : Optional.empty();
+  }
+
+  private double hits(String entry) {
+    return registry.get("literature.cache.get.hits").tag("entry", entry).counter().count();
+  }
+}
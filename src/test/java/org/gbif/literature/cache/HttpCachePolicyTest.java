@@ -0,0 +1,104 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.cache;
+
+import org.gbif.api.model.literature.search.LiteratureSearchParameter;
+import org.gbif.api.model.literature.search.LiteratureSearchRequest;
+import org.gbif.literature.config.EsClientConfigProperties;
+import org.gbif.literature.config.HttpCacheConfigProperties;
+
+import java.nio.ByteBuffer;
+import java.util.EnumSet;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HttpCachePolicyTest {
+
+  private final IndexGenerationTracker tracker =
+      new IndexGenerationTracker(null, event -> {}, new EsClientConfigProperties());
+  private final HttpCachePolicy policy =
+      new HttpCachePolicy(new HttpCacheConfigProperties(), tracker);
+
+  @Test
+  void noEtagWhileGenerationIsUnknown() {
+    assertNull(policy.etag(HttpCachePolicy.Endpoint.SEARCH, "fp", ""));
+  }
+
+  @Test
+  void etagChangesWithGenerationEndpointAndVariant() {
+    tracker.update("literature_1:a");
+    String etag = policy.etag(HttpCachePolicy.Endpoint.SEARCH, "fp", "");
+
+    assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+    assertEquals(etag, policy.etag(HttpCachePolicy.Endpoint.SEARCH, "fp", ""));
+    assertNotEquals(etag, policy.etag(HttpCachePolicy.Endpoint.FACETS, "fp", ""));
+    assertNotEquals(etag, policy.etag(HttpCachePolicy.Endpoint.SEARCH, "fp", "gz"));
+
+    tracker.update("literature_2:b");
+    assertNotEquals(etag, policy.etag(HttpCachePolicy.Endpoint.SEARCH, "fp", ""));
+  }
+
+  @Test
+  void variantFollowsTheEncodingOfTheBody() {
+    ByteBuffer json = ByteBuffer.wrap(new byte[] {'{', '}'});
+
+    assertEquals(
+        HttpCachePolicy.GZIP_VARIANT,
+        HttpCachePolicy.variantOf(new ResponseBytes(json, ResponseBytesCache.GZIP)));
+    assertEquals("", HttpCachePolicy.variantOf(new ResponseBytes(json, null)));
+    assertEquals("", HttpCachePolicy.variantOf(new LiteratureSearchRequest()));
+  }
+
+  @Test
+  void ifNoneMatchUsesWeakComparison() {
+    String etag = "\"abc\"";
+
+    assertTrue(HttpCachePolicy.matches("\"abc\"", etag));
+    assertTrue(HttpCachePolicy.matches("W/\"abc\"", etag));
+    assertTrue(HttpCachePolicy.matches("\"x\", \"abc\"", etag));
+    assertTrue(HttpCachePolicy.matches("*", etag));
+    assertFalse(HttpCachePolicy.matches("\"abd\"", etag));
+    assertFalse(HttpCachePolicy.matches(null, etag));
+    assertFalse(HttpCachePolicy.matches("*", null));
+  }
+
+  @Test
+  void cacheControlPerEndpoint() {
+    HttpHeaders search = policy.headers(HttpCachePolicy.Endpoint.SEARCH, "\"a\"", 1000L, false);
+    assertEquals("public, max-age=60", search.getCacheControl());
+    assertEquals("\"a\"", search.getETag());
+    assertEquals(1000L, search.getLastModified());
+
+    HttpHeaders partial = policy.headers(HttpCachePolicy.Endpoint.SEARCH, "\"a\"", 1000L, true);
+    assertEquals("no-store", partial.getCacheControl());
+    assertNull(partial.getETag());
+  }
+
+  @Test
+  void facetOnlySearchesUseTheFacetPolicy() {
+    LiteratureSearchRequest request = new LiteratureSearchRequest();
+    assertEquals(HttpCachePolicy.Endpoint.SEARCH, HttpCachePolicy.endpointOf(request));
+
+    request.setLimit(0);
+    request.setFacets(EnumSet.of(LiteratureSearchParameter.YEAR));
+    assertEquals(HttpCachePolicy.Endpoint.FACETS, HttpCachePolicy.endpointOf(request));
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.cache;
+
+import org.gbif.literature.config.CacheConfigProperties;
+import org.gbif.literature.config.EsClientConfigProperties;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseBytesCacheTest {
+
+  @Test
+  void hitsAreServedInTheAcceptedEncoding() throws IOException {
+    CacheConfigProperties properties = new CacheConfigProperties();
+    properties.getBytes().setEnabled(true);
+    IndexGenerationTracker tracker =
+        new IndexGenerationTracker(null, event -> {}, new EsClientConfigProperties());
+    tracker.update("literature_1:abc");
+    ResponseBytesCache cache =
+        new ResponseBytesCache(properties, tracker, new ObjectMapper(), new SimpleMeterRegistry());
+
+    Map<String, String> response = Map.of("title", "x".repeat(4096));
+    String json = new ObjectMapper().writeValueAsString(response);
+    cache.store("fp", tracker.current(), response, false);
+
+    ResponseBytes identity = cache.get("fp", false);
+    assertNull(identity.getContentEncoding());
+    assertTrue(identity.body().isDirect());
+    assertEquals(json, StandardCharsets.UTF_8.decode(identity.body()).toString());
+
+    ResponseBytes gzip = cache.get("fp", true);
+    assertEquals("gzip", gzip.getContentEncoding());
+    assertTrue(gzip.length() < identity.length());
+    assertEquals(json, gunzip(gzip.body()));
+
+    tracker.update("literature_2:def");
+    assertNull(cache.get("fp", false));
+  }
+
+  @Test
+  void uncacheableResponsesStayOnTheHeap() {
+    CacheConfigProperties properties = new CacheConfigProperties();
+    properties.getBytes().setEnabled(true);
+    ResponseBytesCache cache =
+        new ResponseBytesCache(
+            properties,
+            new IndexGenerationTracker(null, event -> {}, new EsClientConfigProperties()),
+            new ObjectMapper(),
+            new SimpleMeterRegistry());
+
+    ResponseBytes bytes = cache.store("fp", null, Map.of("title", "x".repeat(4096)), true);
+
+    assertFalse(cache.isCacheable(null, Map.of()));
+    assertFalse(bytes.body().isDirect());
+    assertNull(bytes.getContentEncoding());
+    assertNull(cache.get("fp", true));
+  }
+
+  @Test
+  void evictedBuffersArePooledOnceNoLongerWritten() {
+    CacheConfigProperties properties = new CacheConfigProperties();
+    properties.getBytes().setEnabled(true);
+    IndexGenerationTracker tracker =
+        new IndexGenerationTracker(null, event -> {}, new EsClientConfigProperties());
+    tracker.update("literature_1:abc");
+    ResponseBytesCache cache =
+        new ResponseBytesCache(properties, tracker, new ObjectMapper(), new SimpleMeterRegistry());
+
+    cache.store("fp", tracker.current(), Map.of("title", "x".repeat(4096)), false).release();
+    ResponseBytes writing = cache.get("fp", true);
+    cache.onGenerationChanged(new IndexGenerationChangedEvent("literature_1:abc", "literature_2"));
+    assertEquals(0, cache.getPooledBytes());
+
+    writing.release();
+    writing.release();
+    // 4 KB of JSON and its gzip copy, rounded up to their size classes
+    assertEquals(8192 + 1024, cache.getPooledBytes());
+  }
+
+  @Test
+  void acceptEncodingParsing() {
+    assertTrue(ResponseBytesCache.acceptsGzip("gzip, deflate, br"));
+    assertTrue(ResponseBytesCache.acceptsGzip("br;q=1.0, gzip;q=0.8"));
+    assertFalse(ResponseBytesCache.acceptsGzip("gzip;q=0"));
+    assertFalse(ResponseBytesCache.acceptsGzip("identity"));
+    assertFalse(ResponseBytesCache.acceptsGzip(null));
+  }
+
+  private static String gunzip(ByteBuffer buffer) throws IOException {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.cache;
+
+import org.gbif.api.model.common.search.SearchResponse;
+import org.gbif.api.model.literature.search.LiteratureSearchParameter;
+import org.gbif.api.model.literature.search.LiteratureSearchResult;
+import org.gbif.literature.concurrency.TimeBudgetExceededException;
+import org.gbif.literature.concurrency.Workload;
+import org.gbif.literature.config.CacheConfigProperties;
+import org.gbif.literature.config.EsClientConfigProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchResponseCacheTest {
+
+  private SearchResponseCache cache;
+  private final IndexGenerationTracker tracker =
+      new IndexGenerationTracker(
+          null,
+          event -> {
+            if (cache != null) {
+              cache.onGenerationChanged((IndexGenerationChangedEvent) event);
+            }
+          },
+          new EsClientConfigProperties());
+  private final List<Runnable> refreshes = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    tracker.update("literature_1:abc");
+    cache =
+        new SearchResponseCache(new CacheConfigProperties(), tracker, new SimpleMeterRegistry());
+  }
+
+  @Test
+  void staleWindowStartsWhenTheGenerationIsReplaced() throws InterruptedException {
+    CacheConfigProperties properties = new CacheConfigProperties();
+    properties.getStale().setMaxStaleWhileRevalidate(Duration.ofMillis(200));
+    cache = new SearchResponseCache(properties, tracker, new SimpleMeterRegistry());
+    SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> old = new SearchResponse<>();
+    cache.get("fp", () -> old, refreshes::add);
+
+    // older than the window, but stale only from now on
+    Thread.sleep(300);
+    tracker.update("literature_2:def");
+
+    Served<SearchResponse<LiteratureSearchResult, LiteratureSearchParameter>> served =
+        cache.get("fp", SearchResponse::new, refreshes::add);
+    assertTrue(served.isStale());
+    assertSame(old, served.getValue());
+  }
+
+  @Test
+  void entriesOutlivingTheirLifetimeAreServedWhenTheBackendFails() throws InterruptedException {
+    CacheConfigProperties properties = new CacheConfigProperties();
+    properties.getSearch().setExpireAfterWrite(Duration.ofMillis(100));
+    cache = new SearchResponseCache(properties, tracker, new SimpleMeterRegistry());
+    SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> old = new SearchResponse<>();
+    SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> fresh =
+        new SearchResponse<>();
+    cache.get("fp", () -> old, null);
+    assertSame(old, cache.get("fp", () -> fresh, null).getValue());
+
+    // same generation, past its lifetime
+    Thread.sleep(200);
+    Served<SearchResponse<LiteratureSearchResult, LiteratureSearchParameter>> served =
+        cache.get(
+            "fp",
+            () -> {
+              throw new TimeBudgetExceededException(Workload.SEARCH, Duration.ofSeconds(5));
+            },
+            null);
+    assertTrue(served.isStale());
+    assertEquals(Served.REVALIDATION_FAILED, served.getWarning());
+    assertSame(old, served.getValue());
+
+    assertSame(fresh, cache.get("fp", () -> fresh, null).getValue());
+  }
+
+  @Test
+  void staleEntryIsServedWhileRefreshing() {
+    SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> old = new SearchResponse<>();
+    SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> fresh =
+        new SearchResponse<>();
+    cache.get("fp", () -> old, refreshes::add);
+    tracker.update("literature_2:def");
+
+    Served<SearchResponse<LiteratureSearchResult, LiteratureSearchParameter>> served =
+        cache.get("fp", () -> fresh, refreshes::add);
+    assertTrue(served.isStale());
+    assertEquals(Served.RESPONSE_IS_STALE, served.getWarning());
+    assertSame(old, served.getValue());
+    assertEquals(1, refreshes.size());
+
+    refreshes.get(0).run();
+    served = cache.get("fp", () -> fresh, refreshes::add);
+    assertFalse(served.isStale());
+    assertSame(fresh, served.getValue());
+  }
+
+  @Test
+  void staleEntryIsServedWhenTheBackendFails() {
+    SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> old = new SearchResponse<>();
+    cache.get("fp", () -> old, null);
+    tracker.update("literature_2:def");
+
+    Served<SearchResponse<LiteratureSearchResult, LiteratureSearchParameter>> served =
+        cache.get(
+            "fp",
+            () -> {
+              throw new TimeBudgetExceededException(Workload.SEARCH, Duration.ofSeconds(5));
+            },
+            null);
+    assertTrue(served.isStale());
+    assertEquals(Served.REVALIDATION_FAILED, served.getWarning());
+    assertSame(old, served.getValue());
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            cache.get(
+                "fp",
+                () -> {
+                  throw new IllegalArgumentException("bad request");
+                },
+                null));
+  }
+
+  @Test
+  void weightFollowsResultsAndTheirText() {
+    SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> response =
+        new SearchResponse<>();
+    int empty = SearchResponseCache.estimatedSize(response);
+
+    LiteratureSearchResult result = new LiteratureSearchResult();
+    response.setResults(new ArrayList<>(List.of(result)));
+    int oneResult = SearchResponseCache.estimatedSize(response);
+    result.setAbstract("a".repeat(10_000));
+    int longAbstract = SearchResponseCache.estimatedSize(response);
+
+    assertTrue(empty < oneResult);
+    assertEquals(oneResult + 10_000, longAbstract);
+  }
+}
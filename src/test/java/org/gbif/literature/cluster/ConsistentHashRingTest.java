@@ -0,0 +1,75 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.cluster;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistentHashRingTest {
+
+  private static final int KEYS = 20_000;
+
+  @Test
+  void emptyRingHasNoOwner() {
+    assertNull(new ConsistentHashRing(List.of(), 128).owner("key"));
+  }
+
+  @Test
+  void ownerDoesNotDependOnNodeOrder() {
+    ConsistentHashRing ring = new ConsistentHashRing(List.of("a:80", "b:80", "c:80"), 128);
+    ConsistentHashRing reversed = new ConsistentHashRing(List.of("c:80", "b:80", "a:80"), 128);
+
+    for (int i = 0; i < 1_000; i++) {
+      assertEquals(ring.owner("key" + i), reversed.owner("key" + i));
+    }
+  }
+
+  @Test
+  void keysAreSpreadEvenly() {
+    ConsistentHashRing ring =
+        new ConsistentHashRing(List.of("a:80", "b:80", "c:80", "d:80"), 128);
+
+    Map<String, Integer> counts = new HashMap<>();
+    for (int i = 0; i < KEYS; i++) {
+      counts.merge(ring.owner("key" + i), 1, Integer::sum);
+    }
+
+    assertEquals(4, counts.size());
+    counts.values().forEach(c -> assertTrue(c > KEYS / 4 * 0.8 && c < KEYS / 4 * 1.2, "" + c));
+  }
+
+  @Test
+  void addingANodeOnlyMovesKeysToIt() {
+    ConsistentHashRing before = new ConsistentHashRing(List.of("a:80", "b:80", "c:80"), 128);
+    ConsistentHashRing after =
+        new ConsistentHashRing(List.of("a:80", "b:80", "c:80", "d:80"), 128);
+
+    int moved = 0;
+    for (int i = 0; i < KEYS; i++) {
+      String key = "key" + i;
+      if (!before.owner(key).equals(after.owner(key))) {
+        assertEquals("d:80", after.owner(key));
+        moved++;
+      }
+    }
+    assertTrue(moved > KEYS / 4 * 0.8 && moved < KEYS / 4 * 1.2, "" + moved);
+  }
+}
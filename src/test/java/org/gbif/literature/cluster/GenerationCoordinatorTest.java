@@ -0,0 +1,175 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.cluster;
+
+import org.gbif.literature.cache.IndexGenerationChangedEvent;
+import org.gbif.literature.cache.IndexGenerationTracker;
+import org.gbif.literature.config.EsClientConfigProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.TestingServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class GenerationCoordinatorTest {
+
+  private static final String PATH = "/literature-ws/literature";
+
+  private TestingServer server;
+  private final List<GenerationCoordinator> coordinators = new ArrayList<>();
+
+  @BeforeEach
+  void startServer() throws Exception {
+    server = new TestingServer(true);
+  }
+
+  @AfterEach
+  void stopServer() throws Exception {
+    for (GenerationCoordinator coordinator : coordinators) {
+      coordinator.stop();
+    }
+    server.close();
+  }
+
+  @Test
+  void oneLeaderIsElected() throws Exception {
+    GenerationCoordinator first = coordinator(new FakeTracker());
+    GenerationCoordinator second = coordinator(new FakeTracker());
+
+    await(() -> first.isLeader() || second.isLeader());
+    assertTrue(first.isLeader() ^ second.isLeader());
+  }
+
+  @Test
+  void leaderBroadcastsGenerationToAllInstances() throws Exception {
+    FakeTracker firstTracker = new FakeTracker();
+    FakeTracker secondTracker = new FakeTracker();
+    GenerationCoordinator first = coordinator(firstTracker);
+    GenerationCoordinator second = coordinator(secondTracker);
+    await(() -> first.isLeader() || second.isLeader());
+
+    firstTracker.esGeneration = "literature_1:a";
+    secondTracker.esGeneration = "literature_1:a";
+    first.pollAsLeader();
+    second.pollAsLeader();
+    await(() -> "literature_1:a".equals(firstTracker.current()));
+    await(() -> "literature_1:a".equals(secondTracker.current()));
+
+    firstTracker.esGeneration = "literature_2:b";
+    secondTracker.esGeneration = "literature_2:b";
+    first.pollAsLeader();
+    second.pollAsLeader();
+    await(() -> "literature_2:b".equals(firstTracker.current()));
+    await(() -> "literature_2:b".equals(secondTracker.current()));
+
+    assertEquals(List.of("literature_1:a", "literature_2:b"), firstTracker.changes);
+    assertEquals(List.of("literature_1:a", "literature_2:b"), secondTracker.changes);
+  }
+
+  @Test
+  void followersDoNotPoll() throws Exception {
+    FakeTracker firstTracker = new FakeTracker();
+    FakeTracker secondTracker = new FakeTracker();
+    GenerationCoordinator first = coordinator(firstTracker);
+    GenerationCoordinator second = coordinator(secondTracker);
+    await(() -> first.isLeader() || second.isLeader());
+
+    FakeTracker followerTracker = first.isLeader() ? secondTracker : firstTracker;
+    (first.isLeader() ? second : first).pollAsLeader();
+    followerTracker.poll();
+
+    assertEquals(0, followerTracker.fetches);
+  }
+
+  @Test
+  void trackerPollsLocallyWithoutZooKeeper() throws Exception {
+    FakeTracker tracker = new FakeTracker();
+    tracker.esGeneration = "literature_1:a";
+    coordinator(tracker);
+    tracker.poll();
+    assertEquals(0, tracker.fetches);
+
+    server.stop();
+    CuratorFramework client = coordinators.get(0).client();
+    await(() -> !client.getZookeeperClient().isConnected());
+    tracker.poll();
+
+    assertEquals(1, tracker.fetches);
+    assertEquals("literature_1:a", tracker.current());
+  }
+
+  private GenerationCoordinator coordinator(IndexGenerationTracker tracker) throws Exception {
+    CuratorFramework client =
+        CuratorFrameworkFactory.builder()
+            .connectString(server.getConnectString())
+            .retryPolicy(new RetryOneTime(100))
+            .sessionTimeoutMs(10_000)
+            .connectionTimeoutMs(1_000)
+            .build();
+    client.start();
+    assertTrue(client.blockUntilConnected(10, TimeUnit.SECONDS));
+    GenerationCoordinator coordinator = new GenerationCoordinator(client, true, tracker, PATH);
+    coordinator.start();
+    coordinators.add(coordinator);
+    return coordinator;
+  }
+
+  private static void await(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (!condition.getAsBoolean()) {
+      if (System.nanoTime() > deadline) {
+        fail("Condition not met within 10s");
+      }
+      Thread.sleep(20);
+    }
+  }
+
+  /** Tracker reading a settable generation instead of Elasticsearch. */
+  private static class FakeTracker extends IndexGenerationTracker {
+    private final List<String> changes;
+    private volatile String esGeneration;
+    private volatile int fetches;
+
+    FakeTracker() {
+      this(new CopyOnWriteArrayList<>());
+    }
+
+    private FakeTracker(List<String> changes) {
+      super(
+          null,
+          event -> changes.add(((IndexGenerationChangedEvent) event).getCurrent()),
+          new EsClientConfigProperties());
+      this.changes = changes;
+    }
+
+    @Override
+    public String fetchGeneration() {
+      fetches++;
+      return esGeneration;
+    }
+  }
+}
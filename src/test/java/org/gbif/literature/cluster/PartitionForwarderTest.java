@@ -0,0 +1,48 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.cluster;
+
+import org.gbif.literature.config.ClusterConfigProperties;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionForwarderTest {
+
+  @Test
+  void onlyTheSharedSecretMarksARequestAsForwarded() {
+    PartitionForwarder forwarder = forwarder("s3cret");
+
+    assertTrue(forwarder.isForwarded("s3cret"));
+    assertFalse(forwarder.isForwarded("true"));
+    assertFalse(forwarder.isForwarded(""));
+    assertFalse(forwarder.isForwarded(null));
+  }
+
+  @Test
+  void nothingIsForwardedWithoutASecret() {
+    assertFalse(forwarder(null).isForwarded("true"));
+    assertFalse(forwarder("").isForwarded(""));
+  }
+
+  private static PartitionForwarder forwarder(String secret) {
+    ClusterConfigProperties properties = new ClusterConfigProperties();
+    properties.getPartitioning().setSecret(secret);
+    return new PartitionForwarder(properties, new SimpleMeterRegistry());
+  }
+}
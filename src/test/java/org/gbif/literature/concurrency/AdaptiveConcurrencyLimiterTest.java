@@ -0,0 +1,99 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.concurrency;
+
+import org.gbif.literature.config.ConcurrencyConfigProperties;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AdaptiveConcurrencyLimiterTest {
+
+  @Test
+  void rejectsWhenLimitReached() {
+    AdaptiveConcurrencyLimiter limiter = limiter(2);
+
+    limiter.acquire();
+    limiter.acquire();
+
+    ConcurrencyLimitExceededException ex =
+        assertThrows(ConcurrencyLimitExceededException.class, limiter::acquire);
+    assertEquals(Workload.SEARCH, ex.getWorkload());
+    assertEquals(2, limiter.getInFlight());
+  }
+
+  @Test
+  void releasedSlotCanBeReused() {
+    AdaptiveConcurrencyLimiter limiter = limiter(1);
+
+    limiter.acquire().onIgnore();
+    limiter.acquire();
+
+    assertEquals(1, limiter.getInFlight());
+  }
+
+  @Test
+  void dropsShrinkAndSuccessesGrowTheLimit() {
+    AdaptiveConcurrencyLimiter limiter = limiter(10);
+
+    limiter.acquire().onDropped();
+    assertEquals(5, limiter.getLimit());
+
+    AdaptiveConcurrencyLimiter.Permit[] permits = new AdaptiveConcurrencyLimiter.Permit[5];
+    for (int i = 0; i < permits.length; i++) {
+      permits[i] = limiter.acquire();
+    }
+    permits[4].onSuccess();
+    assertEquals(6, limiter.getLimit());
+  }
+
+  @Test
+  void permitIsReleasedOnlyOnce() {
+    AdaptiveConcurrencyLimiter limiter = limiter(10);
+
+    AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire();
+    permit.onDropped();
+    permit.onDropped();
+
+    assertEquals(5, limiter.getLimit());
+    assertEquals(0, limiter.getInFlight());
+  }
+
+  @Test
+  void sampledLatencyReplacesHoldingTime() {
+    AdaptiveConcurrencyLimiter limiter = limiter(10);
+
+    // released at once, but its calls took 90 s on average, over the one minute threshold
+    AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire();
+    permit.sample(30, TimeUnit.SECONDS);
+    permit.sample(150, TimeUnit.SECONDS);
+    permit.onSuccess();
+
+    assertEquals(5, limiter.getLimit());
+    assertEquals(0, limiter.getInFlight());
+  }
+
+  private static AdaptiveConcurrencyLimiter limiter(int initialLimit) {
+    ConcurrencyConfigProperties.Limit config =
+        new ConcurrencyConfigProperties.Limit(initialLimit, 1, 100, Duration.ofMinutes(1));
+    config.setBackoffRatio(0.5);
+    config.setMaxQueueTime(Duration.ZERO);
+    return new AdaptiveConcurrencyLimiter(Workload.SEARCH, config);
+  }
+}
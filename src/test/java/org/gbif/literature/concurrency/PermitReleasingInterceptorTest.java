@@ -0,0 +1,138 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.concurrency;
+
+import org.gbif.literature.config.BulkheadConfigProperties;
+import org.gbif.literature.config.ConcurrencyConfigProperties;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PermitReleasingInterceptorTest {
+
+  private final CountDownLatch blocked = new CountDownLatch(1);
+  private Bulkheads bulkheads;
+
+  @AfterEach
+  void tearDown() {
+    blocked.countDown();
+    if (bulkheads != null) {
+      bulkheads.shutdown();
+    }
+  }
+
+  @Test
+  void permitIsReleasedWhenTheLaneRejectsTheBody() throws Exception {
+    AdaptiveConcurrencyLimiter limiter = limiter();
+    bulkheads = saturatedExportLane();
+
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    WebAsyncManager asyncManager =
+        asyncManager(request, bulkheads.asTaskExecutor(Workload.EXPORT));
+    AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire();
+    asyncManager.registerCallableInterceptor("permit", new PermitReleasingInterceptor(permit));
+    asyncManager.startCallableProcessing(
+        () -> {
+          permit.onSuccess();
+          return null;
+        });
+    assertTrue(asyncManager.getConcurrentResult() instanceof Exception);
+    assertEquals(1, limiter.getInFlight());
+
+    // the dispatch renders the 503 and the container completes the request
+    ((MockAsyncContext) request.getAsyncContext()).complete();
+    assertEquals(0, limiter.getInFlight());
+  }
+
+  @Test
+  void permitIsReleasedWhenTheRequestTimesOut() throws Exception {
+    AdaptiveConcurrencyLimiter limiter = limiter();
+
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    WebAsyncManager asyncManager =
+        asyncManager(request, new SimpleAsyncTaskExecutor("literature-export-test-"));
+    AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire();
+    asyncManager.registerCallableInterceptor("permit", new PermitReleasingInterceptor(permit));
+    // the body is still waiting for Elasticsearch when the request times out
+    asyncManager.startCallableProcessing(
+        () -> {
+          blocked.await();
+          return null;
+        });
+
+    MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+    for (AsyncListener listener : asyncContext.getListeners()) {
+      listener.onTimeout(new AsyncEvent(asyncContext));
+    }
+    asyncContext.complete();
+
+    assertEquals(0, limiter.getInFlight());
+    assertEquals(1, limiter.getLimit());
+  }
+
+  private static WebAsyncManager asyncManager(
+      MockHttpServletRequest request, AsyncTaskExecutor executor) {
+    request.setAsyncSupported(true);
+    WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+    asyncManager.setTaskExecutor(executor);
+    asyncManager.setAsyncWebRequest(
+        new StandardServletAsyncWebRequest(request, new MockHttpServletResponse()));
+    return asyncManager;
+  }
+
+  /** An export lane of one thread and no queue, with its thread busy. */
+  private Bulkheads saturatedExportLane() {
+    BulkheadConfigProperties properties = new BulkheadConfigProperties();
+    properties.setExport(new BulkheadConfigProperties.Lane(1, 0));
+    Bulkheads lanes = new Bulkheads(properties, new SimpleMeterRegistry());
+    lanes.submit(
+        Workload.EXPORT,
+        () -> {
+          try {
+            blocked.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return null;
+        });
+    return lanes;
+  }
+
+  private static AdaptiveConcurrencyLimiter limiter() {
+    ConcurrencyConfigProperties.Limit config =
+        new ConcurrencyConfigProperties.Limit(2, 1, 10, Duration.ofMinutes(1));
+    config.setBackoffRatio(0.5);
+    config.setMaxQueueTime(Duration.ZERO);
+    return new AdaptiveConcurrencyLimiter(Workload.EXPORT, config);
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.concurrency;
+
+import org.gbif.api.model.literature.search.LiteratureSearchParameter;
+import org.gbif.api.model.literature.search.LiteratureSearchRequest;
+import org.gbif.literature.config.QueryCostConfigProperties;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryCostEstimatorTest {
+
+  private final QueryCostEstimator estimator =
+      new QueryCostEstimator(new QueryCostConfigProperties(), new SimpleMeterRegistry());
+
+  @Test
+  void cheapSearchIsAccepted() {
+    LiteratureSearchRequest request = new LiteratureSearchRequest();
+    request.setQ("amphibian decline");
+
+    QueryCost cost = estimator.evaluate(request);
+
+    assertEquals(QueryCost.Decision.ACCEPT, cost.getDecision());
+    assertEquals(0, cost.getScore());
+  }
+
+  @Test
+  void expensiveSearchIsDowngraded() {
+    LiteratureSearchRequest request = new LiteratureSearchRequest();
+    request.setQ("ab");
+    request.setHighlight(true);
+    request.setFacets(EnumSet.of(LiteratureSearchParameter.YEAR));
+    request.setFacetLimit(50_000);
+
+    QueryCost cost = estimator.evaluate(request);
+
+    assertEquals(QueryCost.Decision.DOWNGRADE, cost.getDecision());
+    assertFalse(request.isHighlight());
+    assertEquals(100, request.getFacetLimit());
+  }
+
+  @Test
+  void deepFacetPagingIsRejected() {
+    LiteratureSearchRequest request = new LiteratureSearchRequest();
+    request.setFacets(EnumSet.of(LiteratureSearchParameter.TOPICS));
+    request.addFacetPage(LiteratureSearchParameter.TOPICS, 400_000, 10);
+
+    QueryCost cost = estimator.evaluate(request);
+    assertEquals(QueryCost.Decision.REJECT, cost.getDecision());
+
+    QueryTooExpensiveException e =
+        assertThrows(
+            QueryTooExpensiveException.class, () -> estimator.rejectIfTooExpensive(cost));
+    assertEquals(cost, e.getQueryCost());
+    assertEquals(Duration.ofSeconds(5), e.getRetryAfter());
+  }
+
+  @Test
+  void acceptedSearchesAreNotRejected() {
+    LiteratureSearchRequest request = new LiteratureSearchRequest();
+    request.setQ("amphibian decline");
+
+    estimator.rejectIfTooExpensive(estimator.evaluate(request));
+  }
+
+  @Test
+  void manyFilterValuesAndSlowHistoryAddUp() {
+    QueryCostConfigProperties properties = new QueryCostConfigProperties();
+    properties.setLatencyProbeRate(0);
+    QueryCostEstimator estimator =
+        new QueryCostEstimator(properties, new SimpleMeterRegistry());
+    LiteratureSearchRequest request = filteredRequest();
+    QueryCost first = estimator.evaluate(request);
+    assertEquals(100, first.getScore());
+
+    estimator.recordLatency(first.getFingerprint(), 10_000);
+
+    assertEquals(QueryCost.Decision.REJECT, estimator.evaluate(request).getDecision());
+  }
+
+  @Test
+  void requestsRejectedForTheirHistoryAloneMayProbe() {
+    QueryCostConfigProperties properties = new QueryCostConfigProperties();
+    properties.setLatencyProbeRate(1);
+    QueryCostEstimator estimator =
+        new QueryCostEstimator(properties, new SimpleMeterRegistry());
+    LiteratureSearchRequest request = filteredRequest();
+    estimator.recordLatency(estimator.evaluate(request).getFingerprint(), 10_000);
+
+    QueryCost probe = estimator.evaluate(request);
+
+    assertEquals(QueryCost.Decision.ACCEPT, probe.getDecision());
+    assertTrue(probe.getReasons().contains("latency probe"));
+  }
+
+  @Test
+  void readingTheHistoryDoesNotKeepItAlive() throws InterruptedException {
+    QueryCostConfigProperties properties = new QueryCostConfigProperties();
+    properties.setLatencyProbeRate(0);
+    properties.setLatencyHistoryTtl(Duration.ofMillis(200));
+    QueryCostEstimator estimator =
+        new QueryCostEstimator(properties, new SimpleMeterRegistry());
+    LiteratureSearchRequest request = filteredRequest();
+    estimator.recordLatency(estimator.evaluate(request).getFingerprint(), 10_000);
+
+    // rejected retries read the history but add no samples
+    long deadline = System.nanoTime() + Duration.ofMillis(300).toNanos();
+    while (System.nanoTime() < deadline
+        && estimator.evaluate(request).getDecision() == QueryCost.Decision.REJECT) {
+      Thread.sleep(20);
+    }
+
+    assertEquals(QueryCost.Decision.ACCEPT, estimator.evaluate(request).getDecision());
+  }
+
+  private static LiteratureSearchRequest filteredRequest() {
+    LiteratureSearchRequest request = new LiteratureSearchRequest();
+    IntStream.range(0, 2_000)
+        .forEach(i -> request.addParameter(LiteratureSearchParameter.GBIF_OCCURRENCE_KEY, "" + i));
+    return request;
+  }
+}
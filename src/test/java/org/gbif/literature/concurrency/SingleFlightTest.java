@@ -0,0 +1,101 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.concurrency;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+  @Test
+  void concurrentCallersShareOneCall() throws Exception {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    SingleFlight<String, String> singleFlight = new SingleFlight<>("search", registry);
+    AtomicInteger calls = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        results.add(
+            executor.submit(
+                () ->
+                    singleFlight.execute(
+                        "key",
+                        () -> {
+                          calls.incrementAndGet();
+                          await(release);
+                          return "response";
+                        })));
+      }
+      // let every caller join the in-flight call before it completes
+      while (calls.get() == 0) {
+        Thread.onSpinWait();
+      }
+      Thread.sleep(100);
+      release.countDown();
+
+      for (Future<String> result : results) {
+        assertEquals("response", result.get(5, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(1, calls.get());
+    DistributionSummary callers = registry.get("literature.singleflight.callers").summary();
+    assertEquals(1, callers.count());
+    assertEquals(4, callers.totalAmount());
+    assertEquals(0, singleFlight.inFlight());
+  }
+
+  @Test
+  void failuresAreNotRemembered() {
+    SingleFlight<String, String> singleFlight =
+        new SingleFlight<>("get", new SimpleMeterRegistry());
+
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            singleFlight.execute(
+                "key",
+                () -> {
+                  throw new IllegalStateException();
+                }));
+    assertEquals("ok", singleFlight.execute("key", () -> "ok"));
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
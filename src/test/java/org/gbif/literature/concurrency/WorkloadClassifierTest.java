@@ -0,0 +1,57 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.concurrency;
+
+import org.gbif.api.model.literature.search.LiteratureSearchParameter;
+import org.gbif.api.model.literature.search.LiteratureSearchRequest;
+import org.gbif.literature.config.BulkheadConfigProperties;
+
+import java.util.EnumSet;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WorkloadClassifierTest {
+
+  private final WorkloadClassifier classifier =
+      new WorkloadClassifier(new BulkheadConfigProperties());
+
+  @Test
+  void plainSearchIsInteractive() {
+    assertEquals(Workload.SEARCH, classifier.classify(request(20, false)));
+  }
+
+  @Test
+  void facetOnlySearchIsHeavy() {
+    LiteratureSearchRequest request = request(0, false);
+    request.setFacets(EnumSet.of(LiteratureSearchParameter.YEAR));
+
+    assertEquals(Workload.FACETS, classifier.classify(request));
+  }
+
+  @Test
+  void largeOrHighlightedPagesAreHeavy() {
+    assertEquals(Workload.FACETS, classifier.classify(request(500, false)));
+    assertEquals(Workload.FACETS, classifier.classify(request(100, true)));
+    assertEquals(Workload.SEARCH, classifier.classify(request(20, true)));
+  }
+
+  private static LiteratureSearchRequest request(int limit, boolean highlight) {
+    LiteratureSearchRequest request = new LiteratureSearchRequest();
+    request.setLimit(limit);
+    request.setHighlight(highlight);
+    return request;
+  }
+}
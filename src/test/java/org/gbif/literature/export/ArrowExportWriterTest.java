@@ -0,0 +1,207 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.export;
+
+import org.gbif.api.model.common.search.SearchResponse;
+import org.gbif.api.model.literature.LiteratureTopic;
+import org.gbif.api.model.literature.LiteratureType;
+import org.gbif.api.model.literature.search.LiteratureSearchParameter;
+import org.gbif.api.model.literature.search.LiteratureSearchResult;
+import org.gbif.api.vocabulary.Country;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.TimeStampMilliTZVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.complex.ListVector;
+import org.apache.arrow.vector.complex.MapVector;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArrowExportWriterTest {
+
+  private static final Instant ADDED = Instant.parse("2024-01-02T03:04:05.678Z");
+  private static final LocalDate PUBLISHED = LocalDate.of(2021, 3, 4);
+
+  @Test
+  void writesOneTypedBatchPerPage() throws IOException {
+    List<LiteratureSearchResult> results = new ArrayList<>();
+    results.add(fullResult());
+    for (int i = 0; i < 4; i++) {
+      results.add(new LiteratureSearchResult());
+    }
+
+    try (BufferAllocator allocator = new RootAllocator()) {
+      byte[] bytes = export(results, 3, allocator);
+      // the writer closed its child allocator, or closing the root would fail
+      assertEquals(0, allocator.getAllocatedMemory());
+
+      try (ArrowStreamReader reader =
+          new ArrowStreamReader(new ByteArrayInputStream(bytes), allocator)) {
+        VectorSchemaRoot root = reader.getVectorSchemaRoot();
+        assertEquals(
+            Arrays.asList(CsvWriter.literatureSearchResultCsvWriter(null, null, 0).getHeader()),
+            root.getSchema().getFields().stream().map(Field::getName).collect(Collectors.toList()));
+
+        assertTrue(reader.loadNextBatch());
+        assertEquals(3, root.getRowCount());
+        assertFullRow(root);
+        for (FieldVector vector : root.getFieldVectors()) {
+          assertTrue(vector.isNull(1), vector.getField().getName());
+        }
+
+        assertTrue(reader.loadNextBatch());
+        assertEquals(2, root.getRowCount());
+        assertFalse(reader.loadNextBatch());
+      }
+    }
+  }
+
+  @Test
+  void emptyExportIsASchemaOnlyStream() throws IOException {
+    try (BufferAllocator allocator = new RootAllocator()) {
+      byte[] bytes = export(List.of(), 3, allocator);
+
+      try (ArrowStreamReader reader =
+          new ArrowStreamReader(new ByteArrayInputStream(bytes), allocator)) {
+        assertEquals(
+            ArrowExportWriter.LITERATURE_COLUMNS.size(),
+            reader.getVectorSchemaRoot().getSchema().getFields().size());
+        assertFalse(reader.loadNextBatch());
+      }
+    }
+  }
+
+  private static byte[] export(
+      List<LiteratureSearchResult> results, int pageSize, BufferAllocator allocator)
+      throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new ArrowExportWriter(
+            new ListPager(results, pageSize),
+            allocator.newChildAllocator("export", 0, 16 * 1024 * 1024))
+        .export(out);
+    return out.toByteArray();
+  }
+
+  private static LiteratureSearchResult fullResult() {
+    LiteratureSearchResult result = new LiteratureSearchResult();
+    result.setTitle("Lichens of Østfold");
+    result.setAuthors(List.of(author("Ana", "Souza"), author("Lars", "Jensen")));
+    result.setPublished(Date.from(PUBLISHED.atStartOfDay(ZoneOffset.UTC).toInstant()));
+    result.setAdded(Date.from(ADDED));
+    result.setOpenAccess(true);
+    result.setPeerReview(false);
+    result.setCountriesOfCoverage(EnumSet.of(Country.DENMARK));
+    result.setKeywords(List.of("lichens", "Norway"));
+    result.setLiteratureType(LiteratureType.values()[0]);
+    result.setTopics(EnumSet.of(LiteratureTopic.ECOLOGY));
+    result.setId(new UUID(1, 2));
+    Map<String, Object> identifiers = new LinkedHashMap<>();
+    identifiers.put("doi", "10.1234/abc");
+    identifiers.put("pmid", 42);
+    result.setIdentifiers(identifiers);
+    return result;
+  }
+
+  private static void assertFullRow(VectorSchemaRoot root) {
+    assertEquals("Lichens of Østfold", root.getVector("title").getObject(0).toString());
+    assertEquals(List.of("Ana Souza", "Lars Jensen"), strings(root, "authors"));
+    assertEquals(
+        PUBLISHED.toEpochDay(), ((DateDayVector) root.getVector("published")).get(0));
+    assertEquals(
+        ADDED.toEpochMilli(), ((TimeStampMilliTZVector) root.getVector("added")).get(0));
+    assertTrue(((BitVector) root.getVector("open_access")).getObject(0));
+    assertFalse(((BitVector) root.getVector("peer_review")).getObject(0));
+    assertEquals(List.of("DENMARK"), strings(root, "countries_of_coverage"));
+    assertTrue(root.getVector("countries_of_researcher").isNull(0));
+    assertEquals(List.of("lichens", "Norway"), strings(root, "keywords"));
+    assertEquals(
+        LiteratureType.values()[0].name(),
+        root.getVector("literature_type").getObject(0).toString());
+    assertEquals(List.of("ECOLOGY"), strings(root, "topics"));
+    assertEquals(new UUID(1, 2).toString(), root.getVector("id").getObject(0).toString());
+    assertNull(root.getVector("abstract").getObject(0));
+
+    List<?> identifiers = ((MapVector) root.getVector("identifiers")).getObject(0);
+    assertEquals(2, identifiers.size());
+    Map<?, ?> doi = (Map<?, ?>) identifiers.get(0);
+    assertEquals("doi", doi.get(MapVector.KEY_NAME).toString());
+    assertEquals("10.1234/abc", doi.get(MapVector.VALUE_NAME).toString());
+    Map<?, ?> pmid = (Map<?, ?>) identifiers.get(1);
+    assertEquals("42", pmid.get(MapVector.VALUE_NAME).toString());
+  }
+
+  private static List<String> strings(VectorSchemaRoot root, String column) {
+    return ((ListVector) root.getVector(column))
+        .getObject(0).stream().map(Object::toString).collect(Collectors.toList());
+  }
+
+  private static Map<String, Object> author(String firstName, String lastName) {
+    Map<String, Object> author = new LinkedHashMap<>();
+    author.put("firstName", firstName);
+    author.put("lastName", lastName);
+    return author;
+  }
+
+  /** Pages through a list of results. */
+  private static class ListPager implements ExportPager {
+    private final List<LiteratureSearchResult> results;
+    private final int limit;
+    private int offset;
+
+    private ListPager(List<LiteratureSearchResult> results, int limit) {
+      this.results = results;
+      this.limit = limit;
+    }
+
+    @Override
+    public SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> nextPage() {
+      SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> page =
+          new SearchResponse<>(offset, limit);
+      int end = Math.min(offset + limit, results.size());
+      page.setResults(new ArrayList<>(results.subList(offset, end)));
+      offset = end;
+      page.setEndOfRecords(offset == results.size());
+      return page;
+    }
+
+    @Override
+    public void close() {}
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.export;
+
+import org.gbif.api.model.common.export.ExportFormat;
+import org.gbif.api.model.common.search.SearchResponse;
+import org.gbif.api.model.literature.LiteratureTopic;
+import org.gbif.api.model.literature.LiteratureType;
+import org.gbif.api.model.literature.search.LiteratureSearchParameter;
+import org.gbif.api.model.literature.search.LiteratureSearchResult;
+import org.gbif.api.vocabulary.Country;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** The compiled columns must write exactly what the super-csv bean writer writes. */
+class CsvWriterTest {
+
+  private static final String[] PIECES = {
+    "a", "Zoë", "\"", "\"\"", ",", ";", "|", " ", "\t", "\r", "\n", "\r\n", "\u000B", "\u000C",
+    "\u0085", " ", " ", "\u0000", "😀", "x y"
+  };
+
+  @ParameterizedTest
+  @EnumSource(ExportFormat.class)
+  void compiledColumnsMatchBeanWriter(ExportFormat format) {
+    Random random = new Random(42);
+    List<LiteratureSearchResult> results = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      results.add(randomResult(random));
+    }
+
+    String compiled = export(format, results, true);
+    String reflective = export(format, results, false);
+
+    assertEquals(reflective, compiled);
+  }
+
+  @ParameterizedTest
+  @EnumSource(ExportFormat.class)
+  void emptyAndNullValuesMatchBeanWriter(ExportFormat format) {
+    LiteratureSearchResult empty = new LiteratureSearchResult();
+    empty.setTitle("");
+    empty.setKeywords(Collections.emptyList());
+    empty.setTopics(EnumSet.noneOf(LiteratureTopic.class));
+    empty.setIdentifiers(Collections.emptyMap());
+    List<LiteratureSearchResult> results = List.of(new LiteratureSearchResult(), empty);
+
+    String compiled = export(format, results, true);
+
+    assertEquals(export(format, results, false), compiled);
+  }
+
+  @Test
+  void largeExportsAreWrittenInChunks() {
+    LiteratureSearchResult result = new LiteratureSearchResult();
+    result.setAbstract("x".repeat(3 * CsvRowEncoder.FLUSH_CHARS));
+    List<LiteratureSearchResult> results = Collections.nCopies(5, result);
+
+    assertEquals(export(ExportFormat.CSV, results, false), export(ExportFormat.CSV, results, true));
+  }
+
+  private static String export(
+      ExportFormat format, List<LiteratureSearchResult> results, boolean compiled) {
+    CsvWriter<LiteratureSearchResult> writer =
+        CsvWriter.literatureSearchResultCsvWriter(new ListPager(results, 7), format, 7);
+    if (!compiled) {
+      writer =
+          CsvWriter.<LiteratureSearchResult>builder()
+              .header(writer.getHeader())
+              .fields(writer.getFields())
+              .processors(writer.getProcessors())
+              .pager(new ListPager(results, 7))
+              .preference(format)
+              .build();
+    }
+    StringWriter out = new StringWriter();
+    writer.export(out);
+    return out.toString();
+  }
+
+  private static LiteratureSearchResult randomResult(Random random) {
+    LiteratureSearchResult result = new LiteratureSearchResult();
+    result.setTitle(maybe(random, randomString(random)));
+    result.setSource(maybe(random, randomString(random)));
+    result.setAbstract(maybe(random, randomString(random)));
+    result.setCitationType(maybe(random, randomString(random)));
+    result.setPublished(maybe(random, new Date(random.nextLong() % 4_000_000_000_000L)));
+    result.setAdded(maybe(random, new Date(Math.abs(random.nextLong() % 2_000_000_000_000L))));
+    result.setOpenAccess(maybe(random, random.nextBoolean()));
+    result.setPeerReview(maybe(random, random.nextBoolean()));
+    result.setCountriesOfCoverage(maybe(random, EnumSet.of(Country.DENMARK, Country.BRAZIL)));
+    result.setCountriesOfResearcher(maybe(random, EnumSet.noneOf(Country.class)));
+    result.setKeywords(maybe(random, randomStrings(random)));
+    result.setWebsites(maybe(random, randomStrings(random)));
+    result.setGbifDownloadKey(maybe(random, randomStrings(random)));
+    result.setLiteratureType(maybe(random, LiteratureType.values()[random.nextInt(3)]));
+    result.setId(maybe(random, new UUID(random.nextLong(), random.nextLong())));
+    result.setTopics(maybe(random, EnumSet.of(LiteratureTopic.ECOLOGY)));
+
+    Map<String, Object> identifiers = new LinkedHashMap<>();
+    identifiers.put("doi", "10.1234/" + randomString(random));
+    identifiers.put("pmid", random.nextInt(100_000));
+    result.setIdentifiers(maybe(random, identifiers));
+
+    List<Map<String, Object>> authors = new ArrayList<>();
+    for (int i = random.nextInt(4); i > 0; i--) {
+      Map<String, Object> author = new HashMap<>();
+      author.put("firstName", randomString(random));
+      author.put("lastName", maybe(random, randomString(random)));
+      authors.add(author);
+    }
+    result.setAuthors(maybe(random, authors));
+    return result;
+  }
+
+  private static <V> V maybe(Random random, V value) {
+    return random.nextInt(5) == 0 ? null : value;
+  }
+
+  private static String randomString(Random random) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = random.nextInt(8); i > 0; i--) {
+      sb.append(PIECES[random.nextInt(PIECES.length)]);
+    }
+    return sb.toString();
+  }
+
+  private static List<String> randomStrings(Random random) {
+    List<String> values = new ArrayList<>();
+    for (int i = random.nextInt(4); i > 0; i--) {
+      values.add(randomString(random));
+    }
+    return values;
+  }
+
+  /** Pages through a list of results. */
+  private static class ListPager implements ExportPager {
+    private final Iterator<LiteratureSearchResult> results;
+    private final int limit;
+    private long offset;
+
+    private ListPager(List<LiteratureSearchResult> results, int limit) {
+      this.results = results.iterator();
+      this.limit = limit;
+    }
+
+    @Override
+    public SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> nextPage() {
+      SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> page =
+          new SearchResponse<>(offset, limit);
+      List<LiteratureSearchResult> rows = new ArrayList<>();
+      while (rows.size() < limit && results.hasNext()) {
+        rows.add(results.next());
+      }
+      offset += rows.size();
+      page.setResults(rows);
+      page.setEndOfRecords(!results.hasNext());
+      return page;
+    }
+
+    @Override
+    public void close() {}
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.export;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExportFieldsTest {
+
+  @Test
+  void columnsAreNamedByPropertyOrHeaderAndKeepTheExportOrder() {
+    ExportFields fields =
+        ExportFields.fromParameter(" gbif_download_key, ID ,title,gbifDownloadKey,,identifiers");
+
+    assertFalse(fields.isAll());
+    assertArrayEquals(
+        new String[] {"title", "identifiers", "id", "gbif_download_key"},
+        fields.select(CsvWriter.LITERATURE_HEADER));
+    assertEquals(
+        List.of("title", "identifiers", "id", "gbifDownloadKey"), fields.getSourceFields());
+    assertEquals(0, fields.slot(0));
+    assertEquals(-1, fields.slot(1));
+    assertTrue(fields.includes("gbifDownloadKey"));
+    assertFalse(fields.includes("abstract"));
+  }
+
+  @Test
+  void allColumnsAreAll() {
+    String allColumns = String.join(",", CsvWriter.LITERATURE_HEADER);
+
+    assertSame(ExportFields.ALL, ExportFields.fromParameter(allColumns));
+    assertTrue(ExportFields.ALL.includes("year"));
+  }
+
+  @Test
+  void unknownOrNoColumnsAreRejected() {
+    assertThrows(IllegalArgumentException.class, () -> ExportFields.fromParameter("title,year"));
+    assertThrows(IllegalArgumentException.class, () -> ExportFields.fromParameter(" , "));
+  }
+}
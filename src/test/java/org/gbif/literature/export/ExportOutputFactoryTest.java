@@ -0,0 +1,164 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.export;
+
+import org.gbif.literature.config.LiteratureConfigProperties;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.github.luben.zstd.ZstdInputStream;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExportOutputFactoryTest {
+
+  private static final String ROW = "\"Zoë\"\t\"Lichens of Østfold\"\t\"2021-03-04\"\n";
+  private static final String TEXT = ROW.repeat(20_000);
+
+  @ParameterizedTest
+  @EnumSource(ExportCompression.class)
+  void compressedExportsRoundTrip(ExportCompression compression) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    try (Writer writer = factory(0, false).open(out, compression)) {
+      writer.write(TEXT);
+    }
+
+    assertEquals(TEXT, decompress(out.toByteArray(), compression));
+    if (compression != ExportCompression.NONE) {
+      assertTrue(out.size() < TEXT.length() / 10);
+    }
+  }
+
+  @Test
+  void limitCountsUncompressedBytesByDefault() {
+    long limit = TEXT.getBytes(StandardCharsets.UTF_8).length / 2;
+    ExportOutputFactory factory = factory(limit, false);
+
+    assertThrows(
+        ExportLimitExceededException.class,
+        () -> {
+          ByteArrayOutputStream out = new ByteArrayOutputStream();
+          try (Writer writer = factory.open(out, ExportCompression.GZIP)) {
+            writer.write(TEXT);
+          }
+        });
+  }
+
+  @ParameterizedTest
+  @EnumSource(value = ExportCompression.class, names = {"GZIP", "ZSTD"})
+  void limitCanCountCompressedBytes(ExportCompression compression) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    try (Writer writer = factory(TEXT.length() / 10, true).open(out, compression)) {
+      writer.write(TEXT);
+    }
+    assertEquals(TEXT, decompress(out.toByteArray(), compression));
+
+    ExportOutputFactory tight = factory(16, true);
+    assertThrows(
+        ExportLimitExceededException.class,
+        () -> {
+          try (Writer writer = tight.open(new ByteArrayOutputStream(), compression)) {
+            writer.write(TEXT);
+          }
+        });
+    // the writer gave its buffers back although the compressed stream failed
+    assertEquals(1, tight.pooled());
+  }
+
+  @ParameterizedTest
+  @EnumSource(ExportCompression.class)
+  void binaryStreamsRoundTripWithinTheLimit(ExportCompression compression) throws IOException {
+    byte[] bytes = TEXT.getBytes(StandardCharsets.UTF_8);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    try (OutputStream stream = factory(bytes.length, false).openStream(out, compression)) {
+      stream.write(bytes);
+    }
+    assertEquals(TEXT, decompress(out.toByteArray(), compression));
+
+    ExportOutputFactory tight = factory(bytes.length - 1, false);
+    assertThrows(
+        ExportLimitExceededException.class,
+        () -> {
+          try (OutputStream stream = tight.openStream(new ByteArrayOutputStream(), compression)) {
+            stream.write(bytes);
+          }
+        });
+  }
+
+  @ParameterizedTest
+  @EnumSource(ExportCompression.class)
+  void binaryStreamsMayBeClosedTwice(ExportCompression compression) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    // as when the Arrow writer closes the stream that the export closes again
+    try (OutputStream stream = factory(0, false).openStream(out, compression)) {
+      stream.write(TEXT.getBytes(StandardCharsets.UTF_8));
+      stream.close();
+    }
+
+    assertEquals(TEXT, decompress(out.toByteArray(), compression));
+  }
+
+  @Test
+  void parsesParameterCaseInsensitively() {
+    assertEquals(ExportCompression.GZIP, ExportCompression.fromParameter("gzip"));
+    assertEquals(ExportCompression.ZSTD, ExportCompression.fromParameter(" Zstd "));
+    assertEquals(ExportCompression.NONE, ExportCompression.fromParameter(""));
+    assertThrows(
+        IllegalArgumentException.class, () -> ExportCompression.fromParameter("brotli"));
+  }
+
+  private static String decompress(byte[] bytes, ExportCompression compression)
+      throws IOException {
+    InputStream in = new ByteArrayInputStream(bytes);
+    switch (compression) {
+      case GZIP:
+        in = new GZIPInputStream(in);
+        break;
+      case ZSTD:
+        in = new ZstdInputStream(in);
+        break;
+      default:
+        break;
+    }
+    try (InputStream decompressed = in) {
+      return new String(decompressed.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  private static ExportOutputFactory factory(long maxBytes, boolean limitCompressed) {
+    LiteratureConfigProperties properties = new LiteratureConfigProperties();
+    properties.setBufferLimitBytesExport(maxBytes);
+    properties.setExportLimitCompressedBytes(limitCompressed);
+    return new ExportOutputFactory(properties, new SimpleMeterRegistry());
+  }
+}
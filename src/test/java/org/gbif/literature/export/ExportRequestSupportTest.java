@@ -15,8 +15,10 @@ package org.gbif.literature.export;
 
 import org.gbif.api.model.literature.search.LiteratureSearchParameter;
 import org.gbif.api.model.literature.search.LiteratureSearchRequest;
+import org.gbif.literature.search.LiteratureExportRequest;
 
 import java.util.EnumSet;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
@@ -36,7 +38,7 @@ class ExportRequestSupportTest {
     request.setFacetMultiSelect(true);
     request.setFacets(EnumSet.of(LiteratureSearchParameter.LITERATURE_TYPE));
 
-    LiteratureSearchRequest export = ExportRequestSupport.prepareForExport(request, 500);
+    LiteratureExportRequest export = ExportRequestSupport.prepareForExport(request, 500);
 
     assertEquals("fish", export.getQ());
     assertEquals(500, export.getLimit());
@@ -44,5 +46,17 @@ class ExportRequestSupportTest {
     assertNull(export.getFacets());
     assertFalse(export.isHighlight());
     assertFalse(export.isFacetMultiSelect());
+    assertNull(export.getSourceFields());
+  }
+
+  @Test
+  void prepareForExport_fetchesTheSourceFieldsOfTheChosenColumns() {
+    LiteratureSearchRequest request = new LiteratureSearchRequest();
+
+    LiteratureExportRequest export =
+        ExportRequestSupport.prepareForExport(
+            request, 500, ExportFields.fromParameter("added,title,published"));
+
+    assertEquals(List.of("title", "createdAt", "created"), export.getSourceFields());
   }
 }
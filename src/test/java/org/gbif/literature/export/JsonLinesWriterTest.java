@@ -0,0 +1,126 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.export;
+
+import org.gbif.literature.search.ExportSourcePage;
+import org.gbif.literature.search.ExportSourceScanner;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonLinesWriterTest {
+
+  @Test
+  void transcodesSourcesLikeTheConverter() throws Exception {
+    String response =
+        """
+        {"pit_id":"p","hits":{"hits":[
+          {"_id":"a1","_source":{"id":"stale","title":"T\\n1","created":"2024-01-02T03:04:05.000Z",
+            "createdAt":"2023-12-31","updatedAt":null,"gbifProgrammeAcronym":"BID",
+            "literatureType":"journal","topics":["biodiversity_science","ecology"],"relevance":[],
+            "countriesOfCoverage":["DK"],"authors":[{"firstName":"A","lastName":"B"}],
+            "internalField":{"x":1},"year":2023}}]}}
+        """;
+    FakeSourcePager pager = new FakeSourcePager(List.of(response), 10);
+
+    String lines = export(pager);
+
+    assertEquals(
+        "{\"id\":\"a1\",\"title\":\"T\\n1\",\"added\":\"2024-01-02T03:04:05.000Z\","
+            + "\"published\":\"2023-12-31\",\"gbifProgramme\":\"BID\","
+            + "\"literatureType\":\"JOURNAL\",\"topics\":[\"BIODIVERSITY_SCIENCE\",\"ECOLOGY\"],"
+            + "\"relevance\":[],\"countriesOfCoverage\":[\"DK\"],"
+            + "\"authors\":[{\"firstName\":\"A\",\"lastName\":\"B\"}],\"year\":2023}\n",
+        lines);
+    assertTrue(pager.closed);
+  }
+
+  @Test
+  void writesOneLinePerHitAcrossPages() throws Exception {
+    FakeSourcePager pager =
+        new FakeSourcePager(
+            List.of(
+                "{\"hits\":{\"hits\":[{\"_id\":\"1\",\"_source\":{\"title\":\"a\"}},"
+                    + "{\"_id\":\"2\",\"_source\":{}}]}}",
+                "{\"hits\":{\"hits\":[{\"_id\":\"3\",\"_source\":{\"year\":1}}]}}"),
+            2);
+
+    String lines = export(pager);
+
+    assertEquals(
+        "{\"id\":\"1\",\"title\":\"a\"}\n{\"id\":\"2\"}\n{\"id\":\"3\",\"year\":1}\n", lines);
+    assertTrue(pager.closed);
+  }
+
+  @Test
+  void writesTheChosenColumnsOnly() throws Exception {
+    FakeSourcePager pager =
+        new FakeSourcePager(
+            List.of(
+                "{\"hits\":{\"hits\":[{\"_id\":\"1\",\"_source\":{\"title\":\"a\","
+                    + "\"createdAt\":\"2023-12-31\",\"abstract\":\"b\"}}]}}"),
+            10);
+
+    StringWriter writer = new StringWriter();
+    new JsonLinesWriter(pager, ExportFields.fromParameter("published,title")).export(writer);
+
+    assertEquals("{\"title\":\"a\",\"published\":\"2023-12-31\"}\n", writer.toString());
+  }
+
+  @Test
+  void emptyExportWritesNothing() throws Exception {
+    FakeSourcePager pager = new FakeSourcePager(List.of("{\"hits\":{\"hits\":[]}}"), 10);
+
+    assertEquals("", export(pager));
+    assertTrue(pager.closed);
+  }
+
+  private static String export(SourcePager pager) throws IOException {
+    StringWriter writer = new StringWriter();
+    new JsonLinesWriter(pager).export(writer);
+    return writer.toString();
+  }
+
+  /** Serves canned response bodies, scanned like the real pager does. */
+  private static class FakeSourcePager implements SourcePager {
+    private final Deque<String> responses;
+    private final int pageSize;
+    private boolean closed;
+
+    private FakeSourcePager(List<String> responses, int pageSize) {
+      this.responses = new ArrayDeque<>(responses);
+      this.pageSize = pageSize;
+    }
+
+    @Override
+    public ExportSourcePage nextPage() throws IOException {
+      return ExportSourceScanner.scan(
+          responses.remove().getBytes(StandardCharsets.UTF_8), "p", pageSize);
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+}
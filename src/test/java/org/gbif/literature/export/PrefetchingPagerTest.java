@@ -0,0 +1,146 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.export;
+
+import org.gbif.api.model.common.search.SearchResponse;
+import org.gbif.api.model.literature.search.LiteratureSearchParameter;
+import org.gbif.api.model.literature.search.LiteratureSearchResult;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrefetchingPagerTest {
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @AfterEach
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void pagesArriveInOrder() throws Exception {
+    FakePager delegate = new FakePager(5, 0);
+    List<Integer> pages = new ArrayList<>();
+
+    try (PrefetchingPager pager = new PrefetchingPager(delegate, 2, executor)) {
+      while (true) {
+        SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> page = pager.nextPage();
+        pages.add((int) page.getOffset());
+        if (page.isEndOfRecords()) {
+          break;
+        }
+      }
+    }
+
+    assertEquals(List.of(0, 1, 2, 3, 4), pages);
+    assertTrue(delegate.closed.get());
+  }
+
+  @Test
+  void fetchingOverlapsWriting() throws Exception {
+    int pages = 10;
+    long pageMillis = 40;
+    FakePager delegate = new FakePager(pages, pageMillis);
+
+    long start = System.nanoTime();
+    try (PrefetchingPager pager = new PrefetchingPager(delegate, 1, executor)) {
+      while (!pager.nextPage().isEndOfRecords()) {
+        Thread.sleep(pageMillis); // writing the page
+      }
+    }
+    long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+    // sequential would take 2 * pages * pageMillis
+    assertTrue(elapsedMillis < 1.6 * pages * pageMillis, "took " + elapsedMillis + " ms");
+  }
+
+  @Test
+  void failuresReachTheWriter() throws Exception {
+    FakePager delegate = new FakePager(5, 0);
+    delegate.failAt = 2;
+
+    try (PrefetchingPager pager = new PrefetchingPager(delegate, 1, executor)) {
+      pager.nextPage();
+      pager.nextPage();
+      assertThrows(IOException.class, pager::nextPage);
+    }
+    assertTrue(delegate.closed.get());
+  }
+
+  @Test
+  void closingStopsFetching() throws Exception {
+    FakePager delegate = new FakePager(1_000, 1);
+
+    PrefetchingPager pager = new PrefetchingPager(delegate, 1, executor);
+    pager.nextPage();
+    pager.close();
+    int fetched = delegate.fetched.get();
+    Thread.sleep(50);
+
+    assertTrue(delegate.closed.get());
+    assertEquals(fetched, delegate.fetched.get());
+  }
+
+  /** Pager of empty-bodied pages numbered by their offset. */
+  private static class FakePager implements ExportPager {
+    private final int pages;
+    private final long pageMillis;
+    private final AtomicInteger fetched = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private int failAt = -1;
+
+    private FakePager(int pages, long pageMillis) {
+      this.pages = pages;
+      this.pageMillis = pageMillis;
+    }
+
+    @Override
+    public SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> nextPage()
+        throws IOException {
+      int page = fetched.getAndIncrement();
+      if (page == failAt) {
+        throw new IOException("search failed");
+      }
+      try {
+        Thread.sleep(pageMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException(e);
+      }
+      SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> response =
+          new SearchResponse<>(page, 1);
+      response.setResults(List.of(new LiteratureSearchResult()));
+      response.setEndOfRecords(page == pages - 1);
+      return response;
+    }
+
+    @Override
+    public void close() {
+      closed.set(true);
+    }
+  }
+}
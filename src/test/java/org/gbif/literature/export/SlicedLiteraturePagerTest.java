@@ -0,0 +1,282 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.export;
+
+import org.gbif.api.model.common.search.SearchResponse;
+import org.gbif.api.model.literature.search.LiteratureSearchParameter;
+import org.gbif.api.model.literature.search.LiteratureSearchRequest;
+import org.gbif.api.model.literature.search.LiteratureSearchResult;
+import org.gbif.literature.search.ExportPageResult;
+import org.gbif.literature.search.ExportSlice;
+import org.gbif.literature.search.LiteratureSearchService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch.core.OpenPointInTimeRequest;
+import co.elastic.clients.elasticsearch.core.OpenPointInTimeResponse;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SlicedLiteraturePagerTest {
+
+  private static final int SLICES = 3;
+  private static final int PAGE_SIZE = 7;
+
+  private final List<List<LiteratureSearchResult>> sliceRows = new ArrayList<>();
+  private final DistributionSummary throughput =
+      DistributionSummary.builder("throughput").register(new SimpleMeterRegistry());
+  private final ThreadPoolExecutor sliceExecutor =
+      (ThreadPoolExecutor) Executors.newCachedThreadPool();
+
+  @AfterEach
+  void shutdown() {
+    sliceExecutor.shutdownNow();
+  }
+
+  @Test
+  void orderedExportMergesSlicesOnTheExportSort() throws Exception {
+    List<LiteratureSearchResult> all = rows(100);
+
+    List<LiteratureSearchResult> exported = exportAll(pager(true, 1000));
+
+    List<LiteratureSearchResult> expected = new ArrayList<>(all);
+    expected.sort(SlicedLiteraturePager.EXPORT_ORDER);
+    assertEquals(expected, exported);
+  }
+
+  @Test
+  void unorderedExportWritesEveryRowOnce() throws Exception {
+    List<LiteratureSearchResult> all = rows(100);
+
+    List<LiteratureSearchResult> exported = exportAll(pager(false, 1000));
+
+    assertEquals(ids(all), ids(exported));
+    assertEquals(all.size(), exported.size());
+  }
+
+  @Test
+  void exportStopsAtTheRecordLimit() throws Exception {
+    rows(100);
+    SlicedLiteraturePager pager = pager(true, 20);
+
+    List<LiteratureSearchResult> exported = exportAll(pager);
+
+    assertTrue(exported.size() >= 20 && exported.size() < 20 + PAGE_SIZE);
+    assertThrows(ExportLimitExceededException.class, pager::nextPage);
+  }
+
+  @Test
+  void sliceFailuresReachTheWriter() throws Exception {
+    LiteratureSearchService service = mock(LiteratureSearchService.class);
+    when(service.exportSearch(any(), any(), anyString(), any(ExportSlice.class)))
+        .thenThrow(new IllegalStateException("shard failure"));
+    SlicedLiteraturePager pager =
+        new SlicedLiteraturePager(
+            service,
+            esClient(),
+            "literature",
+            1000,
+            SLICES,
+            true,
+            throughput,
+            request(),
+            nanos -> {},
+            sliceExecutor);
+
+    assertThrows(IllegalStateException.class, pager::nextPage);
+    pager.close();
+  }
+
+  @Test
+  void sliceFailuresReachTheWriterWhenItsQueueIsFull() throws Exception {
+    // two endless slices keep the shared queue full, the third fails once it is
+    AtomicInteger pagesRead = new AtomicInteger();
+    LiteratureSearchService service = mock(LiteratureSearchService.class);
+    when(service.exportSearch(any(), any(), anyString(), any(ExportSlice.class)))
+        .thenAnswer(
+            invocation -> {
+              ExportSlice slice = invocation.getArgument(3);
+              if (slice.getId() == 1) {
+                while (pagesRead.get() < 3 * SLICES) {
+                  Thread.sleep(10);
+                }
+                Thread.sleep(100);
+                throw new IllegalStateException("shard failure");
+              }
+              pagesRead.incrementAndGet();
+              SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> response =
+                  new SearchResponse<>(request());
+              response.setResults(List.of(new LiteratureSearchResult()));
+              return new ExportPageResult(response, "pit", List.of(FieldValue.of(1)));
+            });
+    SlicedLiteraturePager pager =
+        new SlicedLiteraturePager(
+            service,
+            esClient(),
+            "literature",
+            Integer.MAX_VALUE,
+            SLICES,
+            false,
+            throughput,
+            request(),
+            nanos -> {},
+            sliceExecutor);
+
+    try (pager) {
+      assertTimeoutPreemptively(
+          Duration.ofSeconds(10),
+          () ->
+              assertThrows(
+                  IllegalStateException.class,
+                  () -> {
+                    while (true) {
+                      pager.nextPage();
+                      Thread.sleep(20);
+                    }
+                  }));
+    }
+  }
+
+  @Test
+  void closingCancelsTheSlicesOnTheSharedExecutor() throws Exception {
+    rows(1000);
+    SlicedLiteraturePager pager = pager(false, 1000);
+
+    // the slices fill the queue and wait for room
+    pager.nextPage();
+    Thread.sleep(100);
+    assertEquals(SLICES, sliceExecutor.getActiveCount());
+    pager.close();
+
+    assertTimeoutPreemptively(
+        Duration.ofSeconds(10),
+        () -> {
+          while (sliceExecutor.getActiveCount() > 0) {
+            Thread.sleep(10);
+          }
+        });
+  }
+
+  private List<LiteratureSearchResult> exportAll(SlicedLiteraturePager pager) throws Exception {
+    List<LiteratureSearchResult> exported = new ArrayList<>();
+    try (pager) {
+      while (true) {
+        SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> page = pager.nextPage();
+        exported.addAll(page.getResults());
+        if (page.isEndOfRecords() || page.getResults().isEmpty()) {
+          return exported;
+        }
+      }
+    }
+  }
+
+  /** Random rows spread over the slices, each slice sorted like Elasticsearch would. */
+  private List<LiteratureSearchResult> rows(int count) {
+    Random random = new Random(7);
+    List<LiteratureSearchResult> all = new ArrayList<>();
+    for (int i = 0; i < SLICES; i++) {
+      sliceRows.add(new ArrayList<>());
+    }
+    for (int i = 0; i < count; i++) {
+      LiteratureSearchResult result = new LiteratureSearchResult();
+      result.setId(new UUID(random.nextLong(), random.nextLong()));
+      // a few rows share a date, or have none, to exercise the tie-breaks
+      result.setAdded(i % 10 == 0 ? null : new Date(random.nextInt(20) * 86_400_000L));
+      all.add(result);
+      sliceRows.get(random.nextInt(SLICES)).add(result);
+    }
+    sliceRows.forEach(rows -> rows.sort(SlicedLiteraturePager.EXPORT_ORDER));
+    return all;
+  }
+
+  private SlicedLiteraturePager pager(boolean ordered, int maxRecords) throws Exception {
+    LiteratureSearchService service = mock(LiteratureSearchService.class);
+    when(service.exportSearch(any(), any(), anyString(), any(ExportSlice.class)))
+        .thenAnswer(
+            invocation -> {
+              List<FieldValue> searchAfter = invocation.getArgument(1);
+              ExportSlice slice = invocation.getArgument(3);
+              return page(slice, searchAfter);
+            });
+    return new SlicedLiteraturePager(
+        service,
+        esClient(),
+        "literature",
+        maxRecords,
+        SLICES,
+        ordered,
+        throughput,
+        request(),
+        nanos -> {},
+        sliceExecutor);
+  }
+
+  /** Pages a slice with its row offset as the search_after value. */
+  private ExportPageResult page(ExportSlice slice, List<FieldValue> searchAfter) {
+    List<LiteratureSearchResult> rows = sliceRows.get(slice.getId());
+    int from = searchAfter == null ? 0 : (int) searchAfter.get(0).longValue();
+    int to = Math.min(rows.size(), from + PAGE_SIZE);
+    SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> response =
+        new SearchResponse<>(request());
+    response.setResults(new ArrayList<>(rows.subList(from, to)));
+    response.setEndOfRecords(to - from < PAGE_SIZE);
+    return new ExportPageResult(response, "pit", List.of(FieldValue.of(to)));
+  }
+
+  private static ElasticsearchClient esClient() throws Exception {
+    ElasticsearchClient client = mock(ElasticsearchClient.class);
+    OpenPointInTimeResponse response = mock(OpenPointInTimeResponse.class);
+    when(response.id()).thenReturn("pit");
+    when(client.openPointInTime(any(OpenPointInTimeRequest.class))).thenReturn(response);
+    return client;
+  }
+
+  private static LiteratureSearchRequest request() {
+    LiteratureSearchRequest request = new LiteratureSearchRequest();
+    request.setLimit(PAGE_SIZE);
+    return request;
+  }
+
+  private static List<UUID> ids(List<LiteratureSearchResult> results) {
+    return results.stream()
+        .map(LiteratureSearchResult::getId)
+        .sorted(Comparator.naturalOrder())
+        .collect(Collectors.toList());
+  }
+}
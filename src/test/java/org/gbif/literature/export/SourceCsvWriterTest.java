@@ -0,0 +1,400 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.export;
+
+import org.gbif.api.model.common.export.ExportFormat;
+import org.gbif.api.model.common.search.SearchResponse;
+import org.gbif.api.model.literature.search.LiteratureSearchParameter;
+import org.gbif.api.model.literature.search.LiteratureSearchRequest;
+import org.gbif.api.model.literature.search.LiteratureSearchResult;
+import org.gbif.literature.search.ExportSourcePage;
+import org.gbif.literature.search.ExportSourceScanner;
+import org.gbif.literature.search.LiteratureEsFieldMapper;
+import org.gbif.literature.search.LiteratureEsResponseParser;
+import org.gbif.literature.search.LiteratureSearchResultConverter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import co.elastic.clients.json.JsonpDeserializer;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Differential test: random sources written through the client, the converter and {@link
+ * CsvWriter} must give the same file as when transcoded by {@link SourceCsvWriter}, apart from the
+ * order of the set columns.
+ */
+class SourceCsvWriterTest {
+
+  private static final int PAGE_SIZE = 40;
+  // countries of coverage and of researcher, and topics
+  private static final List<Integer> SET_COLUMNS = List.of(7, 8, 15);
+
+  private static final String[] TEXTS = {
+    "\"plain\"", "\"a \\\"quoted\\\", comma\"", "\"tab\\there\"", "\"line\\r\\nbreak\\nand\\rcr\"",
+    "\"\\u2028sep\\u0085 \\u0000\"", "\"Østfold São Paulo\"", "\"\"", "42", "1.5", "1e3", "true",
+    "false", "[]", "{\"a\":1}", "[\"x\"]"
+  };
+  private static final String[] DATES = {
+    "\"2023-12-31\"", "\"2024-01-02T03:04:05.000Z\"", "\"2024-01-02T03:04:05Z\"",
+    "\"not a date\"", "\"2023-02-30\"", "20231231", "true", "[]"
+  };
+  private static final String[] BOOLEANS = {
+    "true", "false", "\"true\"", "\" true \"", "\"false\"", "\"yes\"", "0", "1", "2", "1.5", "[]",
+    "{}"
+  };
+  private static final String[] COUNTRIES = {"\"DK\"", "\"BR\"", "\"US\"", "\"KE\"", "\"NO\""};
+  private static final String[] TOPICS = {
+    "\"ecology\"", "\"BIODIVERSITY_SCIENCE\"", "\"Ecology\"", "\"unknown\"", "null", "1", "[]"
+  };
+  private static final String[] TYPES = {
+    "\"journal\"", "\"BOOK\"", "\"thesis\"", "\"nope\"", "1", "[]", "{}"
+  };
+  private static final String[] NAMES = {
+    "\"Ana\"", "\"Lars, \\\"LJ\\\"\"", "null", "7", "1.5", "false", "{\"a\":1}", "[1,\"x\"]"
+  };
+  private static final String[] FIELDS = {
+    "title", "authors", "source", "createdAt", "openAccess", "peerReview", "citationType",
+    "countriesOfCoverage", "countriesOfResearcher", "keywords", "literatureType", "websites",
+    "identifiers", "id", "abstract", "topics", "created", "gbifDownloadKey", "year",
+    "relevance", "internal"
+  };
+
+  @ParameterizedTest
+  @EnumSource(
+      value = ExportFormat.class,
+      names = {"CSV", "TSV"})
+  void transcodesSourcesLikeTheConverter(ExportFormat format) throws Exception {
+    Random random = new Random(17);
+    for (int run = 0; run < 10; run++) {
+      assertSameOutput(random, format, ExportFields.ALL, "run " + run);
+    }
+  }
+
+  @ParameterizedTest
+  @EnumSource(
+      value = ExportFormat.class,
+      names = {"CSV", "TSV"})
+  void transcodesTheChosenColumnsLikeTheConverter(ExportFormat format) throws Exception {
+    Random random = new Random(19);
+    for (int run = 0; run < 10; run++) {
+      List<String> names = new ArrayList<>(Arrays.asList(CsvWriter.LITERATURE_FIELDS));
+      Collections.shuffle(names, random);
+      String fields = String.join(",", names.subList(0, 1 + random.nextInt(names.size() - 1)));
+
+      assertSameOutput(random, format, ExportFields.fromParameter(fields), fields);
+    }
+  }
+
+  @ParameterizedTest
+  @EnumSource(
+      value = ExportFormat.class,
+      names = {"CSV", "TSV"})
+  void readsDocValuesLikeTheSameSourceFields(ExportFormat format) throws Exception {
+    String id = "83a00190-7038-3970-a7e8-5e5563c40e37";
+    String fromSource =
+        "{\"_id\":\"" + id + "\",\"_source\":{\"title\":\"T\",\"createdAt\":\"2023-12-31\","
+            + "\"openAccess\":true,\"peerReview\":\"false\",\"citationType\":\"a, b\","
+            + "\"countriesOfCoverage\":[\"DK\",\"BR\",\"DK\"],\"literatureType\":\"journal\","
+            + "\"id\":\"" + id + "\",\"topics\":[\"ecology\",\"biodiversity_science\"],"
+            + "\"created\":\"2024-01-02T04:04:05+01:00\"}}";
+    String fromDocValues =
+        "{\"_id\":\"" + id + "\",\"_source\":{\"title\":\"T\"},\"fields\":{"
+            + "\"createdAt\":[\"2023-12-31T00:00:00.000Z\"],\"openAccess\":[true],"
+            + "\"peerReview\":[false],\"citationType\":[\"a, b\"],"
+            + "\"countriesOfCoverage\":[\"BR\",\"DK\"],\"literatureType\":[\"journal\"],"
+            + "\"id\":[\"" + id + "\"],\"topics\":[\"biodiversity_science\",\"ecology\"],"
+            + "\"created\":[\"2024-01-02T03:04:05.000Z\"]}}";
+
+    assertEquals(
+        export(format, "{\"hits\":{\"hits\":[" + fromSource + "]}}"),
+        export(format, "{\"hits\":{\"hits\":[" + fromDocValues + "]}}"));
+  }
+
+  private static String export(ExportFormat format, String response) throws IOException {
+    StringWriter writer = new StringWriter();
+    new SourceCsvWriter(new FakeSourcePager(List.of(response)), format).export(writer);
+    return writer.toString();
+  }
+
+  private static void assertSameOutput(
+      Random random, ExportFormat format, ExportFields fields, String message) throws Exception {
+    List<String> responses =
+        List.of(
+            response(random, PAGE_SIZE),
+            response(random, PAGE_SIZE),
+            response(random, random.nextInt(PAGE_SIZE)));
+
+    String expected = normalize(viaResults(responses, format, fields), format, fields);
+    FakeSourcePager pager = new FakeSourcePager(responses);
+    StringWriter actual = new StringWriter();
+    new SourceCsvWriter(pager, format, fields).export(actual);
+
+    assertEquals(expected, normalize(actual.toString(), format, fields), message);
+    assertTrue(pager.closed);
+  }
+
+  private static String viaResults(
+      List<String> responses, ExportFormat format, ExportFields fields) {
+    JacksonJsonpMapper jsonpMapper = new JacksonJsonpMapper();
+    JsonpDeserializer<co.elastic.clients.elasticsearch.core.SearchResponse<Object>> deserializer =
+        co.elastic.clients.elasticsearch.core.SearchResponse.createSearchResponseDeserializer(
+            JsonpDeserializer.of(Object.class));
+    LiteratureEsResponseParser responseParser =
+        new LiteratureEsResponseParser(
+            new LiteratureSearchResultConverter(), new LiteratureEsFieldMapper());
+    LiteratureSearchRequest request = new LiteratureSearchRequest();
+    request.setLimit(PAGE_SIZE);
+
+    Deque<SearchResponse<LiteratureSearchResult, LiteratureSearchParameter>> pages =
+        new ArrayDeque<>();
+    for (String response : responses) {
+      SearchResponse<LiteratureSearchResult, LiteratureSearchParameter> page =
+          responseParser.buildExportSearchResponse(
+              deserializer.deserialize(
+                  jsonpMapper
+                      .jsonProvider()
+                      .createParser(
+                          new ByteArrayInputStream(response.getBytes(StandardCharsets.UTF_8))),
+                  jsonpMapper),
+              request);
+      page.setEndOfRecords(pages.size() == responses.size() - 1);
+      pages.add(page);
+    }
+    StringWriter writer = new StringWriter();
+    CsvWriter.literatureSearchResultCsvWriter(
+            new ExportPager() {
+              @Override
+              public SearchResponse<LiteratureSearchResult, LiteratureSearchParameter>
+                  nextPage() {
+                return pages.remove();
+              }
+
+              @Override
+              public void close() {}
+            },
+            format,
+            PAGE_SIZE,
+            fields)
+        .export(writer);
+    return writer.toString();
+  }
+
+  /** A search response of random hits, with fields in random order, missing or of odd types. */
+  private static String response(Random random, int hits) {
+    StringBuilder sb = new StringBuilder("{\"pit_id\":\"p\",\"took\":1,\"timed_out\":false,");
+    sb.append("\"_shards\":{\"total\":1,\"successful\":1,\"skipped\":0,\"failed\":0},");
+    sb.append("\"hits\":{\"max_score\":null,\"hits\":[");
+    for (int i = 0; i < hits; i++) {
+      String id = new UUID(random.nextLong(), random.nextLong()).toString();
+      sb.append(i > 0 ? "," : "").append("{\"_index\":\"literature\",\"_id\":\"").append(id);
+      sb.append("\",\"_score\":null");
+      if (random.nextInt(20) > 0) {
+        sb.append(",\"_source\":{");
+        List<String> fields = new ArrayList<>(Arrays.asList(FIELDS));
+        Collections.shuffle(fields, random);
+        boolean first = true;
+        for (String field : fields) {
+          if (random.nextInt(5) == 0) {
+            continue;
+          }
+          sb.append(first ? "" : ",").append('"').append(field).append("\":");
+          sb.append(random.nextInt(10) == 0 ? "null" : value(random, field, id));
+          first = false;
+        }
+        sb.append('}');
+      }
+      sb.append(",\"sort\":[").append(i).append(",\"").append(id).append("\"]}");
+    }
+    return sb.append("]}}").toString();
+  }
+
+  private static String value(Random random, String field, String id) {
+    switch (field) {
+      case "authors":
+        return authors(random);
+      case "createdAt":
+      case "created":
+        return pick(random, DATES);
+      case "openAccess":
+      case "peerReview":
+        return pick(random, BOOLEANS);
+      case "countriesOfCoverage":
+      case "countriesOfResearcher":
+        return random.nextInt(6) == 0 ? "\"DK\"" : array(random, COUNTRIES, 4);
+      case "keywords":
+      case "websites":
+      case "gbifDownloadKey":
+        return random.nextInt(6) == 0 ? "\"x\"" : array(random, TEXTS, 4);
+      case "literatureType":
+        return pick(random, TYPES);
+      case "identifiers":
+        return identifiers(random);
+      case "id":
+        return pick(
+            random,
+            new String[] {
+              '"' + id + '"', '"' + UUID.randomUUID().toString() + '"', "\"stale\"", "5"
+            });
+      case "topics":
+        return random.nextInt(6) == 0 ? "\"ecology\"" : array(random, TOPICS, 4);
+      case "relevance":
+        return "[\"gbif_used\"]";
+      case "internal":
+        return "{\"x\":[1,{\"y\":[2,\"z\"]}],\"title\":\"no\"}";
+      default:
+        return pick(random, TEXTS);
+    }
+  }
+
+  private static String authors(Random random) {
+    switch (random.nextInt(8)) {
+      case 0:
+        return "[]";
+      case 1:
+        return "[{\"firstName\":\"A\"},\"B\"]";
+      case 2:
+        return "\"A B\"";
+      case 3:
+        return "{\"firstName\":\"A\"}";
+      default:
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0, n = 1 + random.nextInt(3); i < n; i++) {
+          sb.append(i > 0 ? "," : "").append('{');
+          boolean first = true;
+          for (String name : new String[] {"lastName", "orcid", "firstName"}) {
+            if (random.nextInt(4) > 0) {
+              sb.append(first ? "" : ",").append('"').append(name).append("\":");
+              sb.append(pick(random, NAMES));
+              first = false;
+            }
+          }
+          sb.append('}');
+        }
+        return sb.append(']').toString();
+    }
+  }
+
+  private static String identifiers(Random random) {
+    switch (random.nextInt(6)) {
+      case 0:
+        return "{}";
+      case 1:
+        return "\"doi\"";
+      case 2:
+        return "[]";
+      default:
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0, n = 1 + random.nextInt(3); i < n; i++) {
+          sb.append(i > 0 ? "," : "").append("\"k").append(i).append("\":");
+          sb.append(pick(random, TEXTS));
+        }
+        return sb.append('}').toString();
+    }
+  }
+
+  private static String array(Random random, String[] values, int max) {
+    StringBuilder sb = new StringBuilder("[");
+    for (int i = 0, n = random.nextInt(max + 1); i < n; i++) {
+      sb.append(i > 0 ? "," : "").append(pick(random, values));
+    }
+    return sb.append(']').toString();
+  }
+
+  private static String pick(Random random, String[] values) {
+    return values[random.nextInt(values.length)];
+  }
+
+  /** Splits the rows into cells and sorts the elements of the set columns. */
+  private static String normalize(String output, ExportFormat format, ExportFields fields) {
+    char delimiter = format == ExportFormat.CSV ? ',' : '\t';
+    String eol = format == ExportFormat.CSV ? "\r\n" : "\n";
+    StringBuilder sb = new StringBuilder();
+    List<String> cells = new ArrayList<>();
+    StringBuilder cell = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < output.length(); i++) {
+      char c = output.charAt(i);
+      if (c == '"') {
+        quoted = !quoted;
+        cell.append(c);
+      } else if (!quoted && c == delimiter) {
+        cells.add(cell.toString());
+        cell.setLength(0);
+      } else if (!quoted && output.startsWith(eol, i)) {
+        cells.add(cell.toString());
+        cell.setLength(0);
+        for (int column : SET_COLUMNS) {
+          if (fields.slot(column) >= 0) {
+            cells.set(fields.slot(column), sortElements(cells.get(fields.slot(column))));
+          }
+        }
+        sb.append(cells).append('\n');
+        cells.clear();
+        i += eol.length() - 1;
+      } else {
+        cell.append(c);
+      }
+    }
+    assertEquals(0, cell.length() + cells.size(), "unterminated row");
+    return sb.toString();
+  }
+
+  private static String sortElements(String cell) {
+    if (cell.length() < 2) {
+      return cell;
+    }
+    List<String> elements =
+        new ArrayList<>(Arrays.asList(cell.substring(1, cell.length() - 1).split("\\|")));
+    Collections.sort(elements);
+    return '"' + String.join("|", elements) + '"';
+  }
+
+  /** Serves canned response bodies, scanned like the real pager does. */
+  private static class FakeSourcePager implements SourcePager {
+    private final Deque<String> responses;
+    private boolean closed;
+
+    private FakeSourcePager(List<String> responses) {
+      this.responses = new ArrayDeque<>(responses);
+    }
+
+    @Override
+    public ExportSourcePage nextPage() throws IOException {
+      return ExportSourceScanner.scan(
+          responses.remove().getBytes(StandardCharsets.UTF_8), "p", PAGE_SIZE);
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+}
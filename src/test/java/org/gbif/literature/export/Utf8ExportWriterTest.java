@@ -0,0 +1,126 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.export;
+
+import org.gbif.literature.config.LiteratureConfigProperties;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Utf8ExportWriterTest {
+
+  private static final String TEXT = "\"title\",\"Zoë\",\"日本語\",\"😀🦎\"\r\n";
+
+  @Test
+  void encodesUtf8AcrossSmallBuffers() throws IOException {
+    ExportOutputFactory factory = factory(0, 16, 0);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    StringBuilder expected = new StringBuilder();
+
+    try (Utf8ExportWriter writer = factory.open(out)) {
+      for (int i = 0; i < 1_000; i++) {
+        // odd chunk sizes split surrogate pairs between writes
+        String text = TEXT.repeat(i % 3 + 1);
+        int split = i % text.length();
+        writer.write(text.toCharArray(), 0, split);
+        writer.write(text, split, text.length() - split);
+        writer.write('|');
+        expected.append(text).append('|');
+      }
+    }
+
+    byte[] bytes = expected.toString().getBytes(StandardCharsets.UTF_8);
+    assertArrayEquals(bytes, out.toByteArray());
+  }
+
+  @Test
+  void countsEncodedBytesExactly() throws IOException {
+    int size = TEXT.getBytes(StandardCharsets.UTF_8).length;
+    ExportOutputFactory factory = factory(size, 1024, 0);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    Utf8ExportWriter writer = factory.open(out);
+    writer.write(TEXT);
+    assertEquals(size, writer.getBytesWritten());
+    writer.close();
+
+    assertEquals(size, out.size());
+  }
+
+  @Test
+  void failsBeforeExceedingTheLimit() throws IOException {
+    int size = TEXT.getBytes(StandardCharsets.UTF_8).length;
+    ExportOutputFactory factory = factory(2L * size - 1, 8, 0);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    Utf8ExportWriter writer = factory.open(out);
+    writer.write(TEXT);
+    assertThrows(ExportLimitExceededException.class, () -> writer.write(TEXT));
+    writer.close();
+
+    assertTrue(out.size() < 2 * size);
+  }
+
+  @Test
+  void flushesAtTheThreshold() throws IOException {
+    ExportOutputFactory factory = factory(0, 64, 128);
+    int[] flushes = new int[1];
+    ByteArrayOutputStream out =
+        new ByteArrayOutputStream() {
+          @Override
+          public void flush() {
+            flushes[0]++;
+          }
+        };
+
+    try (Utf8ExportWriter writer = factory.open(out)) {
+      writer.write("x".repeat(1024));
+      assertEquals(7, flushes[0]);
+    }
+  }
+
+  @Test
+  void buffersAreReused() throws IOException {
+    ExportOutputFactory factory = factory(0, 1024, 0);
+
+    Utf8ExportWriter first = factory.open(new ByteArrayOutputStream());
+    first.write(TEXT);
+    first.close();
+    assertEquals(1, factory.pooled());
+
+    Utf8ExportWriter second = factory.open(new ByteArrayOutputStream());
+    assertEquals(0, factory.pooled());
+    assertEquals(first.buffers(), second.buffers());
+    assertEquals(0, second.getBytesWritten());
+    second.close();
+  }
+
+  private static ExportOutputFactory factory(long maxBytes, int bufferBytes, long flushBytes) {
+    LiteratureConfigProperties properties = new LiteratureConfigProperties();
+    properties.setBufferLimitBytesExport(maxBytes);
+    properties.setExportBufferBytes(bufferBytes);
+    properties.setExportFlushBytes(flushBytes);
+    return new ExportOutputFactory(properties, new SimpleMeterRegistry());
+  }
+}
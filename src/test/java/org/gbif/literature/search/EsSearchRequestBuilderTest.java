@@ -15,14 +15,18 @@ package org.gbif.literature.search;
 
 import org.gbif.api.model.literature.search.LiteratureSearchParameter;
 import org.gbif.api.model.literature.search.LiteratureSearchRequest;
+import org.gbif.literature.config.TimeBudgetConfigProperties;
 
+import java.time.Duration;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.query_dsl.FieldAndFormat;
 import co.elastic.clients.elasticsearch.core.SearchRequest;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -88,6 +92,105 @@ class EsSearchRequestBuilderTest {
     assertEquals(cursor, exportRequest.searchAfter());
   }
 
+  @Test
+  void buildExportSearchRequest_fetchesOnlyTheChosenSourceFields() {
+    LiteratureExportRequest request = new LiteratureExportRequest();
+    request.setLimit(500);
+    request.setSourceFields(List.of("title", "identifiers"));
+
+    SearchRequest exportRequest = builder.buildExportSearchRequest(request, INDEX, "pit", null);
+
+    assertEquals(List.of("title", "identifiers"), exportRequest.source().filter().includes());
+  }
+
+  @Test
+  void buildExportSearchRequest_readsFieldsWithDocValuesFromThem() {
+    LiteratureExportRequest request = new LiteratureExportRequest();
+    request.setLimit(500);
+    request.setDocValueFields(true);
+
+    SearchRequest exportRequest = builder.buildExportSearchRequest(request, INDEX, "pit", null);
+
+    assertEquals(
+        List.of(
+            "title", "authors", "source", "keywords", "websites", "identifiers", "abstract",
+            "gbifDownloadKey"),
+        exportRequest.source().filter().includes());
+    assertEquals(
+        List.of(fieldMapper.getExportDocValueFields()),
+        exportRequest.docvalueFields().stream()
+            .map(FieldAndFormat::field)
+            .collect(Collectors.toList()));
+    assertEquals("strict_date_time", exportRequest.docvalueFields().get(0).format());
+    assertNull(exportRequest.docvalueFields().get(1).format());
+
+    request.setSourceFields(List.of("id", "openAccess"));
+    SearchRequest withoutText = builder.buildExportSearchRequest(request, INDEX, "pit", null);
+
+    assertFalse(withoutText.source().fetch());
+    assertEquals(2, withoutText.docvalueFields().size());
+  }
+
+  @Test
+  void timeBudgetIsSentToEs() {
+    SearchRequest searchRequest =
+        builder.buildSearchRequest(
+            facetedSearchRequest(),
+            INDEX,
+            new TimeBudgetConfigProperties.Budget(Duration.ofSeconds(3), null));
+    SearchRequest getRequest =
+        builder.buildGetRequest(
+            "83a00190-7038-3970-a7e8-5e5563c40e37",
+            INDEX,
+            new TimeBudgetConfigProperties.Budget(Duration.ofMillis(500), 1L));
+
+    assertEquals("3000ms", searchRequest.timeout());
+    assertNull(searchRequest.terminateAfter());
+    assertEquals("500ms", getRequest.timeout());
+    assertEquals(1L, getRequest.terminateAfter());
+    assertNull(builder.buildSearchRequest(facetedSearchRequest(), INDEX).timeout());
+  }
+
+  @Test
+  void aggregationsCanBeLeftOut() {
+    SearchRequest withoutAggregations =
+        builder.buildSearchRequest(facetedSearchRequest(), INDEX, null, false);
+
+    assertTrue(withoutAggregations.aggregations().isEmpty());
+    assertEquals(500, withoutAggregations.size());
+  }
+
+  @Test
+  void exportSlicesAreSentToEs() {
+    LiteratureSearchRequest request = new LiteratureSearchRequest();
+    request.setLimit(500);
+
+    SearchRequest ordered =
+        builder.buildExportSearchRequest(
+            request, INDEX, "pit-xyz", null, new ExportSlice(1, 4, true));
+    SearchRequest unordered =
+        builder.buildExportSearchRequest(
+            request, INDEX, "pit-xyz", null, new ExportSlice(2, 4, false));
+
+    assertEquals("1", ordered.slice().id());
+    assertEquals(4, ordered.slice().max());
+    assertEquals("created", ordered.sort().get(0).field().field());
+    assertEquals("2", unordered.slice().id());
+    assertEquals(1, unordered.sort().size());
+    assertEquals("_shard_doc", unordered.sort().get(0).field().field());
+  }
+
+  @Test
+  void paddedWildcardIsMatchAll() {
+    LiteratureSearchRequest request = new LiteratureSearchRequest();
+    request.setQ(" * ");
+
+    SearchRequest searchRequest = builder.buildSearchRequest(request, INDEX);
+
+    assertTrue(searchRequest.query().bool().must().get(0).isMatchAll());
+    assertEquals("created", searchRequest.sort().get(0).field().field());
+  }
+
   private static LiteratureSearchRequest facetedSearchRequest() {
     LiteratureSearchRequest request = new LiteratureSearchRequest();
     request.setQ("biodiversity");
@@ -0,0 +1,102 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExportSourceScannerTest {
+
+  private static final String RESPONSE =
+      """
+      {"pit_id":"newPit","took":3,"timed_out":false,
+       "hits":{"total":{"value":2,"relation":"eq"},"max_score":null,"hits":[
+        {"_index":"literature","_id":"a1","_score":null,
+         "_source":{"title":"\u00dcber \\"quoted\\"","topics":["biodiversity"]},"sort":[1,"a1"]},
+        {"_index":"literature","_id":"b2","_score":null,
+         "_source":{"title":"second","nested":{"x":[1,2]}},"sort":[2.5,"b2"]}]}}
+      """;
+
+  @Test
+  void locatesSourcesAndCursor() throws Exception {
+    byte[] body = RESPONSE.getBytes(StandardCharsets.UTF_8);
+
+    ExportSourcePage page = ExportSourceScanner.scan(body, "oldPit", 2);
+
+    assertEquals("newPit", page.getPitId());
+    assertFalse(page.isEndOfRecords());
+    assertEquals(2, page.getHits().size());
+    assertEquals("a1", page.getHits().get(0).getId());
+    assertEquals(
+        "{\"title\":\"\u00dcber \\\"quoted\\\"\",\"topics\":[\"biodiversity\"]}",
+        source(body, page.getHits().get(0)));
+    assertEquals(
+        "{\"title\":\"second\",\"nested\":{\"x\":[1,2]}}", source(body, page.getHits().get(1)));
+    assertEquals(
+        List.of(2.5, "b2"),
+        page.getNextSearchAfter().stream().map(FieldValue::_get).collect(Collectors.toList()));
+  }
+
+  @Test
+  void shortPageIsTheLast() throws Exception {
+    ExportSourcePage page =
+        ExportSourceScanner.scan(RESPONSE.getBytes(StandardCharsets.UTF_8), "oldPit", 10);
+
+    assertTrue(page.isEndOfRecords());
+  }
+
+  @Test
+  void emptyPageKeepsThePointInTime() throws Exception {
+    byte[] body = "{\"hits\":{\"hits\":[]}}".getBytes(StandardCharsets.UTF_8);
+
+    ExportSourcePage page = ExportSourceScanner.scan(body, "oldPit", 10);
+
+    assertEquals("oldPit", page.getPitId());
+    assertTrue(page.getHits().isEmpty());
+    assertTrue(page.isEndOfRecords());
+    assertNull(page.getNextSearchAfter());
+  }
+
+  @Test
+  void locatesDocValueFields() throws Exception {
+    byte[] body =
+        ("{\"hits\":{\"hits\":[{\"_id\":\"a1\",\"_source\":{\"title\":\"t\"},"
+                + "\"fields\":{\"openAccess\":[true]}},{\"_id\":\"b2\",\"fields\":{}}]}}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    ExportSourcePage page = ExportSourceScanner.scan(body, "pit", 10);
+
+    ExportSourcePage.Hit hit = page.getHits().get(0);
+    assertEquals(
+        "{\"openAccess\":[true]}",
+        new String(body, hit.getFieldsOffset(), hit.getFieldsLength(), StandardCharsets.UTF_8));
+    assertEquals("{\"title\":\"t\"}", source(body, hit));
+    assertFalse(page.getHits().get(1).hasSource());
+    assertTrue(page.getHits().get(1).hasFields());
+  }
+
+  private static String source(byte[] body, ExportSourcePage.Hit hit) {
+    return new String(body, hit.getSourceOffset(), hit.getSourceLength(), StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.search;
+
+import org.gbif.api.model.literature.search.LiteratureSearchParameter;
+import org.gbif.api.model.literature.search.LiteratureSearchRequest;
+
+import java.util.EnumSet;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SearchRequestFingerprintTest {
+
+  @Test
+  void orderAndCaseOfValuesDoNotMatter() {
+    LiteratureSearchRequest first = new LiteratureSearchRequest();
+    first.setQ(" frogs ");
+    first.addParameter(LiteratureSearchParameter.YEAR, "2020");
+    first.addParameter(LiteratureSearchParameter.COUNTRIES_OF_COVERAGE, "dk");
+    first.addParameter(LiteratureSearchParameter.COUNTRIES_OF_COVERAGE, "BR");
+
+    LiteratureSearchRequest second = new LiteratureSearchRequest();
+    second.setQ("frogs");
+    second.addParameter(LiteratureSearchParameter.COUNTRIES_OF_COVERAGE, "br");
+    second.addParameter(LiteratureSearchParameter.COUNTRIES_OF_COVERAGE, "DK");
+    second.addParameter(LiteratureSearchParameter.YEAR, "2020");
+
+    assertEquals(
+        SearchRequestFingerprint.canonical(first), SearchRequestFingerprint.canonical(second));
+    assertEquals(SearchRequestFingerprint.of(first), SearchRequestFingerprint.of(second));
+  }
+
+  @Test
+  void paddedFilterValuesAreNotTheSameQuery() {
+    // sent to Elasticsearch as they are, so a padded value matches other documents
+    LiteratureSearchRequest padded = new LiteratureSearchRequest();
+    padded.addParameter(LiteratureSearchParameter.GBIF_DOWNLOAD_KEY, " abc");
+    LiteratureSearchRequest plain = new LiteratureSearchRequest();
+    plain.addParameter(LiteratureSearchParameter.GBIF_DOWNLOAD_KEY, "abc");
+
+    assertNotEquals(SearchRequestFingerprint.of(padded), SearchRequestFingerprint.of(plain));
+
+    // unlike vocabulary values, which are looked up
+    LiteratureSearchRequest paddedCountry = new LiteratureSearchRequest();
+    paddedCountry.addParameter(LiteratureSearchParameter.COUNTRIES_OF_COVERAGE, " dk");
+    LiteratureSearchRequest country = new LiteratureSearchRequest();
+    country.addParameter(LiteratureSearchParameter.COUNTRIES_OF_COVERAGE, "DK");
+
+    assertEquals(SearchRequestFingerprint.of(paddedCountry), SearchRequestFingerprint.of(country));
+  }
+
+  @Test
+  void pagingAndFacetsMatter() {
+    LiteratureSearchRequest request = new LiteratureSearchRequest();
+    String plain = SearchRequestFingerprint.of(request);
+
+    request.setOffset(20);
+    String paged = SearchRequestFingerprint.of(request);
+    assertNotEquals(plain, paged);
+
+    request.setFacets(EnumSet.of(LiteratureSearchParameter.YEAR));
+    assertNotEquals(paged, SearchRequestFingerprint.of(request));
+  }
+
+  @Test
+  void facetFingerprintIgnoresResultPaging() {
+    LiteratureSearchRequest first = new LiteratureSearchRequest();
+    first.setFacets(EnumSet.of(LiteratureSearchParameter.YEAR));
+    LiteratureSearchRequest second = new LiteratureSearchRequest();
+    second.setFacets(EnumSet.of(LiteratureSearchParameter.YEAR));
+    second.setOffset(40);
+    second.setHighlight(true);
+
+    assertEquals(SearchRequestFingerprint.facets(first), SearchRequestFingerprint.facets(second));
+
+    second.setFacetLimit(50);
+    assertNotEquals(
+        SearchRequestFingerprint.facets(first), SearchRequestFingerprint.facets(second));
+    assertNull(SearchRequestFingerprint.facets(new LiteratureSearchRequest()));
+  }
+
+  @Test
+  void wildcardQueryIsMatchAll() {
+    LiteratureSearchRequest wildcard = new LiteratureSearchRequest();
+    wildcard.setQ("*");
+    LiteratureSearchRequest padded = new LiteratureSearchRequest();
+    padded.setQ(" * ");
+
+    assertEquals(
+        SearchRequestFingerprint.of(new LiteratureSearchRequest()),
+        SearchRequestFingerprint.of(wildcard));
+    assertEquals(SearchRequestFingerprint.of(wildcard), SearchRequestFingerprint.of(padded));
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.stats;
+
+import org.gbif.api.model.literature.search.LiteratureSearchRequest;
+import org.gbif.literature.config.QueryStatsConfigProperties;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QueryStatsEndpointTest {
+
+  private final QueryStatsTracker tracker =
+      new QueryStatsTracker(new QueryStatsConfigProperties());
+  private final QueryStatsEndpoint endpoint = new QueryStatsEndpoint(tracker);
+
+  @Test
+  void limitsTheListedQueries() {
+    LiteratureSearchRequest first = new LiteratureSearchRequest();
+    first.setQ("amphibian");
+    LiteratureSearchRequest second = new LiteratureSearchRequest();
+    second.setQ("decline");
+    tracker.record(first, 0, 0);
+    tracker.record(second, 0, 0);
+
+    assertEquals(1, ((List<?>) endpoint.queries(1).get("queries")).size());
+    assertEquals(2, ((List<?>) endpoint.queries(null).get("queries")).size());
+    assertEquals(0, ((List<?>) endpoint.queries(0).get("queries")).size());
+  }
+
+  @Test
+  void negativeLimitIsABadRequest() {
+    assertThrows(InvalidEndpointRequestException.class, () -> endpoint.queries(-1));
+  }
+
+  @Test
+  void totalCountsEveryRecordedSearch() {
+    tracker.record(new LiteratureSearchRequest(), 0, 0);
+
+    Map<String, Object> body = endpoint.queries(null);
+
+    assertEquals(1L, body.get("total"));
+  }
+}
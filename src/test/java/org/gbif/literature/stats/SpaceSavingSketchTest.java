@@ -0,0 +1,90 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.stats;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpaceSavingSketchTest {
+
+  @Test
+  void countsExactlyBelowCapacity() {
+    SpaceSavingSketch<String> sketch = new SpaceSavingSketch<>(10);
+    for (int i = 0; i < 5; i++) {
+      sketch.record("a", 10, 100);
+    }
+    sketch.record("b", 1, 1);
+
+    List<SpaceSavingSketch.HeavyHitter<String>> top = sketch.top(10);
+    assertEquals(2, top.size());
+    assertEquals(new SpaceSavingSketch.HeavyHitter<>("a", 5, 0, 50, 500), top.get(0));
+    assertEquals(new SpaceSavingSketch.HeavyHitter<>("b", 1, 0, 1, 1), top.get(1));
+    assertEquals(6, sketch.total());
+  }
+
+  @Test
+  void heavyHittersSurviveALongTail() {
+    SpaceSavingSketch<String> sketch = new SpaceSavingSketch<>(20);
+    Random random = new Random(42);
+    int tail = 0;
+    for (int i = 0; i < 100_000; i++) {
+      int r = random.nextInt(100);
+      if (r < 20) {
+        sketch.record("hot1", 0, 0);
+      } else if (r < 30) {
+        sketch.record("hot2", 0, 0);
+      } else if (r < 35) {
+        sketch.record("hot3", 0, 0);
+      } else {
+        sketch.record("tail" + tail++, 0, 0);
+      }
+    }
+
+    List<SpaceSavingSketch.HeavyHitter<String>> top = sketch.top(3);
+    assertEquals(List.of("hot1", "hot2", "hot3"), top.stream().map(h -> h.getKey()).toList());
+    // counts are overestimates, by at most the error
+    assertTrue(top.get(0).getCount() - top.get(0).getError() <= 20_500);
+    assertTrue(top.get(0).getCount() >= 19_500);
+  }
+
+  @Test
+  void newKeyTakesOverTheSmallestCounter() {
+    SpaceSavingSketch<String> sketch = new SpaceSavingSketch<>(2);
+    sketch.record("a", 0, 0);
+    sketch.record("a", 0, 0);
+    sketch.record("a", 0, 0);
+    sketch.record("b", 0, 0);
+    sketch.record("c", 0, 0);
+
+    List<SpaceSavingSketch.HeavyHitter<String>> top = sketch.top(5);
+    assertEquals(2, top.size());
+    assertEquals("a", top.get(0).getKey());
+    assertEquals(new SpaceSavingSketch.HeavyHitter<>("c", 2, 1, 0, 0), top.get(1));
+  }
+
+  @Test
+  void resetForgetsEverything() {
+    SpaceSavingSketch<String> sketch = new SpaceSavingSketch<>(2);
+    sketch.record("a", 0, 0);
+    sketch.reset();
+
+    assertTrue(sketch.top(5).isEmpty());
+    assertEquals(0, sketch.total());
+  }
+}
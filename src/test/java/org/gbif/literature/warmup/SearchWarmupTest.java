@@ -0,0 +1,117 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.literature.warmup;
+
+import org.gbif.api.model.literature.search.LiteratureSearchRequest;
+import org.gbif.literature.cache.IndexGenerationTracker;
+import org.gbif.literature.config.EsClientConfigProperties;
+import org.gbif.literature.config.QueryStatsConfigProperties;
+import org.gbif.literature.config.WarmupConfigProperties;
+import org.gbif.literature.stats.QueryStatsTracker;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.mock.env.MockEnvironment;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchWarmupTest {
+
+  @TempDir Path dir;
+
+  private final IndexGenerationTracker generationTracker =
+      new IndexGenerationTracker(null, event -> {}, new EsClientConfigProperties());
+
+  @Test
+  void queriesAreMergedFromAllSources() throws Exception {
+    Path queriesFile = dir.resolve("queries.txt");
+    Files.writeString(queriesFile, "# common searches\n?q=bird\n\nyear=2020\n");
+    WarmupConfigProperties properties = new WarmupConfigProperties();
+    properties.setQueries(List.of("q=fish", "q=bird"));
+    properties.setQueriesFile(queriesFile.toUri().toString());
+    properties.setTopQueriesFile(dir.resolve("top.txt").toString());
+
+    assertEquals(List.of("q=fish", "q=bird", "year=2020"), warmup(properties, null).queries());
+  }
+
+  @Test
+  void topQueriesSurviveARestart() throws Exception {
+    WarmupConfigProperties properties = new WarmupConfigProperties();
+    properties.setTopQueriesFile(dir.resolve("top.txt").toString());
+    QueryStatsTracker tracker = new QueryStatsTracker(new QueryStatsConfigProperties());
+    LiteratureSearchRequest request = new LiteratureSearchRequest();
+    request.setQ("bird");
+    tracker.record(request, 0, 0);
+
+    warmup(properties, tracker).persistTopQueries();
+
+    assertEquals(
+        List.of("q=bird"), Files.readAllLines(dir.resolve("top.txt"), StandardCharsets.UTF_8));
+    assertEquals(List.of("q=bird"), warmup(properties, null).queries());
+  }
+
+  @Test
+  void onlyThisInstanceCanMarkAWarmup() {
+    WarmupConfigProperties properties = new WarmupConfigProperties();
+    SearchWarmup warmup = warmup(properties, null);
+
+    assertFalse(warmup.isWarmup(null));
+    assertFalse(warmup.isWarmup("true"));
+    assertFalse(warmup.isWarmup(warmup(properties, null).token()));
+    assertTrue(warmup.isWarmup(warmup.token()));
+  }
+
+  @Test
+  void replayWaitsForTheIndexGeneration() {
+    WarmupConfigProperties properties = new WarmupConfigProperties();
+    properties.setGenerationTimeout(Duration.ofSeconds(10));
+    // as when ZooKeeper delivers the generation a little after startup
+    CompletableFuture.runAsync(
+        () -> generationTracker.update("literature_1:abc"),
+        CompletableFuture.delayedExecutor(200, TimeUnit.MILLISECONDS));
+
+    assertTrue(warmup(properties, null).awaitGeneration());
+  }
+
+  @Test
+  void replayGivesUpWaitingForTheIndexGeneration() {
+    WarmupConfigProperties properties = new WarmupConfigProperties();
+    properties.setGenerationTimeout(Duration.ofMillis(200));
+
+    assertFalse(warmup(properties, null).awaitGeneration());
+  }
+
+  private SearchWarmup warmup(WarmupConfigProperties properties, QueryStatsTracker tracker) {
+    return new SearchWarmup(
+        properties,
+        tracker != null ? tracker : new QueryStatsTracker(new QueryStatsConfigProperties()),
+        generationTracker,
+        new DefaultResourceLoader(),
+        new MockEnvironment(),
+        new SimpleMeterRegistry());
+  }
+}